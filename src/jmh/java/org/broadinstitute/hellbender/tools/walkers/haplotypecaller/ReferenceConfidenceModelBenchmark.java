@@ -0,0 +1,74 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.utils.BenchmarkDataUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
+import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hom-ref vs. any genotype likelihoods of the pileups over a stretch of reference, as computed for each site of a GVCF.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceConfidenceModelBenchmark {
+
+    private static final String CONTIG = "1";
+    private static final String SAMPLE = "sample";
+    private static final int NUM_SITES = 100;
+    private static final int READ_LENGTH = 150;
+    private static final byte MIN_BASE_QUAL = 6;
+
+    @Param({"2", "4"})
+    public int ploidy;
+
+    @Param({"30", "100"})
+    public int depth;
+
+    private ReferenceConfidenceModel model;
+    private byte[] referenceBases;
+    private List<ReadPileup> pileups;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, NUM_SITES + READ_LENGTH);
+        model = new ReferenceConfidenceModel(SampleList.singletonSampleList(SAMPLE), header, 10);
+
+        referenceBases = BenchmarkDataUtils.randomBases(random, NUM_SITES);
+        pileups = new ArrayList<>(NUM_SITES);
+        for ( int site = 0; site < NUM_SITES; site++ ) {
+            final List<GATKRead> reads = new ArrayList<>(depth);
+            for ( int r = 0; r < depth; r++ ) {
+                // every read starts at the site so it is the first base of the read; about 1% are mismatches
+                final byte[] bases = BenchmarkDataUtils.randomBases(random, READ_LENGTH);
+                bases[0] = random.nextDouble() < 0.01 ? bases[0] : referenceBases[site];
+                reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + site + "_" + r, 0, site + 1,
+                        bases, BenchmarkDataUtils.randomQuals(random, READ_LENGTH, 2, 40)));
+            }
+            pileups.add(new ReadPileup(new SimpleInterval(CONTIG, site + 1, site + 1), reads, 0));
+        }
+    }
+
+    @Benchmark
+    public double calcGenotypeLikelihoodsOfRefVsAny() {
+        double result = 0;
+        for ( int site = 0; site < NUM_SITES; site++ ) {
+            result += model.calcGenotypeLikelihoodsOfRefVsAny(ploidy, pileups.get(site), referenceBases[site], MIN_BASE_QUAL, null)
+                    .getGenotypeLikelihoods()[0];
+        }
+        return result;
+    }
+}
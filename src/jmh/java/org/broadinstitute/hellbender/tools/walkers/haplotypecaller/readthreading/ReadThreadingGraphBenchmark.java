@@ -0,0 +1,69 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.utils.BenchmarkDataUtils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of the read threading graph of one assembly region: the reference plus the reads of two
+ * haplotypes, threaded and built at a given kmer size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadThreadingGraphBenchmark {
+
+    private static final int REFERENCE_LENGTH = 400;
+    private static final int READ_LENGTH = 150;
+
+    @Param({"10", "25"})
+    public int kmerSize;
+
+    @Param({"300"})
+    public int numReads;
+
+    private SAMFileHeader header;
+    private byte[] reference;
+    private List<GATKRead> reads;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        header = ArtificialReadUtils.createArtificialSamHeader();
+        reference = BenchmarkDataUtils.randomBases(random, REFERENCE_LENGTH);
+        final byte[] alternate = BenchmarkDataUtils.mutate(random, reference, 0.01);
+
+        reads = new ArrayList<>(numReads);
+        for ( int i = 0; i < numReads; i++ ) {
+            final byte[] haplotype = i % 2 == 0 ? reference : alternate;
+            final int start = random.nextInt(REFERENCE_LENGTH - READ_LENGTH + 1);
+            // sequencing errors at a realistic rate, to create the usual spurious branches
+            final byte[] bases = BenchmarkDataUtils.mutate(random, Arrays.copyOfRange(haplotype, start, start + READ_LENGTH), 0.005);
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, bases, BenchmarkDataUtils.randomQuals(random, READ_LENGTH, 10, 40), READ_LENGTH + "M");
+            read.setName("read" + i);
+            reads.add(read);
+        }
+    }
+
+    @Benchmark
+    public ReadThreadingGraph buildGraph() {
+        final ReadThreadingGraph graph = new ReadThreadingGraph(kmerSize);
+        graph.addSequence("ref", reference, true);
+        for ( final GATKRead read : reads ) {
+            graph.addRead(read, header);
+        }
+        graph.buildGraphIfNecessary();
+        return graph;
+    }
+}
@@ -0,0 +1,50 @@
+package org.broadinstitute.hellbender.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic sequence data shared by the JMH benchmarks. All methods draw from the given
+ * {@link Random}, so a fixed seed yields the same inputs on every run.
+ */
+public final class BenchmarkDataUtils {
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    private BenchmarkDataUtils() {}
+
+    /**
+     * @return {@code length} uniformly random bases
+     */
+    public static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = BASES[random.nextInt(BASES.length)];
+        }
+        return bases;
+    }
+
+    /**
+     * @return a copy of {@code bases} in which each base is substituted by a different one with probability {@code rate}
+     */
+    public static byte[] mutate(final Random random, final byte[] bases, final double rate) {
+        final byte[] mutated = Arrays.copyOf(bases, bases.length);
+        for ( int i = 0; i < mutated.length; i++ ) {
+            if ( random.nextDouble() < rate ) {
+                mutated[i] = BASES[(BaseUtils.simpleBaseToBaseIndex(mutated[i]) + 1 + random.nextInt(BASES.length - 1)) % BASES.length];
+            }
+        }
+        return mutated;
+    }
+
+    /**
+     * @return {@code length} base qualities drawn uniformly from [minQual, maxQual]
+     */
+    public static byte[] randomQuals(final Random random, final int length, final int minQual, final int maxQual) {
+        final byte[] quals = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            quals[i] = (byte) (minQual + random.nextInt(maxQual - minQual + 1));
+        }
+        return quals;
+    }
+}
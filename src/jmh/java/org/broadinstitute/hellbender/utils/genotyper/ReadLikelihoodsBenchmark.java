@@ -0,0 +1,83 @@
+package org.broadinstitute.hellbender.utils.genotyper;
+
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.utils.BenchmarkDataUtils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marginalization of read x haplotype likelihoods into read x allele likelihoods, as done by the genotyping engine
+ * for each event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadLikelihoodsBenchmark {
+
+    private static final int HAPLOTYPE_LENGTH = 300;
+    private static final int READ_LENGTH = 150;
+
+    @Param({"3"})
+    public int numSamples;
+
+    @Param({"300"})
+    public int readsPerSample;
+
+    @Param({"16"})
+    public int numHaplotypes;
+
+    private ReadLikelihoods<Haplotype> likelihoods;
+    private Map<Allele, List<Haplotype>> allelesToHaplotypes;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        final byte[] referenceBases = BenchmarkDataUtils.randomBases(random, HAPLOTYPE_LENGTH);
+        final List<Haplotype> haplotypes = new ArrayList<>(numHaplotypes);
+        haplotypes.add(new Haplotype(referenceBases, true));
+        for ( int i = 1; i < numHaplotypes; i++ ) {
+            haplotypes.add(new Haplotype(BenchmarkDataUtils.mutate(random, referenceBases, 0.01), false));
+        }
+
+        final String[] samples = new String[numSamples];
+        final Map<String, List<GATKRead>> readsBySample = new LinkedHashMap<>(numSamples);
+        for ( int s = 0; s < numSamples; s++ ) {
+            samples[s] = "sample" + s;
+            final List<GATKRead> reads = new ArrayList<>(readsPerSample);
+            for ( int r = 0; r < readsPerSample; r++ ) {
+                reads.add(ArtificialReadUtils.createArtificialRead(BenchmarkDataUtils.randomBases(random, READ_LENGTH),
+                        BenchmarkDataUtils.randomQuals(random, READ_LENGTH, 10, 40), READ_LENGTH + "M"));
+            }
+            readsBySample.put(samples[s], reads);
+        }
+
+        likelihoods = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(haplotypes), readsBySample);
+        for ( int s = 0; s < numSamples; s++ ) {
+            final LikelihoodMatrix<Haplotype> matrix = likelihoods.sampleMatrix(s);
+            for ( int h = 0; h < matrix.numberOfAlleles(); h++ ) {
+                for ( int r = 0; r < matrix.numberOfReads(); r++ ) {
+                    matrix.set(h, r, -random.nextDouble() * 30);
+                }
+            }
+        }
+
+        // a tri-allelic event: the reference haplotype and two groups of alternate haplotypes
+        allelesToHaplotypes = new LinkedHashMap<>();
+        allelesToHaplotypes.put(Allele.create("A", true), haplotypes.subList(0, 1));
+        allelesToHaplotypes.put(Allele.create("C"), haplotypes.subList(1, numHaplotypes / 2));
+        allelesToHaplotypes.put(Allele.create("G"), haplotypes.subList(numHaplotypes / 2, numHaplotypes));
+    }
+
+    @Benchmark
+    public ReadLikelihoods<Allele> marginalize() {
+        return likelihoods.marginalize(allelesToHaplotypes);
+    }
+}
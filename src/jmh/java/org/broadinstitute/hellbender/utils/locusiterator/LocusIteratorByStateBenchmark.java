@@ -0,0 +1,69 @@
+package org.broadinstitute.hellbender.utils.locusiterator;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.engine.AlignmentContext;
+import org.broadinstitute.hellbender.utils.BenchmarkDataUtils;
+import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of the pileups at every covered locus of a coordinate-sorted batch of reads with uniform coverage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocusIteratorByStateBenchmark {
+
+    private static final String CONTIG = "1";
+    private static final int REGION_LENGTH = 10000;
+    private static final int READ_LENGTH = 150;
+
+    @Param({"30", "100"})
+    public int coverage;
+
+    private SAMFileHeader header;
+    private Set<String> samples;
+    private List<GATKRead> reads;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        header = ArtificialReadUtils.createArtificialSamHeaderWithGroups(1, 1, REGION_LENGTH + READ_LENGTH, 1);
+        samples = ReadUtils.getSamplesFromHeader(header);
+        final String readGroup = header.getReadGroups().get(0).getId();
+
+        final int numReads = REGION_LENGTH * coverage / READ_LENGTH;
+        reads = new ArrayList<>(numReads);
+        for ( int i = 0; i < numReads; i++ ) {
+            // evenly spaced starts keep the reads coordinate-sorted
+            final int start = 1 + (int) ((long) i * REGION_LENGTH / numReads);
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, CONTIG, start,
+                    BenchmarkDataUtils.randomBases(random, READ_LENGTH), BenchmarkDataUtils.randomQuals(random, READ_LENGTH, 10, 40), READ_LENGTH + "M");
+            read.setReadGroup(readGroup);
+            reads.add(read);
+        }
+    }
+
+    @Benchmark
+    public long generatePileups() {
+        final LocusIteratorByState libs = new LocusIteratorByState(reads.iterator(), DownsamplingMethod.NONE, false, samples, header, true);
+        long totalPileupSize = 0;
+        while ( libs.hasNext() ) {
+            final AlignmentContext context = libs.next();
+            totalPileupSize += context.getBasePileup().size();
+        }
+        return totalPileupSize;
+    }
+}
@@ -0,0 +1,92 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.PairHMMNativeArgumentCollection;
+import org.broadinstitute.hellbender.utils.BenchmarkDataUtils;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Likelihoods of a set of reads against a set of haplotypes, as computed for one assembly region.
+ *
+ * AVX_LOGLESS_CACHING ({@link VectorLoglessPairHMM}) fails at setup on machines without AVX support;
+ * use -PjmhInclude to restrict the run to the Java implementation there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PairHMMBenchmark {
+
+    private static final String SAMPLE = "sample";
+    private static final int HAPLOTYPE_LENGTH = 400;
+    private static final byte GAP_CONTINUATION_PENALTY = 10;
+
+    @Param({"LOGLESS_CACHING", "AVX_LOGLESS_CACHING"})
+    public PairHMM.Implementation implementation;
+
+    @Param({"8"})
+    public int numHaplotypes;
+
+    @Param({"200"})
+    public int numReads;
+
+    @Param({"150"})
+    public int readLength;
+
+    private PairHMM pairHMM;
+    private LikelihoodMatrix<Haplotype> likelihoods;
+    private List<GATKRead> reads;
+    private Map<GATKRead, byte[]> gapContinuationPenalties;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        final byte[] referenceBases = BenchmarkDataUtils.randomBases(random, HAPLOTYPE_LENGTH);
+        final List<Haplotype> haplotypes = new ArrayList<>(numHaplotypes);
+        haplotypes.add(new Haplotype(referenceBases, true));
+        for ( int i = 1; i < numHaplotypes; i++ ) {
+            haplotypes.add(new Haplotype(BenchmarkDataUtils.mutate(random, referenceBases, 0.01), false));
+        }
+
+        reads = new ArrayList<>(numReads);
+        gapContinuationPenalties = new LinkedHashMap<>(numReads);
+        for ( int i = 0; i < numReads; i++ ) {
+            final byte[] haplotypeBases = haplotypes.get(random.nextInt(numHaplotypes)).getBases();
+            final int start = random.nextInt(HAPLOTYPE_LENGTH - readLength + 1);
+            final byte[] bases = BenchmarkDataUtils.mutate(random, Arrays.copyOfRange(haplotypeBases, start, start + readLength), 0.005);
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(bases, BenchmarkDataUtils.randomQuals(random, readLength, 10, 40), readLength + "M");
+            reads.add(read);
+            final byte[] gcp = new byte[readLength];
+            Arrays.fill(gcp, GAP_CONTINUATION_PENALTY);
+            gapContinuationPenalties.put(read, gcp);
+        }
+
+        final Map<String, List<GATKRead>> readsBySample = Collections.singletonMap(SAMPLE, reads);
+        likelihoods = new ReadLikelihoods<>(SampleList.singletonSampleList(SAMPLE), new IndexedAlleleList<>(haplotypes), readsBySample).sampleMatrix(0);
+
+        pairHMM = implementation.makeNewHMM(new PairHMMNativeArgumentCollection().getPairHMMArgs());
+        pairHMM.initialize(haplotypes, readsBySample, readLength, HAPLOTYPE_LENGTH);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pairHMM.close();
+    }
+
+    @Benchmark
+    public LikelihoodMatrix<Haplotype> computeLog10Likelihoods() {
+        pairHMM.computeLog10Likelihoods(likelihoods, reads, gapContinuationPenalties);
+        return likelihoods;
+    }
+}
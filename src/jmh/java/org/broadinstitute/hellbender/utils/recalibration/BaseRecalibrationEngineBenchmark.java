@@ -0,0 +1,72 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceMemorySource;
+import org.broadinstitute.hellbender.utils.BenchmarkDataUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulation of the recalibration tables for a batch of reads, with the default covariates (including indel
+ * covariates) and no known sites.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaseRecalibrationEngineBenchmark {
+
+    private static final String CONTIG = "1";
+    private static final int CONTIG_LENGTH = 100000;
+    private static final int READ_LENGTH = 150;
+
+    @Param({"1000"})
+    public int numReads;
+
+    private BaseRecalibrationEngine engine;
+    private ReferenceDataSource reference;
+    private List<GATKRead> reads;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeaderWithGroups(1, 1, CONTIG_LENGTH, 2);
+        final byte[] referenceBases = BenchmarkDataUtils.randomBases(random, CONTIG_LENGTH);
+        reference = new ReferenceMemorySource(new ReferenceBases(referenceBases, new SimpleInterval(CONTIG, 1, CONTIG_LENGTH)), header.getSequenceDictionary());
+
+        reads = new ArrayList<>(numReads);
+        for ( int i = 0; i < numReads; i++ ) {
+            final int start = random.nextInt(CONTIG_LENGTH - READ_LENGTH + 1);
+            final byte[] bases = BenchmarkDataUtils.mutate(random, Arrays.copyOfRange(referenceBases, start, start + READ_LENGTH), 0.01);
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, CONTIG, start + 1, bases,
+                    BenchmarkDataUtils.randomQuals(random, READ_LENGTH, 10, 40), READ_LENGTH + "M");
+            read.setReadGroup(header.getReadGroups().get(i % header.getReadGroups().size()).getId());
+            reads.add(read);
+        }
+
+        final RecalibrationArgumentCollection recalArgs = new RecalibrationArgumentCollection();
+        recalArgs.computeIndelBQSRTables = true;
+        engine = new BaseRecalibrationEngine(recalArgs, header);
+    }
+
+    @Benchmark
+    public BaseRecalibrationEngine processReads() {
+        for ( final GATKRead read : reads ) {
+            engine.processRead(read, reference, Collections.emptyList());
+        }
+        return engine;
+    }
+}
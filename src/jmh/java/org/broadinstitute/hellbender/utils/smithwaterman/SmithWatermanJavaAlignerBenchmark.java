@@ -0,0 +1,47 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.hellbender.utils.BenchmarkDataUtils;
+import org.broadinstitute.hellbender.utils.read.CigarUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alignment of a haplotype carrying SNPs and a deletion against its reference, as done when HaplotypeCaller
+ * aligns assembled haplotypes back to the reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmithWatermanJavaAlignerBenchmark {
+
+    @Param({"300", "1000"})
+    public int referenceLength;
+
+    private SmithWatermanAligner aligner;
+    private byte[] reference;
+    private byte[] alternate;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        reference = BenchmarkDataUtils.randomBases(random, referenceLength);
+        final byte[] mutated = BenchmarkDataUtils.mutate(random, reference, 0.01);
+        // delete 5 bases from the middle
+        final int deletionStart = referenceLength / 2;
+        alternate = new byte[referenceLength - 5];
+        System.arraycopy(mutated, 0, alternate, 0, deletionStart);
+        System.arraycopy(mutated, deletionStart + 5, alternate, deletionStart, referenceLength - deletionStart - 5);
+        aligner = SmithWatermanJavaAligner.getInstance();
+    }
+
+    @Benchmark
+    public SmithWatermanAlignment align() {
+        return aligner.align(reference, alternate, CigarUtils.NEW_SW_PARAMETERS, SWOverhangStrategy.SOFTCLIP);
+    }
+}
@@ -0,0 +1,99 @@
+package org.broadinstitute.hellbender.utils.variant.writers;
+
+import htsjdk.variant.variantcontext.*;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import org.broadinstitute.hellbender.utils.variant.HomoSapiensConstants;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Banding of a stretch of per-base reference confidence records (with an occasional variant) into GVCF blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GVCFWriterBenchmark {
+
+    private static final String CONTIG = "1";
+    private static final String SAMPLE = "sample";
+    private static final List<Integer> GQ_PARTITIONS = Arrays.asList(1, 10, 20, 30, 40, 50, 60, 70, 80, 90, 99);
+    private static final Allele REF = Allele.create("G", true);
+    private static final Allele ALT = Allele.create("A");
+
+    @Param({"10000"})
+    public int numSites;
+
+    private List<VariantContext> sites;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        sites = new ArrayList<>(numSites);
+        int gq = 0;
+        for ( int position = 1; position <= numSites; position++ ) {
+            final boolean isVariant = random.nextInt(1000) == 0;
+            final List<Allele> siteAlleles = isVariant ? Arrays.asList(REF, ALT, GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE)
+                                                       : Arrays.asList(REF, GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE);
+            // GQ drifts occasionally, so that sites fall into bands of realistic length
+            if ( random.nextInt(20) == 0 ) {
+                gq = random.nextInt(100);
+            }
+            final Genotype genotype = new GenotypeBuilder(SAMPLE, isVariant ? Arrays.asList(REF, ALT) : Arrays.asList(REF, REF))
+                    .GQ(gq)
+                    .DP(20 + random.nextInt(20))
+                    .AD(new int[]{20, 0})
+                    .PL(isVariant ? new int[]{gq, 0, 500, 90, 600, 700} : new int[]{0, gq, 20 + gq})
+                    .make();
+            sites.add(new VariantContextBuilder("benchmark", CONTIG, position, position, siteAlleles)
+                    .genotypes(genotype).id(VCFConstants.EMPTY_ID_FIELD).make());
+        }
+    }
+
+    @Benchmark
+    public int addAll() {
+        final CountingWriter underlyingWriter = new CountingWriter();
+        final GVCFWriter writer = new GVCFWriter(underlyingWriter, GQ_PARTITIONS, HomoSapiensConstants.DEFAULT_PLOIDY);
+        for ( final VariantContext site : sites ) {
+            writer.add(site);
+        }
+        writer.close();
+        return underlyingWriter.count;
+    }
+
+    /**
+     * Discards the records it is given, so that only the banding is measured
+     */
+    private static final class CountingWriter implements VariantContextWriter {
+        private int count = 0;
+
+        @Override
+        public void writeHeader(final VCFHeader header) {}
+
+        @Override
+        public void close() {}
+
+        @Override
+        public boolean checkError() {
+            return false;
+        }
+
+        @Override
+        public void add(final VariantContext vc) {
+            count++;
+        }
+
+        @Override
+        public void setHeader(final VCFHeader header) {}
+    }
+}
@@ -0,0 +1,349 @@
+package htsjdk.samtools;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.util.BinaryCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A codec that writes a batch of headerless SAMRecords one field at a time ("column by column") rather than one record
+ * at a time, so that it can exploit what neighbouring records have in common:
+ *
+ * <ul>
+ *     <li>read names are front-coded: each name is written as the length of the prefix it shares with the previous name
+ *     followed by the rest of the name;</li>
+ *     <li>reference names and tags are dictionary-encoded: each distinct value is written once per batch and then
+ *     referred to by its index;</li>
+ *     <li>alignment starts are written as differences from the previous record's start, and mate starts as differences
+ *     from the record's own start;</li>
+ *     <li>bases are packed 2 bits per base, with anything other than A, C, G or T written separately;</li>
+ *     <li>base qualities are run-length encoded when that makes them smaller.</li>
+ * </ul>
+ *
+ * Like {@link SAMRecordSparkCodec}, the reference indices are not preserved; the reference names are. Tags are
+ * encoded as in BAM, so their values round-trip exactly. An instance keeps buffers between batches and is not thread-safe.
+ */
+public final class SAMRecordColumnarCodec {
+    private static final byte[] BASE_CODES = new byte[256];
+    private static final byte[] CODE_BASES = {'A', 'C', 'G', 'T'};
+    private static final int NOT_A_CODE = -1;
+    static {
+        Arrays.fill(BASE_CODES, (byte) NOT_A_CODE);
+        for (int code = 0; code < CODE_BASES.length; code++) {
+            BASE_CODES[CODE_BASES[code]] = (byte) code;
+        }
+    }
+
+    private final ByteArrayOutputStream tagBuffer = new ByteArrayOutputStream();
+    private final BinaryTagCodec binaryTagCodec = new BinaryTagCodec(new BinaryCodec(tagBuffer));
+
+    /**
+     * Writes a batch of records. The records must be headerless.
+     */
+    public void encode(final List<SAMRecord> records, final Output output) {
+        output.writeVarInt(records.size(), true);
+
+        String previousName = "";
+        for (final SAMRecord record : records) {
+            previousName = writeFrontCodedName(record.getReadName(), previousName, output);
+        }
+        for (final SAMRecord record : records) {
+            output.writeVarInt(record.getFlags(), true);
+        }
+        final Map<String, Integer> referenceNames = new HashMap<>();
+        for (final SAMRecord record : records) {
+            writeDictionaryString(record.getReferenceName(), referenceNames, output);
+        }
+        int previousStart = 0;
+        for (final SAMRecord record : records) {
+            output.writeVarInt(record.getAlignmentStart() - previousStart, false);
+            previousStart = record.getAlignmentStart();
+        }
+        for (final SAMRecord record : records) {
+            output.writeByte(record.getMappingQuality());
+        }
+        for (final SAMRecord record : records) {
+            final int[] binaryCigar = BinaryCigarCodec.encode(record.getCigar());
+            output.writeVarInt(binaryCigar.length, true);
+            for (final int cigarElement : binaryCigar) {
+                output.writeVarInt(cigarElement, true);
+            }
+        }
+        for (final SAMRecord record : records) {
+            writeDictionaryString(record.getMateReferenceName(), referenceNames, output);
+        }
+        for (final SAMRecord record : records) {
+            output.writeVarInt(record.getMateAlignmentStart() - record.getAlignmentStart(), false);
+        }
+        for (final SAMRecord record : records) {
+            output.writeVarInt(record.getInferredInsertSize(), false);
+        }
+        for (final SAMRecord record : records) {
+            writeBases(record.getReadBases(), output);
+        }
+        for (final SAMRecord record : records) {
+            writeQualities(record.getBaseQualities(), output);
+        }
+        final Map<ByteBuffer, Integer> tags = new HashMap<>();
+        for (final SAMRecord record : records) {
+            writeTags(record.getBinaryAttributes(), tags, output);
+        }
+    }
+
+    /**
+     * Reads a batch of records written by {@link #encode}. The records are headerless and their reference indices are not set.
+     */
+    public List<SAMRecord> decode(final Input input) {
+        final int count = input.readVarInt(true);
+        final SAMRecord[] records = new SAMRecord[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = new SAMRecord(null);
+        }
+
+        String previousName = "";
+        for (final SAMRecord record : records) {
+            final String name = readFrontCodedName(previousName, input);
+            record.setReadName(name);
+            previousName = name == null ? "" : name;
+        }
+        for (final SAMRecord record : records) {
+            record.setFlags(input.readVarInt(true));
+        }
+        final List<String> referenceNames = new ArrayList<>();
+        for (final SAMRecord record : records) {
+            record.setReferenceName(readDictionaryString(referenceNames, input));
+        }
+        int previousStart = 0;
+        for (final SAMRecord record : records) {
+            previousStart += input.readVarInt(false);
+            record.setAlignmentStart(previousStart);
+        }
+        for (final SAMRecord record : records) {
+            record.setMappingQuality(input.readByteUnsigned());
+        }
+        for (final SAMRecord record : records) {
+            final int[] binaryCigar = new int[input.readVarInt(true)];
+            for (int i = 0; i < binaryCigar.length; i++) {
+                binaryCigar[i] = input.readVarInt(true);
+            }
+            record.setCigar(BinaryCigarCodec.decode(binaryCigar));
+        }
+        for (final SAMRecord record : records) {
+            record.setMateReferenceName(readDictionaryString(referenceNames, input));
+        }
+        for (final SAMRecord record : records) {
+            record.setMateAlignmentStart(record.getAlignmentStart() + input.readVarInt(false));
+        }
+        for (final SAMRecord record : records) {
+            record.setInferredInsertSize(input.readVarInt(false));
+        }
+        for (final SAMRecord record : records) {
+            record.setReadBases(readBases(input));
+        }
+        for (final SAMRecord record : records) {
+            record.setBaseQualities(readQualities(input));
+        }
+        final List<SAMBinaryTagAndValue> tags = new ArrayList<>();
+        for (final SAMRecord record : records) {
+            readTags(record, tags, input);
+        }
+        return Arrays.asList(records);
+    }
+
+    private static String writeFrontCodedName(final String name, final String previousName, final Output output) {
+        if (name == null) {
+            output.writeVarInt(0, true);
+            output.writeString(null);
+            return "";
+        }
+        final int maxShared = Math.min(name.length(), previousName.length());
+        int shared = 0;
+        while (shared < maxShared && name.charAt(shared) == previousName.charAt(shared)) {
+            shared++;
+        }
+        output.writeVarInt(shared, true);
+        output.writeString(name.substring(shared));
+        return name;
+    }
+
+    private static String readFrontCodedName(final String previousName, final Input input) {
+        final int shared = input.readVarInt(true);
+        final String suffix = input.readString();
+        return suffix == null ? null : previousName.substring(0, shared) + suffix;
+    }
+
+    // A dictionary entry is written as its index; an index equal to the current size of the dictionary
+    // announces a new entry, which follows.
+    private static void writeDictionaryString(final String value, final Map<String, Integer> dictionary, final Output output) {
+        final Integer index = dictionary.get(value);
+        if (index != null) {
+            output.writeVarInt(index, true);
+        } else {
+            output.writeVarInt(dictionary.size(), true);
+            output.writeString(value);
+            dictionary.put(value, dictionary.size());
+        }
+    }
+
+    private static String readDictionaryString(final List<String> dictionary, final Input input) {
+        final int index = input.readVarInt(true);
+        if (index == dictionary.size()) {
+            dictionary.add(input.readString());
+        }
+        return dictionary.get(index);
+    }
+
+    private static void writeBases(final byte[] bases, final Output output) {
+        output.writeVarInt(bases.length, true);
+        int exceptions = 0;
+        for (final byte base : bases) {
+            if (BASE_CODES[base & 0xFF] == NOT_A_CODE) {
+                exceptions++;
+            }
+        }
+        output.writeVarInt(exceptions, true);
+        int previousException = 0;
+        for (int i = 0; i < bases.length && exceptions > 0; i++) {
+            if (BASE_CODES[bases[i] & 0xFF] == NOT_A_CODE) {
+                output.writeVarInt(i - previousException, true);
+                output.writeByte(bases[i]);
+                previousException = i;
+                exceptions--;
+            }
+        }
+        for (int i = 0; i < bases.length; i += 4) {
+            int packed = 0;
+            for (int j = 0; j < 4 && i + j < bases.length; j++) {
+                packed |= Math.max(BASE_CODES[bases[i + j] & 0xFF], 0) << (2 * j);
+            }
+            output.writeByte(packed);
+        }
+    }
+
+    private static byte[] readBases(final Input input) {
+        final byte[] bases = new byte[input.readVarInt(true)];
+        final int exceptions = input.readVarInt(true);
+        final int[] exceptionOffsets = new int[exceptions];
+        final byte[] exceptionBases = new byte[exceptions];
+        int previousException = 0;
+        for (int e = 0; e < exceptions; e++) {
+            previousException += input.readVarInt(true);
+            exceptionOffsets[e] = previousException;
+            exceptionBases[e] = input.readByte();
+        }
+        for (int i = 0; i < bases.length; i += 4) {
+            final int packed = input.readByteUnsigned();
+            for (int j = 0; j < 4 && i + j < bases.length; j++) {
+                bases[i + j] = CODE_BASES[(packed >> (2 * j)) & 3];
+            }
+        }
+        for (int e = 0; e < exceptions; e++) {
+            bases[exceptionOffsets[e]] = exceptionBases[e];
+        }
+        return bases;
+    }
+
+    // Qualities are written as (quality, run length) pairs if there are few enough runs for that to be smaller than
+    // writing them as they are; the number of runs tells the reader which of the two was chosen.
+    private static void writeQualities(final byte[] qualities, final Output output) {
+        output.writeVarInt(qualities.length, true);
+        int runs = 0;
+        for (int i = 0; i < qualities.length; i++) {
+            if (i == 0 || qualities[i] != qualities[i - 1]) {
+                runs++;
+            }
+        }
+        output.writeVarInt(runs, true);
+        if (!isRunLengthEncoded(runs, qualities.length)) {
+            output.writeBytes(qualities);
+            return;
+        }
+        for (int i = 0; i < qualities.length; ) {
+            int runLength = 1;
+            while (i + runLength < qualities.length && qualities[i + runLength] == qualities[i]) {
+                runLength++;
+            }
+            output.writeByte(qualities[i]);
+            output.writeVarInt(runLength, true);
+            i += runLength;
+        }
+    }
+
+    private static byte[] readQualities(final Input input) {
+        final int length = input.readVarInt(true);
+        final int runs = input.readVarInt(true);
+        if (!isRunLengthEncoded(runs, length)) {
+            return input.readBytes(length);
+        }
+        final byte[] qualities = new byte[length];
+        for (int i = 0; i < length; ) {
+            final byte quality = input.readByte();
+            final int runLength = input.readVarInt(true);
+            Arrays.fill(qualities, i, i + runLength, quality);
+            i += runLength;
+        }
+        return qualities;
+    }
+
+    private static boolean isRunLengthEncoded(final int runs, final int length) {
+        return 2 * runs < length;
+    }
+
+    // Each tag is dictionary-encoded as a whole, by its BAM encoding, so that tags such as the read group, which are
+    // the same for many records, are written once per batch.
+    private void writeTags(final SAMBinaryTagAndValue attributes, final Map<ByteBuffer, Integer> dictionary, final Output output) {
+        int count = 0;
+        for (SAMBinaryTagAndValue attribute = attributes; attribute != null; attribute = attribute.getNext()) {
+            count++;
+        }
+        output.writeVarInt(count, true);
+        for (SAMBinaryTagAndValue attribute = attributes; attribute != null; attribute = attribute.getNext()) {
+            tagBuffer.reset();
+            binaryTagCodec.writeTag(attribute.tag, attribute.value, attribute.isUnsignedArray());
+            final ByteBuffer encoded = ByteBuffer.wrap(tagBuffer.toByteArray());
+            final Integer index = dictionary.get(encoded);
+            if (index != null) {
+                output.writeVarInt(index, true);
+            } else {
+                output.writeVarInt(dictionary.size(), true);
+                output.writeVarInt(encoded.capacity(), true);
+                output.writeBytes(encoded.array());
+                dictionary.put(encoded, dictionary.size());
+            }
+        }
+    }
+
+    private static void readTags(final SAMRecord record, final List<SAMBinaryTagAndValue> dictionary, final Input input) {
+        final int count = input.readVarInt(true);
+        for (int t = 0; t < count; t++) {
+            final int index = input.readVarInt(true);
+            if (index == dictionary.size()) {
+                final byte[] encoded = input.readBytes(input.readVarInt(true));
+                dictionary.add(BinaryTagCodec.readTags(encoded, 0, encoded.length, ValidationStringency.STRICT));
+            }
+            final SAMBinaryTagAndValue tag = dictionary.get(index);
+            // values shared between records must not be mutable
+            record.setAttribute(tag.tag, copyIfArray(tag.value), tag.isUnsignedArray());
+        }
+    }
+
+    private static Object copyIfArray(final Object value) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        } else if (value instanceof short[]) {
+            return ((short[]) value).clone();
+        } else if (value instanceof int[]) {
+            return ((int[]) value).clone();
+        } else if (value instanceof float[]) {
+            return ((float[]) value).clone();
+        }
+        return value;
+    }
+}
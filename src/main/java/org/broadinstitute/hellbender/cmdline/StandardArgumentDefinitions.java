@@ -29,6 +29,10 @@ public final class StandardArgumentDefinitions {
     public static final String CLOUD_PREFETCH_BUFFER_LONG_NAME = "cloudPrefetchBuffer";
     public static final String CLOUD_INDEX_PREFETCH_BUFFER_LONG_NAME = "cloudIndexPrefetchBuffer";
     public static final String DISABLE_BAM_INDEX_CACHING_LONG_NAME = "disableBamIndexCaching";
+    public static final String READ_AHEAD_BUFFER_LONG_NAME = "readAheadBuffer";
+    public static final String FEATURE_PREFETCH_INTERVALS_LONG_NAME = "featurePrefetchIntervals";
+    public static final String INSTRUMENTATION_OUTPUT_LONG_NAME = "instrumentationOutput";
+    public static final String INSTRUMENTATION_SNAPSHOT_INTERVAL_LONG_NAME = "instrumentationSnapshotInterval";
     public static final String DISABLE_SEQUENCE_DICT_VALIDATION_NAME = "disableSequenceDictionaryValidation";
     public static final String ADD_OUTPUT_SAM_PROGRAM_RECORD = "addOutputSAMProgramRecord";
     public static final String ADD_OUTPUT_VCF_COMMANDLINE = "addOutputVCFCommandLine";
@@ -68,6 +72,8 @@ public final class StandardArgumentDefinitions {
     public static final String CLOUD_PREFETCH_BUFFER_SHORT_NAME = "CPB";
     public static final String CLOUD_INDEX_PREFETCH_BUFFER_SHORT_NAME = "CIPB";
     public static final String DISABLE_BAM_INDEX_CACHING_SHORT_NAME = "DBIC";
+    public static final String READ_AHEAD_BUFFER_SHORT_NAME = "RAB";
+    public static final String FEATURE_PREFETCH_INTERVALS_SHORT_NAME = "FPI";
     public static final String ANNOTATION_SHORT_NAME = "A";
     public static final String ANNOTATION_GROUP_SHORT_NAME = "G";
     public static final String ANNOTATIONS_TO_EXCLUDE_SHORT_NAME = "AX";
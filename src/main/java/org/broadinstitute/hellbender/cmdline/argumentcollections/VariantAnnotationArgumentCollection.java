@@ -54,4 +54,13 @@ public class VariantAnnotationArgumentCollection implements Serializable {
     @Argument(fullName= StandardArgumentDefinitions.ANNOTATION_GROUP_LONG_NAME, shortName=StandardArgumentDefinitions.ANNOTATION_GROUP_SHORT_NAME, doc="One or more groups of annotations to apply to variant calls", optional=true)
     public List<String> annotationGroupsToUse = new ArrayList<>();
 
+    /**
+     * The annotations of a variant are computed independently of each other, so they can be computed in parallel:
+     * the genotype annotations of each sample, and each info annotation, are separate tasks. The annotations are
+     * the same regardless of the number of threads.
+     */
+    @Advanced
+    @Argument(fullName="numAnnotationThreads", shortName="numAnnotationThreads", doc="Number of threads used to compute the annotations of a variant", optional = true, minValue = 1)
+    public int numAnnotationThreads = 1;
+
 }
@@ -8,6 +8,7 @@ import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.IGVUtils;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
@@ -23,6 +24,8 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * An AssemblyRegionWalker is a tool that processes an entire region of reads at a time, each marked as either "active"
@@ -68,6 +71,10 @@ public abstract class AssemblyRegionWalker extends GATKTool {
     @Argument(fullName="readShardPadding", shortName="readShardPadding", doc = "Each read shard has this many bases of extra context on each side. Read shards must have as much or more padding than assembly regions.", optional = true)
     protected int readShardPadding = defaultReadShardPadding();
 
+    @Advanced
+    @Argument(fullName = "assemblyRegionThreads", shortName = "assemblyRegionThreads", doc = "Number of read shards to load and divide into assembly regions in parallel. Each thread gets its own reads, reference and feature data sources. Regions are still passed to the tool one at a time and in order, so output remains coordinate-sorted. Only supported by tools whose assembly region evaluator is thread-safe.", optional = true, minValue = 1)
+    protected int assemblyRegionThreads = 1;
+
     @Argument(fullName = "minAssemblyRegionSize", shortName = "minAssemblyRegionSize", doc = "Minimum size of an assembly region", optional = true)
     protected int minAssemblyRegionSize = defaultMinAssemblyRegionSize();
 
@@ -159,6 +166,14 @@ public abstract class AssemblyRegionWalker extends GATKTool {
      */
     protected abstract boolean includeReadsWithDeletionsInIsActivePileups();
 
+    /**
+     * @return true if the evaluator returned by {@link #assemblyRegionEvaluator} may be called concurrently from
+     *         multiple threads, allowing read shards to be divided into assembly regions in parallel when
+     *         {@link #assemblyRegionThreads} is greater than 1. Tools must only return true if their evaluator
+     *         keeps no mutable state between calls. Defaults to false.
+     */
+    protected boolean assemblyRegionEvaluatorIsThreadSafe() { return false; }
+
     @Override
     public final boolean requiresReads() { return true; }
 
@@ -282,12 +297,20 @@ public abstract class AssemblyRegionWalker extends GATKTool {
     @Override
     public final void traverse() {
 
-        CountingReadFilter countedFilter = makeReadFilter();
-
         // Since we're processing regions rather than individual reads, tell the progress
         // meter to check the time more frequently (every 10 regions instead of every 1000 regions).
         progressMeter.setRecordsBetweenTimeChecks(10L);
 
+        if ( assemblyRegionThreads > 1 ) {
+            if ( assemblyRegionEvaluatorIsThreadSafe() ) {
+                traverseShardsInParallel();
+                return;
+            }
+            logger.warn(getClass().getSimpleName() + " does not support parallel assembly region determination in its current configuration; ignoring --assemblyRegionThreads and processing read shards serially");
+        }
+
+        CountingReadFilter countedFilter = makeReadFilter();
+
         for ( final LocalReadShard readShard : readShards ) {
             // Since reads in each shard are lazily fetched, we need to pass the filter to the window
             // instead of filtering the reads directly here
@@ -301,6 +324,81 @@ public abstract class AssemblyRegionWalker extends GATKTool {
         logger.info(countedFilter.getSummaryLine());
     }
 
+    /**
+     * Load read shards and divide them into assembly regions on a pool of {@link #assemblyRegionThreads} worker
+     * threads, while calling into the tool implementation for each region on the traversal thread, in shard order.
+     *
+     * Each worker checks out a private {@link ShardWorkerDataSources} for the duration of a shard, so that no reads,
+     * reference or feature data source is ever used by two threads at once. At most {@link #assemblyRegionThreads}
+     * shards are loaded ahead of the shard currently being processed, which bounds the memory used by this mode.
+     */
+    private void traverseShardsInParallel() {
+        logger.info("Determining assembly regions using " + assemblyRegionThreads + " threads");
+
+        final BlockingQueue<ShardWorkerDataSources> availableDataSources = new ArrayBlockingQueue<>(assemblyRegionThreads);
+        final List<ShardWorkerDataSources> allDataSources = new ArrayList<>(assemblyRegionThreads);
+        for ( int i = 0; i < assemblyRegionThreads; ++i ) {
+            final ShardWorkerDataSources dataSources = new ShardWorkerDataSources(makeReadsDataSource(), makeReferenceDataSource(),
+                    makeFeatureManager(FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES), makeReadFilter());
+            allDataSources.add(dataSources);
+            availableDataSources.add(dataSources);
+        }
+
+        try {
+            final Iterator<ShardRegions> shardRegionsIter = Utils.transformParallel(readShards.iterator(),
+                    readShard -> loadShardRegions(readShard, availableDataSources), assemblyRegionThreads);
+
+            while ( shardRegionsIter.hasNext() ) {
+                final ShardRegions shardRegions = shardRegionsIter.next();
+                currentReadShard = shardRegions.shard;
+
+                for ( final AssemblyRegion assemblyRegion : shardRegions.regions ) {
+                    processAssemblyRegion(assemblyRegion, shardRegions.shard, reference, features);
+                }
+            }
+
+            for ( final ShardWorkerDataSources dataSources : allDataSources ) {
+                logger.info(dataSources.readFilter.getSummaryLine());
+            }
+        }
+        finally {
+            allDataSources.forEach(ShardWorkerDataSources::close);
+        }
+    }
+
+    /**
+     * Divide a read shard into assembly regions on the calling worker thread, using a set of data sources
+     * checked out from {@code availableDataSources} for the duration of the call.
+     *
+     * @param readShard shard to load (bound to the traversal thread's reads source; rebound to the worker's here)
+     * @param availableDataSources pool of idle per-worker data sources
+     * @return the shard, together with all of its assembly regions, in order
+     */
+    private ShardRegions loadShardRegions(final LocalReadShard readShard, final BlockingQueue<ShardWorkerDataSources> availableDataSources) {
+        final ShardWorkerDataSources dataSources;
+        try {
+            dataSources = availableDataSources.take();
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for a free set of data sources", e);
+        }
+
+        try {
+            final LocalReadShard workerShard = new LocalReadShard(readShard.getInterval(), readShard.getPaddedInterval(), dataSources.reads);
+            workerShard.setReadFilter(dataSources.readFilter);
+            workerShard.setDownsampler(maxReadsPerAlignmentStart > 0 ? new PositionalDownsampler(maxReadsPerAlignmentStart, getHeaderForReads()) : null);
+
+            final List<AssemblyRegion> regions = new ArrayList<>();
+            new AssemblyRegionIterator(workerShard, getHeaderForReads(), dataSources.reference, dataSources.features, assemblyRegionEvaluator(), minAssemblyRegionSize, maxAssemblyRegionSize, assemblyRegionPadding, activeProbThreshold, maxProbPropagationDistance, includeReadsWithDeletionsInIsActivePileups())
+                    .forEachRemaining(regions::add);
+            return new ShardRegions(workerShard, regions);
+        }
+        finally {
+            availableDataSources.add(dataSources);
+        }
+    }
+
     /**
      * Divide the given Shard up into active/inactive AssemblyRegions using the {@link #assemblyRegionEvaluator},
      * and send each region to the tool implementation for processing.
@@ -314,17 +412,58 @@ public abstract class AssemblyRegionWalker extends GATKTool {
 
         // Call into the tool implementation to process each assembly region from this shard.
         while ( assemblyRegionIter.hasNext() ) {
-            final AssemblyRegion assemblyRegion = assemblyRegionIter.next();
-            
-            logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size() + " in read shard " + shard.getInterval());
-            writeAssemblyRegion(assemblyRegion);
+            processAssemblyRegion(assemblyRegionIter.next(), shard, reference, features);
+        }
+    }
+
+    private void processAssemblyRegion(final AssemblyRegion assemblyRegion, final Shard<GATKRead> shard, final ReferenceDataSource reference, final FeatureManager features) {
+        logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size() + " in read shard " + shard.getInterval());
+        writeAssemblyRegion(assemblyRegion);
 
-            apply(assemblyRegion,
-                    new ReferenceContext(reference, assemblyRegion.getExtendedSpan()),
-                    new FeatureContext(features, assemblyRegion.getExtendedSpan()));
+        apply(assemblyRegion,
+                new ReferenceContext(reference, assemblyRegion.getExtendedSpan()),
+                new FeatureContext(features, assemblyRegion.getExtendedSpan()));
+
+        // For this traversal, the progress meter unit is the assembly region rather than the read shard
+        progressMeter.update(assemblyRegion.getSpan());
+    }
+
+    /**
+     * The private data sources (and read filter) used by one parallel shard-processing worker at a time.
+     */
+    private static final class ShardWorkerDataSources implements AutoCloseable {
+        private final ReadsDataSource reads;
+        private final ReferenceDataSource reference;
+        private final FeatureManager features;
+        private final CountingReadFilter readFilter;
+
+        private ShardWorkerDataSources(final ReadsDataSource reads, final ReferenceDataSource reference, final FeatureManager features, final CountingReadFilter readFilter) {
+            this.reads = Utils.nonNull(reads);
+            this.reference = Utils.nonNull(reference);
+            this.features = features;
+            this.readFilter = Utils.nonNull(readFilter);
+        }
+
+        @Override
+        public void close() {
+            reads.close();
+            reference.close();
+            if ( features != null ) {
+                features.close();
+            }
+        }
+    }
+
+    /**
+     * A read shard together with the assembly regions it was divided into.
+     */
+    private static final class ShardRegions {
+        private final Shard<GATKRead> shard;
+        private final List<AssemblyRegion> regions;
 
-            // For this traversal, the progress meter unit is the assembly region rather than the read shard
-            progressMeter.update(assemblyRegion.getSpan());
+        private ShardRegions(final Shard<GATKRead> shard, final List<AssemblyRegion> regions) {
+            this.shard = shard;
+            this.regions = regions;
         }
     }
 
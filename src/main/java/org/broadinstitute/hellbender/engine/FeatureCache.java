@@ -109,6 +109,13 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
         return cache.isEmpty();
     }
 
+    /**
+     * @return the number of Features in our cache
+     */
+    public int size() {
+        return cache.size();
+    }
+
     /**
      * @return Number of times we called {@link #cacheHit(SimpleInterval)} and it returned true
      */
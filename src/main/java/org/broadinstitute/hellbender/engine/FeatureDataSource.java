@@ -1,5 +1,7 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.intel.genomicsdb.GenomicsDBFeatureReader;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.tribble.*;
@@ -23,9 +25,16 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Enables traversals and queries over sources of Features, which are metadata associated with a location
@@ -51,6 +60,12 @@ import java.util.function.Function;
  * or involves lots of very large jumps forward on the genome or lots of contig switches. Query caching
  * can be disabled, if desired.
  *
+ * The cache holds several windows of records at once (up to a total of {@link #DEFAULT_MAX_CACHED_FEATURES} records,
+ * evicting the least recently used windows beyond that), so returning to a recently queried region is also cheap.
+ * If the intervals the tool will traverse are known in advance, windows for the upcoming intervals can be fetched
+ * on a background thread via {@link #setIntervalsToPrefetch(List, int)}, so that the queries over them find their
+ * records already cached instead of waiting for index seeks (which are particularly slow on cloud storage).
+ *
  * @param <T> The type of Feature returned by this data source
  */
 public final class FeatureDataSource<T extends Feature> implements GATKDataSource<T>, AutoCloseable {
@@ -83,12 +98,12 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
 
     /**
      * Cache containing Features from recent queries initiated via {@link #query(SimpleInterval)} and/or
-     * {@link #queryAndPrefetch(SimpleInterval)}. This is guaranteed to start at the start position of the
-     * most recent query, but will typically end well after the end of the most recent query. Designed to
-     * improve performance of the common access pattern involving multiple queries across nearby intervals
-     * with gradually increasing start positions.
+     * {@link #queryAndPrefetch(SimpleInterval)}, and from windows prefetched in the background. The window used by
+     * the most recent query is guaranteed to start at its start position, but will typically end well after the end
+     * of the query. Designed to improve performance of the common access pattern involving multiple queries across
+     * nearby intervals with gradually increasing start positions.
      */
-    private final FeatureCache<T> queryCache;
+    private final FeatureWindowCache<T> queryCache;
 
     /**
      * When we experience a cache miss (ie., a query interval not fully contained within our cache) and need
@@ -117,6 +132,44 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
      */
     private final boolean supportsRandomAccess;
 
+    /**
+     * Creates a new feature reader over our input, for use by the prefetching thread
+     */
+    private final Supplier<FeatureReader<T>> prefetchReaderFactory;
+
+    /**
+     * Intervals whose Features are fetched on a background thread ahead of the queries over them
+     * (null if prefetching is disabled), in the order in which they will be queried
+     */
+    private List<SimpleInterval> intervalsToPrefetch;
+
+    /**
+     * For each contig in {@link #intervalsToPrefetch}, the index of its first interval and the index after its last
+     */
+    private Map<String, int[]> prefetchIntervalRangesByContig;
+
+    /**
+     * Number of intervals, starting with the one currently being queried, whose Features are prefetched
+     */
+    private int numIntervalsToPrefetch;
+
+    /**
+     * Index in {@link #intervalsToPrefetch} of the last interval handed to the prefetching thread
+     */
+    private int lastPrefetchedInterval;
+
+    /**
+     * Background thread fetching upcoming intervals, and its private reader
+     * (both created on first use, only the thread touches the reader)
+     */
+    private ExecutorService prefetchExecutor;
+    private FeatureReader<T> prefetchReader;
+
+    /**
+     * Set if prefetching failed; queries then go on without it
+     */
+    private volatile boolean prefetchFailed;
+
     /**
      * Default value for queryLookaheadBases, if none is specified. This is designed to be large enough
      * so that in typical usage (ie., query intervals with gradually increasing start locations) there will
@@ -125,6 +178,12 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
      */
     public static final int DEFAULT_QUERY_LOOKAHEAD_BASES = 1000;
 
+    /**
+     * Maximum number of Features held in all windows of our query cache before the least recently used windows
+     * are evicted. The window for the current query is always filled and returned, regardless of its size.
+     */
+    public static final int DEFAULT_MAX_CACHED_FEATURES = 10000;
+
     /**
      * Creates a FeatureDataSource backed by the provided File. The data source will have an automatically
      * generated name, and will look ahead the default number of bases ({@link #DEFAULT_QUERY_LOOKAHEAD_BASES})
@@ -233,6 +292,17 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
      */
     public FeatureDataSource(final FeatureInput<T> featureInput, final int queryLookaheadBases, final Class<? extends Feature> targetFeatureType,
                              final int cloudPrefetchBuffer, final int cloudIndexPrefetchBuffer, final Path reference) {
+        this(featureInput, queryLookaheadBases, targetFeatureType, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, reference,
+                DEFAULT_MAX_CACHED_FEATURES);
+    }
+
+    /**
+     * As above, but with the given maximum number of Features held in our query cache, instead of
+     * {@link #DEFAULT_MAX_CACHED_FEATURES}
+     */
+    @VisibleForTesting
+    FeatureDataSource(final FeatureInput<T> featureInput, final int queryLookaheadBases, final Class<? extends Feature> targetFeatureType,
+                      final int cloudPrefetchBuffer, final int cloudIndexPrefetchBuffer, final Path reference, final int maxCachedFeatures) {
         Utils.validateArg( queryLookaheadBases >= 0, "Query lookahead bases must be >= 0");
         this.featureInput = Utils.nonNull(featureInput, "featureInput must not be null");
 
@@ -256,8 +326,9 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
 
         this.currentIterator = null;
         this.intervalsForTraversal = null;
-        this.queryCache = new FeatureCache<>();
+        this.queryCache = new FeatureWindowCache<>(maxCachedFeatures);
         this.queryLookaheadBases = queryLookaheadBases;
+        this.prefetchReaderFactory = () -> getFeatureReader(featureInput, targetFeatureType, cloudWrapper, cloudIndexWrapper, reference);
     }
 
     /**
@@ -425,6 +496,119 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
     }
 
 
+    /**
+     * Fetches the Features overlapping the provided intervals on a background thread ahead of the queries over them,
+     * so that queries via {@link #query(SimpleInterval)} and/or {@link #queryAndPrefetch(SimpleInterval)} find them
+     * already cached. Each query over one of these intervals (or a padded version of it) triggers the fetch of the
+     * next numIntervalsAhead intervals. Windows are padded by our query lookahead on both sides.
+     *
+     * Prefetching uses a second reader over our input, and is only done for inputs that support random access.
+     * Queries are answered correctly regardless of the intervals provided here; this only affects performance.
+     *
+     * Intervals MUST be non-overlapping, and sorted by contig (with all intervals on a contig together) and in order
+     * of increasing start position within each contig.
+     *
+     * Passing in a null or empty interval List, or a numIntervalsAhead of 0, disables prefetching.
+     *
+     * @param intervals intervals that will be queried, in the order in which they will be queried
+     * @param numIntervalsAhead number of intervals to fetch ahead of the one currently being queried
+     */
+    public void setIntervalsToPrefetch( final List<SimpleInterval> intervals, final int numIntervalsAhead ) {
+        Utils.validateArg(numIntervalsAhead >= 0, "numIntervalsAhead must be >= 0");
+        if ( intervals == null || intervals.isEmpty() || numIntervalsAhead == 0 || ! supportsRandomAccess ) {
+            intervalsToPrefetch = null;
+            prefetchIntervalRangesByContig = null;
+            return;
+        }
+
+        prefetchIntervalRangesByContig = new HashMap<>();
+        for ( int i = 0; i < intervals.size(); i++ ) {
+            final int[] range = prefetchIntervalRangesByContig.computeIfAbsent(intervals.get(i).getContig(), contig -> new int[2]);
+            if ( range[1] == 0 ) {
+                range[0] = i;
+            } else if ( range[1] != i ) {
+                throw new IllegalArgumentException("Intervals to prefetch must be grouped by contig, but found " + intervals.get(i) + " after another contig");
+            }
+            range[1] = i + 1;
+        }
+        intervalsToPrefetch = intervals;
+        numIntervalsToPrefetch = numIntervalsAhead;
+        lastPrefetchedInterval = -1;
+    }
+
+    /**
+     * Hands to the prefetching thread the intervals following the one the provided query falls in that
+     * have not been handed to it yet.
+     *
+     * @param interval the interval just queried
+     */
+    private void prefetchAfter( final SimpleInterval interval ) {
+        if ( intervalsToPrefetch == null || prefetchFailed ) {
+            return;
+        }
+        final int[] range = prefetchIntervalRangesByContig.get(interval.getContig());
+        if ( range == null ) {
+            return;
+        }
+
+        // first interval on the contig that doesn't end before the query
+        int low = range[0];
+        int high = range[1];
+        while ( low < high ) {
+            final int middle = (low + high) >>> 1;
+            if ( intervalsToPrefetch.get(middle).getEnd() < interval.getStart() ) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        final int last = Math.min(low + numIntervalsToPrefetch, intervalsToPrefetch.size() - 1);
+        if ( prefetchExecutor == null ) {
+            prefetchExecutor = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("feature-prefetch-%d").setDaemon(true).build());
+        }
+        try {
+            for ( int i = Math.max(low + 1, lastPrefetchedInterval + 1); i <= last; i++ ) {
+                final SimpleInterval toPrefetch = intervalsToPrefetch.get(i);
+                prefetchExecutor.execute(() -> prefetch(toPrefetch));
+                lastPrefetchedInterval = i;
+            }
+        }
+        catch ( final RejectedExecutionException e ) {
+            prefetchFailed = true;
+        }
+    }
+
+    /**
+     * Fills a window of our cache with the Features overlapping the provided interval, padded by our query
+     * lookahead on both sides, unless they are already cached. Runs on the prefetching thread.
+     */
+    private void prefetch( final SimpleInterval interval ) {
+        if ( prefetchFailed ) {
+            return;
+        }
+        final SimpleInterval window = new SimpleInterval(interval.getContig(), Math.max(1, interval.getStart() - queryLookaheadBases),
+                                                         Math.addExact(interval.getEnd(), queryLookaheadBases));
+        if ( queryCache.contains(window) ) {
+            return;
+        }
+
+        try {
+            if ( prefetchReader == null ) {
+                prefetchReader = prefetchReaderFactory.get();
+            }
+            try ( CloseableTribbleIterator<T> queryIter = prefetchReader.query(window.getContig(), window.getStart(), window.getEnd()) ) {
+                queryCache.fill(queryIter, window);
+            }
+        }
+        catch ( final Exception e ) {
+            // queries will go to disk themselves instead
+            prefetchFailed = true;
+            logger.warn("Stopped prefetching from " + featureInput.getFeaturePath() + " after an error querying " + window, e);
+        }
+    }
+
     /**
      * Gets an iterator over all Features in this data source, restricting traversal to Features
      * overlapping our intervals if intervals were provided via {@link #setIntervalsForTraversal(List)}
@@ -495,19 +679,18 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
                                     "If it's a file, please index it using the bundled tool " + IndexFeatureFile.class.getSimpleName());
         }
 
-        // If the query can be satisfied using existing cache contents, prepare for retrieval
-        // by discarding all Features at the beginning of the cache that end before the start
-        // of our query interval.
-        if ( queryCache.cacheHit(interval) ) {
-            queryCache.trimToNewStartPosition(interval.getStart());
-        }
-        // Otherwise, we have a cache miss, so go to disk to refill our cache.
-        else {
-            refillQueryCache(interval);
+        prefetchAfter(interval);
+
+        // If the query can be satisfied using existing cache contents, the window containing it is trimmed
+        // to the start of our query interval, and we get the subset of it that overlaps our query interval.
+        final List<T> cachedFeatures = queryCache.getCachedFeatures(interval);
+        if ( cachedFeatures != null ) {
+            return cachedFeatures;
         }
 
-        // Return the subset of our cache that overlaps our query interval
-        return queryCache.getCachedFeaturesUpToStopPosition(interval.getEnd());
+        // Otherwise, we have a cache miss, so go to disk to add a new window to our cache, and return the subset
+        // of it that overlaps our query interval (the prefetching thread may already have evicted the new window).
+        return refillQueryCache(interval);
     }
 
     /**
@@ -519,8 +702,9 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
      * this data source.
      *
      * @param interval the query interval that produced a cache miss
+     * @return the Features of the new window of our cache that overlap the query interval
      */
-    private void refillQueryCache( final SimpleInterval interval ) {
+    private List<T> refillQueryCache( final SimpleInterval interval ) {
         // Tribble documentation states that having multiple iterators open simultaneously over the same FeatureReader
         // results in undefined behavior
         closeOpenIterationIfNecessary();
@@ -535,7 +719,7 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
 
         // Query iterator over our reader will be immediately closed after re-populating our cache
         try ( CloseableTribbleIterator<T> queryIter = featureReader.query(queryInterval.getContig(), queryInterval.getStart(), queryInterval.getEnd()) ) {
-            queryCache.fill(queryIter, queryInterval);
+            return queryCache.fillAndGetCachedFeatures(queryIter, queryInterval, interval);
         }
         catch ( IOException e ) {
             throw new GATKException("Error querying file " + featureInput + " over interval " + interval, e);
@@ -567,6 +751,7 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
     @Override
     public void close() {
         closeOpenIterationIfNecessary();
+        stopPrefetching();
 
         logger.debug(String.format("Cache statistics for FeatureInput %s:", featureInput));
         queryCache.printCacheStatistics();
@@ -575,12 +760,33 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
             if ( featureReader != null ) {
                 featureReader.close();
             }
+            if ( prefetchReader != null ) {
+                prefetchReader.close();
+            }
         }
         catch ( IOException e ) {
             throw new GATKException("Error closing Feature reader for input " + featureInput);
         }
     }
 
+    /**
+     * Stop the prefetching thread, if there is one, and wait until it no longer uses the prefetch reader.
+     */
+    private void stopPrefetching() {
+        if ( prefetchExecutor != null ) {
+            // queued prefetches return immediately, and a running one finishes its query
+            prefetchFailed = true;
+            prefetchExecutor.shutdown();
+            try {
+                prefetchExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+            catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while stopping Feature prefetching for input " + featureInput, e);
+            }
+        }
+    }
+
     /**
      * Close the iterator currently open over this data source, if there is one.
      */
@@ -285,6 +285,17 @@ public final class FeatureManager implements AutoCloseable {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Fetches the Features overlapping the provided intervals on background threads ahead of the queries
+     * over them, in all of our data sources. See {@link FeatureDataSource#setIntervalsToPrefetch(List, int)}.
+     *
+     * @param intervals intervals that will be queried, in the order in which they will be queried
+     * @param numIntervalsAhead number of intervals to fetch ahead of the one currently being queried (0 to disable)
+     */
+    public void setIntervalsToPrefetch( final List<SimpleInterval> intervals, final int numIntervalsAhead ) {
+        featureSources.values().forEach(ds -> ds.setIntervalsToPrefetch(intervals, numIntervalsAhead));
+    }
+
     /**
      * Given a FeatureInput argument field from our tool, queries the data source for that FeatureInput
      * over the specified interval, and returns a List of the Features overlapping that interval from
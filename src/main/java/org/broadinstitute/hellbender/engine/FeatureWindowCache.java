@@ -0,0 +1,244 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.util.IntervalTree;
+import htsjdk.tribble.Feature;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FeatureWindowCache: helper class for {@link FeatureDataSource} that holds several disjoint or overlapping windows
+ * of Feature records at once, each of them a {@link FeatureCache}, so that access patterns that hop between several
+ * regions of the genome (eg., scattered traversal intervals, or windows prefetched ahead of the traversal) don't
+ * have to go back to disk every time they leave the most recently cached region.
+ *
+ * Windows are indexed by contig in interval trees. The total number of Features held in all windows is kept within
+ * a budget by evicting the least recently used windows; the most recently added window is never evicted, even if it
+ * exceeds the budget on its own.
+ *
+ * Each window is still trimmed as queries move forward through it, as in {@link FeatureCache}, so queries within a
+ * window must have non-decreasing start positions to be cache hits.
+ *
+ * All methods are thread-safe, so windows can be added by a background thread while another thread queries.
+ *
+ * @param <CACHED_FEATURE> Type of Feature record we are caching
+ */
+class FeatureWindowCache<CACHED_FEATURE extends Feature> {
+    private static final Logger logger = LogManager.getLogger(FeatureWindowCache.class);
+
+    /**
+     * Windows on each contig, keyed by the interval with which they were filled (which stays fixed as the window
+     * is trimmed)
+     */
+    private final Map<String, IntervalTree<FeatureCache<CACHED_FEATURE>>> windowsByContig = new HashMap<>();
+
+    /**
+     * All windows in order of last use, least recently used first
+     */
+    private final LinkedHashSet<Window<CACHED_FEATURE>> windowsByLastUse = new LinkedHashSet<>();
+
+    /**
+     * Maximum number of Features held in all windows before the least recently used ones are evicted
+     */
+    private final int maxCachedFeatures;
+
+    private int numCacheHits = 0;
+    private int numCacheMisses = 0;
+    private int numEvictedWindows = 0;
+
+    /**
+     * @param maxCachedFeatures maximum number of Features held in all windows; must be positive
+     */
+    public FeatureWindowCache( final int maxCachedFeatures ) {
+        Utils.validateArg(maxCachedFeatures > 0, "maxCachedFeatures must be positive");
+        this.maxCachedFeatures = maxCachedFeatures;
+    }
+
+    /**
+     * Returns all cached Features that overlap the provided interval if they are all contained in one of our
+     * windows, after trimming that window to the start of the interval.
+     *
+     * @param interval query interval
+     * @return the Features overlapping the interval, or null if the interval is not contained in any window (a cache miss)
+     */
+    public synchronized List<CACHED_FEATURE> getCachedFeatures( final SimpleInterval interval ) {
+        final Window<CACHED_FEATURE> window = findWindow(interval);
+        if ( window == null ) {
+            ++numCacheMisses;
+            return null;
+        }
+
+        ++numCacheHits;
+        windowsByLastUse.remove(window);
+        windowsByLastUse.add(window);
+        window.cache.trimToNewStartPosition(interval.getStart());
+        return window.cache.getCachedFeaturesUpToStopPosition(interval.getEnd());
+    }
+
+    /**
+     * @param interval interval to check
+     * @return true if all Features overlapping the interval are already held in one of our windows
+     *         (does not count as a cache hit or miss)
+     */
+    public synchronized boolean contains( final SimpleInterval interval ) {
+        return findWindow(interval) != null;
+    }
+
+    private Window<CACHED_FEATURE> findWindow( final SimpleInterval interval ) {
+        final IntervalTree<FeatureCache<CACHED_FEATURE>> windows = windowsByContig.get(interval.getContig());
+        if ( windows == null ) {
+            return null;
+        }
+        final Iterator<IntervalTree.Node<FeatureCache<CACHED_FEATURE>>> overlappingWindows = windows.overlappers(interval.getStart(), interval.getEnd());
+        while ( overlappingWindows.hasNext() ) {
+            final IntervalTree.Node<FeatureCache<CACHED_FEATURE>> node = overlappingWindows.next();
+            final FeatureCache<CACHED_FEATURE> cache = node.getValue();
+            // the window may have been trimmed past the start of its node
+            if ( cache.getCacheStart() <= interval.getStart() && interval.getEnd() <= cache.getCacheEnd() ) {
+                return new Window<>(interval.getContig(), node.getStart(), node.getEnd(), cache);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a new window filled with the records from the provided iterator, replacing any window with the same
+     * interval, and evicts the least recently used windows if we now hold more Features than our budget.
+     *
+     * @param featureIter iterator from which to pull Features with which to populate the new window
+     * @param interval all Features from featureIter overlap this interval
+     */
+    public void fill( final Iterator<CACHED_FEATURE> featureIter, final SimpleInterval interval ) {
+        // pull the Features before taking the lock, so that other threads can keep querying while we go to disk
+        final FeatureCache<CACHED_FEATURE> cache = new FeatureCache<>();
+        cache.fill(featureIter, interval);
+        addWindow(cache, interval);
+    }
+
+    /**
+     * Like {@link #fill(Iterator, SimpleInterval)}, but also returns the Features of the new window that overlap
+     * the query interval, after trimming it to the start of the query. The Features are taken from the new window
+     * before it is added, so they are returned even if windows added by other threads evict it right away.
+     *
+     * @param featureIter iterator from which to pull Features with which to populate the new window
+     * @param interval all Features from featureIter overlap this interval
+     * @param queryInterval query interval; must be contained in interval
+     * @return the Features overlapping queryInterval
+     */
+    public List<CACHED_FEATURE> fillAndGetCachedFeatures( final Iterator<CACHED_FEATURE> featureIter, final SimpleInterval interval, final SimpleInterval queryInterval ) {
+        Utils.validateArg(interval.contains(queryInterval), () -> "query interval " + queryInterval + " is not contained in window " + interval);
+        final FeatureCache<CACHED_FEATURE> cache = new FeatureCache<>();
+        cache.fill(featureIter, interval);
+        cache.trimToNewStartPosition(queryInterval.getStart());
+        final List<CACHED_FEATURE> features = cache.getCachedFeaturesUpToStopPosition(queryInterval.getEnd());
+        addWindow(cache, interval);
+        return features;
+    }
+
+    private synchronized void addWindow( final FeatureCache<CACHED_FEATURE> cache, final SimpleInterval interval ) {
+        final Window<CACHED_FEATURE> window = new Window<>(interval.getContig(), interval.getStart(), interval.getEnd(), cache);
+        final IntervalTree<FeatureCache<CACHED_FEATURE>> windows = windowsByContig.computeIfAbsent(interval.getContig(), contig -> new IntervalTree<>());
+        windows.put(window.start, window.end, cache);
+        windowsByLastUse.remove(window);
+        windowsByLastUse.add(window);
+
+        evictIfNecessary();
+    }
+
+    private void evictIfNecessary() {
+        int numCachedFeatures = getNumCachedFeatures();
+        final Iterator<Window<CACHED_FEATURE>> leastRecentlyUsed = windowsByLastUse.iterator();
+        while ( numCachedFeatures > maxCachedFeatures && windowsByLastUse.size() > 1 ) {
+            final Window<CACHED_FEATURE> window = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            windowsByContig.get(window.contig).remove(window.start, window.end);
+            numCachedFeatures -= window.cache.size();
+            ++numEvictedWindows;
+        }
+    }
+
+    /**
+     * @return the number of Features held in all of our windows
+     */
+    public synchronized int getNumCachedFeatures() {
+        int numCachedFeatures = 0;
+        for ( final Window<CACHED_FEATURE> window : windowsByLastUse ) {
+            numCachedFeatures += window.cache.size();
+        }
+        return numCachedFeatures;
+    }
+
+    /**
+     * @return the number of windows we hold
+     */
+    public synchronized int getNumWindows() {
+        return windowsByLastUse.size();
+    }
+
+    /**
+     * @return Number of times we called {@link #getCachedFeatures(SimpleInterval)} and it returned Features
+     */
+    public synchronized int getNumCacheHits() {
+        return numCacheHits;
+    }
+
+    /**
+     * @return Number of times we called {@link #getCachedFeatures(SimpleInterval)} and it returned null
+     */
+    public synchronized int getNumCacheMisses() {
+        return numCacheMisses;
+    }
+
+    /**
+     * Print statistics about the cache hit rate for debugging
+     */
+    public synchronized void printCacheStatistics() {
+        final int totalQueries = numCacheHits + numCacheMisses;
+        logger.debug(String.format("Cache hit rate was %.2f%% (%d out of %d total queries), %d windows were evicted",
+                totalQueries > 0 ? ((double)numCacheHits / totalQueries) * 100.0 : 0.0,
+                numCacheHits,
+                totalQueries,
+                numEvictedWindows));
+    }
+
+    /**
+     * A window, identified by the interval with which it was filled
+     */
+    private static final class Window<CACHED_FEATURE extends Feature> {
+        private final String contig;
+        private final int start;
+        private final int end;
+        private final FeatureCache<CACHED_FEATURE> cache;
+
+        private Window( final String contig, final int start, final int end, final FeatureCache<CACHED_FEATURE> cache ) {
+            this.contig = contig;
+            this.start = start;
+            this.end = end;
+            this.cache = cache;
+        }
+
+        @Override
+        public boolean equals( final Object other ) {
+            if ( this == other ) {
+                return true;
+            }
+            if ( ! (other instanceof Window) ) {
+                return false;
+            }
+            final Window<?> otherWindow = (Window<?>) other;
+            return start == otherWindow.start && end == otherWindow.end && contig.equals(otherWindow.contig);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * contig.hashCode() + start) + end;
+        }
+    }
+}
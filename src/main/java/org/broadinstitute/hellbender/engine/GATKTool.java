@@ -21,8 +21,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLinePluginDescriptor;
 import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.cmdline.GATKPlugin.GATKReadFilterPluginDescriptor;
@@ -45,12 +47,15 @@ import org.broadinstitute.hellbender.transformers.ReadTransformer;
 import org.broadinstitute.hellbender.utils.SequenceDictionaryUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.instrumentation.Instrumentation;
+import org.broadinstitute.hellbender.utils.instrumentation.InstrumentationReporter;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.read.SAMFileGATKReadWriter;
 import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.broadinstitute.hellbender.utils.variant.writers.TimedVariantContextWriter;
 
 /**
  * Base class for all GATK tools. Tool authors that wish to write a "GATK" tool but not use one of
@@ -124,6 +129,37 @@ public abstract class GATKTool extends CommandLineProgram {
             optional = true)
     public boolean disableBamIndexCaching = false;
 
+    @Advanced
+    @Argument(fullName = StandardArgumentDefinitions.READ_AHEAD_BUFFER_LONG_NAME,
+            shortName = StandardArgumentDefinitions.READ_AHEAD_BUFFER_SHORT_NAME,
+            doc = "Number of reads to decompress and decode on background threads ahead of the tool (0 to disable). Queue stall statistics are logged at the end of the run to help tune this.",
+            optional = true, minValue = 0)
+    public int readAheadBuffer = 0;
+
+    @Advanced
+    @Argument(fullName = StandardArgumentDefinitions.FEATURE_PREFETCH_INTERVALS_LONG_NAME,
+            shortName = StandardArgumentDefinitions.FEATURE_PREFETCH_INTERVALS_SHORT_NAME,
+            doc = "Number of upcoming intervals whose features are fetched on background threads ahead of the tool (0 to disable). Requires intervals. Mostly useful with many scattered intervals and/or features on cloud storage.",
+            optional = true, minValue = 0)
+    public int featurePrefetchIntervals = 0;
+
+    @Advanced
+    @Argument(fullName = StandardArgumentDefinitions.INSTRUMENTATION_OUTPUT_LONG_NAME,
+            doc = "If specified, time the main processing phases (reading, assembly, likelihoods, genotyping, annotation, writing...) and write the per-phase breakdown to this file as JSON at the end of the run.",
+            optional = true)
+    public String instrumentationOutput = null;
+
+    @Advanced
+    @Argument(fullName = StandardArgumentDefinitions.INSTRUMENTATION_SNAPSHOT_INTERVAL_LONG_NAME,
+            doc = "Seconds between snapshots of the instrumentation, which are added to the instrumentation output as the run progresses (0 for no snapshots). Requires instrumentationOutput.",
+            optional = true, minValue = 0)
+    public int instrumentationSnapshotInterval = 0;
+
+    /**
+     * Collects and writes out the instrumentation, if requested via {@link #instrumentationOutput}
+     */
+    private InstrumentationReporter instrumentationReporter;
+
     /**
      * Master sequence dictionary to be used instead of all other dictionaries (if provided).
      */
@@ -300,7 +336,16 @@ public abstract class GATKTool extends CommandLineProgram {
      * May be overridden by traversals that require custom initialization of the reference data source.
      */
     void initializeReference() {
-        reference = referenceArguments.getReferenceFile() != null ? ReferenceDataSource.of(referenceArguments.getReferenceFile()) : null;
+        reference = makeReferenceDataSource();
+    }
+
+    /**
+     * Create a new, independent source of reference data from the reference argument (or null if no reference
+     * argument was provided). Used by {@link #initializeReference}, and by traversals that need a private
+     * reference data source per worker thread.
+     */
+    ReferenceDataSource makeReferenceDataSource() {
+        return referenceArguments.getReferenceFile() != null ? ReferenceDataSource.of(referenceArguments.getReferenceFile()) : null;
     }
 
     /**
@@ -310,24 +355,40 @@ public abstract class GATKTool extends CommandLineProgram {
      * May be overridden by traversals that require custom initialization of the reads data source.
      */
     void initializeReads() {
+        reads = makeReadsDataSource();
+    }
+
+    /**
+     * Create a new, independent source of reads data from the reads argument(s) (or null if no reads argument(s)
+     * were provided). Used by {@link #initializeReads}, and by traversals that need a private reads data source
+     * per worker thread.
+     */
+    ReadsDataSource makeReadsDataSource() {
         if (! readArguments.getReadFiles().isEmpty()) {
             SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(readArguments.getReadValidationStringency());
-            if (hasReference()) { // pass in reference if available, because CRAM files need it
+            final boolean hasFastaReference = hasReference() && ! (reference instanceof ReferenceTwoBitFileSource);
+            if (hasFastaReference) { // pass in reference if available, because CRAM files need it
                 factory = factory.referenceSequence(referenceArguments.getReferenceFile());
             }
             else if (hasCramInput()) {
-                throw new UserException.MissingReference("A reference file is required when using CRAM files.");
+                throw new UserException.MissingReference("A fasta reference file is required when using CRAM files.");
             }
 
             if(bamIndexCachingShouldBeEnabled()) {
                 factory = factory.enable(SamReaderFactory.Option.CACHE_FILE_BASED_INDEXES);
             }
 
-            reads = new ReadsDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory, cloudPrefetchBuffer,
+            if (readAheadBuffer > 0) { // decompress BGZF blocks on a background thread as well
+                factory = factory.setUseAsyncIo(true);
+            }
+
+            final ReadsDataSource readsDataSource = new ReadsDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory, cloudPrefetchBuffer,
                 (cloudIndexPrefetchBuffer < 0 ? cloudPrefetchBuffer : cloudIndexPrefetchBuffer));
+            readsDataSource.setReadAheadBufferSize(readAheadBuffer);
+            return readsDataSource;
         }
         else {
-            reads = null;
+            return null;
         }
     }
 
@@ -352,11 +413,23 @@ public abstract class GATKTool extends CommandLineProgram {
      * By default, this method initializes the FeatureManager to use the lookahead cache of {@link FeatureDataSource#DEFAULT_QUERY_LOOKAHEAD_BASES} bases.
      */
     void initializeFeatures() {
-        features = new FeatureManager(this, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
-                                      referenceArguments.getReferencePath());
-        if ( features.isEmpty() ) {  // No available sources of Features discovered for this tool
-            features = null;
+        features = makeFeatureManager(FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES);
+    }
+
+    /**
+     * Create a new, independent FeatureManager for this tool's Feature arguments (or null if no sources of
+     * Features were discovered for this tool). Used by {@link #initializeFeatures}, and by traversals that
+     * need a private FeatureManager per worker thread.
+     *
+     * @param featureQueryLookahead number of bases to cache beyond each query interval
+     */
+    FeatureManager makeFeatureManager(final int featureQueryLookahead) {
+        final FeatureManager featureManager = new FeatureManager(this, featureQueryLookahead, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                                                                 referenceArguments.getReferencePath());
+        if ( featureManager.isEmpty() ) {  // No available sources of Features discovered for this tool
+            return null;
         }
+        return featureManager;
     }
 
     /**
@@ -557,6 +630,14 @@ public abstract class GATKTool extends CommandLineProgram {
     protected void onStartup() {
         super.onStartup();
 
+        if ( instrumentationOutput != null ) {
+            instrumentationReporter = new InstrumentationReporter(instrumentationOutput, instrumentationSnapshotInterval);
+        } else if ( instrumentationSnapshotInterval > 0 ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.INSTRUMENTATION_SNAPSHOT_INTERVAL_LONG_NAME,
+                    Integer.toString(instrumentationSnapshotInterval),
+                    "snapshots require an output file for the instrumentation (--" + StandardArgumentDefinitions.INSTRUMENTATION_OUTPUT_LONG_NAME + ")");
+        }
+
         loadMasterSequenceDictionary();
 
         initializeReference();
@@ -567,6 +648,10 @@ public abstract class GATKTool extends CommandLineProgram {
 
         initializeIntervals(); // Must be initialized after reference, reads and features, since intervals currently require a sequence dictionary from another data source
 
+        if ( hasFeatures() && hasIntervals() && featurePrefetchIntervals > 0 ) {
+            features.setIntervalsToPrefetch(intervalsForTraversal, featurePrefetchIntervals);
+        }
+
         if ( ! disableSequenceDictionaryValidation ) {
             validateSequenceDictionaries();
         }
@@ -724,11 +809,12 @@ public abstract class GATKTool extends CommandLineProgram {
             }
         }
 
-        return GATKVariantContextUtils.createVCFWriter(
+        final VariantContextWriter writer = GATKVariantContextUtils.createVCFWriter(
                 outFile,
                 sequenceDictionary,
                 createOutputVariantMD5,
                 options.toArray(new Options[options.size()]));
+        return Instrumentation.isEnabled() ? new TimedVariantContextWriter(writer, TimedVariantContextWriter.VCF_ENCODE_TIMER) : writer;
     }
 
     /**
@@ -822,6 +908,10 @@ public abstract class GATKTool extends CommandLineProgram {
         if ( hasFeatures() ) {
             features.close();
         }
+
+        if ( instrumentationReporter != null ) {
+            instrumentationReporter.close();
+        }
     }
 
     /**
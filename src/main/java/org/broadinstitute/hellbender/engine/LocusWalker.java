@@ -13,6 +13,7 @@ import org.broadinstitute.hellbender.utils.locusiterator.AlignmentContextIterato
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.locusiterator.LIBSDownsamplingInfo;
 import org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState;
+import org.broadinstitute.hellbender.utils.pileup.PileupElementPool;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.*;
@@ -75,6 +76,18 @@ public abstract class LocusWalker extends GATKTool {
         return false;
     }
 
+    /**
+     * Should the pileups of the AlignmentContexts be recycled? If so, the pileup of each AlignmentContext and its
+     * PileupElements are reused for the following loci once {@link #apply} returns, which saves allocating an element
+     * per read per locus at high depth. Tools that don't keep any reference to the pileup, its elements or pileups
+     * derived from it after {@link #apply} returns should override to return {@code true}.
+     *
+     * @return {@code true} if this tool's pileups can be recycled, {@code false} otherwise
+     */
+    public boolean recyclePileups() {
+        return false;
+    }
+
     /**
      * Does this tool emit information for uncovered loci? Tools that do should override to return {@code true}.
      *
@@ -162,6 +175,8 @@ public abstract class LocusWalker extends GATKTool {
         alignmentContextIteratorBuilder.setIncludeDeletions(includeDeletions());
         alignmentContextIteratorBuilder.setKeepUniqueReadListInLibs(keepUniqueReadListInLibs());
         alignmentContextIteratorBuilder.setIncludeNs(includeNs());
+        final PileupElementPool pileupElementPool = recyclePileups() ? new PileupElementPool() : null;
+        alignmentContextIteratorBuilder.setPileupElementPool(pileupElementPool);
 
         final Iterator<AlignmentContext> iterator = alignmentContextIteratorBuilder.build(
                 readIterator, header, intervalsForTraversal, getBestAvailableSequenceDictionary(),
@@ -172,6 +187,9 @@ public abstract class LocusWalker extends GATKTool {
                         final SimpleInterval alignmentInterval = new SimpleInterval(alignmentContext);
                         apply(alignmentContext, new ReferenceContext(reference, alignmentInterval), new FeatureContext(features, alignmentInterval));
                         progressMeter.update(alignmentInterval);
+                        if (pileupElementPool != null) {
+                            pileupElementPool.release(alignmentContext.getBasePileup());
+                        }
                 }
             );
         logger.info(countedFilter.getSummaryLine());
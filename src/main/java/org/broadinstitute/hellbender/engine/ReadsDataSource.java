@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.engine;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.*;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.IOUtil;
@@ -14,6 +15,9 @@ import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.instrumentation.Instrumentation;
+import org.broadinstitute.hellbender.utils.instrumentation.PhaseTimer;
+import org.broadinstitute.hellbender.utils.iterators.ReadAheadIterator;
 import org.broadinstitute.hellbender.utils.iterators.SAMRecordToReadIterator;
 import org.broadinstitute.hellbender.utils.iterators.SamReaderQueryingIterator;
 import org.broadinstitute.hellbender.utils.nio.SeekableByteChannelPrefetcher;
@@ -23,6 +27,8 @@ import org.broadinstitute.hellbender.utils.read.ReadConstants;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 /**
@@ -36,6 +42,9 @@ import java.util.stream.Collectors;
 public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoCloseable {
     protected static final Logger logger = LogManager.getLogger(ReadsDataSource.class);
 
+    // time spent by the consumer pulling records out of the readers (or out of the read-ahead queue, if enabled)
+    private static final PhaseTimer DECODE_TIMER = Instrumentation.timer("ReadsDataSource.decode");
+
     /**
      * Mapping from SamReaders to iterators over the reads from each reader. Only one
      * iterator can be open from a given reader at a time (this is a restriction
@@ -78,6 +87,33 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
      */
     private boolean indicesAvailable;
 
+    /**
+     * Number of records handed from the read-ahead thread to the consumer at a time
+     */
+    private static final int READ_AHEAD_BATCH_SIZE = 500;
+
+    /**
+     * Maximum number of records decoded ahead of the consumer, or 0 if read-ahead is disabled (the default).
+     * See {@link #setReadAheadBufferSize}.
+     */
+    private int readAheadBufferSize = 0;
+
+    /**
+     * Provides the background thread for read-ahead. Created lazily on the first read-ahead traversal.
+     */
+    private ExecutorService readAheadExecutor;
+
+    /**
+     * The read-ahead iterator of the current traversal, if read-ahead is enabled and a traversal is active
+     */
+    private ReadAheadIterator<SAMRecord> readAheadIterator;
+
+    // queue-stall statistics summed over all finished read-ahead traversals
+    private long readAheadConsumerStalls = 0;
+    private long readAheadConsumerStallNanos = 0;
+    private long readAheadProducerStalls = 0;
+    private long readAheadProducerStallNanos = 0;
+
     /**
      * Initialize this data source with a single SAM/BAM file and validation stringency SILENT.
      *
@@ -254,6 +290,23 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
         return indicesAvailable;
     }
 
+    /**
+     * Enables or disables read-ahead for subsequent traversals and queries. With read-ahead enabled, records are
+     * pulled from the readers and fully decoded on a background thread, up to the given number of records ahead of
+     * the consumer, so that decoding overlaps with the consumer's work. The returned iterators are unchanged otherwise.
+     *
+     * For BAM inputs this is best combined with {@link SamReaderFactory#setUseAsyncIo} on the factory used to create
+     * this data source, so that BGZF decompression also happens on its own background thread.
+     *
+     * Stall statistics for the read-ahead queue are logged when this data source is closed.
+     *
+     * @param readAheadBufferSize maximum number of records to decode ahead of the consumer (0 to disable)
+     */
+    public void setReadAheadBufferSize( final int readAheadBufferSize ) {
+        Utils.validateArg(readAheadBufferSize >= 0, "readAheadBufferSize must be non-negative");
+        this.readAheadBufferSize = readAheadBufferSize;
+    }
+
     /**
      * Restricts a traversal of this data source via {@link #iterator} to only return reads which overlap the given intervals.
      * Calls to {@link #query} are not affected by setting these intervals.
@@ -421,7 +474,33 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
             startingIterator = new MergingSamRecordIterator(headerMerger, readers, true);
         }
 
-        return new SAMRecordToReadIterator(startingIterator);
+        if ( readAheadBufferSize > 0 ) {
+            startingIterator = readAheadIterator = startReadAhead(startingIterator);
+        }
+
+        return new SAMRecordToReadIterator(DECODE_TIMER.time(startingIterator));
+    }
+
+    private ReadAheadIterator<SAMRecord> startReadAhead( final Iterator<SAMRecord> recordIterator ) {
+        if ( readAheadExecutor == null ) {
+            readAheadExecutor = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("reads-read-ahead-%d").setDaemon(true).build());
+        }
+        final int batchSize = Math.min(readAheadBufferSize, READ_AHEAD_BATCH_SIZE);
+        final int numBatches = (readAheadBufferSize + batchSize - 1) / batchSize;
+        return new ReadAheadIterator<>(recordIterator, ReadsDataSource::decodeRecord, batchSize, numBatches, readAheadExecutor);
+    }
+
+    /**
+     * Forces the lazily-decoded fields of a record to be decoded now (on the read-ahead thread), rather than
+     * on first access by the consumer.
+     */
+    private static void decodeRecord( final SAMRecord record ) {
+        record.getReadName();
+        record.getCigar();
+        record.getReadBases();
+        record.getBaseQualities();
+        record.getAttribute(SAMTag.RG.name());
     }
 
     /**
@@ -473,6 +552,12 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
     public void close() {
         closePreviousIterationsIfNecessary();
 
+        if ( readAheadExecutor != null ) {
+            readAheadExecutor.shutdownNow();
+            logger.info(String.format("Read-ahead: waited for reads %d times (%.2f s total), read-ahead thread waited for the consumer %d times (%.2f s total)",
+                    readAheadConsumerStalls, readAheadConsumerStallNanos / 1e9, readAheadProducerStalls, readAheadProducerStallNanos / 1e9));
+        }
+
         try {
             for ( Map.Entry<SamReader, CloseableIterator<SAMRecord>> readerEntry : readers.entrySet() ) {
                 readerEntry.getKey().close();
@@ -487,6 +572,16 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
      * Close any previously-opened iterations over our readers (htsjdk allows only one open iteration per reader).
      */
     private void closePreviousIterationsIfNecessary() {
+        // the read-ahead thread must be stopped before the iterators it reads from can be closed
+        if ( readAheadIterator != null ) {
+            readAheadIterator.close();
+            readAheadConsumerStalls += readAheadIterator.getConsumerStalls();
+            readAheadConsumerStallNanos += readAheadIterator.getConsumerStallNanos();
+            readAheadProducerStalls += readAheadIterator.getProducerStalls();
+            readAheadProducerStallNanos += readAheadIterator.getProducerStallNanos();
+            readAheadIterator = null;
+        }
+
         for ( Map.Entry<SamReader, CloseableIterator<SAMRecord>> readerEntry : readers.entrySet() ) {
             CloseableIterator<SAMRecord> readerIterator = readerEntry.getValue();
             if ( readerIterator != null ) {
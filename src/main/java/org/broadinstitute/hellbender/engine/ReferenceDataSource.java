@@ -5,6 +5,7 @@ import htsjdk.samtools.reference.ReferenceSequence;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.iterators.ByteArrayIterator;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
+import org.broadinstitute.hellbender.utils.reference.TwoBitReference;
 
 import java.io.File;
 import java.util.Iterator;
@@ -17,13 +18,17 @@ import java.util.Iterator;
 public interface ReferenceDataSource extends GATKDataSource<Byte>, AutoCloseable {
 
     /**
-     * Initialize this data source using a fasta file.
+     * Initialize this data source using a fasta file, or a .2bit file if the name of the file ends with
+     * {@link TwoBitReference#TWO_BIT_EXTENSION}.
      *
      * The provided fasta file must have companion .fai and .dict files.
      *
-     * @param fastaFile reference fasta file
+     * @param fastaFile reference fasta or .2bit file
      */
     public static ReferenceDataSource of(final File fastaFile) {
+        if ( fastaFile != null && fastaFile.getName().endsWith(TwoBitReference.TWO_BIT_EXTENSION) ) {
+            return new ReferenceTwoBitFileSource(fastaFile);
+        }
         return new ReferenceFileSource(fastaFile);
     }
 
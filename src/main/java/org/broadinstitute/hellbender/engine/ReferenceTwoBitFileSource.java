@@ -0,0 +1,143 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequence;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+import org.broadinstitute.hellbender.utils.reference.TwoBitReference;
+
+import java.io.File;
+import java.util.Iterator;
+
+/**
+ * Manages queries over reference data stored in a memory-mapped .2bit file
+ * (eg., one created from a fasta by {@link org.broadinstitute.hellbender.tools.FastaToTwoBit}).
+ *
+ * Unlike {@link ReferenceFileSource}, which caches a single window of the reference, every query is answered directly
+ * from the mapped file, so queries that jump around the genome are as cheap as local ones. Returns the same bases as
+ * {@link ReferenceFileSource} does for the fasta the file was created from.
+ *
+ * If a sequence dictionary (.dict) file is present next to the .2bit file it is used as the sequence dictionary of
+ * this source, otherwise a dictionary with the names and lengths of the sequences in the .2bit file is used.
+ *
+ * Also usable as a {@link ReferenceSequenceFile}, so tools that read the reference through htsjdk's interface
+ * (eg., the assembly reference of HaplotypeCaller and Mutect2) can be given a .2bit file as well.
+ *
+ * Supports targeted queries over the reference by interval, but does not
+ * yet support complete iteration over the entire reference.
+ */
+public final class ReferenceTwoBitFileSource implements ReferenceDataSource, ReferenceSequenceFile {
+
+    private final TwoBitReference reference;
+    private final SAMSequenceDictionary sequenceDictionary;
+
+    /**
+     * Initialize this data source using a .2bit file.
+     *
+     * @param twoBitFile reference .2bit file
+     */
+    public ReferenceTwoBitFileSource(final File twoBitFile) {
+        Utils.nonNull(twoBitFile);
+        if ( ! twoBitFile.exists() ) {
+            throw new UserException.MissingReference("The specified .2bit file (" + twoBitFile.getAbsolutePath() + ") does not exist.");
+        }
+        reference = new TwoBitReference(twoBitFile.toPath());
+
+        final File dictFile = new File(ReferenceUtils.getFastaDictionaryFileName(twoBitFile.getAbsolutePath()));
+        sequenceDictionary = dictFile.exists() ? checkDictionary(ReferenceUtils.loadFastaDictionary(dictFile), dictFile) : reference.getSequenceDictionary();
+    }
+
+    private SAMSequenceDictionary checkDictionary(final SAMSequenceDictionary dictionary, final File dictFile) {
+        final SAMSequenceDictionary twoBitDictionary = reference.getSequenceDictionary();
+        boolean matches = dictionary.size() == twoBitDictionary.size();
+        for ( int i = 0; matches && i < dictionary.size(); i++ ) {
+            final SAMSequenceRecord record = dictionary.getSequence(i);
+            final SAMSequenceRecord twoBitRecord = twoBitDictionary.getSequence(i);
+            matches = record.getSequenceName().equals(twoBitRecord.getSequenceName()) && record.getSequenceLength() == twoBitRecord.getSequenceLength();
+        }
+        if ( ! matches ) {
+            throw new UserException.IncompatibleSequenceDictionaries("The sequences in the .2bit file do not match its sequence dictionary",
+                    dictFile.getAbsolutePath(), dictionary, ".2bit file", twoBitDictionary);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Start an iteration over the entire reference. Not yet supported!
+     *
+     * See the BaseUtils class for guidance on how to work with bases in this format.
+     *
+     * @return iterator over all bases in this reference
+     */
+    @Override
+    public Iterator<Byte> iterator() {
+        throw new UnsupportedOperationException("Iteration over entire reference not yet implemented");
+    }
+
+    /**
+     * Query a specific interval on this reference, and get back all bases spanning that interval at once.
+     * Call getBases() on the returned ReferenceSequence to get the actual reference bases. See the BaseUtils
+     * class for guidance on how to work with bases in this format.
+     *
+     * Safe to call from multiple threads.
+     *
+     * @param contig query interval contig
+     * @param start query interval start
+     * @param stop query interval stop
+     * @return a ReferenceSequence containing all bases spanning the query interval, prefetched
+     */
+    @Override
+    public ReferenceSequence queryAndPrefetch( final String contig, final long start , final long stop) {
+        return reference.getSubsequenceAt(contig, start, stop);
+    }
+
+    @Override
+    public ReferenceSequence getSubsequenceAt( final String contig, final long start, final long stop ) {
+        return queryAndPrefetch(contig, start, stop);
+    }
+
+    @Override
+    public ReferenceSequence getSequence( final String contig ) {
+        final SAMSequenceRecord record = sequenceDictionary.getSequence(contig);
+        if ( record == null ) {
+            throw new UserException.MissingContigInSequenceDictionary(contig, sequenceDictionary);
+        }
+        return queryAndPrefetch(contig, 1, record.getSequenceLength());
+    }
+
+    @Override
+    public boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    public ReferenceSequence nextSequence() {
+        throw new UnsupportedOperationException("nextSequence is not supported");
+    }
+
+    @Override
+    public void reset() {
+        throw new UnsupportedOperationException("reset is not supported");
+    }
+
+    /**
+     * Get the sequence dictionary for this reference
+     *
+     * @return SAMSequenceDictionary for this reference
+     */
+    @Override
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return sequenceDictionary;
+    }
+
+    /**
+     * Permanently close this data source
+     */
+    @Override
+    public void close() {
+        reference.close();
+    }
+}
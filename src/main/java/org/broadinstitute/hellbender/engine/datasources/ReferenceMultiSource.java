@@ -28,6 +28,7 @@ public class ReferenceMultiSource implements ReferenceSource, Serializable {
 
     private ReferenceSource referenceSource;
     private SerializableFunction<GATKRead, SimpleInterval> referenceWindowFunction;
+    private String referenceURL;
 
     @VisibleForTesting
     protected ReferenceMultiSource() {};
@@ -56,6 +57,7 @@ public class ReferenceMultiSource implements ReferenceSource, Serializable {
             referenceSource = new ReferenceAPISource(pipelineOptions, referenceURL);
         }
         this.referenceWindowFunction = referenceWindowFunction;
+        this.referenceURL = referenceURL;
     }
 
     /**
@@ -85,6 +87,14 @@ public class ReferenceMultiSource implements ReferenceSource, Serializable {
         return referenceSource.isCompatibleWithSparkBroadcast();
     }
 
+    /**
+     * @return the name of the reference or the path to the reference file this source was created with,
+     * or null if it was not created from one
+     */
+    public String getReferenceURL() {
+        return referenceURL;
+    }
+
     /**
      * @return the custom reference window function used to map reads to desired reference bases
      */
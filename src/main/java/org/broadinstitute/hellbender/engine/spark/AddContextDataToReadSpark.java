@@ -12,9 +12,12 @@ import org.broadinstitute.hellbender.engine.ReadContextData;
 import org.broadinstitute.hellbender.engine.Shard;
 import org.broadinstitute.hellbender.engine.ShardBoundary;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceMultiSource;
+import org.broadinstitute.hellbender.engine.datasources.ReferenceSource;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
+import org.broadinstitute.hellbender.utils.SerializableFunction;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.collections.IntervalsSkipList;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -23,6 +26,7 @@ import org.broadinstitute.hellbender.utils.variant.GATKVariant;
 import scala.Tuple2;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -75,12 +79,56 @@ public class AddContextDataToReadSpark {
             withVariantsWithRef = ShuffleJoinReadsWithRefBases.addBases(referenceSource, withVariants);
         } else if (joinStrategy.equals(JoinStrategy.OVERLAPS_PARTITIONER)) {
             return addUsingOverlapsPartitioning(ctx, reads, referenceSource, variants, variantsPaths, sequenceDictionary, shardSize, shardPadding);
+        } else if (joinStrategy.equals(JoinStrategy.EXECUTOR_CACHE)) {
+            return addUsingExecutorCache(ctx, mappedReads, referenceSource, variants, variantsPaths);
         } else {
             throw new UserException("Unknown JoinStrategy");
         }
         return withVariantsWithRef.mapToPair(in -> new Tuple2<>(in._1(), new ReadContextData(in._2()._2(), in._2()._1())));
     }
 
+    /**
+     * Add context data ({@link ReadContextData}) to reads, looking up the reference bases and the variants of each read
+     * in copies that are loaded once per executor and shared by all its tasks (see {@link ReferenceCache} and
+     * {@link KnownSitesCache}), so that nothing is shuffled.
+     *
+     * A reference that is not a .2bit file, or variants that are not given as paths, can't be loaded by the executors,
+     * so they are broadcast instead.
+     *
+     * @param ctx the Spark context
+     * @param mappedReads the mapped reads
+     * @param referenceSource the reference source
+     * @param variants the variants, only used if variantsPaths is null
+     * @param variantsPaths the paths to variants files, if null then the variants RDD is used
+     * @return a RDD of read-context pairs, in the order of the reads
+     */
+    private static JavaPairRDD<GATKRead, ReadContextData> addUsingExecutorCache(
+            final JavaSparkContext ctx,
+            final JavaRDD<GATKRead> mappedReads, final ReferenceMultiSource referenceSource,
+            final JavaRDD<GATKVariant> variants, final List<String> variantsPaths) {
+        // only the path of a cacheable reference is sent to the executors, never the reference itself
+        final String referenceURL = ReferenceCache.isCacheable(referenceSource.getReferenceURL()) ? referenceSource.getReferenceURL() : null;
+        final SerializableFunction<GATKRead, SimpleInterval> referenceWindowFunction = referenceSource.getReferenceWindowFunction();
+        final Broadcast<ReferenceMultiSource> bReferenceSource = referenceURL == null ? ctx.broadcast(referenceSource) : null;
+        final Broadcast<IntervalsSkipList<GATKVariant>> variantsBroadcast = variantsPaths == null ? ctx.broadcast(new IntervalsSkipList<>(variants.collect())) : null;
+
+        return mappedReads.mapPartitionsToPair(reads -> {
+            final ReferenceSource reference = referenceURL != null ? ReferenceCache.getReference(referenceURL) : bReferenceSource.getValue();
+            final IntervalsSkipList<GATKVariant> intervalsSkipList = variantsPaths != null ? KnownSitesCache.getVariants(variantsPaths) :
+                    variantsBroadcast.getValue();
+            return Iterators.transform(reads, read -> {
+                final SimpleInterval interval = referenceWindowFunction.apply(read);
+                final ReferenceBases referenceBases;
+                try {
+                    referenceBases = reference.getReferenceBases(null, interval);
+                } catch (final IOException e) {
+                    throw new GATKException("Error getting reference bases for " + interval, e);
+                }
+                return new Tuple2<>(read, new ReadContextData(referenceBases, BroadcastJoinReadsWithVariants.getOverlappingVariants(read, intervalsSkipList)));
+            });
+        });
+    }
+
     /**
      * Add context data ({@link ReadContextData}) to reads, using overlaps partitioning to avoid a shuffle.
      * @param ctx the Spark context
@@ -49,12 +49,16 @@ public final class BroadcastJoinReadsWithVariants {
     }
 
     private static Tuple2<GATKRead, Iterable<GATKVariant>> getOverlapping(final GATKRead read, final IntervalsSkipList<GATKVariant> intervalsSkipList) {
+        return new Tuple2<>(read, getOverlappingVariants(read, intervalsSkipList));
+    }
+
+    static List<GATKVariant> getOverlappingVariants(final GATKRead read, final IntervalsSkipList<GATKVariant> intervalsSkipList) {
         if (SimpleInterval.isValid(read.getContig(), read.getStart(), read.getEnd())) {
-            return new Tuple2<>(read, intervalsSkipList.getOverlapping(new SimpleInterval(read)));
+            return intervalsSkipList.getOverlapping(new SimpleInterval(read));
         } else {
             //Sometimes we have reads that do not form valid intervals (reads that do not consume any ref bases, eg CIGAR 61S90I
             //In those cases, we'll just say that nothing overlaps the read
-            return new Tuple2<>(read, Collections.emptyList());
+            return Collections.emptyList();
         }
     }
 }
\ No newline at end of file
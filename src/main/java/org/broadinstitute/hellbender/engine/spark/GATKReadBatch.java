@@ -0,0 +1,61 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A group of reads that Spark moves between machines as a single object, so that {@link GATKReadBatchSerializer} can
+ * encode them together, which takes much less space than encoding each read on its own.
+ */
+public final class GATKReadBatch implements Iterable<GATKRead> {
+
+    private final List<GATKRead> reads;
+
+    public GATKReadBatch() {
+        this(new ArrayList<>());
+    }
+
+    GATKReadBatch(final List<GATKRead> reads) {
+        this.reads = reads;
+    }
+
+    public static GATKReadBatch of(final GATKRead read) {
+        return new GATKReadBatch().add(read);
+    }
+
+    /**
+     * Adds a read to this batch.
+     * @return this batch
+     */
+    public GATKReadBatch add(final GATKRead read) {
+        reads.add(Utils.nonNull(read));
+        return this;
+    }
+
+    /**
+     * Adds the reads of another batch to this batch.
+     * @return this batch
+     */
+    public GATKReadBatch addAll(final GATKReadBatch other) {
+        reads.addAll(other.reads);
+        return this;
+    }
+
+    public int size() {
+        return reads.size();
+    }
+
+    List<GATKRead> getReads() {
+        return Collections.unmodifiableList(reads);
+    }
+
+    @Override
+    public Iterator<GATKRead> iterator() {
+        return getReads().iterator();
+    }
+}
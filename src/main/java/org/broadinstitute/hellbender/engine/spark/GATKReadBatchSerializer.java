@@ -0,0 +1,72 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMRecordColumnarCodec;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializer for {@link GATKReadBatch}es. Batches of SAMRecordToGATKReadAdapters are encoded column by column with
+ * {@link SAMRecordColumnarCodec}; batches with any other kind of read fall back to serializing each read on its own.
+ * Like {@link SAMRecordToGATKReadAdapterSerializer}, assumes that the underlying SAMRecords are headerless (and clears
+ * their header if they're not).
+ */
+public final class GATKReadBatchSerializer extends Serializer<GATKReadBatch> {
+
+    private final SAMRecordColumnarCodec codec = new SAMRecordColumnarCodec();
+
+    @Override
+    public void write(Kryo kryo, Output output, GATKReadBatch batch) {
+        final List<GATKRead> reads = batch.getReads();
+        final boolean samBacked = reads.stream().allMatch(read -> read instanceof SAMRecordToGATKReadAdapter);
+        output.writeBoolean(samBacked);
+        if (!samBacked) {
+            output.writeVarInt(reads.size(), true);
+            for (final GATKRead read : reads) {
+                kryo.writeClassAndObject(output, read);
+            }
+            return;
+        }
+
+        final List<SAMRecord> records = new ArrayList<>(reads.size());
+        for (final GATKRead read : reads) {
+            final SAMRecord record = ((SAMRecordToGATKReadAdapter) read).getEncapsulatedSamRecord();
+            record.setHeaderStrict(null);
+            records.add(record);
+        }
+        codec.encode(records, output);
+
+        // clear indexing bins after encoding to ensure all SAMRecords compare properly
+        for (final SAMRecord record : records) {
+            record.setFlags(record.getFlags());
+        }
+    }
+
+    @Override
+    public GATKReadBatch read(Kryo kryo, Input input, Class<GATKReadBatch> type) {
+        final boolean samBacked = input.readBoolean();
+        if (!samBacked) {
+            final int count = input.readVarInt(true);
+            final List<GATKRead> reads = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                reads.add((GATKRead) kryo.readClassAndObject(input));
+            }
+            return new GATKReadBatch(reads);
+        }
+
+        final List<SAMRecord> records = codec.decode(input);
+        final List<GATKRead> reads = new ArrayList<>(records.size());
+        for (final SAMRecord record : records) {
+            // headerlessReadAdapter() sets the reference indices to null, as the codec does not preserve them
+            reads.add(SAMRecordToGATKReadAdapter.headerlessReadAdapter(record));
+        }
+        return new GATKReadBatch(reads);
+    }
+}
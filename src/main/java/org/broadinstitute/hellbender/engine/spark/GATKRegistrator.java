@@ -14,6 +14,8 @@ import org.apache.spark.serializer.KryoRegistrator;
 import org.bdgenomics.adam.serialization.ADAMKryoRegistrator;
 import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
 import org.broadinstitute.hellbender.utils.read.markduplicates.PairedEnds;
+import org.broadinstitute.hellbender.utils.read.markduplicates.ReadSummary;
+import org.broadinstitute.hellbender.utils.read.markduplicates.ReadsKey;
 
 import java.util.Collections;
 
@@ -53,8 +55,12 @@ public class GATKRegistrator implements KryoRegistrator {
 
         kryo.register(SAMRecord.class, new SAMRecordSerializer());
 
+        kryo.register(GATKReadBatch.class, new GATKReadBatchSerializer());
+
         //register to avoid writing the full name of this class over and over
         kryo.register(PairedEnds.class, new FieldSerializer<>(kryo, PairedEnds.class));
+        kryo.register(ReadSummary.class, new FieldSerializer<>(kryo, ReadSummary.class));
+        kryo.register(ReadsKey.class, new FieldSerializer<>(kryo, ReadsKey.class));
 
         // register the ADAM data types using Avro serialization, including:
         //     AlignmentRecord
@@ -14,6 +14,13 @@ public enum JoinStrategy {
      */
     OVERLAPS_PARTITIONER,
 
+    /**
+     * Use an executor cache strategy, where a .2bit reference and variants given as files are loaded once per executor
+     * and shared by all its tasks, so the reads are not shuffled. A reference that is not .2bit, and variants that are
+     * not given as files, are broadcast instead.
+     */
+    EXECUTOR_CACHE,
+
     /**
      * Use a shuffle join strategy, where both sides of join are shuffled across the workers.
      */
@@ -0,0 +1,48 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.datasources.ReferenceSource;
+import org.broadinstitute.hellbender.engine.spark.datasources.ReferenceTwoBitSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache of .2bit references by path, with the property that there is only one copy of each reference per JVM.
+ * This class is an alternative to a Spark broadcast of the reference, which is serialized on the driver and
+ * deserialized by the executors; here each executor loads the packed reference straight from its path instead.
+ */
+class ReferenceCache {
+
+    private static final Logger log = LogManager.getLogger(ReferenceCache.class);
+
+    private static final Map<String, ReferenceSource> PATHS_TO_REFERENCES = new HashMap<>();
+
+    /**
+     * Returns whether a reference can be loaded by this cache, that is, whether it is a .2bit file.
+     */
+    public static boolean isCacheable(final String referenceURL) {
+        return referenceURL != null && ReferenceTwoBitSource.isTwoBit(referenceURL);
+    }
+
+    public static synchronized ReferenceSource getReference(final String referenceURL) {
+        if (PATHS_TO_REFERENCES.containsKey(referenceURL)) {
+            return PATHS_TO_REFERENCES.get(referenceURL);
+        }
+        final ReferenceSource reference = retrieveReference(referenceURL);
+        PATHS_TO_REFERENCES.put(referenceURL, reference);
+        return reference;
+    }
+
+    private static ReferenceSource retrieveReference(final String referenceURL) {
+        log.info("Loading reference " + referenceURL);
+        try {
+            return new ReferenceTwoBitSource(null, referenceURL);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile("Failed to load reference " + referenceURL, e);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
+import org.broadinstitute.hellbender.utils.spark.SparkUtils;
 import scala.Tuple2;
 
 import java.util.List;
@@ -72,7 +73,7 @@ public final class ShuffleJoinReadsWithRefBases {
             return new Tuple2<>(shard, gatkRead);
         });
 
-        JavaPairRDD<ReferenceShard, Iterable<GATKRead>> shardiRead = shardRead.groupByKey();
+        JavaPairRDD<ReferenceShard, Iterable<GATKRead>> shardiRead = SparkUtils.groupReadsByKey(shardRead);
 
         return shardiRead.flatMapToPair(in -> {
             List<Tuple2<GATKRead, ReferenceBases>> out = Lists.newArrayList();
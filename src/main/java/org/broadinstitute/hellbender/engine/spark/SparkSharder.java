@@ -1,11 +1,14 @@
 package org.broadinstitute.hellbender.engine.spark;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.collect.*;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.samtools.util.OverlapDetector;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
@@ -22,6 +25,8 @@ import org.broadinstitute.hellbender.engine.ShardBoundaryShard;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.spark.SparkUtils;
 import scala.Option;
 import scala.Tuple2;
 import scala.reflect.ClassTag;
@@ -37,6 +42,8 @@ import static org.broadinstitute.hellbender.utils.IntervalUtils.overlaps;
  * Utility methods for sharding {@link Locatable} objects (such as reads) for given intervals, without using a shuffle.
  */
 public class SparkSharder {
+    private static final Logger logger = LogManager.getLogger(SparkSharder.class);
+
     /**
      * Create an RDD of {@link Shard} from an RDD of coordinate sorted {@link Locatable} <i>without using a shuffle</i>.
      * Each shard contains the {@link Locatable} objects that overlap it (including overlapping only padding).
@@ -94,7 +101,8 @@ public class SparkSharder {
                 Set<ShardBoundary> overlaps = overlapDetectorBroadcast.getValue().getOverlaps(locatable);
                 return overlaps.stream().map(key -> new Tuple2<>(key, locatable)).collect(Collectors.toList()).iterator();
             });
-            JavaPairRDD<ShardBoundary, Iterable<L>> grouped = intervalsToLocatables.groupByKey();
+            JavaPairRDD<ShardBoundary, Iterable<L>> grouped = GATKRead.class.isAssignableFrom(locatableClass) ?
+                    groupReadsByKey(intervalsToLocatables) : intervalsToLocatables.groupByKey();
             return grouped.map((org.apache.spark.api.java.function.Function<Tuple2<ShardBoundary, Iterable<L>>, Shard<L>>) value -> new ShardBoundaryShard<>(value._1(), value._2()));
         }
         return joinOverlapping(ctx, locatables, locatableClass, sequenceDictionary, paddedIntervals, maxLocatableLength,
@@ -107,6 +115,109 @@ public class SparkSharder {
         });
     }
 
+    // reads are shuffled in batches, which serialize to much less than the reads one by one
+    @SuppressWarnings("unchecked")
+    private static <L extends Locatable> JavaPairRDD<ShardBoundary, Iterable<L>> groupReadsByKey(JavaPairRDD<ShardBoundary, L> shardsToReads) {
+        JavaPairRDD<ShardBoundary, Iterable<GATKRead>> grouped = SparkUtils.groupReadsByKey((JavaPairRDD<ShardBoundary, GATKRead>) (JavaPairRDD<ShardBoundary, ?>) shardsToReads);
+        return (JavaPairRDD<ShardBoundary, Iterable<L>>) (JavaPairRDD<ShardBoundary, ?>) grouped;
+    }
+
+    /**
+     * Divide intervals into {@link ShardBoundary} objects that each carry about the same amount of work, as measured by the
+     * number of locatables that start in them, rather than into shards of a fixed size. Dense regions are split into
+     * shards of as little as <code>binSize</code> bases, and sparse regions merged into shards of up to
+     * <code>maxShardSize</code> bases.
+     *
+     * The density of the locatables is found with a pass over them that counts how many start in each bin of
+     * <code>binSize</code> bases; the counts are then assumed to be spread evenly within bins. A histogram of the
+     * estimated number of locatables per shard is logged.
+     *
+     * @param locatables the RDD of {@link Locatable}
+     * @param sequenceDictionary the sequence dictionary to use to find contig lengths
+     * @param intervals the intervals to divide, must be coordinate sorted
+     * @param binSize the size of the bins the density is measured in, and the smallest shard size
+     * @param maxShardSize the largest shard size
+     * @param targetCount the number of locatables that should start in each shard
+     * @param shardPadding the number of bases of padding on either side of each shard
+     * @return the {@link ShardBoundary} objects spanning the intervals, in coordinate order
+     */
+    public static List<ShardBoundary> divideIntervalsByDensity(JavaRDD<? extends Locatable> locatables, SAMSequenceDictionary sequenceDictionary,
+                                                               List<SimpleInterval> intervals, int binSize, int maxShardSize,
+                                                               long targetCount, int shardPadding) {
+        Utils.validateArg(binSize >= 1, "binSize must be >= 1");
+        Utils.validateArg(maxShardSize >= binSize, "maxShardSize must be >= binSize");
+        Utils.validateArg(targetCount >= 1, "targetCount must be >= 1");
+        Utils.validateArg(shardPadding >= 0, "shardPadding must be >= 0");
+
+        Map<Long, Long> startsPerBin = new HashMap<>(locatables
+                .filter(locatable -> locatable.getContig() != null)
+                .mapToPair(locatable -> new Tuple2<>(binKey(sequenceDictionary.getSequenceIndex(locatable.getContig()), (locatable.getStart() - 1) / binSize), 1L))
+                .reduceByKey(Long::sum)
+                .collectAsMap());
+
+        List<ShardBoundary> shards = new ArrayList<>();
+        List<Double> shardCounts = new ArrayList<>();
+        for (SimpleInterval interval : intervals) {
+            divideIntervalByDensity(interval, startsPerBin, sequenceDictionary, binSize, maxShardSize, targetCount, shardPadding, shards, shardCounts);
+        }
+        logShardCountHistogram(shardCounts, targetCount);
+        return shards;
+    }
+
+    /**
+     * Divide one interval into shards as described in {@link #divideIntervalsByDensity}, given the number of
+     * locatables that start in each bin (keyed by {@link #binKey}). The shards, and the estimated number of
+     * locatables that start in each, are added to the given lists.
+     */
+    @VisibleForTesting
+    static void divideIntervalByDensity(SimpleInterval interval, Map<Long, Long> startsPerBin, SAMSequenceDictionary sequenceDictionary,
+                                        int binSize, int maxShardSize, long targetCount, int shardPadding,
+                                        List<ShardBoundary> shards, List<Double> shardCounts) {
+        int contigIndex = sequenceDictionary.getSequenceIndex(interval.getContig());
+        Utils.validateArg(contigIndex != -1, () -> "Contig not found in sequence dictionary: " + interval.getContig());
+
+        int shardStart = interval.getStart();
+        double shardCount = 0;
+        int start = interval.getStart();
+        while (start <= interval.getEnd()) {
+            // the part of the current bin that is in the interval, up to the largest shard size
+            int bin = (start - 1) / binSize;
+            int end = (int) Math.min(Math.min((bin + 1L) * binSize, interval.getEnd()), shardStart + maxShardSize - 1L);
+            shardCount += startsPerBin.getOrDefault(binKey(contigIndex, bin), 0L) * (double) (end - start + 1) / binSize;
+            if (shardCount >= targetCount || end - shardStart + 1 >= maxShardSize || end == interval.getEnd()) {
+                SimpleInterval shardInterval = new SimpleInterval(interval.getContig(), shardStart, end);
+                shards.add(new ShardBoundary(shardInterval, shardInterval.expandWithinContig(shardPadding, sequenceDictionary)));
+                shardCounts.add(shardCount);
+                shardStart = end + 1;
+                shardCount = 0;
+            }
+            start = end + 1;
+        }
+    }
+
+    @VisibleForTesting
+    static long binKey(int contigIndex, int bin) {
+        return ((long) contigIndex << 32) | bin;
+    }
+
+    // logs how many shards have an estimated count within each power of two of the target count
+    private static void logShardCountHistogram(List<Double> shardCounts, long targetCount) {
+        SortedMap<Integer, Integer> shardsPerPower = new TreeMap<>();
+        for (double count : shardCounts) {
+            int power = count == 0 ? Integer.MIN_VALUE : (int) Math.floor(Math.log(count / targetCount) / Math.log(2));
+            shardsPerPower.merge(power, 1, Integer::sum);
+        }
+        StringBuilder histogram = new StringBuilder(String.format("Divided intervals into %d shards with a target of %d locatables per shard. Estimated locatables per shard:",
+                shardCounts.size(), targetCount));
+        for (Map.Entry<Integer, Integer> entry : shardsPerPower.entrySet()) {
+            int power = entry.getKey();
+            String range = power == Integer.MIN_VALUE ? "0" :
+                    String.format("[%.0f, %.0f)", targetCount * Math.pow(2, power), targetCount * Math.pow(2, power + 1));
+            histogram.append(String.format("%n    %s: %d shards", range, entry.getValue()));
+        }
+        logger.info(histogram.toString());
+    }
+
     /**
      * Join an RDD of locatables with a set of intervals, and apply a function to process the locatables that overlap each interval.
      * @param ctx the Spark Context
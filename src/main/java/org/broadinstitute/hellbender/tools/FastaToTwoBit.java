@@ -0,0 +1,91 @@
+package org.broadinstitute.hellbender.tools;
+
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.cmdline.programgroups.FastaProgramGroup;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+import org.broadinstitute.hellbender.utils.reference.TwoBitReference;
+import org.broadinstitute.hellbender.utils.reference.TwoBitReferenceWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Converts a fasta reference into a .2bit file that tools can use as their reference (-R) instead of the fasta.
+ *
+ * The .2bit file is memory-mapped rather than read through a cache, so tools that query the reference at scattered
+ * locations (eg., BaseRecalibrator with known sites) no longer repeatedly decode the fasta. Bases are stored as they
+ * are returned from the fasta: upper-cased and with IUPAC ambiguity codes converted to N.
+ *
+ * If the fasta has a sequence dictionary (.dict) file it is copied next to the .2bit file.
+ *
+ * <h3>Example</h3>
+ * <pre>
+ * gatk-launch FastaToTwoBit \
+ *   -I reference.fasta \
+ *   -O reference.2bit
+ * </pre>
+ */
+@CommandLineProgramProperties(
+        summary = "Converts a fasta reference into a memory-mappable .2bit file that can be used as the reference of other tools",
+        oneLineSummary = "Converts a fasta reference into a .2bit file",
+        programGroup = FastaProgramGroup.class
+)
+@DocumentedFeature
+public final class FastaToTwoBit extends CommandLineProgram {
+    private static final Logger logger = LogManager.getLogger(FastaToTwoBit.class);
+
+    @Argument(fullName = StandardArgumentDefinitions.INPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.INPUT_SHORT_NAME,
+            doc = "Input reference fasta file.")
+    public File fastaFile;
+
+    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            doc = "Output .2bit file. If missing, the fasta file name with its extension replaced by .2bit is used.",
+            optional = true)
+    public File outputFile;
+
+    @Override
+    protected Object doWork() {
+        if ( ! fastaFile.canRead() ) {
+            throw new UserException.CouldNotReadInputFile(fastaFile);
+        }
+        if ( outputFile == null ) {
+            final String fastaPath = fastaFile.getAbsolutePath();
+            outputFile = new File(fastaPath.substring(0, fastaPath.lastIndexOf('.')) + TwoBitReference.TWO_BIT_EXTENSION);
+        }
+        if ( ! outputFile.getName().endsWith(TwoBitReference.TWO_BIT_EXTENSION) ) {
+            throw new UserException.CouldNotCreateOutputFile(outputFile, "the output file name must end with " + TwoBitReference.TWO_BIT_EXTENSION);
+        }
+
+        try ( final ReferenceSequenceFile fasta = ReferenceSequenceFileFactory.getReferenceSequenceFile(fastaFile) ) {
+            TwoBitReferenceWriter.write(fasta, outputFile.toPath());
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(fastaFile, e);
+        }
+        logger.info("Wrote " + outputFile.getAbsolutePath());
+
+        final File fastaDictFile = new File(ReferenceUtils.getFastaDictionaryFileName(fastaFile.getAbsolutePath()));
+        final File outputDictFile = new File(ReferenceUtils.getFastaDictionaryFileName(outputFile.getAbsolutePath()));
+        if ( fastaDictFile.exists() && ! fastaDictFile.equals(outputDictFile) ) {
+            try {
+                Files.copy(fastaDictFile.toPath(), outputDictFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch ( final IOException e ) {
+                throw new UserException.CouldNotCreateOutputFile(outputDictFile, "could not copy the sequence dictionary", e);
+            }
+            logger.info("Copied the sequence dictionary to " + outputDictFile.getAbsolutePath());
+        }
+        return outputFile.getAbsolutePath();
+    }
+}
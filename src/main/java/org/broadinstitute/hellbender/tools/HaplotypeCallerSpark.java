@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools;
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.reference.ReferenceSequence;
 import htsjdk.samtools.reference.ReferenceSequenceFile;
 import htsjdk.samtools.util.OverlapDetector;
@@ -29,6 +30,7 @@ import org.broadinstitute.hellbender.engine.spark.datasources.VariantsSparkSink;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.VariantAnnotatorEngine;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.AssemblyBasedCallerUtils;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.HaplotypeCaller;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.HaplotypeCallerArgumentCollection;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.HaplotypeCallerEngine;
@@ -39,7 +41,6 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler;
 import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
-import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 import org.broadinstitute.hellbender.utils.spark.SparkUtils;
 import scala.Tuple2;
 
@@ -67,6 +68,7 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
     private static final long serialVersionUID = 1L;
 
     public static final int DEFAULT_READSHARD_SIZE = 5000;
+    public static final int DEFAULT_MIN_READSHARD_SIZE = 1000;
 
     @Argument(fullName= StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, doc = "Single file to which variants should be written")
     public String output;
@@ -80,6 +82,14 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
         @Argument(fullName="readShardSize", shortName="readShardSize", doc = "Maximum size of each read shard, in bases. For good performance, this should be much larger than the maximum assembly region size.", optional = true)
         public int readShardSize = DEFAULT_READSHARD_SIZE;
 
+        @Advanced
+        @Argument(fullName="readShardTargetReads", shortName="readShardTargetReads", doc = "If positive, size read shards by read density rather than making them all readShardSize bases: dense regions are split into shards of as little as minReadShardSize bases, and sparse regions merged into shards of up to readShardSize bases, so that about this many reads start in each shard. This takes an extra pass over the reads.", optional = true)
+        public int readShardTargetReads = 0;
+
+        @Advanced
+        @Argument(fullName="minReadShardSize", shortName="minReadShardSize", doc = "Minimum size of each read shard, in bases, when sizing read shards by read density. Read density is measured at this resolution.", optional = true)
+        public int minReadShardSize = DEFAULT_MIN_READSHARD_SIZE;
+
         @Argument(fullName="readShardPadding", shortName="readShardPadding", doc = "Each read shard has this many bases of extra context on each side. Read shards must have as much or more padding than assembly regions.", optional = true)
         public int readShardPadding = HaplotypeCaller.DEFAULT_READSHARD_PADDING;
 
@@ -210,36 +220,43 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
         final VariantAnnotatorEngine variantAnnotatorEngine = VariantAnnotatorEngine.ofSelectedMinusExcluded(hcArgs.variantAnnotationArgumentCollection, hcArgs.dbsnp.dbsnp, hcArgs.comps);
         final Broadcast<VariantAnnotatorEngine> annotatorEngineBroadcast = ctx.broadcast(variantAnnotatorEngine);
 
-        final List<ShardBoundary> shardBoundaries = getShardBoundaries(header, intervals, shardingArgs.readShardSize, shardingArgs.readShardPadding);
+        final List<ShardBoundary> shardBoundaries = shardingArgs.readShardTargetReads > 0 ?
+                getShardBoundariesByDensity(reads, header, intervals, shardingArgs) :
+                getShardBoundaries(header, intervals, shardingArgs.readShardSize, shardingArgs.readShardPadding);
 
         final int maxReadLength = reads.map(r -> r.getEnd() - r.getStart() + 1).reduce(Math::max);
 
         final JavaRDD<Shard<GATKRead>> readShards = SparkSharder.shard(ctx, reads, GATKRead.class, header.getSequenceDictionary(), shardBoundaries, maxReadLength);
 
-        final JavaRDD<Tuple2<AssemblyRegion, SimpleInterval>> assemblyRegions = readShards
-                .mapPartitions(shardsToAssemblyRegions(authHolder, referenceBroadcast,
-                    hcArgsBroadcast, shardingArgs, header, annotatorEngineBroadcast));
-
-        return assemblyRegions.mapPartitions(callVariantsFromAssemblyRegions(authHolder, header, referenceBroadcast, hcArgsBroadcast, annotatorEngineBroadcast));
+        return readShards.mapPartitions(shardsToVariants(authHolder, referenceBroadcast, hcArgsBroadcast, shardingArgs, header, annotatorEngineBroadcast));
     }
 
     /**
-     * Call variants from Tuples of AssemblyRegion and Simple Interval
-     * The interval should be the non-padded shard boundary for the shard that the corresponding AssemblyRegion was
-     * created in, it's used to eliminate redundant variant calls at the edge of shard boundaries.
+     * Finds the assembly regions of each shard and calls variants in them as they are found, so that a partition is
+     * processed in a single pass with a single {@link HaplotypeCallerEngine}. Only the variants that start in the
+     * non-padded interval of the shard a region was found in are kept, to eliminate redundant variant calls at the
+     * edges of shards.
      */
-    private static FlatMapFunction<Iterator<Tuple2<AssemblyRegion, SimpleInterval>>, VariantContext> callVariantsFromAssemblyRegions(
+    private static FlatMapFunction<Iterator<Shard<GATKRead>>, VariantContext> shardsToVariants(
             final AuthHolder authHolder,
-            final SAMFileHeader header,
-            final Broadcast<ReferenceMultiSource> referenceBroadcast,
+            final Broadcast<ReferenceMultiSource> reference,
             final Broadcast<HaplotypeCallerArgumentCollection> hcArgsBroadcast,
+            final ShardingArgumentCollection assemblyArgs,
+            final SAMFileHeader header,
             final Broadcast<VariantAnnotatorEngine> annotatorEngineBroadcast) {
-        return regionAndIntervals -> {
+        return shards -> {
             //HaplotypeCallerEngine isn't serializable but is expensive to instantiate, so construct and reuse one for every partition
-            final ReferenceMultiSource referenceMultiSource = referenceBroadcast.value();
-            final ReferenceMultiSourceAdapter referenceSource = new ReferenceMultiSourceAdapter(referenceMultiSource, authHolder);
+            final ReferenceMultiSource referenceMultiSource = reference.value();
+            final ReferenceMultiSourceAdapter referenceSource = new ReferenceMultiSourceAdapter(referenceMultiSource, authHolder,
+                    AssemblyBasedCallerUtils.REFERENCE_PADDING_FOR_ASSEMBLY);
             final HaplotypeCallerEngine hcEngine = new HaplotypeCallerEngine(hcArgsBroadcast.value(), false, false, header, referenceSource, annotatorEngineBroadcast.getValue());
-            return iteratorToStream(regionAndIntervals).flatMap(regionToVariants(hcEngine)).iterator();
+
+            final ReadsDownsampler readsDownsampler = assemblyArgs.maxReadsPerAlignmentStart > 0 ?
+                new PositionalDownsampler(assemblyArgs.maxReadsPerAlignmentStart, header) : null;
+            return iteratorToStream(shards)
+                .map(shard -> new DownsampleableSparkReadShard(new ShardBoundary(shard.getInterval(), shard.getPaddedInterval()), shard, readsDownsampler))
+                .flatMap(shardToRegion(assemblyArgs, header, referenceSource, hcEngine))
+                .flatMap(regionToVariants(hcEngine)).iterator();
         };
     }
 
@@ -275,6 +292,20 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
         }
     }
 
+    /**
+     * @return a list of {@link ShardBoundary} based on the -L intervals, sized so that each carries about
+     * {@link ShardingArgumentCollection#readShardTargetReads} reads
+     */
+    private static List<ShardBoundary> getShardBoundariesByDensity(final JavaRDD<GATKRead> reads, final SAMFileHeader header,
+                                                                   final List<SimpleInterval> intervals, final ShardingArgumentCollection shardingArgs) {
+        if (shardingArgs.minReadShardSize < 1 || shardingArgs.minReadShardSize > shardingArgs.readShardSize) {
+            throw new CommandLineException.BadArgumentValue("minReadShardSize", String.valueOf(shardingArgs.minReadShardSize),
+                    "must be at least 1 and at most readShardSize (" + shardingArgs.readShardSize + ")");
+        }
+        return SparkSharder.divideIntervalsByDensity(reads, header.getSequenceDictionary(), intervals, shardingArgs.minReadShardSize,
+                shardingArgs.readShardSize, shardingArgs.readShardTargetReads, shardingArgs.readShardPadding);
+    }
+
     /**
      * @return a list of {@link ShardBoundary}
      * based on the -L intervals
@@ -286,30 +317,6 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
             .collect(Collectors.toList());
     }
 
-    /**
-     * @return and RDD of {@link Tuple2<AssemblyRegion, SimpleInterval>} which pairs each AssemblyRegion with the
-     * interval it was generated in
-     */
-    private static FlatMapFunction<Iterator<Shard<GATKRead>>, Tuple2<AssemblyRegion, SimpleInterval>> shardsToAssemblyRegions(
-            final AuthHolder authHolder,
-            final Broadcast<ReferenceMultiSource> reference,
-            final Broadcast<HaplotypeCallerArgumentCollection> hcArgsBroadcast,
-            final ShardingArgumentCollection assemblyArgs,
-            final SAMFileHeader header,
-            final Broadcast<VariantAnnotatorEngine> annotatorEngineBroadcast) {
-        return shards -> {
-            final ReferenceMultiSource referenceMultiSource = reference.value();
-            final ReferenceMultiSourceAdapter referenceSource = new ReferenceMultiSourceAdapter(referenceMultiSource, authHolder);
-            final HaplotypeCallerEngine hcEngine = new HaplotypeCallerEngine(hcArgsBroadcast.value(), false, false, header, referenceSource, annotatorEngineBroadcast.getValue());
-
-            final ReadsDownsampler readsDownsampler = assemblyArgs.maxReadsPerAlignmentStart > 0 ?
-                new PositionalDownsampler(assemblyArgs.maxReadsPerAlignmentStart, header) : null;
-            return iteratorToStream(shards)
-                .map(shard -> new DownsampleableSparkReadShard(new ShardBoundary(shard.getInterval(), shard.getPaddedInterval()), shard, readsDownsampler))
-                .flatMap(shardToRegion(assemblyArgs, header, referenceSource, hcEngine)).iterator();
-        };
-    }
-
     private static Function<Shard<GATKRead>, Stream<? extends Tuple2<AssemblyRegion, SimpleInterval>>> shardToRegion(
             ShardingArgumentCollection assemblyArgs,
             SAMFileHeader header,
@@ -339,6 +346,11 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
      * Adapter to allow a 2bit reference to be used in HaplotypeCallerEngine.
      * This is not intended as a general purpose adapter, it only enables the operations needed in {@link HaplotypeCallerEngine}
      * This should not be used outside of this class except for testing purposes.
+     *
+     * The adapter keeps the bases of the last window of the reference it loaded, padded on each side by a given amount,
+     * and answers queries that fall within that window without going back to the reference. A shard's reference context
+     * loads the window that the queries for the assembly regions of the shard then fall in, as long as the padding is at
+     * least the padding the engine adds around assembly regions.
      */
     @VisibleForTesting
     public static final class ReferenceMultiSourceAdapter implements ReferenceSequenceFile, ReferenceDataSource, Serializable{
@@ -347,10 +359,25 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
         private final ReferenceMultiSource source;
         private final AuthHolder auth;
         private final SAMSequenceDictionary sequenceDictionary;
+        private final int windowPadding;
+
+        private transient SimpleInterval window;
+        private transient byte[] windowBases;
 
         public ReferenceMultiSourceAdapter(final ReferenceMultiSource source, final AuthHolder auth) {
+            this(source, auth, 0);
+        }
+
+        /**
+         * @param source the reference
+         * @param auth authorization needed for reading the reference
+         * @param windowPadding number of bases to load on each side of a query that is not within the current window
+         */
+        public ReferenceMultiSourceAdapter(final ReferenceMultiSource source, final AuthHolder auth, final int windowPadding) {
+            Utils.validateArg(windowPadding >= 0, "windowPadding must be >= 0");
             this.source = source;
             this.auth = auth;
+            this.windowPadding = windowPadding;
             sequenceDictionary = source.getReferenceSequenceDictionary(null);
         }
 
@@ -386,11 +413,28 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
 
         @Override
         public ReferenceSequence getSubsequenceAt(final String contig, final long start, final long stop) {
+            final SimpleInterval interval = new SimpleInterval(contig, (int) start, (int) stop);
+            final SAMSequenceRecord contigRecord = sequenceDictionary.getSequence(contig);
+            if (contigRecord == null || stop > contigRecord.getSequenceLength()) {
+                // the query extends past the end of the contig, so only the reference can say what it returns;
+                // it is not a query for bases near the current window, so keep that window
+                return new ReferenceSequence(contig, sequenceDictionary.getSequenceIndex(contig), getReferenceBases(interval));
+            }
+            if (window == null || !window.contains(interval)) {
+                final SimpleInterval newWindow = interval.expandWithinContig(windowPadding, sequenceDictionary);
+                windowBases = getReferenceBases(newWindow);
+                window = newWindow;
+            }
+            final int offset = interval.getStart() - window.getStart();
+            final byte[] bases = Arrays.copyOfRange(windowBases, offset, offset + interval.size());
+            return new ReferenceSequence(contig, contigRecord.getSequenceIndex(), bases);
+        }
+
+        private byte[] getReferenceBases(final SimpleInterval interval) {
             try {
-                final ReferenceBases bases = source.getReferenceBases(auth.asPipelineOptionsDeprecated(), new SimpleInterval(contig, (int) start, (int) stop));
-                return new ReferenceSequence(contig, sequenceDictionary.getSequenceIndex(contig), bases.getBases());
+                return source.getReferenceBases(auth.asPipelineOptionsDeprecated(), interval).getBases();
             } catch (final IOException e) {
-                throw new GATKException(String.format("Failed to load reference bases for %s:%d-%d", contig, start, stop));
+                throw new GATKException(String.format("Failed to load reference bases for %s:%d-%d", interval.getContig(), interval.getStart(), interval.getEnd()));
             }
         }
 
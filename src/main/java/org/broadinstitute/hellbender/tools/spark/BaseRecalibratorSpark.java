@@ -83,7 +83,7 @@ public class BaseRecalibratorSpark extends GATKSparkTool {
 
     @Override
     protected void runTool( JavaSparkContext ctx ) {
-        if (joinStrategy == JoinStrategy.BROADCAST && ! getReference().isCompatibleWithSparkBroadcast()){
+        if ((joinStrategy == JoinStrategy.BROADCAST || joinStrategy == JoinStrategy.EXECUTOR_CACHE) && ! getReference().isCompatibleWithSparkBroadcast()){
             throw new UserException.Require2BitReferenceForBroadcast();
         }
 
@@ -87,7 +87,7 @@ public final class BQSRPipelineSpark extends GATKSparkTool {
 
     @Override
     protected void runTool(final JavaSparkContext ctx) {
-        if (joinStrategy == JoinStrategy.BROADCAST && ! getReference().isCompatibleWithSparkBroadcast()){
+        if ((joinStrategy == JoinStrategy.BROADCAST || joinStrategy == JoinStrategy.EXECUTOR_CACHE) && ! getReference().isCompatibleWithSparkBroadcast()){
             throw new UserException.Require2BitReferenceForBroadcast();
         }
         //Should this get the getUnfilteredReads? getReads will merge default and command line filters.
@@ -68,6 +68,7 @@ public final class BwaAndMarkDuplicatesPipelineSpark extends GATKSparkTool {
             } catch (IOException e) {
                 throw new GATKException("unable to write bam: " + e);
             }
+            alignedReads.unpersist();
         }
     }
 }
@@ -5,6 +5,7 @@ import htsjdk.samtools.metrics.MetricsFile;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.storage.StorageLevel;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.BetaFeature;
@@ -54,9 +55,19 @@ public final class MarkDuplicatesSpark extends GATKSparkTool {
         return Collections.singletonList(ReadFilterLibrary.ALLOW_ALL_READS);
     }
 
+    /**
+     * Marks the duplicates among the reads.
+     *
+     * The reads are traversed twice, and must come out in the same order both times, so they are persisted
+     * ({@link StorageLevel#MEMORY_AND_DISK_SER()}) unless they already are. Callers should unpersist them once
+     * the marked reads have been written.
+     */
     public static JavaRDD<GATKRead> mark(final JavaRDD<GATKRead> reads, final SAMFileHeader header,
                                          final MarkDuplicatesScoringStrategy scoringStrategy,
                                          final OpticalDuplicateFinder opticalDuplicateFinder, final int numReducers) {
+        if (reads.getStorageLevel().equals(StorageLevel.NONE())) {
+            reads.persist(StorageLevel.MEMORY_AND_DISK_SER());
+        }
 
         JavaRDD<GATKRead> primaryReads = reads.filter(v1 -> !ReadUtils.isNonPrimary(v1));
         JavaRDD<GATKRead> nonPrimaryReads = reads.filter(v1 -> ReadUtils.isNonPrimary(v1));
@@ -81,6 +92,7 @@ public final class MarkDuplicatesSpark extends GATKSparkTool {
 
         final JavaRDD<GATKRead> finalReads = cleanupTemporaryAttributes(finalReadsForMetrics);
         writeReads(ctx, output, finalReads);
+        reads.unpersist();
     }
 
 
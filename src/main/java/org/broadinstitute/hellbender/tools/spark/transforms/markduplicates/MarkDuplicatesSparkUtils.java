@@ -2,7 +2,9 @@ package org.broadinstitute.hellbender.tools.spark.transforms.markduplicates;
 
 import com.google.common.collect.*;
 import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
 import htsjdk.samtools.metrics.MetricsFile;
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.broadinstitute.hellbender.engine.AuthHolder;
@@ -10,8 +12,6 @@ import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.metrics.MetricsUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
-import org.broadinstitute.hellbender.utils.read.ReadCoordinateComparator;
-import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.read.markduplicates.*;
 import scala.Tuple2;
 
@@ -27,84 +27,119 @@ public class MarkDuplicatesSparkUtils {
     // Used to set an attribute on the GATKRead marking this read as an optical duplicate.
     public static final String OPTICAL_DUPLICATE_TOTAL_ATTRIBUTE_NAME = "OD";
 
+    // Value of a mark for a read that is a duplicate; the best pair of a group is instead marked with its optical duplicate count.
+    private static final int DUPLICATE_MARK = -1;
+
     /**
-     * (0) filter: remove unpaired reads and reads with an unmapped mate.
-     * (1) keyReadsByName: label each read with its read group and read name.
-     * (2) GroupByKey: group together reads with the same group and name.
-     * (3) keyPairedEndsWithAlignmentInfo:
-     *   (a) Sort each group of reads (see GATKOrder below).
-     *   (b) Pair consecutive reads into PairedEnds. In most cases there will only be two reads
+     * (0) index: give each read a unique index (see {@link JavaRDD#zipWithUniqueId()}) and summarize it
+     *     (see {@link ReadSummary}). Only summaries and marks are shuffled from here on, never whole reads.
+     * (1) GroupByKey: group together reads with the same name. The key is the hash of the name, since the name
+     *     is already in the summary. If the reads are sorted by name this is done within each partition (no shuffle).
+     * (2) keyPairedEndsWithAlignmentInfo:
+     *   (a) Split each group by read group and name (see {@link #groupByReadGroupAndName}).
+     *   (b) Sort each group of reads (see GATKOrder below).
+     *   (c) Pair consecutive reads into PairedEnds. In most cases there will only be two reads
      *       with the same name. TODO: explain why there might be more.
-     *   (c) Label each read with alignment information: Library, reference index,
+     *   (d) Label each read with alignment information (see {@link ReadsKey}): Library, reference index,
      *       stranded unclipped start and reverse strand.
-     *   (d) Leftover reads are emitted, unmodified, as an unpaired end.
-     * (4) GroupByKey: Group PairedEnds that share alignment information. These pairs
+     *   (e) Leftover reads are emitted as an unpaired end.
+     * (3) GroupByKey: Group PairedEnds that share alignment information. These pairs
      *     are duplicates of each other.
-     * (5) markDuplicatePairs:
-     *   (a) For each group created by (4), sort the pairs by score and mark all but the
+     * (4) markDuplicates:
+     *   (a) For each group created by (3), sort the pairs by score and mark all but the
      *       highest scoring as duplicates.
-     *   (b) Determine which duplicates are optical duplicates and increase the overall count.
+     *   (b) Determine which duplicates are optical duplicates and count them.
+     * (5) applyMarks: bring the marks, keyed by read index, to the partitions of their reads and apply them
+     *     in a single pass over each partition.
+     *
+     * The reads are traversed twice, once in (0) and once in (5), and must come out in the same order both times,
+     * so they must be persisted (see {@link MarkDuplicatesSpark#mark}).
      */
     static JavaRDD<GATKRead> transformReads(final SAMFileHeader header, final MarkDuplicatesScoringStrategy scoringStrategy, final OpticalDuplicateFinder finder, final JavaRDD<GATKRead> reads, final int numReducers) {
+        final JavaPairRDD<GATKRead, Long> indexedReads = reads.zipWithUniqueId();
+        final JavaRDD<ReadSummary> summaries = summarizeReads(header, scoringStrategy, indexedReads);
 
-        JavaPairRDD<String, Iterable<GATKRead>> keyedReads;
+        final JavaRDD<Iterable<ReadSummary>> readsByName;
         if (SAMFileHeader.SortOrder.queryname.equals(header.getSortOrder())) {
             // reads are already sorted by name, so perform grouping within the partition (no shuffle)
-            keyedReads = spanReadsByKey(header, reads);
+            readsByName = spanByKey(summaries.mapToPair(read -> new Tuple2<>(read.getName(), read))).values();
         } else {
-            // sort by group and name (incurs a shuffle)
-            JavaPairRDD<String, GATKRead> keyReadPairs = reads.mapToPair(read -> new Tuple2<>(ReadsKey.keyForRead(header, read), read));
-            keyedReads = keyReadPairs.groupByKey(numReducers);
+            // group by name (incurs a shuffle); different names with the same hash are told apart later
+            readsByName = summaries.mapToPair(read -> new Tuple2<>(Objects.hashCode(read.getName()), read)).groupByKey(numReducers).values();
         }
 
-        JavaPairRDD<String, Iterable<PairedEnds>> keyedPairs = keyedReads.flatMapToPair(keyedRead -> {
-            List<Tuple2<String, PairedEnds>> out = Lists.newArrayList();
-            // Write each read out as a pair with only the first slot filled
-            for (GATKRead read : keyedRead._2()) {
-                read.setIsDuplicate(false);
-                final PairedEnds pair = PairedEnds.of(read);
-                out.add(new Tuple2<>(pair.keyForFragment(header), pair));
-            }
-            // Write each paired read with a mapped mate as a pair
-            final List<GATKRead> sorted = Lists.newArrayList(Iterables.filter(keyedRead._2(), read -> ReadUtils.readHasMappedMate(read)));
-            sorted.sort(new GATKOrder(header));
-            PairedEnds pair = null;
-            //Records are sorted, we iterate over them and pair them up.
-            for (final GATKRead record : sorted) {
-                if (pair == null) {                                //first in pair
-                    pair = PairedEnds.of(record);
-                } else {                                           //second in pair
-                    pair.and(record);
-                    out.add(new Tuple2<>(pair.key(header), pair));
-                    pair = null;                                   //back to first
+        final JavaPairRDD<ReadsKey, Iterable<PairedEnds>> keyedPairs = readsByName.flatMapToPair(namedReads -> {
+            final List<Tuple2<ReadsKey, PairedEnds>> out = Lists.newArrayList();
+            for (final List<ReadSummary> group : groupByReadGroupAndName(namedReads)) {
+                // Write each read out as a pair with only the first slot filled
+                for (final ReadSummary read : group) {
+                    final PairedEnds pair = PairedEnds.of(read);
+                    out.add(new Tuple2<>(pair.keyForFragment(), pair));
+                }
+                // Write each paired read with a mapped mate as a pair
+                final List<ReadSummary> sorted = Lists.newArrayList(Iterables.filter(group, ReadSummary::hasMappedMate));
+                sorted.sort(new GATKOrder());
+                PairedEnds pair = null;
+                //Records are sorted, we iterate over them and pair them up.
+                for (final ReadSummary record : sorted) {
+                    if (pair == null) {                                //first in pair
+                        pair = PairedEnds.of(record);
+                    } else {                                           //second in pair
+                        pair.and(record);
+                        out.add(new Tuple2<>(pair.key(), pair));
+                        pair = null;                                   //back to first
+                    }
+                }
+                if (pair != null) {                                    //left over read
+                    out.add(new Tuple2<>(pair.key(), pair));
                 }
-            }
-            if (pair != null) {                                    //left over read
-                out.add(new Tuple2<>(pair.key(header), pair));
             }
             return out.iterator();
         }).groupByKey(numReducers);
 
-        return markPairedEnds(keyedPairs, scoringStrategy, finder, header);
+        return applyMarks(indexedReads, markDuplicates(keyedPairs, finder));
     }
 
-    static JavaPairRDD<String, Iterable<GATKRead>> spanReadsByKey(final SAMFileHeader header, final JavaRDD<GATKRead> reads) {
-        JavaPairRDD<String, GATKRead> nameReadPairs = reads.mapToPair(read -> new Tuple2<>(read.getName(), read));
-        return spanByKey(nameReadPairs).flatMapToPair(namedRead -> {
-            // for each name, separate reads by key (group name)
-            List<Tuple2<String, Iterable<GATKRead>>> out = Lists.newArrayList();
-            ListMultimap<String, GATKRead> multi = LinkedListMultimap.create();
-            for (GATKRead read : namedRead._2()) {
-                multi.put(ReadsKey.keyForRead(header, read), read);
-            }
-            for (String key : multi.keySet()) {
-                // list from Multimap is not serializable by Kryo, so put in a new array list
-                out.add(new Tuple2<>(key, Lists.newArrayList(multi.get(key))));
+    /**
+     * Summarizes indexed reads, numbering their read groups and libraries after the header.
+     */
+    static JavaRDD<ReadSummary> summarizeReads(final SAMFileHeader header, final MarkDuplicatesScoringStrategy scoringStrategy, final JavaPairRDD<GATKRead, Long> indexedReads) {
+        final List<SAMReadGroupRecord> readGroups = header.getReadGroups();
+        Utils.validateArg(readGroups.size() <= Short.MAX_VALUE, () -> "too many read groups to mark duplicates: " + readGroups.size());
+        final Map<String, Short> readGroupIndices = new HashMap<>();
+        final Map<String, Short> libraryIds = new HashMap<>();
+        final Map<String, Short> libraryIdsByName = new HashMap<>();
+        for (final SAMReadGroupRecord readGroup : readGroups) {
+            readGroupIndices.put(readGroup.getReadGroupId(), (short) readGroupIndices.size());
+            final String library = readGroup.getLibrary();
+            if (library != null) {
+                if (!libraryIdsByName.containsKey(library)) {
+                    libraryIdsByName.put(library, (short) libraryIdsByName.size());
+                }
+                libraryIds.put(readGroup.getReadGroupId(), libraryIdsByName.get(library));
             }
-            return out.iterator();
+        }
+
+        return indexedReads.map(indexedRead -> {
+            final GATKRead read = indexedRead._1();
+            return ReadSummary.of(read, indexedRead._2(), header,
+                    readGroupIndices.getOrDefault(read.getReadGroup(), ReadSummary.UNKNOWN),
+                    libraryIds.getOrDefault(read.getReadGroup(), ReadSummary.UNKNOWN),
+                    scoringStrategy);
         });
     }
 
+    /**
+     * Splits reads into groups that share both read group and name, keeping the order of the reads within each group.
+     */
+    static Collection<List<ReadSummary>> groupByReadGroupAndName(final Iterable<ReadSummary> reads) {
+        final Map<Tuple2<Short, String>, List<ReadSummary>> groups = new LinkedHashMap<>();
+        for (final ReadSummary read : reads) {
+            groups.computeIfAbsent(new Tuple2<>(read.getReadGroupIndex(), read.getName()), key -> new ArrayList<>()).add(read);
+        }
+        return groups.values();
+    }
+
     /**
      * Like <code>groupByKey</code>, but assumes that values are already sorted by key, so no shuffle is needed,
      * which is much faster.
@@ -154,31 +189,31 @@ public class MarkDuplicatesSparkUtils {
         };
     }
 
-    static JavaRDD<GATKRead> markPairedEnds(final JavaPairRDD<String, Iterable<PairedEnds>> keyedPairs,
-                                            final MarkDuplicatesScoringStrategy scoringStrategy,
-                                            final OpticalDuplicateFinder finder, final SAMFileHeader header) {
-        return keyedPairs.flatMap(keyedPair -> {
+    /**
+     * Computes the duplicate marks of the reads in each group of paired ends or fragments.
+     *
+     * @return pairs of a read index and a mark: {@link #DUPLICATE_MARK} for duplicates, or the number of optical duplicates
+     * for the first read of the best pair of each group. Reads that are not duplicates may have no mark.
+     */
+    static JavaPairRDD<Long, Integer> markDuplicates(final JavaPairRDD<ReadsKey, Iterable<PairedEnds>> keyedPairs,
+                                                     final OpticalDuplicateFinder finder) {
+        return keyedPairs.flatMapToPair(keyedPair -> {
             Iterable<PairedEnds> pairedEnds = keyedPair._2();
-            final ImmutableListMultimap<Boolean, PairedEnds> paired = Multimaps.index(pairedEnds, pair -> pair.second() != null);
 
             // Each key corresponds to either fragments or paired ends, not a mixture of both.
 
-            if (ReadsKey.isFragment(keyedPair._1())) { // fragments
-                return handleFragments(pairedEnds, scoringStrategy, header).iterator();
+            if (keyedPair._1().isFragment()) { // fragments
+                return handleFragments(pairedEnds).iterator();
             }
 
-            List<GATKRead> out = Lists.newArrayList();
+            List<Tuple2<Long, Integer>> out = Lists.newArrayList();
 
             // As in Picard, unpaired ends left alone.
-            for (final PairedEnds pair : paired.get(false)) {
-                out.add(pair.first());
-            }
-
-            // Order by score using ReadCoordinateComparator for tie-breaking.
+            // Order by score using the coordinates of the first ends for tie-breaking.
             Comparator<PairedEnds> pairedEndsComparator =
-                    Comparator.<PairedEnds, Integer>comparing(pe -> pe.score(scoringStrategy)).reversed()
-                            .thenComparing((o1, o2) -> new ReadCoordinateComparator(header).compare(o1.first(), o2.first()));
-            final List <PairedEnds> scored = paired.get(true).stream().sorted(pairedEndsComparator).collect(Collectors.toList());
+                    Comparator.<PairedEnds>comparingInt(PairedEnds::score).reversed()
+                            .thenComparing(PairedEnds::first, ReadSummary.COORDINATE_ORDER);
+            final List<PairedEnds> scored = Utils.stream(pairedEnds).filter(pair -> pair.second() != null).sorted(pairedEndsComparator).collect(Collectors.toList());
 
             final PairedEnds best = Iterables.getFirst(scored, null);
             if (best == null) {
@@ -187,8 +222,8 @@ public class MarkDuplicatesSparkUtils {
 
             // Mark everyone who's not best as a duplicate
             for (final PairedEnds pair : Iterables.skip(scored, 1)) {
-                pair.first().setIsDuplicate(true);
-                pair.second().setIsDuplicate(true);
+                out.add(new Tuple2<>(pair.first().getIndex(), DUPLICATE_MARK));
+                out.add(new Tuple2<>(pair.second().getIndex(), DUPLICATE_MARK));
             }
 
             // Now, add location information to the paired ends
@@ -208,16 +243,57 @@ public class MarkDuplicatesSparkUtils {
             } else {
                 numOpticalDuplicates = countOpticalDuplicates(finder, scored);
             }
-            best.first().setAttribute(OPTICAL_DUPLICATE_TOTAL_ATTRIBUTE_NAME, numOpticalDuplicates);
-
-            for (final PairedEnds pair : scored) {
-                out.add(pair.first());
-                out.add(pair.second());
-            }
+            out.add(new Tuple2<>(best.first().getIndex(), numOpticalDuplicates));
             return out.iterator();
         });
     }
 
+    /**
+     * Applies the duplicate marks to the reads they were computed for. The marks are sent to the partitions that
+     * hold their reads, sorted by read index, so that the reads themselves are never moved.
+     *
+     * @throws GATKException if a partition has a mark for a read index that none of its reads has
+     */
+    static JavaRDD<GATKRead> applyMarks(final JavaPairRDD<GATKRead, Long> indexedReads, final JavaPairRDD<Long, Integer> marks) {
+        final JavaPairRDD<Long, Integer> sortedMarks = marks.repartitionAndSortWithinPartitions(new ReadIndexPartitioner(indexedReads.getNumPartitions()));
+        return indexedReads.zipPartitions(sortedMarks, (readsInPartition, marksInPartition) -> {
+            final PeekingIterator<Tuple2<Long, Integer>> marksIterator = Iterators.peekingIterator(marksInPartition);
+            return new Iterator<GATKRead>() {
+                @Override
+                public boolean hasNext() {
+                    if (readsInPartition.hasNext()) {
+                        return true;
+                    }
+                    if (marksIterator.hasNext()) {
+                        throw new GATKException("Duplicate mark for read index " + marksIterator.peek()._1() + " is past the last read of its partition");
+                    }
+                    return false;
+                }
+
+                @Override
+                public GATKRead next() {
+                    final Tuple2<GATKRead, Long> indexedRead = readsInPartition.next();
+                    final GATKRead read = indexedRead._1();
+                    final long index = indexedRead._2();
+                    read.setIsDuplicate(false);
+                    // both the reads and the marks of a partition are in increasing order of index
+                    if (marksIterator.hasNext() && marksIterator.peek()._1() < index) {
+                        throw new GATKException("Duplicate mark for read index " + marksIterator.peek()._1() + " matches no read of its partition");
+                    }
+                    while (marksIterator.hasNext() && marksIterator.peek()._1() == index) {
+                        final int mark = marksIterator.next()._2();
+                        if (mark == DUPLICATE_MARK) {
+                            read.setIsDuplicate(true);
+                        } else {
+                            read.setAttribute(OPTICAL_DUPLICATE_TOTAL_ATTRIBUTE_NAME, mark);
+                        }
+                    }
+                    return read;
+                }
+            };
+        });
+    }
+
     private static int countOpticalDuplicates(OpticalDuplicateFinder finder, List<PairedEnds> scored) {
         final boolean[] opticalDuplicateFlags = finder.findOpticalDuplicates(scored);
         int numOpticalDuplicates = 0;
@@ -229,34 +305,27 @@ public class MarkDuplicatesSparkUtils {
         return numOpticalDuplicates;
     }
 
-    private static List<GATKRead> handleFragments(Iterable<PairedEnds> pairedEnds, final MarkDuplicatesScoringStrategy scoringStrategy, final SAMFileHeader header) {
-        List<GATKRead> reads = Lists.newArrayList();
+    private static List<Tuple2<Long, Integer>> handleFragments(Iterable<PairedEnds> pairedEnds) {
+        List<Tuple2<Long, Integer>> marks = Lists.newArrayList();
 
-        final Iterable<GATKRead> transform = Iterables.transform(pairedEnds, pair -> pair.first());
-        Iterable<GATKRead> readsCopy = Iterables.transform(transform, GATKRead::copy);
-        final Map<Boolean, List<GATKRead>> byPairing = Utils.stream(readsCopy).collect(Collectors.partitioningBy(
-                read -> ReadUtils.readHasMappedMate(read)
+        final Map<Boolean, List<ReadSummary>> byPairing = Utils.stream(pairedEnds).map(PairedEnds::first).collect(Collectors.partitioningBy(
+                ReadSummary::hasMappedMate
         ));
-        // Note the we emit only fragments from this mapper.
+        // Note the we mark only fragments from this mapper.
         if (byPairing.get(true).isEmpty()) {
             // There are no paired reads, mark all but the highest scoring fragment as duplicate.
-            Comparator<GATKRead> fragmentsComparator = Comparator.<GATKRead, Integer>comparing(read -> scoringStrategy.score(read)).reversed().thenComparing(new ReadCoordinateComparator(header));
-            List <GATKRead> frags = byPairing.get(false).stream().sorted(fragmentsComparator).collect(Collectors.toList());
-            if (!frags.isEmpty()) {
-                reads.add(frags.get(0));                        //highest score - just emit
-                for (final GATKRead record : Iterables.skip(frags, 1)) {  //lower   scores - mark as dups and emit
-                    record.setIsDuplicate(true);
-                    reads.add(record);
-                }
+            Comparator<ReadSummary> fragmentsComparator = Comparator.<ReadSummary>comparingInt(ReadSummary::getScore).reversed().thenComparing(ReadSummary.COORDINATE_ORDER);
+            List <ReadSummary> frags = byPairing.get(false).stream().sorted(fragmentsComparator).collect(Collectors.toList());
+            for (final ReadSummary record : Iterables.skip(frags, 1)) {  //lower   scores - mark as dups
+                marks.add(new Tuple2<>(record.getIndex(), DUPLICATE_MARK));
             }
         } else {
             // There are paired ends so we mark all fragments as duplicates.
-            for (final GATKRead record : byPairing.get(false)) {
-                record.setIsDuplicate(true);
-                reads.add(record);
+            for (final ReadSummary record : byPairing.get(false)) {
+                marks.add(new Tuple2<>(record.getIndex(), DUPLICATE_MARK));
             }
         }
-        return reads;
+        return marks;
     }
 
 
@@ -348,58 +417,75 @@ public class MarkDuplicatesSparkUtils {
     }
 
     /**
-     * GATKRead comparator that compares based on mapping position followed by SAM flags.
+     * Comparator of read summaries that compares based on mapping position followed by SAM flags.
+     * Duplicate flags are not compared, since they are being recomputed.
      */
-    final static class GATKOrder implements Comparator<GATKRead>, Serializable {
+    final static class GATKOrder implements Comparator<ReadSummary>, Serializable {
         private static final long serialVersionUID = 1l;
-        private final SAMFileHeader header;
         // TODO: Unify with other comparators in the codebase
 
-        public GATKOrder(final SAMFileHeader header) {
-            this.header = header;
-        }
-
         @Override
-        public int compare(final GATKRead lhs, final GATKRead rhs) {
+        public int compare(final ReadSummary lhs, final ReadSummary rhs) {
             if (rhs == lhs) return 0; //shortcut
 
-            final int res1 = Integer.compare(ReadUtils.getReferenceIndex(lhs, header), ReadUtils.getReferenceIndex(rhs, header));
+            final int res1 = Integer.compare(lhs.getReferenceIndex(), rhs.getReferenceIndex());
             if (res1 != 0) return res1;
 
             final int res2 = Long.compare(lhs.getStart(), rhs.getStart());
             if (res2 != 0) return res2;
 
-            final int res3 = Boolean.compare(lhs.isDuplicate(), rhs.isDuplicate());
+            final int res3 = Boolean.compare(lhs.failsVendorQualityCheck(), rhs.failsVendorQualityCheck());
             if (res3 != 0) return res3;
 
-            final int res4 = Boolean.compare(lhs.failsVendorQualityCheck(), rhs.failsVendorQualityCheck());
+            final int res4 = Boolean.compare(lhs.isPaired(), rhs.isPaired());
             if (res4 != 0) return res4;
 
-            final int res5 = Boolean.compare(lhs.isPaired(), rhs.isPaired());
+            final int res5 = Boolean.compare(lhs.isProperlyPaired(), rhs.isProperlyPaired());
             if (res5 != 0) return res5;
 
-            final int res6 = Boolean.compare(lhs.isProperlyPaired(), rhs.isProperlyPaired());
-            if (res6 != 0) return res6;
-
             //Note: negate the result because we want first-of-pair to be before second
             //ie, want 'second' to be sorted after first, so want to return -1 for (true, false)
-            final int res7 = -Boolean.compare(lhs.isFirstOfPair(), rhs.isFirstOfPair());
+            final int res6 = -Boolean.compare(lhs.isFirstOfPair(), rhs.isFirstOfPair());
+            if (res6 != 0) return res6;
+
+            final int res7 = Boolean.compare(lhs.isSecondaryAlignment(), rhs.isSecondaryAlignment());
             if (res7 != 0) return res7;
 
-            final int res8 = Boolean.compare(lhs.isSecondaryAlignment(), rhs.isSecondaryAlignment());
+            final int res8 = Boolean.compare(lhs.isSupplementaryAlignment(), rhs.isSupplementaryAlignment());
             if (res8 != 0) return res8;
 
-            final int res9 = Boolean.compare(lhs.isSupplementaryAlignment(), rhs.isSupplementaryAlignment());
+            final int res9 = Integer.compare(lhs.getMappingQuality(), rhs.getMappingQuality());
             if (res9 != 0) return res9;
 
-            final int res10 = Integer.compare(lhs.getMappingQuality(), rhs.getMappingQuality());
+            final int res10 = Integer.compare(lhs.getMateReferenceIndex(), rhs.getMateReferenceIndex());
             if (res10 != 0) return res10;
 
-            final int res11 = Integer.compare(ReadUtils.getMateReferenceIndex(lhs, header), ReadUtils.getMateReferenceIndex(rhs, header));
-            if (res11 != 0) return res11;
+            final int res11 = Long.compare(lhs.getMateStart(), rhs.getMateStart());
+            return res11;
+        }
+    }
+
+    /**
+     * Sends each read index to the partition that {@link JavaRDD#zipWithUniqueId()} gave it out in.
+     */
+    private static final class ReadIndexPartitioner extends Partitioner {
+        private static final long serialVersionUID = 1L;
+
+        private final int numPartitions;
+
+        ReadIndexPartitioner(final int numPartitions) {
+            this.numPartitions = numPartitions;
+        }
 
-            final int res12 = Long.compare(lhs.getMateStart(), rhs.getMateStart());
-            return res12;
+        @Override
+        public int numPartitions() {
+            return numPartitions;
+        }
+
+        @Override
+        public int getPartition(final Object key) {
+            // zipWithUniqueId gives the i-th read of partition k the index i * numPartitions + k
+            return (int) ((Long) key % numPartitions);
         }
     }
-}
\ No newline at end of file
+}
@@ -398,5 +398,8 @@ public final class GenotypeGVCFs extends VariantWalker {
         if ( vcfWriter != null) {
             vcfWriter.close();
         }
+        if ( annotationEngine != null ) {
+            annotationEngine.close();
+        }
     }
 }
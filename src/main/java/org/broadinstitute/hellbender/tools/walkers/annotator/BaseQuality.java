@@ -41,4 +41,11 @@ public class BaseQuality extends PerAlleleAnnotation implements StandardMutectAn
         return offset == ReadUtils.CLIPPING_GOAL_NOT_REACHED || AlignmentUtils.isInsideDeletion(read.getCigar(), offset) ?
                 OptionalInt.empty() : OptionalInt.of(read.getBaseQuality(offset));
     }
+
+    @Override
+    protected OptionalInt getValueForRead(final ReadFeatures readFeatures, final int readIndex, final VariantContext vc) {
+        final int offset = readFeatures.readOffsets()[readIndex];
+        return offset == ReadUtils.CLIPPING_GOAL_NOT_REACHED || readFeatures.insideDeletion()[readIndex] ?
+                OptionalInt.empty() : OptionalInt.of(readFeatures.reads()[readIndex].getBaseQuality(offset));
+    }
 }
@@ -37,8 +37,18 @@ public final class BaseQualityRankSumTest extends RankSumTest implements Standar
         return getReadBaseQuality(read, refLoc);
     }
 
+    @Override
+    protected OptionalDouble getElementForRead(final ReadFeatures readFeatures, final int readIndex) {
+        return getReadBaseQuality(readFeatures, readIndex);
+    }
+
     public static OptionalDouble getReadBaseQuality(final GATKRead read, final int refLoc) {
         Utils.nonNull(read);
         return OptionalDouble.of(read.getBaseQuality(ReadUtils.getReadCoordinateForReferenceCoordinateUpToEndOfRead(read, refLoc, ReadUtils.ClippingTail.RIGHT_TAIL)));
     }
+
+    public static OptionalDouble getReadBaseQuality(final ReadFeatures readFeatures, final int readIndex) {
+        Utils.nonNull(readFeatures);
+        return OptionalDouble.of(readFeatures.baseQualitiesUpToEndOfRead()[readIndex]);
+    }
 }
@@ -36,4 +36,9 @@ public final class ClippingRankSumTest extends RankSumTest implements StandardHC
         Utils.nonNull(read);
         return OptionalDouble.of(AlignmentUtils.getNumHardClippedBases(read));
     }
+
+    @Override
+    protected OptionalDouble getElementForRead(final ReadFeatures readFeatures, final int readIndex) {
+        return OptionalDouble.of(readFeatures.hardClippedBases()[readIndex]);
+    }
  }
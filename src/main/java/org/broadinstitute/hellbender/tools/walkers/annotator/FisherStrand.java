@@ -66,6 +66,14 @@ public final class FisherStrand extends StrandBiasTest implements StandardAnnota
         return annotationForOneTable(pValueForContingencyTable(table));
     }
 
+    @Override
+    protected Map<String, Object> calculateAnnotationFromLikelihoods(final ReadLikelihoods<Allele> likelihoods,
+                                                                     final ReadFeatures readFeatures,
+                                                                     final VariantContext vc){
+        final int[][] table = getContingencyTable(readFeatures, vc, MIN_COUNT);
+        return annotationForOneTable(pValueForContingencyTable(table));
+    }
+
     /**
      * Returns an annotation result given a pValue
      *
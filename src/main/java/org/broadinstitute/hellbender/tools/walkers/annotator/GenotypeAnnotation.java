@@ -31,6 +31,22 @@ public abstract class GenotypeAnnotation extends VariantAnnotation{
                                   final GenotypeBuilder gb,
                                   final ReadLikelihoods<Allele> likelihoods);
 
+    /**
+     * Computes the annotation as {@link #annotate(ReferenceContext, VariantContext, Genotype, GenotypeBuilder, ReadLikelihoods)}
+     * does, given the per-read features that all annotations of the variant share. Annotations that look at every read
+     * should override this and read the features from {@code readFeatures} rather than recompute them.
+     *
+     * @param readFeatures features of the reads in {@code likelihoods}; null if {@code likelihoods} is null
+     */
+    public void annotate(final ReferenceContext ref,
+                         final VariantContext vc,
+                         final Genotype g,
+                         final GenotypeBuilder gb,
+                         final ReadLikelihoods<Allele> likelihoods,
+                         final ReadFeatures readFeatures) {
+        annotate(ref, vc, g, gb, likelihoods);
+    }
+
     /**
      * Return the descriptions used for the VCF FORMAT meta field.
      * Subclasses must ensure that this list is not null and does not contain null.
@@ -29,6 +29,20 @@ public abstract class InfoFieldAnnotation extends VariantAnnotation{
                                                  final VariantContext vc,
                                                  final ReadLikelihoods<Allele> likelihoods);
 
+    /**
+     * Computes the annotation as {@link #annotate(ReferenceContext, VariantContext, ReadLikelihoods)} does, given the
+     * per-read features that all annotations of the variant share. Annotations that look at every read should
+     * override this and read the features from {@code readFeatures} rather than recompute them.
+     *
+     * @param readFeatures features of the reads in {@code likelihoods}; null if {@code likelihoods} is null
+     */
+    public Map<String, Object> annotate(final ReferenceContext ref,
+                                        final VariantContext vc,
+                                        final ReadLikelihoods<Allele> likelihoods,
+                                        final ReadFeatures readFeatures) {
+        return annotate(ref, vc, likelihoods);
+    }
+
     /**
      * Returns the descriptions used for the VCF INFO meta field.
      * Subclasses must ensure that this list is not null and does not contain null.
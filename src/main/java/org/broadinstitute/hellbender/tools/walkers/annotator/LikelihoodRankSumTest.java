@@ -1,10 +1,8 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator;
 
-import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.utils.Utils;
-import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
@@ -33,18 +31,17 @@ public final class LikelihoodRankSumTest extends RankSumTest {
     public List<String> getKeyNames() { return Collections.singletonList(GATKVCFConstants.LIKELIHOOD_RANK_SUM_KEY); }
 
     @Override
-    protected OptionalDouble getElementForRead(final GATKRead read, final int refLoc, final ReadLikelihoods<Allele>.BestAllele bestAllele) {
-        Utils.nonNull(read, "read is null");
-        Utils.nonNull(bestAllele, "mostLikelyAllele is null");
-        if ( ! bestAllele.isInformative() ) {
-            throw new IllegalStateException("Should never see a non-informative allele for read " + read + " BestAllele " + bestAllele);
+    protected OptionalDouble getElementForRead(final ReadFeatures readFeatures, final int readIndex) {
+        Utils.nonNull(readFeatures, "readFeatures is null");
+        if ( ! readFeatures.informativeReads()[readIndex] ) {
+            throw new IllegalStateException("Should never see a non-informative allele for read " + readFeatures.reads()[readIndex]);
         }
-        return OptionalDouble.of(bestAllele.likelihood);
+        return OptionalDouble.of(readFeatures.bestAlleleLikelihoods()[readIndex]);
     }
     
     @Override
     protected OptionalDouble getElementForRead(final GATKRead read, final int refLoc) {
         Utils.nonNull(read);
-        throw new IllegalStateException("This method should never have been called as getElementForRead(read,refloc,mostLikelyAllele) was overriden");
+        throw new IllegalStateException("This method should never have been called as getElementForRead(readFeatures,readIndex) was overriden");
     }
 }
@@ -36,4 +36,9 @@ public class MappingQuality extends PerAlleleAnnotation implements StandardMutec
         Utils.nonNull(read);
         return OptionalInt.of(read.getMappingQuality());
     }
+
+    @Override
+    protected OptionalInt getValueForRead(final ReadFeatures readFeatures, final int readIndex, final VariantContext vc) {
+        return OptionalInt.of(readFeatures.mappingQualities()[readIndex]);
+    }
 }
@@ -11,7 +11,6 @@ import htsjdk.variant.vcf.VCFHeaderLineCount;
 import htsjdk.variant.vcf.VCFHeaderLineType;
 import org.apache.commons.math3.util.DoubleArray;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
-import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -42,13 +41,37 @@ public abstract class PerAlleleAnnotation extends GenotypeAnnotation {
         if ( g == null || likelihoods == null ) {
             return;
         }
+        annotate(ref, vc, g, gb, likelihoods, new ReadFeatures(likelihoods, vc.getStart()));
+    }
+
+    @Override
+    public void annotate(final ReferenceContext ref,
+                         final VariantContext vc,
+                         final Genotype g,
+                         final GenotypeBuilder gb,
+                         final ReadLikelihoods<Allele> likelihoods,
+                         final ReadFeatures readFeatures) {
+        Utils.nonNull(gb);
+        Utils.nonNull(vc);
+        if ( g == null || likelihoods == null ) {
+            return;
+        }
 
         final Map<Allele, List<Integer>> values = likelihoods.alleles().stream()
                 .collect(Collectors.toMap(a -> a, a -> new ArrayList<>()));
 
-        Utils.stream(likelihoods.bestAlleles(g.getSampleName()))
-                .filter(ba -> ba.isInformative() && isUsableRead(ba.read))
-                .forEach(ba -> getValueForRead(ba.read, vc).ifPresent(v -> values.get(ba.allele).add(v)));
+        final int sampleIndex = likelihoods.indexOfSample(g.getSampleName());
+        final Allele[] bestAlleles = readFeatures.bestAlleles();
+        final boolean[] usable = readFeatures.usableReads();
+        final int sampleEnd = readFeatures.sampleEnd(sampleIndex);
+        for (int r = readFeatures.sampleStart(sampleIndex); r < sampleEnd; r++) {
+            if (usable[r]) {
+                final OptionalInt value = getValueForRead(readFeatures, r, vc);
+                if (value.isPresent()) {
+                    values.get(bestAlleles[r]).add(value.getAsInt());
+                }
+            }
+        }
 
         final int[] statistics = vc.getAlleles().stream().filter(this::includeAllele).mapToInt(a -> aggregate(values.get(a))).toArray();
         gb.attribute(getVcfKey(), statistics);
@@ -61,10 +84,6 @@ public abstract class PerAlleleAnnotation extends GenotypeAnnotation {
     // this is false by default but implementations may wish to override
     protected boolean includeRefAllele() { return false; }
 
-    private static boolean isUsableRead(final GATKRead read) {
-        return read.getMappingQuality() != 0 && read.getMappingQuality() != QualityUtils.MAPPING_QUALITY_UNAVAILABLE;
-    }
-
     @Override
     public List<VCFFormatHeaderLine> getDescriptions() {
         return Arrays.asList(new VCFFormatHeaderLine(getVcfKey(), includeRefAllele() ? VCFHeaderLineCount.R : VCFHeaderLineCount.A, VCFHeaderLineType.Float, getDescription()));
@@ -74,6 +93,13 @@ public abstract class PerAlleleAnnotation extends GenotypeAnnotation {
     public List<String> getKeyNames() { return Arrays.asList(getVcfKey()); }
 
     protected abstract OptionalInt getValueForRead(final GATKRead read, final VariantContext vc);
+
+    /**
+     * Gets the value for a usable read from the per-read features of the variant. By default this computes it from the read itself.
+     */
+    protected OptionalInt getValueForRead(final ReadFeatures readFeatures, final int readIndex, final VariantContext vc) {
+        return getValueForRead(readFeatures.reads()[readIndex], vc);
+    }
     protected abstract int aggregate(final List<Integer> values);
     protected abstract String getVcfKey();
     protected abstract String getDescription();
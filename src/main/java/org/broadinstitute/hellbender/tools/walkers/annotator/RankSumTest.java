@@ -35,6 +35,15 @@ public abstract class RankSumTest extends InfoFieldAnnotation {
                                         final VariantContext vc,
                                         final ReadLikelihoods<Allele> likelihoods) {
         Utils.nonNull(vc, "vc is null");
+        return annotate(ref, vc, likelihoods, likelihoods == null ? null : new ReadFeatures(likelihoods, vc.getStart()));
+    }
+
+    @Override
+    public Map<String, Object> annotate(final ReferenceContext ref,
+                                        final VariantContext vc,
+                                        final ReadLikelihoods<Allele> likelihoods,
+                                        final ReadFeatures readFeatures) {
+        Utils.nonNull(vc, "vc is null");
 
         final GenotypesContext genotypes = vc.getGenotypes();
         if (genotypes == null || genotypes.isEmpty()) {
@@ -46,17 +55,18 @@ public abstract class RankSumTest extends InfoFieldAnnotation {
 
         final int refLoc = vc.getStart();
 
-        if( likelihoods != null) {
-            for (final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAlleles()) {
-                final GATKRead read = bestAllele.read;
-                final Allele allele = bestAllele.allele;
-                if (bestAllele.isInformative() && isUsableRead(read, refLoc)) {
-                    final OptionalDouble value = getElementForRead(read, refLoc, bestAllele);
+        if( readFeatures != null) {
+            final GATKRead[] reads = readFeatures.reads();
+            final Allele[] bestAlleles = readFeatures.bestAlleles();
+            final boolean[] usable = readFeatures.usableReads();
+            for (int r = 0; r < readFeatures.readCount(); r++) {
+                if (usable[r] && isUsableRead(reads[r], refLoc)) {
+                    final OptionalDouble value = getElementForRead(readFeatures, r);
                     // Bypass read if the clipping goal is not reached or the refloc is inside a spanning deletion
                     if (value.isPresent() && value.getAsDouble() != INVALID_ELEMENT_FROM_READ) {
-                        if (allele.isReference()) {
+                        if (bestAlleles[r].isReference()) {
                             refQuals.add(value.getAsDouble());
-                        } else if (vc.hasAllele(allele)) {
+                        } else if (vc.hasAllele(bestAlleles[r])) {
                             altQuals.add(value.getAsDouble());
                         }
                     }
@@ -83,15 +93,15 @@ public abstract class RankSumTest extends InfoFieldAnnotation {
     }
 
     /**
-     * Get the element for the given read at the given reference position
+     * Get the element for a read at the variant start from the per-read features, which are only computed
+     * for usable reads. By default this computes it from the read itself.
      *
-     * @param read     the read
-     * @param refLoc   the reference position
-     * @param bestAllele the most likely allele for this read
-     * @return a Double representing the element to be used in the rank sum test, or null if it should not be used
+     * @param readFeatures the features of the reads
+     * @param readIndex    the row of the read in the features
+     * @return an OptionalDouble representing the element to be used in the rank sum test, empty if it should not be used
      */
-    protected OptionalDouble getElementForRead(final GATKRead read, final int refLoc, ReadLikelihoods<Allele>.BestAllele bestAllele) {
-        return getElementForRead(read, refLoc);
+    protected OptionalDouble getElementForRead(final ReadFeatures readFeatures, final int readIndex) {
+        return getElementForRead(readFeatures.reads()[readIndex], readFeatures.refLoc());
     }
 
     /**
@@ -0,0 +1,263 @@
+package org.broadinstitute.hellbender.tools.walkers.annotator;
+
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The per-read features used by the annotations of one variant, computed once for all of them.
+ *
+ * <p>
+ *     Features are stored in columns, one array per feature. Row {@code r} of every column describes the {@code r}-th
+ *     read returned by {@link ReadLikelihoods#bestAlleles()}, so the reads of each sample are in consecutive rows
+ *     between {@link #sampleStart(int)} and {@link #sampleEnd(int)}.
+ * </p>
+ *
+ * <p>
+ *     The columns that describe how a read aligns over the variant start are only computed when first requested, and only
+ *     for the {@link #usableReads() usable} reads; they hold {@link #MISSING} for all other reads. Requesting them is
+ *     thread-safe, so one instance can be shared by annotations running in parallel. The arrays returned are shared and
+ *     must not be modified.
+ * </p>
+ */
+public final class ReadFeatures {
+
+    /**
+     * Value of an alignment column for reads that are not usable.
+     */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private final int refLoc;
+    private final int[] sampleStarts;
+
+    private final GATKRead[] reads;
+    private final Allele[] bestAlleles;
+    private final double[] bestAlleleLikelihoods;
+    private final boolean[] informative;
+    private final boolean[] usable;
+    private final boolean[] reverseStrand;
+    private final int[] mappingQualities;
+
+    private int[] readOffsets;
+    private boolean[] insideDeletion;
+    private int[] alignmentOffsets;
+    private int[] numAlignedBases;
+    private int[] baseQualitiesUpToEndOfRead;
+    private int[] hardClippedBases;
+
+    /**
+     * Computes the per-read features of the reads in some likelihoods over a variant.
+     *
+     * @param likelihoods the likelihoods of the reads, which must not be modified while this instance is in use.
+     * @param refLoc the start of the variant.
+     */
+    public ReadFeatures(final ReadLikelihoods<Allele> likelihoods, final int refLoc) {
+        Utils.nonNull(likelihoods);
+        this.refLoc = refLoc;
+
+        final int sampleCount = likelihoods.numberOfSamples();
+        sampleStarts = new int[sampleCount + 1];
+        for (int s = 0; s < sampleCount; s++) {
+            sampleStarts[s + 1] = sampleStarts[s] + likelihoods.sampleReadCount(s);
+        }
+
+        final int readCount = sampleStarts[sampleCount];
+        reads = new GATKRead[readCount];
+        bestAlleles = new Allele[readCount];
+        bestAlleleLikelihoods = new double[readCount];
+        informative = new boolean[readCount];
+        usable = new boolean[readCount];
+        reverseStrand = new boolean[readCount];
+        mappingQualities = new int[readCount];
+
+        final Collection<ReadLikelihoods<Allele>.BestAllele> bestAllelesOfReads = likelihoods.bestAlleles();
+        Utils.validate(bestAllelesOfReads.size() == readCount, "there must be one best allele per read");
+        int r = 0;
+        for (final ReadLikelihoods<Allele>.BestAllele bestAllele : bestAllelesOfReads) {
+            final GATKRead read = bestAllele.read;
+            reads[r] = read;
+            bestAlleles[r] = bestAllele.allele;
+            bestAlleleLikelihoods[r] = bestAllele.likelihood;
+            reverseStrand[r] = read.isReverseStrand();
+            mappingQualities[r] = read.getMappingQuality();
+            informative[r] = bestAllele.isInformative();
+            usable[r] = informative[r] && mappingQualities[r] != 0 && mappingQualities[r] != QualityUtils.MAPPING_QUALITY_UNAVAILABLE;
+            r++;
+        }
+    }
+
+    public int refLoc() {
+        return refLoc;
+    }
+
+    public int readCount() {
+        return reads.length;
+    }
+
+    public int sampleCount() {
+        return sampleStarts.length - 1;
+    }
+
+    /**
+     * Returns the first row of a sample's reads.
+     */
+    public int sampleStart(final int sampleIndex) {
+        Utils.validIndex(sampleIndex, sampleStarts.length - 1);
+        return sampleStarts[sampleIndex];
+    }
+
+    /**
+     * Returns the row after the last of a sample's reads.
+     */
+    public int sampleEnd(final int sampleIndex) {
+        Utils.validIndex(sampleIndex, sampleStarts.length - 1);
+        return sampleStarts[sampleIndex + 1];
+    }
+
+    public GATKRead[] reads() {
+        return reads;
+    }
+
+    /**
+     * The most likely allele of each read; {@code null} if there are no alleles.
+     */
+    public Allele[] bestAlleles() {
+        return bestAlleles;
+    }
+
+    public double[] bestAlleleLikelihoods() {
+        return bestAlleleLikelihoods;
+    }
+
+    /**
+     * Whether each read is informative, that is, much more likely under its best allele than under any other
+     * (see {@link ReadLikelihoods.BestAllele#isInformative()}).
+     */
+    public boolean[] informativeReads() {
+        return informative;
+    }
+
+    /**
+     * Whether each read is informative and has a known, non-zero mapping quality.
+     */
+    public boolean[] usableReads() {
+        return usable;
+    }
+
+    public boolean[] reverseStrand() {
+        return reverseStrand;
+    }
+
+    public int[] mappingQualities() {
+        return mappingQualities;
+    }
+
+    /**
+     * The offset of the variant start within each read, counting soft-clipped bases, or
+     * {@link ReadUtils#CLIPPING_GOAL_NOT_REACHED} if the read ends before it.
+     */
+    public synchronized int[] readOffsets() {
+        computeAlignmentColumns();
+        return readOffsets;
+    }
+
+    /**
+     * Whether the variant start lies in a deletion of each read.
+     */
+    public synchronized boolean[] insideDeletion() {
+        computeAlignmentColumns();
+        return insideDeletion;
+    }
+
+    /**
+     * The offset of the variant start within the aligned bases of each read (see
+     * {@link AlignmentUtils#calcAlignmentByteArrayOffset}); {@link #MISSING} if the read ends before it or
+     * it lies in a deletion.
+     */
+    public synchronized int[] alignmentOffsets() {
+        computeAlignmentColumns();
+        return alignmentOffsets;
+    }
+
+    /**
+     * The number of aligned bases of each read, counting soft-clipped bases.
+     */
+    public synchronized int[] numAlignedBases() {
+        computeAlignmentColumns();
+        return numAlignedBases;
+    }
+
+    /**
+     * The base quality of each read at the variant start, or at its last base if the read ends before it
+     * (see {@link ReadUtils#getReadCoordinateForReferenceCoordinateUpToEndOfRead}).
+     */
+    public synchronized int[] baseQualitiesUpToEndOfRead() {
+        if (baseQualitiesUpToEndOfRead == null) {
+            final int[] column = newMissingColumn();
+            for (int r = 0; r < reads.length; r++) {
+                if (usable[r]) {
+                    column[r] = reads[r].getBaseQuality(ReadUtils.getReadCoordinateForReferenceCoordinateUpToEndOfRead(reads[r], refLoc, ReadUtils.ClippingTail.RIGHT_TAIL));
+                }
+            }
+            baseQualitiesUpToEndOfRead = column;
+        }
+        return baseQualitiesUpToEndOfRead;
+    }
+
+    public synchronized int[] hardClippedBases() {
+        if (hardClippedBases == null) {
+            final int[] column = newMissingColumn();
+            for (int r = 0; r < reads.length; r++) {
+                if (usable[r]) {
+                    column[r] = AlignmentUtils.getNumHardClippedBases(reads[r]);
+                }
+            }
+            hardClippedBases = column;
+        }
+        return hardClippedBases;
+    }
+
+    private void computeAlignmentColumns() {
+        if (readOffsets != null) {
+            return;
+        }
+        final int readCount = reads.length;
+        final int[] offsets = newMissingColumn();
+        final int[] alignmentOffsetColumn = newMissingColumn();
+        final int[] numAlignedBasesColumn = newMissingColumn();
+        final boolean[] insideDeletionColumn = new boolean[readCount];
+        for (int r = 0; r < readCount; r++) {
+            if (!usable[r]) {
+                continue;
+            }
+            final GATKRead read = reads[r];
+            final int offset = ReadUtils.getReadCoordinateForReferenceCoordinate(ReadUtils.getSoftStart(read), read.getCigar(), refLoc, ReadUtils.ClippingTail.RIGHT_TAIL, true);
+            offsets[r] = offset;
+            numAlignedBasesColumn[r] = AlignmentUtils.getNumAlignedBasesCountingSoftClips(read);
+            if (offset == ReadUtils.CLIPPING_GOAL_NOT_REACHED) {
+                continue;
+            }
+            insideDeletionColumn[r] = AlignmentUtils.isInsideDeletion(read.getCigar(), offset);
+            if (!insideDeletionColumn[r]) {
+                alignmentOffsetColumn[r] = AlignmentUtils.calcAlignmentByteArrayOffset(read.getCigar(), offset, false, 0, 0);
+            }
+        }
+        insideDeletion = insideDeletionColumn;
+        alignmentOffsets = alignmentOffsetColumn;
+        numAlignedBases = numAlignedBasesColumn;
+        readOffsets = offsets;
+    }
+
+    private int[] newMissingColumn() {
+        final int[] column = new int[reads.length];
+        Arrays.fill(column, MISSING);
+        return column;
+    }
+}
@@ -41,6 +41,11 @@ public final class ReadPosRankSumTest extends RankSumTest implements StandardAnn
         return getReadPosition(read, refLoc);
     }
 
+    @Override
+    protected OptionalDouble getElementForRead(final ReadFeatures readFeatures, final int readIndex) {
+        return getReadPosition(readFeatures, readIndex);
+    }
+
     @Override
     public boolean isUsableRead(final GATKRead read, final int refLoc) {
         Utils.nonNull(read);
@@ -69,5 +74,23 @@ public final class ReadPosRankSumTest extends RankSumTest implements StandardAnn
         return OptionalDouble.of(readPos);
     }
 
+    public static OptionalDouble getReadPosition(final ReadFeatures readFeatures, final int readIndex) {
+        Utils.nonNull(readFeatures);
+        if ( readFeatures.readOffsets()[readIndex] == ReadUtils.CLIPPING_GOAL_NOT_REACHED ) {
+            return OptionalDouble.empty();
+        }
+
+        // If the offset inside a deletion, it does not lie on a read.
+        if ( readFeatures.insideDeletion()[readIndex] ) {
+            return OptionalDouble.of(INVALID_ELEMENT_FROM_READ);
+        }
+
+        final int readPos = readFeatures.alignmentOffsets()[readIndex];
+        final int numAlignedBases = readFeatures.numAlignedBases()[readIndex];
+
+        //After the middle of the read, we compute the postion from the end of the read.
+        return OptionalDouble.of(readPos > numAlignedBases / 2 ? numAlignedBases - (readPos + 1) : readPos);
+    }
+
 
 }
@@ -46,4 +46,15 @@ public class ReadPosition extends PerAlleleAnnotation implements StandardMutectA
         final int distanceFromEnd = Math.min(readPosition, numAlignedBases - readPosition - 1);
         return OptionalInt.of(distanceFromEnd);
     }
+
+    @Override
+    protected OptionalInt getValueForRead(final ReadFeatures readFeatures, final int readIndex, final VariantContext vc) {
+        if ( readFeatures.readOffsets()[readIndex] == ReadUtils.CLIPPING_GOAL_NOT_REACHED || readFeatures.insideDeletion()[readIndex] ) {
+            return OptionalInt.empty();
+        }
+
+        final int readPosition = readFeatures.alignmentOffsets()[readIndex];
+        final int numAlignedBases = readFeatures.numAlignedBases()[readIndex];
+        return OptionalInt.of(Math.min(readPosition, numAlignedBases - readPosition - 1));
+    }
 }
@@ -17,7 +17,6 @@ import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -60,6 +59,17 @@ public final class StrandBiasBySample extends GenotypeAnnotation {
                          final GenotypeBuilder gb,
                          final ReadLikelihoods<Allele> likelihoods) {
         Utils.nonNull(vc);
+        annotate(ref, vc, g, gb, likelihoods, likelihoods == null ? null : new ReadFeatures(likelihoods, vc.getStart()));
+    }
+
+    @Override
+    public void annotate(final ReferenceContext ref,
+                         final VariantContext vc,
+                         final Genotype g,
+                         final GenotypeBuilder gb,
+                         final ReadLikelihoods<Allele> likelihoods,
+                         final ReadFeatures readFeatures) {
+        Utils.nonNull(vc);
         Utils.nonNull(g);
         Utils.nonNull(gb);
 
@@ -68,7 +78,7 @@ public final class StrandBiasBySample extends GenotypeAnnotation {
             return;
         }
 
-        final int[][] table = FisherStrand.getContingencyTable(likelihoods, vc, 0, Arrays.asList(g.getSampleName()));
+        final int[][] table = FisherStrand.getContingencyTable(readFeatures, vc, 0, new int[]{likelihoods.indexOfSample(g.getSampleName())});
 
         gb.attribute(GATKVCFConstants.STRAND_BIAS_BY_SAMPLE_KEY, getContingencyArray(table));
     }
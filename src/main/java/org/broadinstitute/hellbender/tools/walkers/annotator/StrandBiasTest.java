@@ -8,10 +8,10 @@ import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
-import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Class of tests to detect strand bias.
@@ -27,6 +27,15 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
                                         final VariantContext vc,
                                         final ReadLikelihoods<Allele> likelihoods) {
         Utils.nonNull(vc);
+        return annotate(ref, vc, likelihoods, likelihoods == null ? null : new ReadFeatures(likelihoods, vc.getStart()));
+    }
+
+    @Override
+    public Map<String, Object> annotate(final ReferenceContext ref,
+                                        final VariantContext vc,
+                                        final ReadLikelihoods<Allele> likelihoods,
+                                        final ReadFeatures readFeatures) {
+        Utils.nonNull(vc);
         if ( !vc.isVariant() ) {
             return Collections.emptyMap();
         }
@@ -41,7 +50,7 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
         }
 
         if (likelihoods != null) {
-            return calculateAnnotationFromLikelihoods(likelihoods, vc);
+            return calculateAnnotationFromLikelihoods(likelihoods, readFeatures, vc);
         }
         return Collections.emptyMap();
     }
@@ -51,6 +60,16 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
     protected abstract Map<String, Object> calculateAnnotationFromLikelihoods(final ReadLikelihoods<Allele> likelihoods,
                                                                               final VariantContext vc);
 
+    /**
+     * Calculates the annotation from the likelihoods given the per-read features shared by the annotations of the variant.
+     * By default this ignores the features; override to compute the annotation from them.
+     */
+    protected Map<String, Object> calculateAnnotationFromLikelihoods(final ReadLikelihoods<Allele> likelihoods,
+                                                                     final ReadFeatures readFeatures,
+                                                                     final VariantContext vc) {
+        return calculateAnnotationFromLikelihoods(likelihoods, vc);
+    }
+
     /**
      * Create the contingency table by retrieving the per-sample strand bias annotation and adding them together
      * @param genotypes the genotypes from which to pull out the per-sample strand bias annotation
@@ -122,15 +141,48 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
             return null;
         }
 
+        return getContingencyTable(new ReadFeatures(likelihoods, vc.getStart()), vc, minCount,
+                samples.stream().mapToInt(likelihoods::indexOfSample).toArray());
+    }
+
+    /**
+     Allocate and fill a 2x2 strand contingency table from the per-read features of all samples.
+     * @return a 2x2 contingency table
+     */
+    public static int[][] getContingencyTable( final ReadFeatures readFeatures,
+                                               final VariantContext vc,
+                                               final int minCount) {
+        return getContingencyTable(readFeatures, vc, minCount, IntStream.range(0, readFeatures.sampleCount()).toArray());
+    }
+
+    /**
+     Allocate and fill a 2x2 strand contingency table from the per-read features of some samples.
+     * @param sampleIndices indices of the samples in the likelihoods the features were computed from
+     * @return a 2x2 contingency table
+     */
+    public static int[][] getContingencyTable( final ReadFeatures readFeatures,
+                                               final VariantContext vc,
+                                               final int minCount,
+                                               final int[] sampleIndices) {
+        if( readFeatures == null || vc == null) {
+            return null;
+        }
+
         final Allele ref = vc.getReference();
         final List<Allele> allAlts = vc.getAlternateAlleles();
+        final Allele[] bestAlleles = readFeatures.bestAlleles();
+        final boolean[] informative = readFeatures.informativeReads();
+        final boolean[] reverseStrand = readFeatures.reverseStrand();
 
         final int[][] table = new int[ARRAY_DIM][ARRAY_DIM];
-        for (final String sample : samples) {
+        for (final int sampleIndex : sampleIndices) {
             final int[] sampleTable = new int[ARRAY_SIZE];
-            likelihoods.bestAlleles(sample).stream()
-                    .filter(ba -> ba.isInformative())
-                    .forEach(ba -> updateTable(sampleTable, ba.allele, ba.read, ref, allAlts));
+            final int sampleEnd = readFeatures.sampleEnd(sampleIndex);
+            for (int r = readFeatures.sampleStart(sampleIndex); r < sampleEnd; r++) {
+                if (informative[r]) {
+                    updateTable(sampleTable, bestAlleles[r], reverseStrand[r], ref, allAlts);
+                }
+            }
             if (passesMinimumThreshold(sampleTable, minCount)) {
                 copyToMainTable(sampleTable, table);
             }
@@ -152,7 +204,7 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
         mainTable[1][1] += perSampleTable[3];
     }
 
-    private static void updateTable(final int[] table, final Allele allele, final GATKRead read, final Allele ref, final List<Allele> allAlts) {
+    private static void updateTable(final int[] table, final Allele allele, final boolean isReverseStrand, final Allele ref, final List<Allele> allAlts) {
         final boolean matchesRef = allele.equals(ref, true);
         final boolean matchesAnyAlt = allAlts.contains(allele);
 
@@ -160,7 +212,7 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
             final int offset = matchesRef ? 0 : ARRAY_DIM;
 
             // a normal read with an actual strand
-            final boolean isFW = !read.isReverseStrand();
+            final boolean isFW = !isReverseStrand;
             table[offset + (isFW ? 0 : 1)]++;
         }
     }
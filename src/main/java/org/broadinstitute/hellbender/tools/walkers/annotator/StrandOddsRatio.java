@@ -73,6 +73,12 @@ public final class StrandOddsRatio extends StrandBiasTest implements StandardAnn
         return annotationForOneTable(calculateSOR(table));
     }
 
+    @Override
+    protected Map<String, Object> calculateAnnotationFromLikelihoods(final ReadLikelihoods<Allele> likelihoods, final ReadFeatures readFeatures, final VariantContext vc){
+        final int[][] table = getContingencyTable(readFeatures, vc, MIN_COUNT);
+        return annotationForOneTable(calculateSOR(table));
+    }
+
     /**
      * Computes the SOR value of a table after augmentation. Based on the symmetric odds ratio but modified to take on
      * low values when the reference +/- read count ratio is skewed but the alt count ratio is not.  Natural log is taken
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Sets;
 import htsjdk.variant.variantcontext.*;
 import htsjdk.variant.vcf.*;
@@ -14,9 +15,13 @@ import org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific.Redu
 import org.broadinstitute.hellbender.utils.ClassUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.instrumentation.Instrumentation;
+import org.broadinstitute.hellbender.utils.instrumentation.PhaseTimer;
+import org.broadinstitute.hellbender.utils.runtime.ParallelTaskRunner;
 import org.reflections.ReflectionUtils;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -25,14 +30,27 @@ import java.util.stream.Collectors;
  * Annotations are auto-discovered - ie, any class that extends {@link VariantAnnotation} and
  * lives in this package is treated as an annotation and the engine will attempt to create instances of it
  * by calling the non-arg constructor (loading will fail if there is no no-arg constructor).
+ *
+ * The annotations of a variant are independent of each other, so they can be computed in parallel
+ * (see {@link #setNumAnnotationThreads(int)}): each sample's genotype annotations and each info annotation
+ * is then a separate task. Their results are always merged in annotation order, so the output does not
+ * depend on the number of threads.
  */
-public final class VariantAnnotatorEngine {
+public final class VariantAnnotatorEngine implements AutoCloseable {
+    private static final PhaseTimer ANNOTATION_TIMER = Instrumentation.timer("VariantAnnotatorEngine.annotateContext");
+
     private final List<InfoFieldAnnotation> infoAnnotations;
     private final List<GenotypeAnnotation> genotypeAnnotations;
     private Set<String> reducibleKeys;
 
+    // the annotations that override the annotate method taking the ReadFeatures, which are only computed for them
+    private final List<VariantAnnotation> readFeaturesAnnotations = new ArrayList<>();
+
     private final VariantOverlapAnnotator variantOverlapAnnotator;
 
+    // the threads are not serialized: an engine broadcast to Spark executors annotates on the calling thread
+    private ParallelTaskRunner annotationTasks = newAnnotationTasks(1);
+
     private VariantAnnotatorEngine(final AnnotationManager annots,
                                    final FeatureInput<VariantContext> dbSNPInput,
                                    final List<FeatureInput<VariantContext>> featureInputs){
@@ -45,6 +63,25 @@ public final class VariantAnnotatorEngine {
                 reducibleKeys.add(((ReducibleAnnotation) annot).getRawKeyName());
             }
         }
+        infoAnnotations.stream().filter(VariantAnnotatorEngine::usesReadFeatures).forEach(readFeaturesAnnotations::add);
+        genotypeAnnotations.stream().filter(VariantAnnotatorEngine::usesReadFeatures).forEach(readFeaturesAnnotations::add);
+    }
+
+    /**
+     * @return true if the annotation overrides the annotate method of {@link InfoFieldAnnotation} or
+     * {@link GenotypeAnnotation} that takes the {@link ReadFeatures}
+     */
+    @VisibleForTesting
+    static boolean usesReadFeatures(final VariantAnnotation annotation) {
+        final Class<?> baseClass = annotation instanceof InfoFieldAnnotation ? InfoFieldAnnotation.class : GenotypeAnnotation.class;
+        final Class<?>[] parameterTypes = annotation instanceof InfoFieldAnnotation
+                ? new Class<?>[]{ReferenceContext.class, VariantContext.class, ReadLikelihoods.class, ReadFeatures.class}
+                : new Class<?>[]{ReferenceContext.class, VariantContext.class, Genotype.class, GenotypeBuilder.class, ReadLikelihoods.class, ReadFeatures.class};
+        try {
+            return annotation.getClass().getMethod("annotate", parameterTypes).getDeclaringClass() != baseClass;
+        } catch (final NoSuchMethodException e) {
+            throw new GATKException("No annotate method taking ReadFeatures in " + baseClass.getSimpleName(), e);
+        }
     }
 
     /**
@@ -104,11 +141,42 @@ public final class VariantAnnotatorEngine {
     public static VariantAnnotatorEngine ofSelectedMinusExcluded(final VariantAnnotationArgumentCollection argumentCollection,
                                                                  final FeatureInput<VariantContext> dbSNPInput,
                                                                  final List<FeatureInput<VariantContext>> comparisonFeatureInputs) {
-        return ofSelectedMinusExcluded(argumentCollection.annotationGroupsToUse,
+        final VariantAnnotatorEngine engine = ofSelectedMinusExcluded(argumentCollection.annotationGroupsToUse,
                 argumentCollection.annotationsToUse,
                 argumentCollection.annotationsToExclude,
                 dbSNPInput, comparisonFeatureInputs);
+        engine.setNumAnnotationThreads(argumentCollection.numAnnotationThreads);
+        return engine;
     }
+
+    /**
+     * Sets the number of threads used to compute the annotations of a variant in parallel.
+     * The annotations in use must then not share mutable state between calls.
+     *
+     * @param numAnnotationThreads number of threads; 1 to compute the annotations on the calling thread, one after another
+     */
+    public void setNumAnnotationThreads(final int numAnnotationThreads) {
+        Utils.validateArg(numAnnotationThreads >= 1, "numAnnotationThreads must be >= 1 but got " + numAnnotationThreads);
+        close();
+        annotationTasks = newAnnotationTasks(numAnnotationThreads);
+    }
+
+    private static ParallelTaskRunner newAnnotationTasks(final int numAnnotationThreads) {
+        return new ParallelTaskRunner(numAnnotationThreads, "variant-annotator-engine", "annotation");
+    }
+
+    public int getNumAnnotationThreads() {
+        return annotationTasks.getNumThreads();
+    }
+
+    /**
+     * Stops the annotation threads, if any. The engine then annotates on the calling thread.
+     */
+    @Override
+    public void close() {
+        annotationTasks.close();
+    }
+
     private VariantOverlapAnnotator initializeOverlapAnnotator(final FeatureInput<VariantContext> dbSNPInput, final List<FeatureInput<VariantContext>> featureInputs) {
         final Map<FeatureInput<VariantContext>, String> overlaps = new LinkedHashMap<>();
         for ( final FeatureInput<VariantContext> fi : featureInputs) {
@@ -255,48 +323,78 @@ public final class VariantAnnotatorEngine {
                                           final Predicate<VariantAnnotation> addAnnot) {
         Utils.nonNull(vc, "vc cannot be null");
         Utils.nonNull(features, "features cannot be null");
+        final long start = ANNOTATION_TIMER.start();
+        try {
+            // fill in the lazily computed best alleles and reference bases up front so that the annotation threads
+            // only ever read them; when annotating on this thread the best alleles are cached as they are first needed
+            if ( annotationTasks.isParallel() ) {
+                if ( likelihoods != null ) {
+                    likelihoods.precomputeBestAlleles();
+                }
+                if ( ref != null ) {
+                    ref.getBases();
+                }
+            }
 
-        // annotate genotypes, creating another new VC in the process
-        final VariantContextBuilder builder = new VariantContextBuilder(vc);
-        builder.genotypes(annotateGenotypes(ref, vc, likelihoods, addAnnot));
-        final VariantContext newGenotypeAnnotatedVC = builder.make();
-
-        final Map<String, Object> infoAnnotMap = new LinkedHashMap<>(newGenotypeAnnotatedVC.getAttributes());
-        for ( final InfoFieldAnnotation annotationType : this.infoAnnotations) {
-            if (addAnnot.test(annotationType)){
-                final Map<String, Object> annotationsFromCurrentType = annotationType.annotate(ref, newGenotypeAnnotatedVC, likelihoods);
+            // the per-read features are computed once and shared by all annotations of this variant that use them
+            final boolean needsReadFeatures = likelihoods != null && readFeaturesAnnotations.stream().anyMatch(addAnnot);
+            final ReadFeatures readFeatures = needsReadFeatures ? new ReadFeatures(likelihoods, vc.getStart()) : null;
+
+            // annotate genotypes, creating another new VC in the process
+            final VariantContextBuilder builder = new VariantContextBuilder(vc);
+            builder.genotypes(annotateGenotypes(ref, vc, likelihoods, readFeatures, addAnnot));
+            final VariantContext newGenotypeAnnotatedVC = builder.make();
+
+            final List<Callable<Map<String, Object>>> infoAnnotationTasks = new ArrayList<>(infoAnnotations.size());
+            for ( final InfoFieldAnnotation annotationType : this.infoAnnotations) {
+                if (addAnnot.test(annotationType)){
+                    infoAnnotationTasks.add(() -> annotationType.annotate(ref, newGenotypeAnnotatedVC, likelihoods, readFeatures));
+                }
+            }
+
+            final Map<String, Object> infoAnnotMap = new LinkedHashMap<>(newGenotypeAnnotatedVC.getAttributes());
+            for ( final Map<String, Object> annotationsFromCurrentType : annotationTasks.runAll(infoAnnotationTasks) ) {
                 if ( annotationsFromCurrentType != null ) {
                     infoAnnotMap.putAll(annotationsFromCurrentType);
                 }
             }
-        }
 
-        // create a new VC with info and genotype annotations
-        final VariantContext annotated = builder.attributes(infoAnnotMap).make();
+            // create a new VC with info and genotype annotations
+            final VariantContext annotated = builder.attributes(infoAnnotMap).make();
 
-        // annotate db occurrences
-        return variantOverlapAnnotator.annotateOverlaps(features, variantOverlapAnnotator.annotateRsID(features, annotated));
+            // annotate db occurrences
+            final VariantContext result = variantOverlapAnnotator.annotateOverlaps(features, variantOverlapAnnotator.annotateRsID(features, annotated));
+            return result;
+        } finally {
+            ANNOTATION_TIMER.stop(start);
+        }
     }
 
     private GenotypesContext annotateGenotypes(final ReferenceContext ref,
                                                final VariantContext vc,
                                                final ReadLikelihoods<Allele> likelihoods,
+                                               final ReadFeatures readFeatures,
                                                final Predicate<VariantAnnotation> addAnnot) {
         if ( genotypeAnnotations.isEmpty() ) {
             return vc.getGenotypes();
         }
 
-        final GenotypesContext genotypes = GenotypesContext.create(vc.getNSamples());
+        // the annotations of a genotype share its builder, so they are computed together
+        final List<Callable<Genotype>> genotypeTasks = new ArrayList<>(vc.getNSamples());
         for ( final Genotype genotype : vc.getGenotypes() ) {
-            final GenotypeBuilder gb = new GenotypeBuilder(genotype);
-            for ( final GenotypeAnnotation annotation : genotypeAnnotations) {
-                if (addAnnot.test(annotation)) {
-                    annotation.annotate(ref, vc, genotype, gb, likelihoods);
+            genotypeTasks.add(() -> {
+                final GenotypeBuilder gb = new GenotypeBuilder(genotype);
+                for ( final GenotypeAnnotation annotation : genotypeAnnotations) {
+                    if (addAnnot.test(annotation)) {
+                        annotation.annotate(ref, vc, genotype, gb, likelihoods, readFeatures);
+                    }
                 }
-            }
-            genotypes.add(gb.make());
+                return gb.make();
+            });
         }
 
+        final GenotypesContext genotypes = GenotypesContext.create(vc.getNSamples());
+        genotypes.addAll(annotationTasks.runAll(genotypeTasks));
         return genotypes;
     }
 
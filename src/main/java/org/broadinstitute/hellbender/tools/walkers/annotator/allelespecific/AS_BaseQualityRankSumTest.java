@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific;
 
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.tools.walkers.annotator.BaseQualityRankSumTest;
+import org.broadinstitute.hellbender.tools.walkers.annotator.ReadFeatures;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
@@ -57,4 +58,9 @@ public class AS_BaseQualityRankSumTest extends AS_RankSumTest implements AS_Stan
         return BaseQualityRankSumTest.getReadBaseQuality(read, refLoc);
     }
 
+    @Override
+    protected OptionalDouble getElementForRead(final ReadFeatures readFeatures, final int readIndex) {
+        return BaseQualityRankSumTest.getReadBaseQuality(readFeatures, readIndex);
+    }
+
 }
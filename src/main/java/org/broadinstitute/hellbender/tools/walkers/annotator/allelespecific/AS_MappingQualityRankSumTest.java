@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific;
 
 import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.tools.walkers.annotator.ReadFeatures;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -47,4 +48,9 @@ public class AS_MappingQualityRankSumTest extends AS_RankSumTest implements AS_S
         Utils.nonNull(read);
         return OptionalDouble.of(read.getMappingQuality());
     }
+
+    @Override
+    protected OptionalDouble getElementForRead(final ReadFeatures readFeatures, final int readIndex) {
+        return OptionalDouble.of(readFeatures.mappingQualities()[readIndex]);
+    }
 }
@@ -10,6 +10,7 @@ import org.broadinstitute.hellbender.utils.CompressedDataList;
 import org.broadinstitute.hellbender.utils.Histogram;
 import org.broadinstitute.hellbender.utils.MannWhitneyU;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.*;
 
@@ -30,6 +31,14 @@ public abstract class AS_RankSumTest extends RankSumTest implements ReducibleAnn
         return annotateRawData(ref, vc, likelihoods);
     }
 
+    @Override
+    public Map<String, Object> annotate(final ReferenceContext ref,
+                                        final VariantContext vc,
+                                        final ReadLikelihoods<Allele> likelihoods,
+                                        final ReadFeatures readFeatures) {
+        return annotateRawData(vc, readFeatures);
+    }
+
     /**
      * Generates an annotation by calling the client implementation of getElementForRead(GATKRead read) over each read
      * given its best assigned allele and returns the value of the allele as a double. This data gets condensed into a
@@ -45,12 +54,16 @@ public abstract class AS_RankSumTest extends RankSumTest implements ReducibleAnn
     public Map<String, Object> annotateRawData(final ReferenceContext ref,
                                                final VariantContext vc,
                                                final ReadLikelihoods<Allele> likelihoods ) {
-        if ( likelihoods == null) {
+        return annotateRawData(vc, likelihoods == null ? null : new ReadFeatures(likelihoods, vc.getStart()));
+    }
+
+    private Map<String, Object> annotateRawData(final VariantContext vc, final ReadFeatures readFeatures) {
+        if ( readFeatures == null) {
             return Collections.emptyMap();
         }
 
         final AlleleSpecificAnnotationData<CompressedDataList<Integer>> myRawData = initializeNewRawAnnotationData(vc.getAlleles());
-        calculateRawData(vc, likelihoods, myRawData);
+        calculateRawData(vc, readFeatures, myRawData);
         Map<Allele, Double> myRankSumStats = calculateRankSum(myRawData.getAttributeMap(), myRawData.getRefAllele());
         final String annotationString = makeRawAnnotationString(vc.getAlleles(),myRankSumStats);
         if (annotationString == null){
@@ -113,21 +126,29 @@ public abstract class AS_RankSumTest extends RankSumTest implements ReducibleAnn
     // Generates as CompressedDataList over integer values over each read
     @SuppressWarnings({"unchecked", "rawtypes"})//FIXME generics here blow up
     public void calculateRawData(VariantContext vc, final ReadLikelihoods<Allele> likelihoods, ReducibleAnnotationData myData) {
+        calculateRawData(vc, likelihoods == null ? null : new ReadFeatures(likelihoods, vc.getStart()), myData);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})//FIXME generics here blow up
+    private void calculateRawData(final VariantContext vc, final ReadFeatures readFeatures, final ReducibleAnnotationData myData) {
         if( vc.getGenotypes().getSampleNames().size() != 1) {
             throw new IllegalStateException("Calculating raw data for allele-specific rank sums requires variant context input with exactly one sample, as in a gVCF.");
         }
-        if(likelihoods == null) {
+        if(readFeatures == null) {
             return;
         }
 
         final int refLoc = vc.getStart();
 
         final Map<Allele, CompressedDataList<Integer>> perAlleleValues = myData.getAttributeMap();
-        for ( final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAlleles() ) {
-            if (bestAllele.isInformative() && isUsableRead(bestAllele.read, refLoc)) {
-                final OptionalDouble value = getElementForRead(bestAllele.read, refLoc, bestAllele);
-                if (value.isPresent() && value.getAsDouble() != INVALID_ELEMENT_FROM_READ && perAlleleValues.containsKey(bestAllele.allele)) {
-                    perAlleleValues.get(bestAllele.allele).add((int) value.getAsDouble());
+        final GATKRead[] reads = readFeatures.reads();
+        final Allele[] bestAlleles = readFeatures.bestAlleles();
+        final boolean[] usable = readFeatures.usableReads();
+        for ( int r = 0; r < readFeatures.readCount(); r++ ) {
+            if (usable[r] && isUsableRead(reads[r], refLoc)) {
+                final OptionalDouble value = getElementForRead(readFeatures, r);
+                if (value.isPresent() && value.getAsDouble() != INVALID_ELEMENT_FROM_READ && perAlleleValues.containsKey(bestAlleles[r])) {
+                    perAlleleValues.get(bestAlleles[r]).add((int) value.getAsDouble());
                 }
             }
         }
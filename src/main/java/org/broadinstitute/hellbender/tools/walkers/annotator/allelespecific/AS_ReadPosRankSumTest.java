@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific;
 
 
 import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.tools.walkers.annotator.ReadFeatures;
 import org.broadinstitute.hellbender.tools.walkers.annotator.ReadPosRankSumTest;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
@@ -54,6 +55,11 @@ public class AS_ReadPosRankSumTest extends AS_RankSumTest implements AS_Standard
         return ReadPosRankSumTest.getReadPosition(read, refLoc);
     }
 
+    @Override
+    protected OptionalDouble getElementForRead(final ReadFeatures readFeatures, final int readIndex) {
+        return ReadPosRankSumTest.getReadPosition(readFeatures, readIndex);
+    }
+
     @Override
     public boolean isUsableRead(final GATKRead read, final int refLoc) {
         Utils.nonNull(read);
@@ -2,7 +2,9 @@ package org.broadinstitute.hellbender.tools.walkers.bqsr;
 
 import htsjdk.tribble.Feature;
 import org.apache.logging.log4j.LogManager;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
@@ -13,6 +15,7 @@ import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -26,6 +29,11 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * First pass of the base quality score recalibration -- Generates recalibration table based on various covariates
@@ -110,8 +118,32 @@ public final class BaseRecalibrator extends ReadWalker {
     @Argument(shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, doc = "The output recalibration table file to create", optional = false)
     private File recalTableFile = null;
 
+    /**
+     * Number of threads to use for collecting the recalibration tables. Each thread accumulates its own tables for a
+     * share of the reads, and the tables are added together at the end; the resulting report is identical to the one
+     * produced by a single thread. Since BAQ error fractions cannot be added up in a different order without changing
+     * the result, this is ignored when BAQ is enabled.
+     */
+    @Advanced
+    @Argument(fullName = "recalibrationThreads", shortName = "recalibrationThreads", doc = "Number of threads to use for collecting recalibration tables", optional = true, minValue = 1)
+    private int recalibrationThreads = 1;
+
+    /**
+     * Number of reads handed to the worker threads at a time when running with more than one recalibration thread
+     */
+    private static final int READS_PER_WORKER_BATCH = 10000;
+
     private BaseRecalibrationEngine recalibrationEngine;
 
+    /**
+     * Per-thread engines and reference data sources, used only when running with more than one recalibration thread
+     */
+    private List<BaseRecalibrationEngine> workerEngines;
+    private List<ReferenceDataSource> workerReferenceDataSources;
+    private ExecutorService workerExecutor;
+    private List<ReadWithKnownSites> pendingReads;
+    private final List<Future<?>> workerFutures = new ArrayList<>();
+
     private ReferenceDataSource referenceDataSource; // datasource for the reference. We're using a different one from the engine itself to avoid messing with its caches.
 
     /**
@@ -139,6 +171,29 @@ public final class BaseRecalibrator extends ReadWalker {
         recalibrationEngine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads());
         recalibrationEngine.logCovariatesUsed();
         referenceDataSource = ReferenceDataSource.of(referenceArguments.getReferenceFile());
+
+        if (recalibrationThreads > 1) {
+            if (recalArgs.enableBAQ) {
+                logger.warn("BAQ is enabled; ignoring -recalibrationThreads and collecting the recalibration tables on a single thread");
+            } else {
+                initializeWorkers();
+            }
+        }
+    }
+
+    private void initializeWorkers() {
+        workerEngines = new ArrayList<>(recalibrationThreads);
+        workerReferenceDataSources = new ArrayList<>(recalibrationThreads);
+        for (int i = 0; i < recalibrationThreads; i++) {
+            workerEngines.add(new BaseRecalibrationEngine(recalArgs, getHeaderForReads()));
+            workerReferenceDataSources.add(ReferenceDataSource.of(referenceArguments.getReferenceFile()));
+        }
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("recalibration-thread-%d")
+                .setDaemon(true)
+                .build();
+        workerExecutor = Executors.newFixedThreadPool(recalibrationThreads, threadFactory);
+        pendingReads = new ArrayList<>(READS_PER_WORKER_BATCH);
     }
 
     @Override
@@ -177,11 +232,52 @@ public final class BaseRecalibrator extends ReadWalker {
      */
     @Override
     public void apply( GATKRead read, ReferenceContext ref, FeatureContext featureContext ) {
-        recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
+        if (workerEngines == null) {
+            recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
+        } else {
+            pendingReads.add(new ReadWithKnownSites(read, featureContext.getValues(knownSites)));
+            if (pendingReads.size() == READS_PER_WORKER_BATCH * recalibrationThreads) {
+                dispatchPendingReads();
+            }
+        }
+    }
+
+    /**
+     * Splits the pending reads into one contiguous slice per worker and submits them, after waiting for the previous
+     * batch to finish so that each worker engine is only ever used by one thread at a time.
+     */
+    private void dispatchPendingReads() {
+        awaitWorkers();
+        final int sliceSize = (pendingReads.size() + recalibrationThreads - 1) / recalibrationThreads;
+        for (int i = 0; i < recalibrationThreads; i++) {
+            final List<ReadWithKnownSites> slice = pendingReads.subList(Math.min(i * sliceSize, pendingReads.size()), Math.min((i + 1) * sliceSize, pendingReads.size()));
+            final BaseRecalibrationEngine engine = workerEngines.get(i);
+            final ReferenceDataSource reference = workerReferenceDataSources.get(i);
+            workerFutures.add(workerExecutor.submit(() -> slice.forEach(r -> engine.processRead(r.read, reference, r.knownSites))));
+        }
+        pendingReads = new ArrayList<>(READS_PER_WORKER_BATCH * recalibrationThreads);
+    }
+
+    private void awaitWorkers() {
+        try {
+            for (final Future<?> future : workerFutures) {
+                future.get();
+            }
+        } catch (final InterruptedException | ExecutionException e) {
+            throw new GATKException("Problem collecting recalibration tables", e);
+        } finally {
+            workerFutures.clear();
+        }
     }
 
     @Override
     public Object onTraversalSuccess() {
+        if (workerEngines != null) {
+            dispatchPendingReads();
+            awaitWorkers();
+            // combine in a fixed order so that the result does not depend on thread scheduling
+            workerEngines.forEach(recalibrationEngine::combine);
+        }
         recalibrationEngine.finalizeData();
 
         logger.info("Calculating quantized quality scores...");
@@ -204,6 +300,16 @@ public final class BaseRecalibrator extends ReadWalker {
         quantizationInfo = new QuantizationInfo(recalibrationEngine.getFinalRecalibrationTables(), recalArgs.QUANTIZING_LEVELS);
     }
 
+    @Override
+    public void closeTool() {
+        if (workerExecutor != null) {
+            workerExecutor.shutdownNow();
+        }
+        if (workerReferenceDataSources != null) {
+            workerReferenceDataSources.forEach(ReferenceDataSource::close);
+        }
+    }
+
     private void generateReport() {
         try ( PrintStream recalTableStream = new PrintStream(recalTableFile) ) {
             RecalUtils.outputRecalibrationReport(recalTableStream, recalArgs, quantizationInfo, recalibrationEngine.getFinalRecalibrationTables(), recalibrationEngine.getCovariates());
@@ -212,4 +318,14 @@ public final class BaseRecalibrator extends ReadWalker {
             throw new UserException.CouldNotCreateOutputFile(recalTableFile, e);
         }
     }
-}
\ No newline at end of file
+
+    private static final class ReadWithKnownSites {
+        private final GATKRead read;
+        private final List<Feature> knownSites;
+
+        private ReadWithKnownSites(final GATKRead read, final List<Feature> knownSites) {
+            this.read = read;
+            this.knownSites = knownSites;
+        }
+    }
+}
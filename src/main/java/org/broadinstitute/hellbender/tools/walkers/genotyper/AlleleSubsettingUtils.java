@@ -248,7 +248,7 @@ public final class AlleleSubsettingUtils {
             final double GLDiffBetweenRefAndBest = glsVector[indexOfMostLikelyGenotype] - glsVector[PL_INDEX_OF_HOM_REF];
             final int ploidy = genotype.getPloidy() > 0 ? genotype.getPloidy() : defaultPloidy;
 
-            final int[] alleleCounts = new GenotypeLikelihoodCalculators()
+            final int[] alleleCounts = GL_CALCS
                     .getInstance(ploidy, vc.getNAlleles()).genotypeAlleleCountsAt(indexOfMostLikelyGenotype)
                     .alleleCountsByIndex(vc.getNAlleles() - 1);
 
@@ -6,25 +6,40 @@ import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 /**
  * Helper to calculate genotype likelihoods given a ploidy and an allele count (number of possible distinct alleles).
+ *
+ * <p>
+ *     Instances are immutable and can be shared across threads: the buffers used during a calculation are kept in a
+ *     per-thread {@link Scratch} that is shared by all calculators used in that thread.
+ * </p>
  */
 public final class GenotypeLikelihoodCalculator {
 
+    /**
+     * Minimum number of reads the per-thread buffers are sized for.
+     */
+    private static final int MINIMUM_READ_CAPACITY = 10;
+
+    /**
+     * Per-thread buffers, shared by all calculators.
+     */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
     /**
      * Maximum number of components (or distinct alleles) for any genotype with this calculator ploidy and allele count.
      */
-    private int maximumDistinctAllelesInGenotype;
+    private final int maximumDistinctAllelesInGenotype;
 
     /**
      * Offset table for this calculator.
      *
      * <p>
-     *     This is a shallow copy of {@link GenotypeLikelihoodCalculators#alleleFirstGenotypeOffsetByPloidy} when the calculator was created
-     *     thus it follows the same format as that array. Please refer to its documentation.
+     *     This is the offset table held by the {@link GenotypeLikelihoodCalculators} that created this calculator, as built
+     *     by {@link GenotypeLikelihoodCalculators#buildAlleleFirstGenotypeOffsetTable(int, int)}. Please refer to its documentation
+     *     for its format.
      * </p>
      *
      * <p>You can assume that this offset table contain at least (probably more) the numbers corresponding to the allele count and ploidy for this calculator.
@@ -56,87 +71,6 @@ public final class GenotypeLikelihoodCalculator {
      */
     private final int ploidy;
 
-    /**
-     * Max-heap for integers used for this calculator internally.
-     */
-    private final PriorityQueue<Integer> alleleHeap;
-
-    /**
-     * Cache of the last genotype-allele-count requested using {@link #genotypeAlleleCountsAt(int)}, when it
-     * goes beyond the maximum genotype-allele-count static capacity. Check on that method documentation for details.
-     */
-    private GenotypeAlleleCounts lastOverheadCounts;
-
-    /**
-     * Buffer used as a temporary container for likelihood components for genotypes stratified by alleles, allele frequency and reads.
-     *
-     * <p>To improve performance we use a 1-dimensional array to implement a 3-dimensional one as some of those dimension
-     * have typically very low depths (allele and allele frequency)</p>
-     *
-     * <p>
-     *     The value contained in position <code>[a][f][r] == log10Lk(read[r] | allele[a]) + log10(f) </code>. Exception is
-     *     for f == 0 whose value is undefined (in practice 0.0) and never used.
-     * </p>
-     *
-     * <p>
-     *     It is indexed by read, then by allele and then by the number of copies of the allele. For the latter
-     *     there are as many entries as the ploidy of the calculator + 1 (to accommodate zero copies although is
-     *     never used in practice).
-     * </p>
-     */
-    private double[] readAlleleLikelihoodByAlleleCount = null;
-
-    /**
-     * Buffer used as a temporary container for likelihood components for genotypes stratified by reads.
-     *
-     * <p>
-     *     It is indexed by genotype index and then by read index. The read capacity is increased as needed by calling
-     *     {@link #ensureReadCapacity(int) ensureReadCapacity}.
-     * </p>
-     */
-    private final double[][] readLikelihoodsByGenotypeIndex;
-
-    /**
-     * Indicates how many reads the calculator supports.
-     *
-     * <p>This figure is increased dynamically as per the
-     * calculation request calling {@link #ensureReadCapacity(int) ensureReadCapacity}.<p/>
-     */
-    private int readCapacity = -1;
-
-    /**
-     * Buffer field use as a temporal container for sorted allele counts when calculating the likelihood of a
-     * read in a genotype.
-     * <p>
-     *      This array follows the same format as {@link GenotypeAlleleCounts#sortedAlleleCounts}. Each component in the
-     *      genotype takes up two positions in the array where the first indicate the allele index and the second its frequency in the
-     *      genotype. Only non-zero frequency alleles are represented, taking up the first positions of the array.
-     * </p>
-     *
-     * <p>
-     *     This array is sized so that it can accommodate the maximum possible number of distinct alleles in any
-     *     genotype supported by the calculator, value stored in {@link #maximumDistinctAllelesInGenotype}.
-     * </p>
-     */
-    private final int[] genotypeAllelesAndCounts;
-
-    /**
-     * Buffer field use as a temporal container for component likelihoods when calculating the likelihood of a
-     * read in a genotype. It is stratified by read and the allele component of the genotype likelihood... that is
-     * the part of the likelihood sum that correspond to a particular allele in the genotype.
-     *
-     * <p>
-     *     It is implemented in a 1-dimensional array since typically one of the dimensions is rather small. Its size
-     *     is equal to {@link #readCapacity} times {@link #maximumDistinctAllelesInGenotype}.
-     * </p>
-     *
-     * <p>
-     *     More concretely [r][i] == log10Lk(read[r] | allele[i]) + log(freq[i]) where allele[i] is the ith allele
-     *     in the genotype of interest and freq[i] is the number of times it occurs in that genotype.
-     * </p>
-     */
-    private double[] readGenotypeLikelihoodComponents;
-
     /**
      * Creates a new calculator providing its ploidy and number of genotyping alleles.
      */
@@ -149,36 +83,22 @@ public final class GenotypeLikelihoodCalculator {
         this.alleleCount = alleleCount;
         this.ploidy = ploidy;
         genotypeCount = this.alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
-        alleleHeap = new PriorityQueue<>(ploidy, Comparator.<Integer>naturalOrder().reversed());
-        readLikelihoodsByGenotypeIndex = new double[genotypeCount][];
         // The number of possible components is limited by distinct allele count and ploidy.
         maximumDistinctAllelesInGenotype = Math.min(ploidy, alleleCount);
-        genotypeAllelesAndCounts = new int[maximumDistinctAllelesInGenotype * 2];
     }
 
     /**
-     * Makes sure that temporal arrays and matrices are prepared for a number of reads to process.
+     * Makes sure that the current thread's temporal arrays are prepared for a number of reads to process.
+     *
+     * <p>Calling this is optional; {@link #genotypeLikelihoods} grows the buffers as needed.</p>
+     *
      * @param requestedCapacity number of read that need to be processed.
      */
     public void ensureReadCapacity(final int requestedCapacity) {
         Utils.validateArg(requestedCapacity >= 0, "capacity may not be negative");
-        if (readCapacity == -1) { // first time call.
-            final int minimumCapacity = Math.max(requestedCapacity, 10); // Never go too small, 10 is the minimum.
-            readAlleleLikelihoodByAlleleCount = new double[minimumCapacity * alleleCount * (ploidy+1)];
-            for (int i = 0; i < genotypeCount; i++) {
-                readLikelihoodsByGenotypeIndex[i] = new double[minimumCapacity];
-            }
-            readGenotypeLikelihoodComponents = new double[ploidy * minimumCapacity];
-            readCapacity = minimumCapacity;
-        } else if (readCapacity < requestedCapacity) {
-            final int doubleCapacity = (requestedCapacity << 1);
-            readAlleleLikelihoodByAlleleCount = new double[doubleCapacity * alleleCount * (ploidy+1)];
-            for (int i = 0; i < genotypeCount; i++) {
-                readLikelihoodsByGenotypeIndex[i] = new double[doubleCapacity];
-            }
-            readGenotypeLikelihoodComponents = new double[maximumDistinctAllelesInGenotype * doubleCapacity];
-            readCapacity = doubleCapacity;
-        }
+        final Scratch scratch = SCRATCH.get();
+        scratch.readAlleleLikelihoodByAlleleCount(requestedCapacity * alleleCount * (ploidy + 1));
+        scratch.readGenotypeLikelihoodComponents(requestedCapacity * maximumDistinctAllelesInGenotype);
     }
 
     /**
@@ -195,11 +115,9 @@ public final class GenotypeLikelihoodCalculator {
             return 0;
         }
 
-        alleleHeap.clear();
-        for (int i = 0; i < alleleIndices.length; i++) {
-            alleleHeap.add(alleleIndices[i]);
-        }
-        return alleleHeapToIndex();
+        final int[] alleles = SCRATCH.get().alleles(alleleIndices.length);
+        System.arraycopy(alleleIndices, 0, alleles, 0, alleleIndices.length);
+        return allelesToIndex(alleles, alleleIndices.length);
     }
 
     /**
@@ -215,7 +133,7 @@ public final class GenotypeLikelihoodCalculator {
      *
      * <p>If {@code index} is larger than {@link GenotypeLikelihoodCalculators#MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY},
      *  this method will reconstruct that genotype-allele-count iteratively from the largest strongly referenced count available.
-     *  or the last requested index genotype.
+     *  or the last index genotype requested in the current thread.
      *  </p>
      *
      * <p> Therefore if you are iterating through all genotype-allele-counts you should do sequentially and incrementally, to
@@ -229,10 +147,14 @@ public final class GenotypeLikelihoodCalculator {
                     + " (genotype count for nalleles = " + alleleCount + " and ploidy " + ploidy);
         if (index < GenotypeLikelihoodCalculators.MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY) {
             return genotypeAlleleCounts[index];
-        } else if (lastOverheadCounts == null || lastOverheadCounts.index() > index) {
+        }
+        final Scratch scratch = SCRATCH.get();
+        final GenotypeAlleleCounts lastOverheadCounts = scratch.lastOverheadCounts;
+        // genotype indices do not depend on the allele count, so the last counts can be reused by any calculator with the same ploidy.
+        if (lastOverheadCounts == null || lastOverheadCounts.ploidy() != ploidy || lastOverheadCounts.index() > index) {
             final GenotypeAlleleCounts result = genotypeAlleleCounts[GenotypeLikelihoodCalculators.MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY - 1].copy();
             result.increase(index - GenotypeLikelihoodCalculators.MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY + 1);
-            lastOverheadCounts = result;
+            scratch.lastOverheadCounts = result;
             return result.copy();
         } else {
             lastOverheadCounts.increase(index - lastOverheadCounts.index());
@@ -255,67 +177,59 @@ public final class GenotypeLikelihoodCalculator {
         Utils.nonNull(likelihoods);
         Utils.validateArg(likelihoods.numberOfAlleles() == alleleCount, "mismatch between allele list and alleleCount");
         final int readCount = likelihoods.numberOfReads();
-        ensureReadCapacity(readCount);
+        final Scratch scratch = SCRATCH.get();
 
         /// [x][y][z] = z * LnLk(Read_x | Allele_y)
         final double[] readLikelihoodComponentsByAlleleCount
-                = readLikelihoodComponentsByAlleleCount(likelihoods);
-        final double[][] genotypeLikelihoodByRead = genotypeLikelihoodByRead(readLikelihoodComponentsByAlleleCount,readCount);
-        final double[] readLikelihoodsByGenotypeIndex = genotypeLikelihoods(genotypeLikelihoodByRead, readCount);
-        return GenotypeLikelihoods.fromLog10Likelihoods(readLikelihoodsByGenotypeIndex);
+                = readLikelihoodComponentsByAlleleCount(likelihoods, scratch.readAlleleLikelihoodByAlleleCount(readCount * alleleCount * (ploidy + 1)));
+        final double[] genotypeLikelihoods = genotypeLikelihoods(readLikelihoodComponentsByAlleleCount, readCount,
+                scratch.readGenotypeLikelihoodComponents(readCount * maximumDistinctAllelesInGenotype));
+        return GenotypeLikelihoods.fromLog10Likelihoods(genotypeLikelihoods);
     }
 
     /**
-     * Calculates the final genotype likelihood array out of the likelihoods for each genotype per read.
+     * Calculates the genotype likelihoods, adding up the likelihood component of each read on each genotype.
      *
-     * @param readLikelihoodsByGenotypeIndex <i>[g][r]</i> likelihoods for each genotype <i>g</i> and <i>r</i>.
-     * @param readCount number of reads in the input likelihood arrays in {@code genotypeLikelihoodByRead}.
-     * @return never {@code null}, one position per genotype where the <i>i</i> entry is the likelihood of the ith
-     *   genotype (0-based).
-     */
-    private double[] genotypeLikelihoods(final double[][] readLikelihoodsByGenotypeIndex, final int readCount) {
-        final double[] result = new double[genotypeCount];
-        final double denominator = readCount * MathUtils.log10(ploidy);
-        // instead of dividing each read likelihood by ploidy ( so subtract log10(ploidy) )
-         // we multiply them all and the divide by ploidy^readCount (so substract readCount * log10(ploidy) )
-        for (int g = 0; g < genotypeCount; g++) {
-            result[g] = MathUtils.sum(readLikelihoodsByGenotypeIndex[g], 0, readCount) - denominator;
-        }
-        return result;
-    }
-
-    /**
-     * Calculates the likelihood component of each read on each genotype.
+     * <p>
+     *     Instead of dividing each read likelihood by ploidy ( so subtract log10(ploidy) ) we multiply them all
+     *     and then divide by ploidy^readCount (so subtract readCount * log10(ploidy) ).
+     * </p>
      *
      * @param readLikelihoodComponentsByAlleleCount [a][f][r] likelihood stratified by allele <i>a</i>, frequency in genotype <i>f</i> and
      *                                              read <i>r</i>.
      * @param readCount number of reads in {@code readLikelihoodComponentsByAlleleCount}.
-     * @return never {@code null}.
+     * @param readGenotypeLikelihoodComponents buffer for genotypes with more than two distinct alleles.
+     * @return never {@code null}, one position per genotype where the <i>i</i> entry is the likelihood of the ith
+     *   genotype (0-based).
      */
-    private double[][] genotypeLikelihoodByRead(final double[] readLikelihoodComponentsByAlleleCount, final int readCount) {
+    private double[] genotypeLikelihoods(final double[] readLikelihoodComponentsByAlleleCount, final int readCount,
+                                         final double[] readGenotypeLikelihoodComponents) {
+        final double[] result = new double[genotypeCount];
+        final double denominator = readCount * MathUtils.log10(ploidy);
 
         // Here we don't use the convenience of {@link #genotypeAlleleCountsAt(int)} within the loop to spare instantiations of
         // GenotypeAlleleCounts class when we are dealing with many genotypes.
         GenotypeAlleleCounts alleleCounts = genotypeAlleleCounts[0];
 
         for (int genotypeIndex = 0; genotypeIndex < genotypeCount; genotypeIndex++) {
-            final double[] readLikelihoods = this.readLikelihoodsByGenotypeIndex[genotypeIndex];
             final int componentCount = alleleCounts.distinctAlleleCount();
+            final double likelihood;
             switch (componentCount) {
-                case 1: //
-                    singleComponentGenotypeLikelihoodByRead(alleleCounts, readLikelihoods, readLikelihoodComponentsByAlleleCount, readCount);
+                case 1:
+                    likelihood = singleComponentGenotypeLikelihood(alleleCounts, readLikelihoodComponentsByAlleleCount, readCount);
                     break;
                 case 2:
-                    twoComponentGenotypeLikelihoodByRead(alleleCounts,readLikelihoods,readLikelihoodComponentsByAlleleCount, readCount);
+                    likelihood = twoComponentGenotypeLikelihood(alleleCounts, readLikelihoodComponentsByAlleleCount, readCount);
                     break;
                 default:
-                    manyComponentGenotypeLikelihoodByRead(alleleCounts,readLikelihoods,readLikelihoodComponentsByAlleleCount, readCount);
+                    likelihood = manyComponentGenotypeLikelihood(alleleCounts, readLikelihoodComponentsByAlleleCount, readCount, readGenotypeLikelihoodComponents);
             }
+            result[genotypeIndex] = likelihood - denominator;
             if (genotypeIndex < genotypeCount - 1) {
                 alleleCounts = nextGenotypeAlleleCounts(alleleCounts);
             }
         }
-        return readLikelihoodsByGenotypeIndex;
+        return result;
     }
 
     private GenotypeAlleleCounts nextGenotypeAlleleCounts(final GenotypeAlleleCounts alleleCounts) {
@@ -335,22 +249,21 @@ public final class GenotypeLikelihoodCalculator {
     }
 
     /**
-     * General genotype likelihood component by read calculator. It does not make any assumption in the exact
+     * General genotype likelihood calculator. It does not make any assumption in the exact
      * number of alleles present in the genotype.
      */
-    private void manyComponentGenotypeLikelihoodByRead(final GenotypeAlleleCounts genotypeAlleleCounts,
-                                                       final double[] likelihoodByRead,
-                                                       final double[]readLikelihoodComponentsByAlleleCount,
-                                                       final int readCount) {
+    private double manyComponentGenotypeLikelihood(final GenotypeAlleleCounts genotypeAlleleCounts,
+                                                   final double[] readLikelihoodComponentsByAlleleCount,
+                                                   final int readCount,
+                                                   final double[] readGenotypeLikelihoodComponents) {
 
         // First we collect the allele likelihood component for all reads and place it
         // in readGenotypeLikelihoodComponents for the final calculation per read.
-        genotypeAlleleCounts.copyAlleleCounts(genotypeAllelesAndCounts,0);
         final int componentCount = genotypeAlleleCounts.distinctAlleleCount();
         final int alleleDataSize = (ploidy + 1) * readCount;
-        for (int c = 0,cc = 0; c < componentCount; c++) {
-            final int alleleIndex = genotypeAllelesAndCounts[cc++];
-            final int alleleCount = genotypeAllelesAndCounts[cc++];
+        for (int c = 0; c < componentCount; c++) {
+            final int alleleIndex = genotypeAlleleCounts.alleleIndexAt(c);
+            final int alleleCount = genotypeAlleleCounts.alleleCountAt(c);
             // alleleDataOffset will point to the index of the first read likelihood for that allele and allele count.
             int alleleDataOffset = alleleDataSize * alleleIndex + alleleCount * readCount;
             for (int r = 0, readDataOffset = c; r < readCount; r++, readDataOffset += maximumDistinctAllelesInGenotype) {
@@ -358,46 +271,49 @@ public final class GenotypeLikelihoodCalculator {
             }
         }
 
-        // Calculate the likelihood per read.
+        // Add up the likelihood per read.
+        double result = 0.0;
         for (int r = 0, readDataOffset = 0; r < readCount; r++, readDataOffset += maximumDistinctAllelesInGenotype) {
-            likelihoodByRead[r] = MathUtils.approximateLog10SumLog10(readGenotypeLikelihoodComponents, readDataOffset, readDataOffset + componentCount);
+            result += MathUtils.approximateLog10SumLog10(readGenotypeLikelihoodComponents, readDataOffset, readDataOffset + componentCount);
         }
+        return result;
     }
 
     /**
-     * Calculates the likelihood component by read for a given genotype allele count assuming that there are
+     * Calculates the likelihood for a given genotype allele count assuming that there are
      * exactly two alleles present in the genotype (with arbitrary non-zero counts each).
      */
-    private void twoComponentGenotypeLikelihoodByRead(final GenotypeAlleleCounts genotypeAlleleCounts,
-                                                      final double[] likelihoodByRead,
-                                                      final double[] readLikelihoodComponentsByAlleleCount,
-                                                      final int readCount) {
+    private double twoComponentGenotypeLikelihood(final GenotypeAlleleCounts genotypeAlleleCounts,
+                                                  final double[] readLikelihoodComponentsByAlleleCount,
+                                                  final int readCount) {
         final int allele0 = genotypeAlleleCounts.alleleIndexAt(0);
         final int freq0 = genotypeAlleleCounts.alleleCountAt(0);
         final int allele1 = genotypeAlleleCounts.alleleIndexAt(1);
         final int freq1 = ploidy - freq0; // no need to get it from genotypeAlleleCounts.
-        int allele0LnLkOffset = readCount * ((ploidy + 1) * allele0 + freq0);
-        int allele1LnLkOffset = readCount * ((ploidy + 1) * allele1 + freq1);
+        final int allele0LnLkOffset = readCount * ((ploidy + 1) * allele0 + freq0);
+        final int allele1LnLkOffset = readCount * ((ploidy + 1) * allele1 + freq1);
+        double result = 0.0;
         for (int r = 0; r < readCount; r++) {
-            final double lnLk0 = readLikelihoodComponentsByAlleleCount[allele0LnLkOffset++];
-            final double lnLk1 = readLikelihoodComponentsByAlleleCount[allele1LnLkOffset++];
-            likelihoodByRead[r] = MathUtils.approximateLog10SumLog10(lnLk0, lnLk1);
+            result += MathUtils.approximateLog10SumLog10(readLikelihoodComponentsByAlleleCount[allele0LnLkOffset + r],
+                    readLikelihoodComponentsByAlleleCount[allele1LnLkOffset + r]);
         }
+        return result;
     }
 
     /**
-     * Calculates the likelihood component by read for a given genotype allele count assuming that there are
+     * Calculates the likelihood for a given genotype allele count assuming that there are
      * exactly one allele present in the genotype.
      */
-    private void singleComponentGenotypeLikelihoodByRead(final GenotypeAlleleCounts genotypeAlleleCounts,
-                                                         final double[] likelihoodByRead, final double[] readLikelihoodComponentsByAlleleCount, final int readCount) {
+    private double singleComponentGenotypeLikelihood(final GenotypeAlleleCounts genotypeAlleleCounts,
+                                                     final double[] readLikelihoodComponentsByAlleleCount, final int readCount) {
         final int allele = genotypeAlleleCounts.alleleIndexAt(0);
         // the count of the only component must be = ploidy.
-        int offset = (allele * (ploidy + 1) + ploidy) * readCount;
+        final int offset = (allele * (ploidy + 1) + ploidy) * readCount;
+        double result = 0.0;
         for (int r = 0; r < readCount; r++) {
-            likelihoodByRead[r] =
-                    readLikelihoodComponentsByAlleleCount[offset++];
+            result += readLikelihoodComponentsByAlleleCount[offset + r];
         }
+        return result;
     }
 
     /**
@@ -407,27 +323,29 @@ public final class GenotypeLikelihoodCalculator {
      *     result[y][z][x] :=  z * lnLk ( read_x | allele_y ).
      * </pre>
      *
+     * <p>The reads are the innermost dimension so that every loop over reads runs over contiguous memory.</p>
+     *
+     * @param destination where to store the matrix, with capacity for all its entries.
      * @return never {@code null}.
      */
-    private <A extends Allele> double[] readLikelihoodComponentsByAlleleCount(final LikelihoodMatrix<A> likelihoods) {
+    private <A extends Allele> double[] readLikelihoodComponentsByAlleleCount(final LikelihoodMatrix<A> likelihoods, final double[] destination) {
         final int readCount = likelihoods.numberOfReads();
         final int alleleDataSize = readCount * (ploidy + 1);
 
         // frequency1Offset = readCount to skip the useless frequency == 0. So now we are at the start frequency == 1
         // frequency1Offset += alleleDataSize to skip to the next allele index data location (+ readCount) at each iteration.
         for (int a = 0, frequency1Offset = readCount; a < alleleCount; a++, frequency1Offset += alleleDataSize) {
-            likelihoods.copyAlleleLikelihoods(a, readAlleleLikelihoodByAlleleCount, frequency1Offset);
+            likelihoods.copyAlleleLikelihoods(a, destination, frequency1Offset);
 
             // p = 2 because the frequency == 1 we already have it.
-            for (int frequency = 2, destinationOffset = frequency1Offset + readCount; frequency <= ploidy; frequency++) {
+            for (int frequency = 2, destinationOffset = frequency1Offset + readCount; frequency <= ploidy; frequency++, destinationOffset += readCount) {
                 final double log10frequency = MathUtils.log10(frequency);
-                for (int r = 0, sourceOffset = frequency1Offset; r < readCount; r++) {
-                    readAlleleLikelihoodByAlleleCount[destinationOffset++] =
-                            readAlleleLikelihoodByAlleleCount[sourceOffset++] + log10frequency;
+                for (int r = 0; r < readCount; r++) {
+                    destination[destinationOffset + r] = destination[frequency1Offset + r] + log10frequency;
                 }
             }
         }
-        return readAlleleLikelihoodByAlleleCount;
+        return destination;
     }
 
     /**
@@ -466,33 +384,37 @@ public final class GenotypeLikelihoodCalculator {
     public int alleleCountsToIndex(final int ... alleleCountArray) {
         Utils.nonNull(alleleCountArray, "the allele counts cannot be null");
         Utils.validateArg((alleleCountArray.length & 1) == 0, "the allele counts array cannot have odd length");
-        alleleHeap.clear();
-        for (int i = 0; i < alleleCountArray.length; i += 2) {
-            final int index = alleleCountArray[i];
-            final int count = alleleCountArray[i+1];
-            Utils.validateArg(count >= 0, "no allele count can be less than 0");
-            for (int j = 0; j < count; j++) {
-                alleleHeap.add(index);
-            }
+        int alleleTotal = 0;
+        for (int i = 1; i < alleleCountArray.length; i += 2) {
+            Utils.validateArg(alleleCountArray[i] >= 0, "no allele count can be less than 0");
+            alleleTotal += alleleCountArray[i];
         }
-        return alleleHeapToIndex();
+        final int[] alleles = SCRATCH.get().alleles(alleleTotal);
+        for (int i = 0, length = 0; i < alleleCountArray.length; i += 2) {
+            Arrays.fill(alleles, length, length += alleleCountArray[i + 1], alleleCountArray[i]);
+        }
+        return allelesToIndex(alleles, alleleTotal);
     }
 
     /**
-     * Transforms the content of the heap into an index.
+     * Transforms a list of allele indices into a likelihood index.
      *
      * <p>
-     *     The heap contents are flushed as a result, so is left ready for another use.
+     *     The buffer is sorted as a result.
      * </p>
      *
+     * @param alleles buffer with the allele indices, one per allele copy, in any order.
+     * @param length number of allele indices in {@code alleles}.
      * @return a valid likelihood index.
      */
-    private int alleleHeapToIndex() {
-        Utils.validateArg(alleleHeap.size() == ploidy, "the sum of allele counts must be equal to the ploidy of the calculator");
-        Utils.validateArg(alleleHeap.peek() < alleleCount, () -> "invalid allele " + alleleHeap.peek() + " more than the maximum " + (alleleCount - 1));
+    private int allelesToIndex(final int[] alleles, final int length) {
+        Utils.validateArg(length == ploidy, "the sum of allele counts must be equal to the ploidy of the calculator");
+        Arrays.sort(alleles, 0, length);
+        final int maximumAllele = alleles[length - 1];
+        Utils.validateArg(maximumAllele < alleleCount, () -> "invalid allele " + maximumAllele + " more than the maximum " + (alleleCount - 1));
         int result = 0;
         for (int p = ploidy; p > 0; p--) {
-            final int allele = alleleHeap.remove();
+            final int allele = alleles[p - 1];
             Utils.validateArg(allele >= 0, () -> "invalid allele " + allele + " must be equal or greater than 0 ");
             result += alleleFirstGenotypeOffsetByPloidy[p][allele];
         }
@@ -521,10 +443,10 @@ public final class GenotypeLikelihoodCalculator {
 
         final int[] result = new int[resultLength];
         final int[] sortedAlleleCounts = new int[Math.max(ploidy, alleleCount) << 1];
-        alleleHeap.clear();
+        final int[] alleles = new int[ploidy];
         GenotypeAlleleCounts alleleCounts = genotypeAlleleCounts[0];
         for (int i = 0; i < resultLength; i++) {
-            genotypeIndexMapPerGenotypeIndex(i,alleleCounts, oldToNewAlleleIndexMap, result, sortedAlleleCounts);
+            genotypeIndexMapPerGenotypeIndex(i,alleleCounts, oldToNewAlleleIndexMap, result, sortedAlleleCounts, alleles);
             if (i < resultLength - 1) {
                 alleleCounts = nextGenotypeAlleleCounts(alleleCounts);
             }
@@ -540,10 +462,13 @@ public final class GenotypeLikelihoodCalculator {
      * @param oldToNewAlleleIndexMap the allele mapping.
      * @param destination where to store the new genotype index mapping to old.
      * @param sortedAlleleCountsBuffer a buffer to re-use to get the genotype-allele-count's sorted allele counts.
+     * @param allelesBuffer a buffer to re-use to collect the new allele indices, one per allele copy.
      */
-    private void genotypeIndexMapPerGenotypeIndex(final int newGenotypeIndex, final GenotypeAlleleCounts alleleCounts, final int[] oldToNewAlleleIndexMap, final int[] destination, final int[] sortedAlleleCountsBuffer) {
+    private void genotypeIndexMapPerGenotypeIndex(final int newGenotypeIndex, final GenotypeAlleleCounts alleleCounts, final int[] oldToNewAlleleIndexMap,
+                                                  final int[] destination, final int[] sortedAlleleCountsBuffer, final int[] allelesBuffer) {
         final int distinctAlleleCount = alleleCounts.distinctAlleleCount();
         alleleCounts.copyAlleleCounts(sortedAlleleCountsBuffer,0);
+        int length = 0;
         for (int j = 0, jj = 0; j < distinctAlleleCount; j++) {
             final int oldIndex = sortedAlleleCountsBuffer[jj++];
             final int repeats = sortedAlleleCountsBuffer[jj++];
@@ -551,12 +476,80 @@ public final class GenotypeLikelihoodCalculator {
             if (newIndex < 0 || newIndex >= alleleCount) {
                 throw new IllegalArgumentException("found invalid new allele index (" + newIndex + ") for old index (" + oldIndex + ")");
             }
-            for (int k = 0; k < repeats; k++) {
-                alleleHeap.add(newIndex);
-            }
+            Arrays.fill(allelesBuffer, length, length += repeats, newIndex);
         }
-        final int genotypeIndex = alleleHeapToIndex(); // this cleans the heap for the next use.
-        destination[newGenotypeIndex] = genotypeIndex;
+        destination[newGenotypeIndex] = allelesToIndex(allelesBuffer, length);
     }
 
+    /**
+     * Buffers used by the calculators in one thread.
+     *
+     * <p>Buffers grow as needed and are never shrunk, so their length is a capacity rather than the size of their content.</p>
+     */
+    private static final class Scratch {
+
+        /**
+         * Buffer used as a temporary container for likelihood components for genotypes stratified by alleles, allele frequency and reads.
+         *
+         * <p>To improve performance we use a 1-dimensional array to implement a 3-dimensional one as some of those dimension
+         * have typically very low depths (allele and allele frequency)</p>
+         *
+         * <p>
+         *     The value contained in position <code>[a][f][r] == log10Lk(read[r] | allele[a]) + log10(f) </code>. Exception is
+         *     for f == 0 whose value is undefined (in practice 0.0) and never used.
+         * </p>
+         *
+         * <p>
+         *     It is indexed by allele, then by the number of copies of the allele and then by read. For the number of copies
+         *     there are as many entries as the ploidy of the calculator + 1 (to accommodate zero copies although is
+         *     never used in practice).
+         * </p>
+         */
+        private double[] readAlleleLikelihoodByAlleleCount = new double[0];
+
+        /**
+         * Buffer used as a temporal container for component likelihoods when calculating the likelihood of a
+         * read in a genotype. It is stratified by read and the allele component of the genotype likelihood... that is
+         * the part of the likelihood sum that correspond to a particular allele in the genotype.
+         *
+         * <p>
+         *     More concretely [r][i] == log10Lk(read[r] | allele[i]) + log(freq[i]) where allele[i] is the ith allele
+         *     in the genotype of interest and freq[i] is the number of times it occurs in that genotype. Each read takes up
+         *     as many positions as the maximum number of distinct alleles in any genotype of the calculator.
+         * </p>
+         */
+        private double[] readGenotypeLikelihoodComponents = new double[0];
+
+        /**
+         * Buffer used to sort the allele indices of a genotype, one per allele copy, when calculating its likelihood index.
+         */
+        private int[] alleles = new int[0];
+
+        /**
+         * Cache of the last genotype-allele-count requested using {@link GenotypeLikelihoodCalculator#genotypeAlleleCountsAt(int)}, when it
+         * goes beyond the maximum genotype-allele-count static capacity. Check on that method documentation for details.
+         */
+        private GenotypeAlleleCounts lastOverheadCounts;
+
+        private double[] readAlleleLikelihoodByAlleleCount(final int requestedSize) {
+            if (readAlleleLikelihoodByAlleleCount.length < requestedSize) {
+                readAlleleLikelihoodByAlleleCount = new double[Math.max(requestedSize << 1, MINIMUM_READ_CAPACITY)];
+            }
+            return readAlleleLikelihoodByAlleleCount;
+        }
+
+        private double[] readGenotypeLikelihoodComponents(final int requestedSize) {
+            if (readGenotypeLikelihoodComponents.length < requestedSize) {
+                readGenotypeLikelihoodComponents = new double[Math.max(requestedSize << 1, MINIMUM_READ_CAPACITY)];
+            }
+            return readGenotypeLikelihoodComponents;
+        }
+
+        private int[] alleles(final int requestedSize) {
+            if (alleles.length < requestedSize) {
+                alleles = new int[requestedSize];
+            }
+            return alleles;
+        }
+    }
 }
@@ -20,15 +20,6 @@ public final class GenotypeLikelihoodCalculators {
 
     private static final Logger logger = LogManager.getLogger(GenotypeLikelihoodCalculators.class);
 
-    /**
-     * The current maximum ploidy supported by the tables.
-     * <p>
-     *     Its initial value indicates the initial capacity of the shared {@link #genotypeTableByPloidy}. Feel free
-     *     to change it to anything reasonable that is non-negative.
-     * </p>
-     */
-    private int maximumPloidy = 2; // its initial value is the initial capacity of the shared tables.
-
     /**
      * Maximum possible number of genotypes that this calculator can handle.
      */
@@ -40,35 +31,42 @@ public final class GenotypeLikelihoodCalculators {
     static final int GENOTYPE_COUNT_OVERFLOW = -1;
 
     /**
-     * The current maximum allele index supported by the tables.
-     * <p>
-     *     Its initial value indicates the initial capacity of the shared {@link #alleleFirstGenotypeOffsetByPloidy} table.
-     *     Feel free to change it to anything reasonable that is non-negative.
-     * </p>
+     * Maximum ploidy supported by the tables initially, unless a larger one is requested on construction.
      */
-    private int maximumAllele = 1; // its initial value is the initial capacity of the shared tables.
+    private static final int DEFAULT_MAXIMUM_PLOIDY = 2;
 
     /**
-     * Shared copy of the offset table as described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
-     *
-     * This reference holds the largest requested so far in terms of maximum-allele and maximum-ploidy.
+     * Maximum allele index supported by the tables initially, unless a larger one is requested on construction.
      */
-    private int[][] alleleFirstGenotypeOffsetByPloidy =
-            buildAlleleFirstGenotypeOffsetTable(maximumPloidy, maximumAllele);
-
+    private static final int DEFAULT_MAXIMUM_ALLELE = 1;
 
     /**
-     * Shared table of genotypes give the ploidy sorted by their index in the likelihood array.
+     * The shared tables, holding the largest requested so far in terms of maximum-allele and maximum-ploidy.
      *
      * <p>
-     *  Its format is described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
+     *     Tables are never modified once built, so they are read without locking; they are replaced by larger ones
+     *     under lock when a query goes beyond their capacity.
      * </p>
      */
-    private GenotypeAlleleCounts[][] genotypeTableByPloidy =
-            buildGenotypeAlleleCountsTable(maximumPloidy,maximumAllele,alleleFirstGenotypeOffsetByPloidy);
+    private volatile Tables tables;
 
     public GenotypeLikelihoodCalculators(){
+        this(DEFAULT_MAXIMUM_PLOIDY, DEFAULT_MAXIMUM_ALLELE);
+    }
 
+    /**
+     * Creates the calculators with their tables precomputed up to a maximum ploidy and allele index.
+     *
+     * <p>Queries beyond these are still supported but expand the tables, which requires a lock.</p>
+     *
+     * @param maximumPloidy maximum ploidy supported by the tables initially.
+     * @param maximumAllele maximum allele index supported by the tables initially.
+     *
+     * @throws IllegalArgumentException if {@code maximumPloidy} or {@code maximumAllele} is negative.
+     */
+    public GenotypeLikelihoodCalculators(final int maximumPloidy, final int maximumAllele) {
+        checkPloidyAndMaximumAllele(maximumPloidy, maximumAllele);
+        tables = new Tables(maximumPloidy, maximumAllele, null);
     }
 
     /**
@@ -250,6 +248,9 @@ public final class GenotypeLikelihoodCalculators {
     /**
      * Returns an instance given its ploidy and the number of alleles.
      *
+     * <p>Calculators are immutable, so the same instance is returned for the same ploidy and allele-count
+     * and it can be shared across threads.</p>
+     *
      * @param alleleCount the required allele-count.
      * @param ploidy the required ploidy-count.
      *
@@ -259,14 +260,29 @@ public final class GenotypeLikelihoodCalculators {
      */
     public GenotypeLikelihoodCalculator getInstance(final int ploidy, final int alleleCount) {
         checkPloidyAndMaximumAllele(ploidy, alleleCount);
+        final Tables tables = tablesFor(ploidy, alleleCount);
 
-        if (calculateGenotypeCountUsingTables(ploidy, alleleCount) == GENOTYPE_COUNT_OVERFLOW) {
+        if (tables.alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount] == GENOTYPE_COUNT_OVERFLOW) {
             final double largeGenotypeCount = Math.pow(10, MathUtils.log10BinomialCoefficient(ploidy + alleleCount - 1, alleleCount - 1));
             throw new IllegalArgumentException(String.format("the number of genotypes is too large for ploidy %d and allele %d: approx. %.0f", ploidy, alleleCount, largeGenotypeCount));
         }
 
         // At this point the tables must have at least the requested capacity, likely to be much more.
-        return new GenotypeLikelihoodCalculator(ploidy, alleleCount, alleleFirstGenotypeOffsetByPloidy, genotypeTableByPloidy);
+        return tables.calculator(ploidy, alleleCount);
+    }
+
+    /**
+     * Returns tables with at least the requested capacity, expanding them if needed.
+     *
+     * @param ploidy the requested ploidy.
+     * @param alleleCount the requested maximum allele.
+     */
+    private Tables tablesFor(final int ploidy, final int alleleCount) {
+        final Tables current = tables;
+        if (ploidy <= current.maximumPloidy && alleleCount <= current.maximumAllele) {
+            return current;
+        }
+        return ensureCapacity(alleleCount, ploidy);
     }
 
     /**
@@ -274,15 +290,16 @@ public final class GenotypeLikelihoodCalculators {
      *
      * @param requestedMaximumAllele the new requested maximum allele maximum.
      * @param requestedMaximumPloidy the new requested ploidy maximum.
+     * @return tables with at least the requested capacity.
      */
-    private void ensureCapacity(final int requestedMaximumAllele, final int requestedMaximumPloidy) {
-
-        final boolean needsToExpandAlleleCapacity = requestedMaximumAllele > maximumAllele;
-        final boolean needsToExpandPloidyCapacity = requestedMaximumPloidy > maximumPloidy;
+    private synchronized Tables ensureCapacity(final int requestedMaximumAllele, final int requestedMaximumPloidy) {
+        final Tables current = tables;
+        final int maximumPloidy = current.maximumPloidy;
+        final int maximumAllele = current.maximumAllele;
 
         // Double check with the lock on to avoid double work.
-        if (!needsToExpandAlleleCapacity && !needsToExpandPloidyCapacity) {
-            return;
+        if (requestedMaximumAllele <= maximumAllele && requestedMaximumPloidy <= maximumPloidy) {
+            return current;
         }
 
         final int newMaximumPloidy = Math.max(maximumPloidy, requestedMaximumPloidy);
@@ -290,16 +307,8 @@ public final class GenotypeLikelihoodCalculators {
 
         logger.debug("Expanding capacity ploidy:" + maximumPloidy + "->" + newMaximumPloidy + " allele:" +  maximumAllele +"->" + newMaximumAllele );
 
-        // Update tables first.
-        alleleFirstGenotypeOffsetByPloidy = buildAlleleFirstGenotypeOffsetTable(newMaximumPloidy,newMaximumAllele);
-        genotypeTableByPloidy = buildGenotypeAlleleCountsTable(newMaximumPloidy,newMaximumAllele,alleleFirstGenotypeOffsetByPloidy);
-
-        if (needsToExpandAlleleCapacity) {
-            maximumAllele = requestedMaximumAllele;
-        }
-        if (needsToExpandPloidyCapacity) {
-            maximumPloidy = requestedMaximumPloidy;
-        }
+        tables = new Tables(newMaximumPloidy, newMaximumAllele, current);
+        return tables;
     }
 
     /**
@@ -382,9 +391,71 @@ public final class GenotypeLikelihoodCalculators {
 
     private int calculateGenotypeCountUsingTables(int ploidy, int alleleCount) {
         checkPloidyAndMaximumAllele(ploidy, alleleCount);
-        if (ploidy > maximumPloidy || alleleCount > maximumAllele) {
-            ensureCapacity(alleleCount, ploidy);
+        return tablesFor(ploidy, alleleCount).alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
+    }
+
+    /**
+     * Offset and genotype tables up to a maximum ploidy and allele, and the calculators that use them.
+     */
+    private static final class Tables {
+
+        private final int maximumPloidy;
+
+        private final int maximumAllele;
+
+        /**
+         * Offset table as described in {@link #buildAlleleFirstGenotypeOffsetTable(int, int)}.
+         */
+        private final int[][] alleleFirstGenotypeOffsetByPloidy;
+
+        /**
+         * Table of genotypes give the ploidy sorted by their index in the likelihood array.
+         *
+         * <p>
+         *  Its format is described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
+         * </p>
+         */
+        private final GenotypeAlleleCounts[][] genotypeTableByPloidy;
+
+        /**
+         * Calculators created so far, indexed by ploidy and then allele count; rows are only allocated when first used.
+         *
+         * <p>
+         *     Entries are updated without locking. This is safe because calculators are immutable: a thread that does
+         *     not see an entry written by another just creates an equivalent calculator.
+         * </p>
+         */
+        private final GenotypeLikelihoodCalculator[][] calculatorsByPloidy;
+
+        private Tables(final int maximumPloidy, final int maximumAllele, final Tables previous) {
+            this.maximumPloidy = maximumPloidy;
+            this.maximumAllele = maximumAllele;
+            alleleFirstGenotypeOffsetByPloidy = buildAlleleFirstGenotypeOffsetTable(maximumPloidy, maximumAllele);
+            genotypeTableByPloidy = buildGenotypeAlleleCountsTable(maximumPloidy, maximumAllele, alleleFirstGenotypeOffsetByPloidy);
+            calculatorsByPloidy = new GenotypeLikelihoodCalculator[maximumPloidy + 1][];
+            // calculators built on smaller tables remain valid as those tables are a subset of these.
+            if (previous != null) {
+                for (int ploidy = 0; ploidy <= previous.maximumPloidy; ploidy++) {
+                    final GenotypeLikelihoodCalculator[] row = previous.calculatorsByPloidy[ploidy];
+                    if (row != null) {
+                        calculatorsByPloidy[ploidy] = Arrays.copyOf(row, maximumAllele + 1);
+                    }
+                }
+            }
+        }
+
+        private GenotypeLikelihoodCalculator calculator(final int ploidy, final int alleleCount) {
+            GenotypeLikelihoodCalculator[] row = calculatorsByPloidy[ploidy];
+            if (row == null) {
+                row = new GenotypeLikelihoodCalculator[maximumAllele + 1];
+                calculatorsByPloidy[ploidy] = row;
+            }
+            GenotypeLikelihoodCalculator result = row[alleleCount];
+            if (result == null) {
+                result = new GenotypeLikelihoodCalculator(ploidy, alleleCount, alleleFirstGenotypeOffsetByPloidy, genotypeTableByPloidy);
+                row[alleleCount] = result;
+            }
+            return result;
         }
-        return alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
     }
 }
\ No newline at end of file
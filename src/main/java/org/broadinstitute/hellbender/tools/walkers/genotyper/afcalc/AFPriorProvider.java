@@ -27,7 +27,7 @@ public abstract class AFPriorProvider {
      *  the ith position is the log10(prior) probability of the an alternative allele AC to be exactly <i>i</i> copies in
      *  a draw of {@code totalPloidy} elements.
      */
-    public double[] forTotalPloidy(final int totalPloidy) {
+    public synchronized double[] forTotalPloidy(final int totalPloidy) {
         if (totalPloidy < 0) {
             throw new IllegalArgumentException("the total-ploidy cannot be negative");
         }
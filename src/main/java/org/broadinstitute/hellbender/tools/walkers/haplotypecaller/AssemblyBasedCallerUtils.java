@@ -7,6 +7,7 @@ import htsjdk.samtools.util.Locatable;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.engine.ReferenceTwoBitFileSource;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading.ReadThreadingAssembler;
 import org.broadinstitute.hellbender.utils.QualityUtils;
@@ -20,6 +21,7 @@ import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.haplotype.HaplotypeBAMWriter;
 import org.broadinstitute.hellbender.utils.read.*;
+import org.broadinstitute.hellbender.utils.reference.TwoBitReference;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
@@ -33,7 +35,7 @@ import java.util.stream.Collectors;
  */
 public final class AssemblyBasedCallerUtils {
 
-    static final int REFERENCE_PADDING_FOR_ASSEMBLY = 500;
+    public static final int REFERENCE_PADDING_FOR_ASSEMBLY = 500;
 
     /**
      * Returns a map with the original read as a key and the realigned read as the value.
@@ -145,7 +147,15 @@ public final class AssemblyBasedCallerUtils {
         return new SimpleInterval(region.getExtendedSpan().getContig(), padLeft, padRight);
     }
 
-    public static CachingIndexedFastaSequenceFile createReferenceReader(final String reference) {
+    /**
+     * Opens the reference used to supplement the edges of the reference sequence during assembly.
+     *
+     * @param reference path to a fasta file, or to a .2bit file if it ends with {@link TwoBitReference#TWO_BIT_EXTENSION}
+     */
+    public static ReferenceSequenceFile createReferenceReader(final String reference) {
+        if ( reference.endsWith(TwoBitReference.TWO_BIT_EXTENSION) ) {
+            return new ReferenceTwoBitFileSource(new File(reference));
+        }
         try {
             // fasta reference reader to supplement the edges of the reference sequence
             return new CachingIndexedFastaSequenceFile(new File(reference));
@@ -165,7 +175,7 @@ public final class AssemblyBasedCallerUtils {
 
         switch ( likelihoodArgs.likelihoodEngineImplementation) {
             case PairHMM:
-                return new PairHMMLikelihoodCalculationEngine((byte) likelihoodArgs.gcpHMM, likelihoodArgs.pairHMMNativeArgs.getPairHMMArgs(), likelihoodArgs.pairHMM, log10GlobalReadMismappingRate, likelihoodArgs.pcrErrorModel, likelihoodArgs.BASE_QUALITY_SCORE_THRESHOLD);
+                return new PairHMMLikelihoodCalculationEngine((byte) likelihoodArgs.gcpHMM, likelihoodArgs.pairHMMNativeArgs.getPairHMMArgs(), likelihoodArgs.pairHMM, log10GlobalReadMismappingRate, likelihoodArgs.pcrErrorModel, likelihoodArgs.BASE_QUALITY_SCORE_THRESHOLD, likelihoodArgs.pairHMMResultCacheSize);
             case Random:
                 return new RandomLikelihoodCalculationEngine();
             default:
@@ -183,6 +193,7 @@ public final class AssemblyBasedCallerUtils {
         assemblyEngine.setRecoverDanglingBranches(!rtaac.doNotRecoverDanglingBranches);
         assemblyEngine.setMinDanglingBranchLength(rtaac.minDanglingBranchLength);
         assemblyEngine.setMinBaseQualityToUseInAssembly(args.minBaseQualityScore);
+        assemblyEngine.setNumAssemblyThreads(rtaac.numAssemblyThreads);
 
         if ( rtaac.graphOutput != null ) {
             assemblyEngine.setGraphWriter(new File(rtaac.graphOutput));
@@ -13,12 +13,8 @@ import org.broadinstitute.hellbender.cmdline.argumentcollections.ReferenceInputA
 import org.broadinstitute.hellbender.cmdline.programgroups.VariantProgramGroup;
 import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
-import org.broadinstitute.hellbender.exceptions.UserException;
-import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.util.List;
 
 
@@ -197,6 +193,11 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
         return hcEngine;
     }
 
+    @Override
+    protected boolean assemblyRegionEvaluatorIsThreadSafe() {
+        return hcEngine.isActiveIsThreadSafe();
+    }
+
     @Override
     public void onTraversalStart() {
         final ReferenceSequenceFile referenceReader = getReferenceReader(referenceArguments);
@@ -208,20 +209,13 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
         hcEngine.writeHeader(vcfWriter, sequenceDictionary, getDefaultToolVCFHeaderLines());
     }
 
-    private static CachingIndexedFastaSequenceFile getReferenceReader(ReferenceInputArgumentCollection referenceArguments) {
-        final CachingIndexedFastaSequenceFile referenceReader;
-        final File reference = new File(referenceArguments.getReferenceFileName());
-        try {
-            referenceReader = new CachingIndexedFastaSequenceFile(reference);
-        } catch (FileNotFoundException e) {
-            throw new UserException.CouldNotReadInputFile(reference, e);
-        }
-        return referenceReader;
+    private static ReferenceSequenceFile getReferenceReader(ReferenceInputArgumentCollection referenceArguments) {
+        return AssemblyBasedCallerUtils.createReferenceReader(referenceArguments.getReferenceFileName());
     }
 
     @Override
     public void apply(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
-        hcEngine.callRegion(region, featureContext).forEach(vcfWriter::add);
+        hcEngine.callRegion(region, featureContext, vcfWriter);
     }
 
     @Override
@@ -34,6 +34,7 @@ import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.haplotype.HaplotypeBAMWriter;
+import org.broadinstitute.hellbender.utils.instrumentation.Instrumentation;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanJavaAligner;
@@ -43,6 +44,7 @@ import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.broadinstitute.hellbender.utils.variant.HomoSapiensConstants;
 import org.broadinstitute.hellbender.utils.variant.writers.GVCFWriter;
+import org.broadinstitute.hellbender.utils.variant.writers.TimedVariantContextWriter;
 
 import java.io.File;
 import java.util.*;
@@ -56,7 +58,7 @@ import java.util.stream.Collectors;
  * -Get the appropriate VCF or GVCF writer (depending on our arguments) from {@link #makeVCFWriter}
  * -Write the appropriate VCF header via {@link #writeHeader}
  * -Repeatedly call {@link #isActive} to identify active vs. inactive regions
- * -Repeatedly call {@link #callRegion} to call variants in each region, and add them to your writer
+ * -Repeatedly call {@link #callRegion} to call variants in each region, and add them to your writer (or have it write them there)
  * -When done, call {@link #shutdown}. Close the writer you got from {@link #makeVCFWriter} yourself.
  */
 public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
@@ -326,6 +328,9 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         Utils.nonNull(readsDictionary);
 
         VariantContextWriter writer = GATKVariantContextUtils.createVCFWriter(new File(outputVCF), readsDictionary, false);
+        if ( Instrumentation.isEnabled() ) {
+            writer = new TimedVariantContextWriter(writer, TimedVariantContextWriter.VCF_ENCODE_TIMER);
+        }
 
         if ( hcArgs.emitReferenceConfidence == ReferenceConfidenceMode.GVCF ) {
             try {
@@ -457,6 +462,14 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         return new ActivityProfileState(ref.getInterval(), isActiveProb, averageHQSoftClips.mean() > AVERAGE_HQ_SOFTCLIPS_HQ_BASES_THRESHOLD ? ActivityProfileState.Type.HIGH_QUALITY_SOFT_CLIPS : ActivityProfileState.Type.NONE, averageHQSoftClips.mean() );
     }
 
+    /**
+     * @return true if {@link #isActive} may be called concurrently from multiple threads. This is only the case
+     *         for single-sample calling, where isActive avoids the (stateful) exact allele frequency calculation.
+     */
+    public boolean isActiveIsThreadSafe() {
+        return samplesList.numberOfSamples() == 1;
+    }
+
     /**
      * Generate variant calls for an assembly region
      *
@@ -465,6 +478,31 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
      * @return List of variants discovered in the region (may be empty)
      */
     public List<VariantContext> callRegion(final AssemblyRegion region, final FeatureContext features) {
+        return computeRegionCalls(region, features, null);
+    }
+
+    /**
+     * Generate variant calls for an assembly region, and write them to writer
+     *
+     * When writing a GVCF through a {@link GVCFWriter}, the reference confidence sites are handed to it directly,
+     * without creating a VariantContext for each of them.
+     *
+     * @param region region to assemble and perform variant calling on
+     * @param features Features overlapping the assembly region
+     * @param writer the writer to write the variants discovered in the region to
+     */
+    public void callRegion(final AssemblyRegion region, final FeatureContext features, final VariantContextWriter writer) {
+        Utils.nonNull(writer);
+        final GVCFWriter gvcfWriter = emitReferenceConfidence() && writer instanceof GVCFWriter ? (GVCFWriter) writer : null;
+        computeRegionCalls(region, features, gvcfWriter).forEach(writer::add);
+    }
+
+    /**
+     * @param gvcfWriter if non-null, the reference confidence results are written to it as they are calculated rather
+     *                   than returned
+     * @return List of variants discovered in the region that haven't been written to gvcfWriter (may be empty)
+     */
+    private List<VariantContext> computeRegionCalls(final AssemblyRegion region, final FeatureContext features, final GVCFWriter gvcfWriter) {
         if ( hcArgs.justDetermineActiveRegions ) {
             // we're benchmarking ART and/or the active region determination code in the HC, just leave without doing any work
             return NO_CALLS;
@@ -476,7 +514,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
         if( ! region.isActive() ) {
             // Not active so nothing to do!
-            return referenceModelForNoVariation(region, true);
+            return referenceModelForNoVariation(region, true, gvcfWriter);
         }
 
         final List<VariantContext> givenAlleles = new ArrayList<>();
@@ -485,11 +523,11 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
             // No alleles found in this region so nothing to do!
             if ( givenAlleles.isEmpty() ) {
-                return referenceModelForNoVariation(region, true);
+                return referenceModelForNoVariation(region, true, gvcfWriter);
             }
         } else if( region.size() == 0 ) {
             // No reads here so nothing to do!
-            return referenceModelForNoVariation(region, true);
+            return referenceModelForNoVariation(region, true, gvcfWriter);
         }
 
         // run the local assembler, getting back a collection of information on how we should proceed
@@ -503,7 +541,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         final AssemblyRegionTrimmer.Result trimmingResult = trimmer.trim(region, allVariationEvents);
 
         if ( ! trimmingResult.isVariationPresent() && ! hcArgs.disableOptimizations ) {
-            return referenceModelForNoVariation(region, false);
+            return referenceModelForNoVariation(region, false, gvcfWriter);
         }
 
         final AssemblyResultSet assemblyResult =
@@ -522,7 +560,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         // abort early if something is out of the acceptable range
         // TODO is this ever true at this point??? perhaps GGA. Need to check.
         if( ! assemblyResult.isVariationPresent() && ! hcArgs.disableOptimizations ) {
-            return referenceModelForNoVariation(region, false);
+            return referenceModelForNoVariation(region, false, gvcfWriter);
         }
 
         // For sure this is not true if gVCF is on.
@@ -533,7 +571,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         // TODO is this ever true at this point??? perhaps GGA. Need to check.
         if ( regionForGenotyping.size() == 0 && ! hcArgs.disableOptimizations ) {
             // no reads remain after filtering so nothing else to do!
-            return referenceModelForNoVariation(region, false);
+            return referenceModelForNoVariation(region, false, gvcfWriter);
         }
 
         // evaluate each sample's reads against all haplotypes
@@ -582,21 +620,27 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         if ( emitReferenceConfidence() ) {
             if ( !containsCalls(calledHaplotypes) ) {
                 // no called all of the potential haplotypes
-                return referenceModelForNoVariation(region, false);
+                return referenceModelForNoVariation(region, false, gvcfWriter);
             }
             else {
                 final List<VariantContext> result = new LinkedList<>();
                 // output left-flanking non-variant section:
                 if (trimmingResult.hasLeftFlankingRegion()) {
-                    result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantLeftFlankRegion(), false));
+                    result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantLeftFlankRegion(), false, gvcfWriter));
                 }
                 // output variant containing region.
-                result.addAll(referenceConfidenceModel.calculateRefConfidence(assemblyResult.getReferenceHaplotype(),
-                        calledHaplotypes.getCalledHaplotypes(), assemblyResult.getPaddedReferenceLoc(), regionForGenotyping,
-                        readLikelihoods, genotypingEngine.getPloidyModel(), calledHaplotypes.getCalls()));
+                if ( gvcfWriter != null ) {
+                    referenceConfidenceModel.calculateRefConfidence(assemblyResult.getReferenceHaplotype(),
+                            calledHaplotypes.getCalledHaplotypes(), assemblyResult.getPaddedReferenceLoc(), regionForGenotyping,
+                            readLikelihoods, genotypingEngine.getPloidyModel(), calledHaplotypes.getCalls(), gvcfWriter);
+                } else {
+                    result.addAll(referenceConfidenceModel.calculateRefConfidence(assemblyResult.getReferenceHaplotype(),
+                            calledHaplotypes.getCalledHaplotypes(), assemblyResult.getPaddedReferenceLoc(), regionForGenotyping,
+                            readLikelihoods, genotypingEngine.getPloidyModel(), calledHaplotypes.getCalls()));
+                }
                 // output right-flanking non-variant section:
                 if (trimmingResult.hasRightFlankingRegion()) {
-                    result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantRightFlankRegion(), false));
+                    result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantRightFlankRegion(), false, gvcfWriter));
                 }
                 return result;
             }
@@ -622,9 +666,10 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
      *
      * @param region the region to return a no-variation result
      * @param needsToBeFinalized should the region be finalized before computing the ref model (should be false if already done)
+     * @param gvcfWriter if non-null, the ref model is written to it rather than returned
      * @return a list of variant contexts (can be empty) to emit for this ref region
      */
-    private List<VariantContext> referenceModelForNoVariation(final AssemblyRegion region, final boolean needsToBeFinalized) {
+    private List<VariantContext> referenceModelForNoVariation(final AssemblyRegion region, final boolean needsToBeFinalized, final GVCFWriter gvcfWriter) {
         if ( emitReferenceConfidence() ) {
             //TODO - why the activeRegion cannot manage its own one-time finalization and filtering?
             //TODO - perhaps we can remove the last parameter of this method and the three lines bellow?
@@ -636,6 +681,12 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
             final SimpleInterval paddedLoc = region.getExtendedSpan();
             final Haplotype refHaplotype = AssemblyBasedCallerUtils.createReferenceHaplotype(region, paddedLoc, referenceReader);
             final List<Haplotype> haplotypes = Collections.singletonList(refHaplotype);
+            if ( gvcfWriter != null ) {
+                referenceConfidenceModel.calculateRefConfidence(refHaplotype, haplotypes,
+                        paddedLoc, region, createDummyStratifiedReadMap(refHaplotype, samplesList, region),
+                        genotypingEngine.getPloidyModel(), Collections.emptyList(), gvcfWriter);
+                return NO_CALLS;
+            }
             return referenceConfidenceModel.calculateRefConfidence(refHaplotype, haplotypes,
                     paddedLoc, region, createDummyStratifiedReadMap(refHaplotype, samplesList, region),
                     genotypingEngine.getPloidyModel(), Collections.emptyList());
@@ -664,7 +715,9 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
      */
     public void shutdown() {
         likelihoodCalculationEngine.close();
+        assemblyEngine.close();
         aligner.close();
+        annotationEngine.close();
         if ( haplotypeBAMWriter.isPresent() ) {
             haplotypeBAMWriter.get().close();
         }
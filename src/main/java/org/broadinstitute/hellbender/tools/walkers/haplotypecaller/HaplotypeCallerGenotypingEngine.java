@@ -22,6 +22,8 @@ import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.haplotype.EventMap;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.instrumentation.Instrumentation;
+import org.broadinstitute.hellbender.utils.instrumentation.PhaseTimer;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
@@ -38,6 +40,9 @@ public class HaplotypeCallerGenotypingEngine extends AssemblyBasedCallerGenotypi
 
     private static final Logger logger = LogManager.getLogger(HaplotypeCallerGenotypingEngine.class);
 
+    // includes the annotation of the calls, which is timed separately by VariantAnnotatorEngine
+    private static final PhaseTimer GENOTYPING_TIMER = Instrumentation.timer("HaplotypeCallerGenotypingEngine.assignGenotypeLikelihoods");
+
 
     private final IndependentSampleGenotypesModel genotypingModel;
 
@@ -104,62 +109,66 @@ public class HaplotypeCallerGenotypingEngine extends AssemblyBasedCallerGenotypi
         Utils.nonNull(activeRegionWindow, "activeRegionWindow must be non-null");
         Utils.nonNull(activeAllelesToGenotype, "activeAllelesToGenotype must be non-null");
         Utils.validateArg(refLoc.contains(activeRegionWindow), "refLoc must contain activeRegionWindow");
+        final long start = GENOTYPING_TIMER.start();
+        try {
+            // update the haplotypes so we're ready to call, getting the ordered list of positions on the reference
+            // that carry events among the haplotypes
+            final SortedSet<Integer> startPosKeySet = decomposeHaplotypesIntoVariantContexts(haplotypes, ref, refLoc, activeAllelesToGenotype);
+
+            // Walk along each position in the key set and create each event to be outputted
+            final Set<Haplotype> calledHaplotypes = new HashSet<>();
+            final List<VariantContext> returnCalls = new ArrayList<>();
+            final int ploidy = configuration.genotypeArgs.samplePloidy;
+            final List<Allele> noCallAlleles = GATKVariantContextUtils.noCallAlleles(ploidy);
+
+            for( final int loc : startPosKeySet ) {
+                if( loc < activeRegionWindow.getStart() || loc > activeRegionWindow.getEnd() ) {
+                    continue;
+                }
+                final List<VariantContext> eventsAtThisLoc = getVCsAtThisLocation(haplotypes, loc, activeAllelesToGenotype);
+                VariantContext mergedVC = AssemblyBasedCallerUtils.makeMergedVariantContext(eventsAtThisLoc);
+                if( mergedVC == null ) {
+                    continue;
+                }
 
-        // update the haplotypes so we're ready to call, getting the ordered list of positions on the reference
-        // that carry events among the haplotypes
-        final SortedSet<Integer> startPosKeySet = decomposeHaplotypesIntoVariantContexts(haplotypes, ref, refLoc, activeAllelesToGenotype);
-
-        // Walk along each position in the key set and create each event to be outputted
-        final Set<Haplotype> calledHaplotypes = new HashSet<>();
-        final List<VariantContext> returnCalls = new ArrayList<>();
-        final int ploidy = configuration.genotypeArgs.samplePloidy;
-        final List<Allele> noCallAlleles = GATKVariantContextUtils.noCallAlleles(ploidy);
-
-        for( final int loc : startPosKeySet ) {
-            if( loc < activeRegionWindow.getStart() || loc > activeRegionWindow.getEnd() ) {
-                continue;
-            }
-            final List<VariantContext> eventsAtThisLoc = getVCsAtThisLocation(haplotypes, loc, activeAllelesToGenotype);
-            VariantContext mergedVC = AssemblyBasedCallerUtils.makeMergedVariantContext(eventsAtThisLoc);
-            if( mergedVC == null ) {
-                continue;
-            }
-
-            final Map<Allele, List<Haplotype>> alleleMapper = createAlleleMapper(eventsAtThisLoc, mergedVC, loc, haplotypes);
+                final Map<Allele, List<Haplotype>> alleleMapper = createAlleleMapper(eventsAtThisLoc, mergedVC, loc, haplotypes);
 
-            if( configuration.debug && logger != null ) {
-                logger.info("Genotyping event at " + loc + " with alleles = " + mergedVC.getAlleles());
-            }
+                if( configuration.debug && logger != null ) {
+                    logger.info("Genotyping event at " + loc + " with alleles = " + mergedVC.getAlleles());
+                }
 
-            mergedVC = removeAltAllelesIfTooManyGenotypes(ploidy, alleleMapper, mergedVC);
+                mergedVC = removeAltAllelesIfTooManyGenotypes(ploidy, alleleMapper, mergedVC);
 
-            ReadLikelihoods<Allele> readAlleleLikelihoods = readLikelihoods.marginalize(alleleMapper, new SimpleInterval(mergedVC).expandWithinContig(ALLELE_EXTENSION, header.getSequenceDictionary()));
-            if (configuration.isSampleContaminationPresent()) {
-                readAlleleLikelihoods.contaminationDownsampling(configuration.getSampleContamination());
-            }
+                ReadLikelihoods<Allele> readAlleleLikelihoods = readLikelihoods.marginalize(alleleMapper, new SimpleInterval(mergedVC).expandWithinContig(ALLELE_EXTENSION, header.getSequenceDictionary()));
+                if (configuration.isSampleContaminationPresent()) {
+                    readAlleleLikelihoods.contaminationDownsampling(configuration.getSampleContamination());
+                }
 
-            if (emitReferenceConfidence) {
-                mergedVC = addNonRefSymbolicAllele(mergedVC);
-                readAlleleLikelihoods.addNonReferenceAllele(GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE);
-            }
+                if (emitReferenceConfidence) {
+                    mergedVC = addNonRefSymbolicAllele(mergedVC);
+                    readAlleleLikelihoods.addNonReferenceAllele(GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE);
+                }
 
-            final GenotypesContext genotypes = calculateGLsForThisEvent(readAlleleLikelihoods, mergedVC, noCallAlleles);
-            final VariantContext call = calculateGenotypes(new VariantContextBuilder(mergedVC).genotypes(genotypes).make(), getGLModel(mergedVC), header);
-            if( call != null ) {
+                final GenotypesContext genotypes = calculateGLsForThisEvent(readAlleleLikelihoods, mergedVC, noCallAlleles);
+                final VariantContext call = calculateGenotypes(new VariantContextBuilder(mergedVC).genotypes(genotypes).make(), getGLModel(mergedVC), header);
+                if( call != null ) {
 
-                readAlleleLikelihoods = prepareReadAlleleLikelihoodsForAnnotation(readLikelihoods, perSampleFilteredReadList,
-                        emitReferenceConfidence, alleleMapper, readAlleleLikelihoods, call);
+                    readAlleleLikelihoods = prepareReadAlleleLikelihoodsForAnnotation(readLikelihoods, perSampleFilteredReadList,
+                            emitReferenceConfidence, alleleMapper, readAlleleLikelihoods, call);
 
-                final VariantContext annotatedCall = makeAnnotatedCall(ref, refLoc, tracker, header, mergedVC, readAlleleLikelihoods, call);
-                returnCalls.add( annotatedCall );
+                    final VariantContext annotatedCall = makeAnnotatedCall(ref, refLoc, tracker, header, mergedVC, readAlleleLikelihoods, call);
+                    returnCalls.add( annotatedCall );
 
-                // maintain the set of all called haplotypes
-                call.getAlleles().stream().map(alleleMapper::get).filter(Objects::nonNull).forEach(calledHaplotypes::addAll);
+                    // maintain the set of all called haplotypes
+                    call.getAlleles().stream().map(alleleMapper::get).filter(Objects::nonNull).forEach(calledHaplotypes::addAll);
+                }
             }
-        }
 
-        final List<VariantContext> phasedCalls = doPhysicalPhasing ? phaseCalls(returnCalls, calledHaplotypes) : returnCalls;
-        return new CalledHaplotypes(phasedCalls, calledHaplotypes);
+            final List<VariantContext> phasedCalls = doPhysicalPhasing ? phaseCalls(returnCalls, calledHaplotypes) : returnCalls;
+            return new CalledHaplotypes(phasedCalls, calledHaplotypes);
+        } finally {
+            GENOTYPING_TIMER.stop(start);
+        }
     }
 
     /**
@@ -67,6 +67,16 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
     @Argument(fullName="phredScaledGlobalReadMismappingRate", shortName="globalMAPQ", doc="The global assumed mismapping rate for reads", optional = true)
     public int phredScaledGlobalReadMismappingRate = 45;
 
+    /**
+     * Maximum number of read x haplotype likelihoods to remember between active regions. Reads in the padding shared by
+     * neighboring active regions are often evaluated again against identical haplotypes; with a non-zero cache size
+     * those likelihoods are looked up instead of being recomputed by the PairHMM. Each entry costs on the order of a
+     * hundred bytes, in addition to the read arrays it keeps alive. 0 disables the cache.
+     */
+    @Advanced
+    @Argument(fullName="pairHMMResultCacheSize", shortName="pairHMMResultCacheSize", doc="Maximum number of PairHMM read x haplotype likelihoods to cache (0 to disable)", optional = true, minValue = 0)
+    public int pairHMMResultCacheSize = 0;
+
     @ArgumentCollection
     public PairHMMNativeArgumentCollection pairHMMNativeArgs = new PairHMMNativeArgumentCollection();
 
@@ -12,6 +12,9 @@ import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.*;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.instrumentation.EventCounter;
+import org.broadinstitute.hellbender.utils.instrumentation.Instrumentation;
+import org.broadinstitute.hellbender.utils.instrumentation.PhaseTimer;
 import org.broadinstitute.hellbender.utils.pairhmm.PairHMM;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
@@ -31,6 +34,9 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
     private static final Logger logger = LogManager.getLogger(PairHMMLikelihoodCalculationEngine.class);
 
+    private static final PhaseTimer LIKELIHOODS_TIMER = Instrumentation.timer("PairHMMLikelihoodCalculationEngine.computeReadLikelihoods");
+    private static final EventCounter PAIRHMM_EVALUATIONS = Instrumentation.counter("PairHMM.readHaplotypePairsEvaluated");
+
     private static final int MAX_STR_UNIT_LENGTH = 8;
     private static final int MAX_REPEAT_LENGTH   = 20;
     private static final int MIN_ADJUSTED_QSCORE = 10;
@@ -44,6 +50,11 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
     private final PairHMM pairHMM;
 
+    /**
+     * Cache of previously computed read x haplotype likelihoods, or {@code null} if caching is disabled
+     */
+    private final PairHMMResultCache resultCache;
+
     @VisibleForTesting
     static boolean writeLikelihoodsToFile = false;
 
@@ -127,6 +138,30 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                                               final double log10globalReadMismappingRate,
                                               final PCRErrorModel pcrErrorModel,
                                               final byte baseQualityScoreThreshold) {
+        this( constantGCP, arguments, hmmType, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold, 0 );
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine using provided parameters and hmm to do its calculations
+     *
+     * @param constantGCP the gap continuation penalty to use with the PairHMM
+     * @param hmmType the type of the HMM to use
+     * @param log10globalReadMismappingRate the global mismapping probability, in log10(prob) units.  See
+     *                                      {@link #PairHMMLikelihoodCalculationEngine(byte, PairHMMNativeArguments, PairHMM.Implementation, double, PCRErrorModel)}.
+     * @param pcrErrorModel model to correct for PCR indel artifacts
+     * @param baseQualityScoreThreshold Base qualities below this threshold will be reduced to the minimum usable base
+     *                                  quality.
+     * @param resultCacheSize maximum number of read x haplotype likelihoods to remember across calls so that reads
+     *                        scored again against identical haplotypes (e.g. in the padding shared by neighboring
+     *                        assembly regions) skip the PairHMM. 0 disables the cache.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final int resultCacheSize) {
         Utils.nonNull(hmmType, "hmmType is null");
         Utils.nonNull(pcrErrorModel, "pcrErrorModel is null");
         if (constantGCP < 0){
@@ -138,7 +173,11 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         this.constantGCP = constantGCP;
         this.log10globalReadMismappingRate = log10globalReadMismappingRate;
         this.pcrErrorModel = pcrErrorModel;
+        if (resultCacheSize < 0) {
+            throw new IllegalArgumentException("resultCacheSize must be non-negative");
+        }
         this.pairHMM = hmmType.makeNewHMM(arguments);
+        this.resultCache = resultCacheSize > 0 ? new PairHMMResultCache(resultCacheSize) : null;
 
         initializePCRErrorModel();
 
@@ -158,12 +197,20 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         }
     }
 
+    @VisibleForTesting
+    PairHMMResultCache getResultCache() {
+        return resultCache;
+    }
+
     @Override
     public void close() {
         if ( likelihoodsStream != null ) {
             likelihoodsStream.close();
         }
         pairHMM.close();
+        if ( resultCache != null ) {
+            logger.info(String.format("PairHMM result cache: %d read x haplotype hits, %d misses", resultCache.getHits(), resultCache.getMisses()));
+        }
     }
 
     @Override
@@ -171,22 +218,26 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         Utils.nonNull(assemblyResultSet, "assemblyResultSet is null");
         Utils.nonNull(samples, "samples is null");
         Utils.nonNull(perSampleReadList, "perSampleReadList is null");
+        final long start = LIKELIHOODS_TIMER.start();
+        try {
+            final List<Haplotype> haplotypeList = assemblyResultSet.getHaplotypeList();
+            final AlleleList<Haplotype> haplotypes = new IndexedAlleleList<>(haplotypeList);
 
-        final List<Haplotype> haplotypeList = assemblyResultSet.getHaplotypeList();
-        final AlleleList<Haplotype> haplotypes = new IndexedAlleleList<>(haplotypeList);
+            initializePairHMM(haplotypeList, perSampleReadList);
 
-        initializePairHMM(haplotypeList, perSampleReadList);
+            // Add likelihoods for each sample's reads to our result
+            final ReadLikelihoods<Haplotype> result = new ReadLikelihoods<>(samples, haplotypes, perSampleReadList);
+            final int sampleCount = result.numberOfSamples();
+            for (int i = 0; i < sampleCount; i++) {
+                computeReadLikelihoods(result.sampleMatrix(i));
+            }
 
-        // Add likelihoods for each sample's reads to our result
-        final ReadLikelihoods<Haplotype> result = new ReadLikelihoods<>(samples, haplotypes, perSampleReadList);
-        final int sampleCount = result.numberOfSamples();
-        for (int i = 0; i < sampleCount; i++) {
-            computeReadLikelihoods(result.sampleMatrix(i));
+            result.normalizeLikelihoods(false, log10globalReadMismappingRate);
+            result.filterPoorlyModeledReads(EXPECTED_ERROR_RATE_PER_BASE);
+            return result;
+        } finally {
+            LIKELIHOODS_TIMER.stop(start);
         }
-
-        result.normalizeLikelihoods(false, log10globalReadMismappingRate);
-        result.filterPoorlyModeledReads(EXPECTED_ERROR_RATE_PER_BASE);
-        return result;
     }
 
     /**
@@ -250,11 +301,72 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         final Map<GATKRead, byte[]> gapContinuationPenalties = buildGapContinuationPenalties(processedReads, constantGCP);
 
         // Run the PairHMM to calculate the log10 likelihood of each (processed) reads' arising from each haplotype
-        pairHMM.computeLog10Likelihoods(likelihoods, processedReads, gapContinuationPenalties);
+        if ( resultCache == null ) {
+            pairHMM.computeLog10Likelihoods(likelihoods, processedReads, gapContinuationPenalties);
+            PAIRHMM_EVALUATIONS.add((long) processedReads.size() * likelihoods.numberOfAlleles());
+        } else {
+            computeLog10LikelihoodsWithCache(likelihoods, processedReads, gapContinuationPenalties);
+        }
 
         writeDebugLikelihoods(likelihoods);
     }
 
+    /**
+     * Fills in the likelihoods using the result cache where possible and runs the PairHMM only on those reads that
+     * have at least one haplotype missing from the cache. Newly computed values are added to the cache.
+     */
+    private void computeLog10LikelihoodsWithCache(final LikelihoodMatrix<Haplotype> likelihoods,
+                                                  final List<GATKRead> processedReads,
+                                                  final Map<GATKRead, byte[]> gapContinuationPenalties) {
+        final List<Haplotype> haplotypes = likelihoods.alleles();
+        final int haplotypeCount = haplotypes.size();
+        final PairHMMResultCache.HaplotypeKey[] haplotypeKeys = new PairHMMResultCache.HaplotypeKey[haplotypeCount];
+        for (int h = 0; h < haplotypeCount; h++) {
+            haplotypeKeys[h] = PairHMMResultCache.haplotypeKey(haplotypes.get(h));
+        }
+
+        final int readCount = processedReads.size();
+        final PairHMMResultCache.ReadKey[] readKeys = new PairHMMResultCache.ReadKey[readCount];
+        final List<GATKRead> missedReads = new ArrayList<>();
+        final List<Integer> missedReadIndices = new ArrayList<>();
+        for (int r = 0; r < readCount; r++) {
+            final GATKRead processedRead = processedReads.get(r);
+            readKeys[r] = PairHMMResultCache.readKey(processedRead, gapContinuationPenalties.get(processedRead));
+            for (int h = 0; h < haplotypeCount; h++) {
+                final Double cached = resultCache.get(readKeys[r], haplotypeKeys[h]);
+                if (cached == null) {
+                    // the PairHMM evaluates a read against all haplotypes at once, so there is no point looking further
+                    missedReads.add(processedRead);
+                    missedReadIndices.add(r);
+                    break;
+                }
+                likelihoods.set(h, r, cached);
+            }
+        }
+
+        // the haplotypes of a missed read found in the cache are computed again, so they count as misses too
+        resultCache.recordHits((long) (readCount - missedReads.size()) * haplotypeCount);
+        resultCache.recordMisses((long) missedReads.size() * haplotypeCount);
+        if (missedReads.isEmpty()) {
+            return;
+        }
+
+        final ReadLikelihoods<Haplotype> missedLikelihoods = new ReadLikelihoods<>(SampleList.singletonSampleList("missed"),
+                new IndexedAlleleList<>(haplotypes), Collections.singletonMap("missed", missedReads));
+        final LikelihoodMatrix<Haplotype> missedMatrix = missedLikelihoods.sampleMatrix(0);
+        pairHMM.computeLog10Likelihoods(missedMatrix, missedReads, gapContinuationPenalties);
+        PAIRHMM_EVALUATIONS.add((long) missedReads.size() * haplotypeCount);
+
+        for (int m = 0; m < missedReads.size(); m++) {
+            final int r = missedReadIndices.get(m);
+            for (int h = 0; h < haplotypeCount; h++) {
+                final double value = missedMatrix.get(h, m);
+                likelihoods.set(h, r, value);
+                resultCache.put(readKeys[r], haplotypeKeys[h], value);
+            }
+        }
+    }
+
     /**
      * Pre-processing of the reads to be evaluated at the current location from the current sample.
      * We apply the PCR Error Model, and cap the minimum base, insertion, and deletion qualities of each read.
@@ -0,0 +1,197 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.broadinstitute.hellbender.utils.LRUCache;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.Arrays;
+
+/**
+ * Bounded LRU cache of PairHMM log10 likelihoods keyed by the exact inputs of the PairHMM: the (processed) read bases,
+ * base qualities, insertion and deletion qualities and gap continuation penalties, together with the haplotype bases.
+ *
+ * Reads in the padded overlap between neighboring assembly regions are frequently scored again against identical
+ * haplotype sequences; this cache lets {@link PairHMMLikelihoodCalculationEngine} skip those repeated computations.
+ *
+ * Hits and misses are counted in read x haplotype pairs, like the PairHMM evaluations they save or cost; the caller
+ * records them (see {@link #recordHits} and {@link #recordMisses}) since only it knows which pairs end up computed.
+ *
+ * This class is not thread-safe.
+ */
+final class PairHMMResultCache {
+
+    private final LRUCache<ReadHaplotypeKey, Double> cache;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param maxEntries maximum number of read x haplotype likelihoods to retain, must be positive
+     */
+    PairHMMResultCache(final int maxEntries) {
+        Utils.validateArg(maxEntries > 0, () -> "maxEntries must be positive but got " + maxEntries);
+        this.cache = new LRUCache<>(maxEntries);
+    }
+
+    /**
+     * Creates the lookup key for a processed read. The arrays are referenced, not copied, so they must not be
+     * modified afterwards.
+     *
+     * @param processedRead read with its final qualities, as handed to the PairHMM
+     * @param gcp the gap continuation penalties for that read
+     */
+    static ReadKey readKey(final GATKRead processedRead, final byte[] gcp) {
+        return new ReadKey(processedRead.getBases(), processedRead.getBaseQualities(),
+                ReadUtils.getBaseInsertionQualities(processedRead), ReadUtils.getBaseDeletionQualities(processedRead), gcp);
+    }
+
+    /**
+     * Creates the lookup key for a haplotype.
+     */
+    static HaplotypeKey haplotypeKey(final Haplotype haplotype) {
+        return new HaplotypeKey(haplotype.getBases());
+    }
+
+    /**
+     * Returns the cached log10 likelihood of the read given the haplotype, or {@code null} if it is not present.
+     */
+    Double get(final ReadKey read, final HaplotypeKey haplotype) {
+        return cache.get(new ReadHaplotypeKey(read, haplotype));
+    }
+
+    void put(final ReadKey read, final HaplotypeKey haplotype, final double log10Likelihood) {
+        cache.put(new ReadHaplotypeKey(read, haplotype), log10Likelihood);
+    }
+
+    /**
+     * Records that the likelihoods of the given number of read x haplotype pairs were taken from the cache.
+     */
+    void recordHits(final long pairs) {
+        hits += pairs;
+    }
+
+    /**
+     * Records that the likelihoods of the given number of read x haplotype pairs had to be computed by the PairHMM.
+     */
+    void recordMisses(final long pairs) {
+        misses += pairs;
+    }
+
+    /**
+     * @return the number of read x haplotype pairs whose likelihood was taken from the cache
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of read x haplotype pairs whose likelihood had to be computed by the PairHMM
+     */
+    long getMisses() {
+        return misses;
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    static final class ReadKey {
+        private final byte[] bases;
+        private final byte[] quals;
+        private final byte[] insertionQuals;
+        private final byte[] deletionQuals;
+        private final byte[] gcp;
+        private final int hashCode;
+
+        private ReadKey(final byte[] bases, final byte[] quals, final byte[] insertionQuals, final byte[] deletionQuals, final byte[] gcp) {
+            this.bases = bases;
+            this.quals = quals;
+            this.insertionQuals = insertionQuals;
+            this.deletionQuals = deletionQuals;
+            this.gcp = gcp;
+            int hash = Arrays.hashCode(bases);
+            hash = 31 * hash + Arrays.hashCode(quals);
+            hash = 31 * hash + Arrays.hashCode(insertionQuals);
+            hash = 31 * hash + Arrays.hashCode(deletionQuals);
+            this.hashCode = 31 * hash + Arrays.hashCode(gcp);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ReadKey)) {
+                return false;
+            }
+            final ReadKey other = (ReadKey) o;
+            return hashCode == other.hashCode
+                    && Arrays.equals(bases, other.bases)
+                    && Arrays.equals(quals, other.quals)
+                    && Arrays.equals(insertionQuals, other.insertionQuals)
+                    && Arrays.equals(deletionQuals, other.deletionQuals)
+                    && Arrays.equals(gcp, other.gcp);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    static final class HaplotypeKey {
+        private final byte[] bases;
+        private final int hashCode;
+
+        private HaplotypeKey(final byte[] bases) {
+            this.bases = bases;
+            this.hashCode = Arrays.hashCode(bases);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HaplotypeKey)) {
+                return false;
+            }
+            final HaplotypeKey other = (HaplotypeKey) o;
+            return hashCode == other.hashCode && Arrays.equals(bases, other.bases);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class ReadHaplotypeKey {
+        private final ReadKey read;
+        private final HaplotypeKey haplotype;
+
+        private ReadHaplotypeKey(final ReadKey read, final HaplotypeKey haplotype) {
+            this.read = read;
+            this.haplotype = haplotype;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ReadHaplotypeKey)) {
+                return false;
+            }
+            final ReadHaplotypeKey other = (ReadHaplotypeKey) o;
+            return read.equals(other.read) && haplotype.equals(other.haplotype);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * read.hashCode() + haplotype.hashCode();
+        }
+    }
+}
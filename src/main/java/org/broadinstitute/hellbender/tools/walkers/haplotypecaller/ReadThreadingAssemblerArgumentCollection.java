@@ -48,6 +48,15 @@ public final class ReadThreadingAssemblerArgumentCollection implements Serializa
     @Argument(fullName="numPruningSamples", shortName="numPruningSamples", doc="Number of samples that must pass the minPruning threshold", optional = true)
     public int numPruningSamples = 1;
 
+    /**
+     * The graphs for the different kmer sizes of an active region (including the larger kmer sizes tried when the
+     * graphs have cycles) are built, pruned and searched for their best haplotypes independently of each other, so
+     * they can be assembled in parallel. The haplotypes are the same regardless of the number of threads.
+     */
+    @Advanced
+    @Argument(fullName="numAssemblyThreads", shortName="numAssemblyThreads", doc="Number of threads used to assemble the graphs for the different kmer sizes of an active region", optional = true, minValue = 1)
+    public int numAssemblyThreads = 1;
+
     /**
      * As of version 3.3, this argument is no longer needed because dangling end recovery is now the default behavior. See GATK 3.3 release notes for more details.
      */
@@ -26,6 +26,7 @@ import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.broadinstitute.hellbender.utils.variant.writers.GVCFWriter;
 
 import java.util.*;
 
@@ -68,6 +69,13 @@ public final class ReferenceConfidenceModel {
     private static final int INITIAL_INDEL_LK_CACHE_PLOIDY_CAPACITY = 20;
     private static GenotypeLikelihoods[][] indelPLCache = new GenotypeLikelihoods[INITIAL_INDEL_LK_CACHE_PLOIDY_CAPACITY + 1][];
 
+    /**
+     * Per-read genotype likelihood terms of the hom-ref vs. any model indexed by ploidy, as described in
+     * {@link #refVsAnyLikelihoodTable(int)}. The array is never modified once published, so it can be read without a
+     * lock; adding a ploidy replaces it with an extended copy.
+     */
+    private static volatile double[][] refVsAnyLikelihoodCache = new double[INITIAL_INDEL_LK_CACHE_PLOIDY_CAPACITY + 1][];
+
     /**
      * Indel error rate for the indel model used to assess the confidence on the hom-ref call.
      */
@@ -147,6 +155,44 @@ public final class ReferenceConfidenceModel {
                                                        final ReadLikelihoods<Haplotype> readLikelihoods,
                                                        final PloidyModel ploidyModel,
                                                        final List<VariantContext> variantCalls) {
+        final List<VariantContext> results = new ArrayList<>(activeRegion.getSpan().size());
+        calculateRefConfidence(refHaplotype, calledHaplotypes, paddedReferenceLoc, activeRegion, readLikelihoods, ploidyModel, variantCalls, results, null);
+        return results;
+    }
+
+    /**
+     * Calculate the reference confidence for a single sample given the its read data, and write it to a GVCF writer
+     *
+     * Does the same as {@link #calculateRefConfidence(Haplotype, Collection, SimpleInterval, AssemblyRegion, ReadLikelihoods, PloidyModel, List)},
+     * but the reference confidence sites are handed to the writer as primitive values, without creating a VariantContext
+     * for each of them. The calls in variantCalls are written as they are.
+     *
+     * @param writer the GVCF writer to write the variant contexts spanning activeRegion.getLoc() to, in order
+     */
+    public void calculateRefConfidence(final Haplotype refHaplotype,
+                                       final Collection<Haplotype> calledHaplotypes,
+                                       final SimpleInterval paddedReferenceLoc,
+                                       final AssemblyRegion activeRegion,
+                                       final ReadLikelihoods<Haplotype> readLikelihoods,
+                                       final PloidyModel ploidyModel,
+                                       final List<VariantContext> variantCalls,
+                                       final GVCFWriter writer) {
+        Utils.nonNull(writer, "writer cannot be null");
+        calculateRefConfidence(refHaplotype, calledHaplotypes, paddedReferenceLoc, activeRegion, readLikelihoods, ploidyModel, variantCalls, null, writer);
+    }
+
+    /**
+     * Either adds the results to results, or writes them to writer; exactly one of them must be non-null
+     */
+    private void calculateRefConfidence(final Haplotype refHaplotype,
+                                        final Collection<Haplotype> calledHaplotypes,
+                                        final SimpleInterval paddedReferenceLoc,
+                                        final AssemblyRegion activeRegion,
+                                        final ReadLikelihoods<Haplotype> readLikelihoods,
+                                        final PloidyModel ploidyModel,
+                                        final List<VariantContext> variantCalls,
+                                        final List<VariantContext> results,
+                                        final GVCFWriter writer) {
         Utils.nonNull(refHaplotype, "refHaplotype cannot be null");
         Utils.nonNull(calledHaplotypes, "calledHaplotypes cannot be null");
         Utils.validateArg(calledHaplotypes.contains(refHaplotype), "calledHaplotypes must contain the refHaplotype");
@@ -161,24 +207,34 @@ public final class ReferenceConfidenceModel {
         final SimpleInterval refSpan = activeRegion.getSpan();
         final List<ReadPileup> refPileups = getPileupsOverReference(refHaplotype, calledHaplotypes, paddedReferenceLoc, activeRegion, refSpan, readLikelihoods);
         final byte[] ref = refHaplotype.getBases();
-        final List<VariantContext> results = new ArrayList<>(refSpan.size());
         final String sampleName = readLikelihoods.getSample(0);
 
         final int globalRefOffset = refSpan.getStart() - activeRegion.getExtendedSpan().getStart();
+        // the reads overlap many consecutive positions, so their mismatches against the reference are only summed once
+        final MismatchingQualitySums mismatchingQualitySums = new MismatchingQualitySums(ref);
         for ( final ReadPileup pileup : refPileups ) {
             final Locatable curPos = pileup.getLocation();
             final int offset = curPos.getStart() - refSpan.getStart();
 
             final VariantContext overlappingSite = getOverlappingVariantContext(curPos, variantCalls);
             if ( overlappingSite != null && overlappingSite.getStart() == curPos.getStart() ) {
-                results.add(overlappingSite);
+                if ( writer != null ) {
+                    writer.add(overlappingSite);
+                } else {
+                    results.add(overlappingSite);
+                }
+            } else if ( writer != null ) {
+                // otherwise emit a reference confidence site, skipping the VariantContext
+                final int refOffset = offset + globalRefOffset;
+                final RefVsAnyResult homRefCalc = calcGenotypeLikelihoodsOfRefVsAny(ploidy, pileup, ref[refOffset], BASE_QUAL_THRESHOLD, null);
+                final int[] leastConfidenceGLsAsPLs = calcReferenceConfidencePLs(ploidy, ref, refOffset, pileup, homRefCalc, mismatchingQualitySums);
+                writer.addReferenceConfidenceSite(sampleName, curPos.getContig(), curPos.getStart(), ref[refOffset], ploidy,
+                        GATKVariantContextUtils.calculateGQFromPLs(leastConfidenceGLsAsPLs), homRefCalc.getDP(), leastConfidenceGLsAsPLs);
             } else {
                 // otherwise emit a reference confidence variant context
-                results.add(makeReferenceConfidenceVariantContext(ploidy, ref, sampleName, globalRefOffset, pileup, curPos, offset));
+                results.add(makeReferenceConfidenceVariantContext(ploidy, ref, sampleName, globalRefOffset, pileup, curPos, offset, mismatchingQualitySums));
             }
         }
-
-        return results;
     }
 
     private VariantContext makeReferenceConfidenceVariantContext(final int ploidy,
@@ -187,7 +243,8 @@ public final class ReferenceConfidenceModel {
                                                                  final int globalRefOffset,
                                                                  final ReadPileup pileup,
                                                                  final Locatable curPos,
-                                                                 final int offset) {
+                                                                 final int offset,
+                                                                 final MismatchingQualitySums mismatchingQualitySums) {
         // Assume infinite population on a single sample.
         final int refOffset = offset + globalRefOffset;
         final byte refBase = ref[refOffset];
@@ -200,9 +257,26 @@ public final class ReferenceConfidenceModel {
         gb.AD(homRefCalc.getAD());
         gb.DP(homRefCalc.getDP());
 
+        final int[] leastConfidenceGLsAsPLs = calcReferenceConfidencePLs(ploidy, ref, refOffset, pileup, homRefCalc, mismatchingQualitySums);
+        gb.GQ(GATKVariantContextUtils.calculateGQFromPLs(leastConfidenceGLsAsPLs));
+        gb.PL(leastConfidenceGLsAsPLs);
+
+        vcb.genotypes(gb.make());
+        return vcb.make();
+    }
+
+    /**
+     * @return the PLs of the least confident of the SNP and indel genotype likelihoods of the hom-ref site at refOffset
+     */
+    private int[] calcReferenceConfidencePLs(final int ploidy,
+                                             final byte[] ref,
+                                             final int refOffset,
+                                             final ReadPileup pileup,
+                                             final RefVsAnyResult homRefCalc,
+                                             final MismatchingQualitySums mismatchingQualitySums) {
         // genotype likelihood calculation
         final GenotypeLikelihoods snpGLs = GenotypeLikelihoods.fromLog10Likelihoods(homRefCalc.getGenotypeLikelihoodsCappedByHomRefLikelihood());
-        final int nIndelInformativeReads = calcNIndelInformativeReads(pileup, refOffset, ref, indelInformativeDepthIndelSize);
+        final int nIndelInformativeReads = calcNIndelInformativeReads(pileup, refOffset, ref, indelInformativeDepthIndelSize, mismatchingQualitySums);
         final GenotypeLikelihoods indelGLs = getIndelPLs(ploidy,nIndelInformativeReads);
 
         // now that we have the SNP and indel GLs, we take the one with the least confidence,
@@ -213,12 +287,7 @@ public final class ReferenceConfidenceModel {
         // as our GLs for the site.
         final GenotypeLikelihoods leastConfidenceGLs = getGLwithWorstGQ(indelGLs, snpGLs);
 
-        final int[] leastConfidenceGLsAsPLs = leastConfidenceGLs.getAsPLs();
-        gb.GQ(GATKVariantContextUtils.calculateGQFromPLs(leastConfidenceGLsAsPLs));
-        gb.PL(leastConfidenceGLsAsPLs);
-
-        vcb.genotypes(gb.make());
-        return vcb.make();
+        return leastConfidenceGLs.getAsPLs();
     }
 
     /**
@@ -303,6 +372,7 @@ public final class ReferenceConfidenceModel {
 
         final int likelihoodCount = ploidy + 1;
         final double log10Ploidy = MathUtils.log10(ploidy);
+        final double[] likelihoodTable = refVsAnyLikelihoodTable(ploidy);
 
         final RefVsAnyResult result = new RefVsAnyResult(likelihoodCount);
         int readCount = 0;
@@ -312,7 +382,7 @@ public final class ReferenceConfidenceModel {
                 continue;
             }
             readCount++;
-            applyPileupElementRefVsNonRefLikelihoodAndCount(refBase, likelihoodCount, log10Ploidy, result, p, qual, hqSoftClips);
+            applyPileupElementRefVsNonRefLikelihoodAndCount(refBase, likelihoodCount, likelihoodTable, result, p, qual, hqSoftClips);
         }
         final double denominator = readCount * log10Ploidy;
         for (int i = 0; i < likelihoodCount; i++) {
@@ -321,35 +391,87 @@ public final class ReferenceConfidenceModel {
         return result;
     }
 
-    private void applyPileupElementRefVsNonRefLikelihoodAndCount(final byte refBase, final int likelihoodCount, final double log10Ploidy, final RefVsAnyResult result, final PileupElement element, final byte qual, final MathUtils.RunningAverage hqSoftClips) {
+    private void applyPileupElementRefVsNonRefLikelihoodAndCount(final byte refBase, final int likelihoodCount, final double[] likelihoodTable, final RefVsAnyResult result, final PileupElement element, final byte qual, final MathUtils.RunningAverage hqSoftClips) {
         final boolean isAlt = element.getBase() != refBase || element.isDeletion() || element.isBeforeDeletionStart()
                 || element.isAfterDeletionEnd() || element.isBeforeInsertion() || element.isAfterInsertion() || element.isNextToSoftClip();
-        final double referenceLikelihood;
-        final double nonRefLikelihood;
         if (isAlt) {
-            nonRefLikelihood = QualityUtils.qualToProbLog10(qual);
-            referenceLikelihood = QualityUtils.qualToErrorProbLog10(qual) + MathUtils.LOG10_ONE_THIRD;
             result.incrementNonRefAD(1);
         } else {
-            referenceLikelihood = QualityUtils.qualToProbLog10(qual);
-            nonRefLikelihood = QualityUtils.qualToErrorProbLog10(qual) + MathUtils.LOG10_ONE_THIRD;
             result.incrementRefAD(1);
         }
-        // Homozygous likelihoods don't need the logSum trick.
-        result.addGenotypeLikelihood(0, referenceLikelihood + log10Ploidy);
-        result.addGenotypeLikelihood(likelihoodCount - 1, nonRefLikelihood + log10Ploidy);
-        // Heterozygous likelihoods need the logSum trick:
-        for (int i = 1, j = likelihoodCount - 2; i < likelihoodCount - 1; i++, j--) {
-            result.addGenotypeLikelihood(i,
-                    MathUtils.approximateLog10SumLog10(
-                            referenceLikelihood + MathUtils.log10(j),
-                            nonRefLikelihood + MathUtils.log10(i)));
+        final int offset = refVsAnyLikelihoodOffset(isAlt, qual, likelihoodCount);
+        for (int i = 0; i < likelihoodCount; i++) {
+            result.addGenotypeLikelihood(i, likelihoodTable[offset + i]);
         }
         if (isAlt && hqSoftClips != null && element.isNextToSoftClip()) {
             hqSoftClips.add(AlignmentUtils.calcNumHighQualitySoftClips(element.getRead(), HQ_BASE_QUALITY_SOFTCLIP_THRESHOLD));
         }
     }
 
+    /**
+     * Returns the position of the first term for a read in a table returned by {@link #refVsAnyLikelihoodTable(int)}.
+     */
+    private static int refVsAnyLikelihoodOffset(final boolean isAlt, final byte qual, final int likelihoodCount) {
+        return ((isAlt ? QualityUtils.BYTE_QUAL_COUNT : 0) + (qual & 0xff)) * likelihoodCount;
+    }
+
+    /**
+     * Returns what a read adds to each genotype likelihood of the hom-ref vs. any model, for every base quality
+     * and whether the read supports the reference or not.
+     *
+     * <p>
+     *     The terms for a read are in {@code ploidy + 1} consecutive positions, one per genotype in increasing order of
+     *     non-ref allele count, starting at {@link #refVsAnyLikelihoodOffset}. They are not yet divided by the ploidy.
+     *     Tables are computed once per ploidy and shared.
+     * </p>
+     */
+    private static double[] refVsAnyLikelihoodTable(final int ploidy) {
+        final double[][] cache = refVsAnyLikelihoodCache;
+        if (ploidy < cache.length && cache[ploidy] != null) {
+            return cache[ploidy];
+        }
+        return addRefVsAnyLikelihoodTable(ploidy);
+    }
+
+    private static synchronized double[] addRefVsAnyLikelihoodTable(final int ploidy) {
+        // Double check with the lock on to avoid double work.
+        final double[][] cache = refVsAnyLikelihoodCache;
+        if (ploidy < cache.length && cache[ploidy] != null) {
+            return cache[ploidy];
+        }
+        final double[] table = computeRefVsAnyLikelihoodTable(ploidy);
+        final double[][] newCache = Arrays.copyOf(cache, Math.max(cache.length, Math.max(ploidy << 1, ploidy + 1)));
+        newCache[ploidy] = table;
+        refVsAnyLikelihoodCache = newCache;
+        return table;
+    }
+
+    private static double[] computeRefVsAnyLikelihoodTable(final int ploidy) {
+        final int likelihoodCount = ploidy + 1;
+        final double log10Ploidy = MathUtils.log10(ploidy);
+        final double[] result = new double[2 * QualityUtils.BYTE_QUAL_COUNT * likelihoodCount];
+        for (final boolean isAlt : new boolean[] {false, true}) {
+            for (int q = 0; q < QualityUtils.BYTE_QUAL_COUNT; q++) {
+                final byte qual = (byte) q;
+                final double matchLikelihood = QualityUtils.qualToProbLog10(qual);
+                final double mismatchLikelihood = QualityUtils.qualToErrorProbLog10(qual) + MathUtils.LOG10_ONE_THIRD;
+                final double referenceLikelihood = isAlt ? mismatchLikelihood : matchLikelihood;
+                final double nonRefLikelihood = isAlt ? matchLikelihood : mismatchLikelihood;
+                final int offset = refVsAnyLikelihoodOffset(isAlt, qual, likelihoodCount);
+                // Homozygous likelihoods don't need the logSum trick.
+                result[offset] += referenceLikelihood + log10Ploidy;
+                result[offset + likelihoodCount - 1] += nonRefLikelihood + log10Ploidy;
+                // Heterozygous likelihoods need the logSum trick:
+                for (int i = 1, j = likelihoodCount - 2; i < likelihoodCount - 1; i++, j--) {
+                    result[offset + i] = MathUtils.approximateLog10SumLog10(
+                            referenceLikelihood + MathUtils.log10(j),
+                            nonRefLikelihood + MathUtils.log10(i));
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Get a list of pileups that span the entire active region span, in order, one for each position
      */
@@ -453,12 +575,27 @@ public final class ReferenceConfidenceModel {
                                              final byte[] refBases,
                                              final int refStart,
                                              final int maxIndelSize) {
+        return isReadInformativeAboutIndelsOfSize(read, readStart, refBases, refStart, maxIndelSize, null);
+    }
+
+    /**
+     * Same as {@link #isReadInformativeAboutIndelsOfSize(GATKRead, int, byte[], int, int)}, but takes the sum of
+     * mismatching qualities of the read as it is aligned from {@code mismatchingQualitySums} if not {@code null}.
+     */
+    private boolean isReadInformativeAboutIndelsOfSize(final GATKRead read,
+                                                       final int readStart,
+                                                       final byte[] refBases,
+                                                       final int refStart,
+                                                       final int maxIndelSize,
+                                                       final MismatchingQualitySums mismatchingQualitySums) {
         // fast exit when n bases left < maxIndelSize
         if( read.getLength() - readStart < maxIndelSize || refBases.length - refStart < maxIndelSize ) {
             return false;
         }
 
-        final int baselineMMSum = sumMismatchingQualities(read, readStart, refBases, refStart, Integer.MAX_VALUE);
+        final int baselineMMSum = mismatchingQualitySums == null
+                ? sumMismatchingQualities(read, readStart, refBases, refStart, Integer.MAX_VALUE)
+                : mismatchingQualitySums.sumFrom(read, readStart, refStart);
 
         // consider each indel size up to max in term, checking if an indel that deletes either the ref bases (deletion
         // or read bases (insertion) would fit as well as the origin baseline sum of mismatching quality scores
@@ -487,6 +624,16 @@ public final class ReferenceConfidenceModel {
      */
     @VisibleForTesting
     int calcNIndelInformativeReads(final ReadPileup pileup, final int pileupOffsetIntoRef, final byte[] ref, final int maxIndelSize) {
+        return calcNIndelInformativeReads(pileup, pileupOffsetIntoRef, ref, maxIndelSize, null);
+    }
+
+    /**
+     * Same as {@link #calcNIndelInformativeReads(ReadPileup, int, byte[], int)}, reusing the sums of mismatching qualities
+     * in {@code mismatchingQualitySums} if not {@code null}, which must be over {@code ref}.
+     */
+    @VisibleForTesting
+    int calcNIndelInformativeReads(final ReadPileup pileup, final int pileupOffsetIntoRef, final byte[] ref, final int maxIndelSize,
+                                   final MismatchingQualitySums mismatchingQualitySums) {
         int nInformative = 0;
         for ( final PileupElement p : pileup ) {
             final GATKRead read = p.getRead();
@@ -498,7 +645,7 @@ public final class ReferenceConfidenceModel {
             }
 
             // todo -- this code really should handle CIGARs directly instead of relying on the above tests
-            if ( isReadInformativeAboutIndelsOfSize(read, offset, ref, pileupOffsetIntoRef, maxIndelSize) ) {
+            if ( isReadInformativeAboutIndelsOfSize(read, offset, ref, pileupOffsetIntoRef, maxIndelSize, mismatchingQualitySums) ) {
                 nInformative++;
                 if( nInformative > MAX_N_INDEL_INFORMATIVE_READS ) {
                     return MAX_N_INDEL_INFORMATIVE_READS;
@@ -508,6 +655,62 @@ public final class ReferenceConfidenceModel {
         return nInformative;
     }
 
+    /**
+     * Sums of the mismatching base qualities of reads against a reference, as computed by {@link #sumMismatchingQualities},
+     * from every base of each read to its end.
+     *
+     * <p>
+     *     A read overlaps many consecutive positions, and at each of them the indel informativeness check needs the sum from
+     *     the base at that position to the end of the read. Over a stretch where the read has no indels, it stays on the same
+     *     diagonal of the reference, so all those sums are computed in a single pass over the read. The sums of a read are
+     *     computed again if it moves to another diagonal, which happens after each of its indels.
+     * </p>
+     */
+    @VisibleForTesting
+    static final class MismatchingQualitySums {
+        private final byte[] refBases;
+        private final Map<GATKRead, ReadSums> sumsByRead = new IdentityHashMap<>();
+
+        MismatchingQualitySums(final byte[] refBases) {
+            this.refBases = Utils.nonNull(refBases);
+        }
+
+        /**
+         * Returns the same as {@code sumMismatchingQualities(read, readStart, refBases, refStart, Integer.MAX_VALUE)}.
+         *
+         * @param refStart must be 0 or greater.
+         */
+        int sumFrom(final GATKRead read, final int readStart, final int refStart) {
+            final int diagonal = refStart - readStart;
+            ReadSums readSums = sumsByRead.get(read);
+            if ( readSums == null || readSums.diagonal != diagonal ) {
+                readSums = new ReadSums(read, diagonal, refBases);
+                sumsByRead.put(read, readSums);
+            }
+            return readStart < readSums.sums.length ? readSums.sums[readStart] : 0;
+        }
+
+        private static final class ReadSums {
+            private final int diagonal;
+
+            /**
+             * Sum of mismatching qualities from each read base to the end of the read or the reference,
+             * whichever comes first; with one more entry with 0 at the end.
+             */
+            private final int[] sums;
+
+            private ReadSums(final GATKRead read, final int diagonal, final byte[] refBases) {
+                this.diagonal = diagonal;
+                final int end = Math.max(0, Math.min(read.getLength(), refBases.length - diagonal));
+                final int start = Math.min(end, Math.max(0, -diagonal));
+                sums = new int[end + 1];
+                for ( int i = end - 1; i >= start; i-- ) {
+                    sums[i] = sums[i + 1] + (read.getBase(i) != refBases[i + diagonal] ? read.getBaseQuality(i) : 0);
+                }
+            }
+        }
+    }
+
     /**
      * Create a reference haplotype for an active region
      *
@@ -0,0 +1,241 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Kmer collections for the read threading graph that avoid allocating a {@link Kmer} for every kmer looked up.
+ *
+ * Kmers of up to {@link #MAX_PACKED_KMER_SIZE} bases made only of upper-case A, C, G and T (nearly all of them)
+ * are packed 2 bits per base into a long, and kept in fastutil open-addressing primitive collections. Other kmers
+ * (longer kmer sizes, or kmers with Ns or other codes, which may appear in the reference) are kept as {@link Kmer}s
+ * in regular collections, so the collections behave exactly as if all kmers were {@link Kmer}s.
+ *
+ * Each collection holds kmers of a single size.
+ */
+final class PackedKmers {
+
+    /**
+     * Longest kmers that are packed (62 bits), so that {@link #NOT_PACKABLE} is never a packed kmer
+     */
+    static final int MAX_PACKED_KMER_SIZE = 31;
+
+    /**
+     * Returned by {@link #pack} for kmers that can't be packed
+     */
+    static final long NOT_PACKABLE = -1L;
+
+    private static final byte[] CODE_TO_BASE = {'A', 'C', 'G', 'T'};
+
+    private static final int[] BASE_TO_CODE = new int[256];
+    static {
+        Arrays.fill(BASE_TO_CODE, -1);
+        for ( int code = 0; code < CODE_TO_BASE.length; code++ ) {
+            BASE_TO_CODE[CODE_TO_BASE[code]] = code;
+        }
+    }
+
+    private PackedKmers() {}
+
+    /**
+     * Packs a kmer 2 bits per base, first base in the most significant bits
+     *
+     * @param bases bases containing the kmer
+     * @param start offset of the kmer in bases
+     * @param length kmer size
+     * @return the packed kmer, or {@link #NOT_PACKABLE} if the kmer is too long or has a base other than A, C, G and T
+     */
+    static long pack(final byte[] bases, final int start, final int length) {
+        if ( length > MAX_PACKED_KMER_SIZE ) {
+            return NOT_PACKABLE;
+        }
+        long packed = 0;
+        for ( int i = start; i < start + length; i++ ) {
+            final int code = BASE_TO_CODE[bases[i] & 0xFF];
+            if ( code < 0 ) {
+                return NOT_PACKABLE;
+            }
+            packed = (packed << 2) | code;
+        }
+        return packed;
+    }
+
+    /**
+     * Packs all kmers of a sequence in one pass, rolling each packed kmer into the next one
+     *
+     * @param bases the sequence
+     * @param start offset of the first kmer in bases
+     * @param stop offset after the last base of the last kmer in bases
+     * @param length kmer size
+     * @return the packed kmers (or {@link #NOT_PACKABLE}) at offsets start to stop - length, in order
+     */
+    static long[] packAll(final byte[] bases, final int start, final int stop, final int length) {
+        final long[] packedKmers = new long[Math.max(0, stop - length - start + 1)];
+        if ( length > MAX_PACKED_KMER_SIZE ) {
+            Arrays.fill(packedKmers, NOT_PACKABLE);
+            return packedKmers;
+        }
+
+        final long mask = (1L << (2 * length)) - 1;
+        long packed = 0;
+        // number of consecutive packable bases ending at the current one
+        int packableBases = 0;
+        for ( int i = start; i < stop; i++ ) {
+            final int code = BASE_TO_CODE[bases[i] & 0xFF];
+            if ( code < 0 ) {
+                packableBases = 0;
+            } else {
+                packed = ((packed << 2) | code) & mask;
+                packableBases++;
+            }
+            final int kmerStart = i - length + 1;
+            if ( kmerStart >= start ) {
+                packedKmers[kmerStart - start] = packableBases >= length ? packed : NOT_PACKABLE;
+            }
+        }
+        return packedKmers;
+    }
+
+    private static Kmer unpack(final long packed, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = length - 1; i >= 0; i-- ) {
+            bases[i] = CODE_TO_BASE[(int) (packed >>> (2 * (length - 1 - i))) & 3];
+        }
+        return new Kmer(bases);
+    }
+
+    /**
+     * Set of kmers of one size
+     */
+    static final class KmerSet {
+        private final int kmerSize;
+        private final LongOpenHashSet packedKmers = new LongOpenHashSet();
+        private final Set<Kmer> otherKmers = new HashSet<>();
+
+        KmerSet(final int kmerSize) {
+            Utils.validateArg(kmerSize > 0, "kmerSize must be positive");
+            this.kmerSize = kmerSize;
+        }
+
+        /**
+         * @param bases bases containing the kmer
+         * @param start offset of the kmer in bases
+         * @param packed the kmer as returned by {@link #pack}
+         * @return true if the kmer was not in the set already
+         */
+        boolean add(final byte[] bases, final int start, final long packed) {
+            return packed != NOT_PACKABLE ? packedKmers.add(packed) : otherKmers.add(new Kmer(bases, start, kmerSize));
+        }
+
+        boolean contains(final byte[] bases, final int start, final long packed) {
+            return packed != NOT_PACKABLE ? packedKmers.contains(packed) : otherKmers.contains(new Kmer(bases, start, kmerSize));
+        }
+
+        int size() {
+            return packedKmers.size() + otherKmers.size();
+        }
+
+        void clear() {
+            packedKmers.clear();
+            otherKmers.clear();
+        }
+
+        /**
+         * @return a new set with all our kmers as {@link Kmer}s, for testing and debugging
+         */
+        Set<Kmer> toKmers() {
+            final Set<Kmer> kmers = new LinkedHashSet<>(otherKmers);
+            for ( final LongIterator it = packedKmers.iterator(); it.hasNext(); ) {
+                kmers.add(unpack(it.nextLong(), kmerSize));
+            }
+            return kmers;
+        }
+    }
+
+    /**
+     * Map from kmers of one size to values (vertices of the graph)
+     */
+    static final class KmerMap<V> {
+        private final int kmerSize;
+        private final Long2ObjectOpenHashMap<V> packedKmers = new Long2ObjectOpenHashMap<>();
+        private final Map<Kmer, V> otherKmers = new HashMap<>();
+
+        KmerMap(final int kmerSize) {
+            Utils.validateArg(kmerSize > 0, "kmerSize must be positive");
+            this.kmerSize = kmerSize;
+        }
+
+        V get(final byte[] bases, final int start, final long packed) {
+            return packed != NOT_PACKABLE ? packedKmers.get(packed) : otherKmers.get(new Kmer(bases, start, kmerSize));
+        }
+
+        V get(final byte[] bases, final int start) {
+            return get(bases, start, pack(bases, start, kmerSize));
+        }
+
+        /**
+         * @return the value for the kmer, or null if there is none (including if the kmer has another size)
+         */
+        V get(final Kmer kmer) {
+            return kmer.length() == kmerSize ? get(kmer.bases(), 0) : null;
+        }
+
+        boolean containsKey(final byte[] bases, final int start, final long packed) {
+            return packed != NOT_PACKABLE ? packedKmers.containsKey(packed) : otherKmers.containsKey(new Kmer(bases, start, kmerSize));
+        }
+
+        void put(final byte[] bases, final int start, final long packed, final V value) {
+            if ( packed != NOT_PACKABLE ) {
+                packedKmers.put(packed, value);
+            } else {
+                otherKmers.put(new Kmer(bases, start, kmerSize), value);
+            }
+        }
+
+        /**
+         * Removes the kmer made of all the given bases, if it's in the map
+         */
+        void remove(final byte[] kmer) {
+            if ( kmer.length != kmerSize ) {
+                return;
+            }
+            final long packed = pack(kmer, 0, kmerSize);
+            if ( packed != NOT_PACKABLE ) {
+                packedKmers.remove(packed);
+            } else {
+                otherKmers.remove(new Kmer(kmer));
+            }
+        }
+
+        int size() {
+            return packedKmers.size() + otherKmers.size();
+        }
+
+        void clear() {
+            packedKmers.clear();
+            otherKmers.clear();
+        }
+
+        /**
+         * @return all values, in no particular order
+         */
+        Collection<V> values() {
+            final Collection<V> values = new ArrayList<>(size());
+            values.addAll(packedKmers.values());
+            values.addAll(otherKmers.values());
+            return values;
+        }
+    }
+}
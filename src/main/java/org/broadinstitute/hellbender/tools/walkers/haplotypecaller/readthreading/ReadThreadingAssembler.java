@@ -17,9 +17,13 @@ import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.graphs.*;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.instrumentation.Instrumentation;
+import org.broadinstitute.hellbender.utils.instrumentation.PhaseTimer;
+import org.broadinstitute.hellbender.utils.instrumentation.ValueHistogram;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 import org.broadinstitute.hellbender.utils.read.CigarUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.ParallelTaskRunner;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
@@ -27,8 +31,17 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
-
-public final class ReadThreadingAssembler {
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+/**
+ * Assembles the reads of a region into haplotypes using read threading graphs, one graph per kmer size.
+ *
+ * The graphs for the different kmer sizes don't depend on each other, so they can be built, cleaned and searched for
+ * their best haplotypes in parallel (see {@link #setNumAssemblyThreads(int)}). Their results are always merged in
+ * kmer size order, so the haplotypes found are the same regardless of the number of threads.
+ */
+public final class ReadThreadingAssembler implements AutoCloseable {
     private static final Logger logger = LogManager.getLogger(ReadThreadingAssembler.class);
 
     private static final int DEFAULT_NUM_PATHS_PER_GRAPH = 128;
@@ -36,6 +49,9 @@ public final class ReadThreadingAssembler {
     private static final int KMER_SIZE_ITERATION_INCREASE = 10;
     private static final int MAX_KMER_ITERATIONS_TO_ATTEMPT = 6;
 
+    private static final PhaseTimer ASSEMBLY_TIMER = Instrumentation.timer("ReadThreadingAssembler.runLocalAssembly");
+    private static final ValueHistogram HAPLOTYPES_PER_REGION = Instrumentation.histogram("ReadThreadingAssembler.haplotypesPerRegion");
+
     /** The min and max kmer sizes to try when building the graph. */
     private final List<Integer> kmerSizes;
     private final boolean dontIncreaseKmerSizesForCycles;
@@ -68,6 +84,11 @@ public final class ReadThreadingAssembler {
     private File debugGraphOutputPath = null;  //Where to write debug graphs, if unset it defaults to the current working dir
     private File graphOutputPath = null;
 
+    /**
+     * Threads assembling the graphs for the different kmer sizes
+     */
+    private ParallelTaskRunner kmerSizeTasks = newKmerSizeTasks(1);
+
     public ReadThreadingAssembler(final int maxAllowedPathsForReadThreadingAssembler, final List<Integer> kmerSizes, final boolean dontIncreaseKmerSizesForCycles, final boolean allowNonUniqueKmersInRef, final int numPruningSamples) {
         Utils.validateArg( maxAllowedPathsForReadThreadingAssembler >= 1, "numBestHaplotypesPerGraph should be >= 1 but got " + maxAllowedPathsForReadThreadingAssembler);
         this.kmerSizes = kmerSizes;
@@ -114,49 +135,54 @@ public final class ReadThreadingAssembler {
         Utils.nonNull(aligner, "aligner");
         Utils.validateArg( fullReferenceWithPadding.length == refLoc.size(), "Reference bases and reference loc must be the same size.");
         ParamUtils.isPositiveOrZero(pruneFactor, "Pruning factor cannot be negative");
+        final long start = ASSEMBLY_TIMER.start();
+        try {
+            // create the list of artificial haplotypes that should be added to the graph for GGA mode
+            final List<Haplotype> givenHaplotypes = composeGivenHaplotypes(refHaplotype, givenAlleles, assemblyRegion.getExtendedSpan());
+
+            // error-correct reads before clipping low-quality tails: some low quality bases might be good and we want to recover them
+            final List<GATKRead> correctedReads;
+            if ( readErrorCorrector != null ) {
+                // now correct all reads in active region after filtering/downsampling
+                // Note that original reads in active region are NOT modified by default, since they will be used later for GL computation,
+                // and we only want the read-error corrected reads for graph building.
+                readErrorCorrector.addReadsToKmers(assemblyRegion.getReads());
+                correctedReads = new ArrayList<>(readErrorCorrector.correctReads(assemblyRegion.getReads()));
+            } else {
+                correctedReads = assemblyRegion.getReads();
+            }
 
-        // create the list of artificial haplotypes that should be added to the graph for GGA mode
-        final List<Haplotype> givenHaplotypes = composeGivenHaplotypes(refHaplotype, givenAlleles, assemblyRegion.getExtendedSpan());
-
-        // error-correct reads before clipping low-quality tails: some low quality bases might be good and we want to recover them
-        final List<GATKRead> correctedReads;
-        if ( readErrorCorrector != null ) {
-            // now correct all reads in active region after filtering/downsampling
-            // Note that original reads in active region are NOT modified by default, since they will be used later for GL computation,
-            // and we only want the read-error corrected reads for graph building.
-            readErrorCorrector.addReadsToKmers(assemblyRegion.getReads());
-            correctedReads = new ArrayList<>(readErrorCorrector.correctReads(assemblyRegion.getReads()));
-        } else {
-            correctedReads = assemblyRegion.getReads();
-        }
+            final List<SeqGraph> nonRefGraphs = new LinkedList<>();
+            final AssemblyResultSet resultSet = new AssemblyResultSet();
+            resultSet.setRegionForGenotyping(assemblyRegion);
+            resultSet.setFullReferenceWithPadding(fullReferenceWithPadding);
+            resultSet.setPaddedReferenceLoc(refLoc);
+            final SimpleInterval activeRegionExtendedLocation = assemblyRegion.getExtendedSpan();
+            refHaplotype.setGenomeLocation(activeRegionExtendedLocation);
+            resultSet.add(refHaplotype);
+            final Map<SeqGraph,AssemblyResult> assemblyResultByGraph = new HashMap<>();
+            // create the graphs by calling our subclass assemble method
+            for ( final AssemblyResult result : assemble(correctedReads, refHaplotype, givenHaplotypes, header, aligner) ) {
+                if ( result.getStatus() == AssemblyResult.Status.ASSEMBLED_SOME_VARIATION ) {
+                    // do some QC on the graph
+                    sanityCheckGraph(result.getGraph(), refHaplotype);
+                    // add it to graphs with meaningful non-reference features
+                    assemblyResultByGraph.put(result.getGraph(),result);
+                    nonRefGraphs.add(result.getGraph());
+                }
 
-        final List<SeqGraph> nonRefGraphs = new LinkedList<>();
-        final AssemblyResultSet resultSet = new AssemblyResultSet();
-        resultSet.setRegionForGenotyping(assemblyRegion);
-        resultSet.setFullReferenceWithPadding(fullReferenceWithPadding);
-        resultSet.setPaddedReferenceLoc(refLoc);
-        final SimpleInterval activeRegionExtendedLocation = assemblyRegion.getExtendedSpan();
-        refHaplotype.setGenomeLocation(activeRegionExtendedLocation);
-        resultSet.add(refHaplotype);
-        final Map<SeqGraph,AssemblyResult> assemblyResultByGraph = new HashMap<>();
-        // create the graphs by calling our subclass assemble method
-        for ( final AssemblyResult result : assemble(correctedReads, refHaplotype, givenHaplotypes, header, aligner) ) {
-            if ( result.getStatus() == AssemblyResult.Status.ASSEMBLED_SOME_VARIATION ) {
-                // do some QC on the graph
-                sanityCheckGraph(result.getGraph(), refHaplotype);
-                // add it to graphs with meaningful non-reference features
-                assemblyResultByGraph.put(result.getGraph(),result);
-                nonRefGraphs.add(result.getGraph());
             }
 
-        }
-
-        findBestPaths(nonRefGraphs, refHaplotype, refLoc, activeRegionExtendedLocation, assemblyResultByGraph, resultSet, aligner);
+            findBestPaths(nonRefGraphs, refHaplotype, refLoc, activeRegionExtendedLocation, assemblyResultByGraph, resultSet, aligner);
 
-        // print the graphs if the appropriate debug option has been turned on
-        if ( graphOutputPath != null ) { printGraphs(nonRefGraphs); }
+            // print the graphs if the appropriate debug option has been turned on
+            if ( graphOutputPath != null ) { printGraphs(nonRefGraphs); }
 
-        return resultSet;
+            HAPLOTYPES_PER_REGION.record(resultSet.getHaplotypeList().size());
+            return resultSet;
+        } finally {
+            ASSEMBLY_TIMER.stop(start);
+        }
     }
 
     /**
@@ -199,19 +225,21 @@ public final class ReadThreadingAssembler {
         final Collection<KBestHaplotypeFinder> finders = new ArrayList<>(graphs.size());
         int failedCigars = 0;
 
-        for( final SeqGraph graph : graphs ) {
-            final SeqVertex source = graph.getReferenceSourceVertex();
-            final SeqVertex sink = graph.getReferenceSinkVertex();
-            Utils.validateArg( source != null && sink != null, () -> "Both source and sink cannot be null but got " + source + " and sink " + sink + " for graph " + graph);
-            final KBestHaplotypeFinder haplotypeFinder = new KBestHaplotypeFinder(graph,source,sink);
-            finders.add(haplotypeFinder);
-            final Iterator<KBestHaplotype> bestHaplotypes = haplotypeFinder.iterator(numBestHaplotypesPerGraph);
+        // when the graphs are searched in parallel, their haplotypes are also aligned to the reference in parallel,
+        // including those that turn out to duplicate a haplotype from a previous graph
+        final boolean alignInParallel = kmerSizeTasks.isParallel();
+        final List<BestPaths> allBestPaths = kmerSizeTasks.runAll(graphs.stream()
+                .map(graph -> (Callable<BestPaths>) () -> new BestPaths(graph, refHaplotype, alignInParallel, aligner))
+                .collect(Collectors.toList()));
 
-            while (bestHaplotypes.hasNext()) {
-                final KBestHaplotype kBestHaplotype = bestHaplotypes.next();
-                final Haplotype h = kBestHaplotype.haplotype();
+        for( final BestPaths bestPaths : allBestPaths ) {
+            final SeqGraph graph = bestPaths.graph;
+            finders.add(bestPaths.finder);
+
+            for ( int i = 0; i < bestPaths.haplotypes.size(); i++ ) {
+                final Haplotype h = bestPaths.haplotypes.get(i);
                 if( !returnHaplotypes.contains(h) ) {
-                    final Cigar cigar = CigarUtils.calculateCigar(refHaplotype.getBases(), h.getBases(), aligner);
+                    final Cigar cigar = alignInParallel ? bestPaths.cigars.get(i) : CigarUtils.calculateCigar(refHaplotype.getBases(), h.getBases(), aligner);
 
                     if ( cigar == null ) {
                         failedCigars++; // couldn't produce a meaningful alignment of haplotype to reference, fail quietly
@@ -276,6 +304,33 @@ public final class ReadThreadingAssembler {
         return new ArrayList<>(returnHaplotypes);
 
     }
+
+    /**
+     * The best haplotypes of a graph, in order of decreasing score, and optionally their alignments to the reference
+     */
+    private final class BestPaths {
+        private final SeqGraph graph;
+        private final KBestHaplotypeFinder finder;
+        private final List<Haplotype> haplotypes = new ArrayList<>();
+        private final List<Cigar> cigars = new ArrayList<>();
+
+        private BestPaths(final SeqGraph graph, final Haplotype refHaplotype, final boolean align, final SmithWatermanAligner aligner) {
+            this.graph = graph;
+            final SeqVertex source = graph.getReferenceSourceVertex();
+            final SeqVertex sink = graph.getReferenceSinkVertex();
+            Utils.validateArg( source != null && sink != null, () -> "Both source and sink cannot be null but got " + source + " and sink " + sink + " for graph " + graph);
+            finder = new KBestHaplotypeFinder(graph,source,sink);
+            final Iterator<KBestHaplotype> bestHaplotypes = finder.iterator(numBestHaplotypesPerGraph);
+            while (bestHaplotypes.hasNext()) {
+                final Haplotype h = bestHaplotypes.next().haplotype();
+                haplotypes.add(h);
+                if ( align ) {
+                    cigars.add(CigarUtils.calculateCigar(refHaplotype.getBases(), h.getBases(), aligner));
+                }
+            }
+        }
+    }
+
     /**
      * We use CigarOperator.N as the signal that an incomplete or too divergent bubble was found during bubble traversal
      * @param c the cigar to test
@@ -388,21 +443,25 @@ public final class ReadThreadingAssembler {
         final List<AssemblyResult> results = new LinkedList<>();
 
         // first, try using the requested kmer sizes
-        for ( final int kmerSize : kmerSizes ) {
-            addResult(results, createGraph(reads, refHaplotype, kmerSize, givenHaplotypes, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, header, aligner));
+        final List<Callable<AssemblyResult>> requestedKmerSizes = kmerSizes.stream()
+                .map(kmerSize -> (Callable<AssemblyResult>) () -> createGraph(reads, refHaplotype, kmerSize, givenHaplotypes, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, header, aligner))
+                .collect(Collectors.toList());
+        for ( final AssemblyResult result : kmerSizeTasks.runAll(requestedKmerSizes) ) {
+            addResult(results, result);
         }
 
         // if none of those worked, iterate over larger sizes if allowed to do so
         if ( results.isEmpty() && !dontIncreaseKmerSizesForCycles ) {
+            final List<Callable<AssemblyResult>> largerKmerSizes = new ArrayList<>(MAX_KMER_ITERATIONS_TO_ATTEMPT);
             int kmerSize = arrayMaxInt(kmerSizes) + KMER_SIZE_ITERATION_INCREASE;
-            int numIterations = 1;
-            while ( results.isEmpty() && numIterations <= MAX_KMER_ITERATIONS_TO_ATTEMPT ) {
+            for ( int numIterations = 1; numIterations <= MAX_KMER_ITERATIONS_TO_ATTEMPT; numIterations++ ) {
                 // on the last attempt we will allow low complexity graphs
                 final boolean lastAttempt = numIterations == MAX_KMER_ITERATIONS_TO_ATTEMPT;
-                addResult(results, createGraph(reads, refHaplotype, kmerSize, givenHaplotypes, lastAttempt, lastAttempt, header, aligner));
+                final int attemptKmerSize = kmerSize;
+                largerKmerSizes.add(() -> createGraph(reads, refHaplotype, attemptKmerSize, givenHaplotypes, lastAttempt, lastAttempt, header, aligner));
                 kmerSize += KMER_SIZE_ITERATION_INCREASE;
-                numIterations++;
             }
+            addResult(results, kmerSizeTasks.runUntilFirstResult(largerKmerSizes));
         }
 
         return results;
@@ -632,6 +691,34 @@ public final class ReadThreadingAssembler {
         this.justReturnRawGraph = justReturnRawGraph;
     }
 
+    /**
+     * Sets the number of threads used to assemble the graphs for the different kmer sizes of a region in parallel.
+     * The aligner passed to {@link #runLocalAssembly} must then be thread-safe.
+     *
+     * @param numAssemblyThreads number of threads; 1 to assemble on the calling thread, one kmer size after another
+     */
+    public void setNumAssemblyThreads(final int numAssemblyThreads) {
+        Utils.validateArg(numAssemblyThreads >= 1, "numAssemblyThreads must be >= 1 but got " + numAssemblyThreads);
+        close();
+        kmerSizeTasks = newKmerSizeTasks(numAssemblyThreads);
+    }
+
+    private static ParallelTaskRunner newKmerSizeTasks(final int numAssemblyThreads) {
+        return new ParallelTaskRunner(numAssemblyThreads, "read-threading-assembler", "assembly");
+    }
+
+    public int getNumAssemblyThreads() {
+        return kmerSizeTasks.getNumThreads();
+    }
+
+    /**
+     * Stops the assembly threads, if any. The assembler then assembles on the calling thread.
+     */
+    @Override
+    public void close() {
+        kmerSizeTasks.close();
+    }
+
     public void setRemovePathsNotConnectedToRef(final boolean removePathsNotConnectedToRef) {
         this.removePathsNotConnectedToRef = removePathsNotConnectedToRef;
     }
@@ -58,12 +58,12 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
     /**
      * A set of non-unique kmers that cannot be used as merge points in the graph
      */
-    private Set<Kmer> nonUniqueKmers;
+    private PackedKmers.KmerSet nonUniqueKmers;
 
     /**
      * A map from kmers -> their corresponding vertex in the graph
      */
-    private final Map<Kmer, MultiDeBruijnVertex> uniqueKmers = new LinkedHashMap<>();
+    private final PackedKmers.KmerMap<MultiDeBruijnVertex> uniqueKmers;
 
     private final boolean debugGraphTransformations;
     private final byte minBaseQualityToUseInAssembly;
@@ -97,6 +97,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
     @VisibleForTesting
     protected ReadThreadingGraph(final int kmerSizeFromString, final EdgeFactory<MultiDeBruijnVertex, MultiSampleEdge> edgeFactory) {
         super(kmerSizeFromString, new MyEdgeFactory(1));
+        uniqueKmers = new PackedKmers.KmerMap<>(kmerSizeFromString);
         debugGraphTransformations = false;
         minBaseQualityToUseInAssembly = 0;
     }
@@ -145,6 +146,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
 
         Utils.validateArg( kmerSize > 0, () -> "bad minkKmerSize " + kmerSize);
 
+        this.uniqueKmers = new PackedKmers.KmerMap<>(kmerSize);
         this.debugGraphTransformations = debugGraphTransformations;
         this.minBaseQualityToUseInAssembly = minBaseQualityToUseInAssembly;
 
@@ -267,8 +269,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
         }
 
         for ( int i = seqForKmers.start; i < seqForKmers.stop - kmerSize; i++ ) {
-            final Kmer kmer1 = new Kmer(seqForKmers.sequence, i, kmerSize);
-            if ( isThreadingStart(kmer1) ) {
+            if ( isThreadingStart(seqForKmers.sequence, i) ) {
                 return i;
             }
         }
@@ -282,12 +283,13 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      * @see #setThreadingStartOnlyAtExistingVertex(boolean)
      * @see #getThreadingStartOnlyAtExistingVertex()
      *
-     * @param kmer the query kmer.
+     * @param sequence the sequence containing the query kmer.
+     * @param start the start of the query kmer in sequence.
      * @return {@code true} if we can start thread the sequence at this kmer, {@code false} otherwise.
      */
-    private boolean isThreadingStart(final Kmer kmer) {
-        Utils.nonNull(kmer);
-        return startThreadingOnlyAtExistingVertex ? uniqueKmers.containsKey(kmer) : !nonUniqueKmers.contains(kmer);
+    private boolean isThreadingStart(final byte[] sequence, final int start) {
+        final long packed = PackedKmers.pack(sequence, start, kmerSize);
+        return startThreadingOnlyAtExistingVertex ? uniqueKmers.containsKey(sequence, start, packed) : !nonUniqueKmers.contains(sequence, start, packed);
     }
 
     /**
@@ -309,9 +311,8 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
             return;
         }
 
-        // determine the kmer size we'll use, and capture the set of nonUniques for that kmer size
-        final NonUniqueResult result = determineKmerSizeAndNonUniques(kmerSize, kmerSize);
-        nonUniqueKmers = result.nonUniques;
+        // capture the set of nonUniques for our kmer size
+        nonUniqueKmers = determineNonUniques();
 
         if ( DEBUG_NON_UNIQUE_CALC ) {
             logger.info("using " + kmerSize + " kmer size for this assembly with the following non-uniques");
@@ -335,6 +336,8 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
         // clear
         pending.clear();
         alreadyBuilt = true;
+        // uniqueKmers is unordered, which is fine here: each vertex is marked on its own, without reading any other
+        // vertex or changing the graph, and uniqueKmers is only ever used for lookups otherwise
         for (final MultiDeBruijnVertex v : uniqueKmers.values()) {
             v.setAdditionalInfo(v.getAdditionalInfo() + '+');
         }
@@ -345,9 +348,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
     public boolean removeVertex(final MultiDeBruijnVertex V) {
         final boolean result = super.removeVertex(V);
         if (result) {
-            final byte[] sequence = V.getSequence();
-            final Kmer kmer = new Kmer(sequence);
-            uniqueKmers.remove(kmer);
+            uniqueKmers.remove(V.getSequence());
         }
         return result;
     }
@@ -428,15 +429,6 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
         }
     }
 
-    /** structure that keeps track of the non-unique kmers for a given kmer size */
-    private static final class NonUniqueResult {
-        final Set<Kmer> nonUniques;
-
-        private NonUniqueResult(final Set<Kmer> nonUniques) {
-            this.nonUniques = nonUniques;
-        }
-    }
-
     /**
      * Keeps track of the information needed to add a sequence to the read threading assembly graph
      */
@@ -957,48 +949,18 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
     }
 
     /**
-     * Compute the smallest kmer size >= minKmerSize and <= maxKmerSize that has no non-unique kmers
-     * among all sequences added to the current graph.  Will always return a result for maxKmerSize if
-     * all smaller kmers had non-unique kmers.
+     * Determine the kmers of our kmer size that are non-unique within at least one of the sequences added
+     * to the current graph.
      *
-     * @param minKmerSize the minimum kmer size to consider when constructing the graph
-     * @param maxKmerSize the maximum kmer size to consider
-     * @return a non-null NonUniqueResult
+     * @return a non-null set of non-unique kmers
      */
-    private NonUniqueResult determineKmerSizeAndNonUniques(final int minKmerSize, final int maxKmerSize) {
-        final Collection<SequenceForKmers> withNonUniques = getAllPendingSequences();
-        final Set<Kmer> nonUniqueKmers = new HashSet<>();
-
-        // go through the sequences and determine which kmers aren't unique within each read
-        for (int kmerSize = minKmerSize ; kmerSize <= maxKmerSize; kmerSize++) {
-            // clear out set of non-unique kmers
-            nonUniqueKmers.clear();
-
-            // loop over all sequences that have non-unique kmers in them from the previous iterator
-            final Iterator<SequenceForKmers> it = withNonUniques.iterator();
-            while ( it.hasNext() ) {
-                final SequenceForKmers sequenceForKmers = it.next();
-
-                // determine the non-unique kmers for this sequence
-                final Collection<Kmer> nonUniquesFromSeq = determineNonUniqueKmers(sequenceForKmers, kmerSize);
-                if ( nonUniquesFromSeq.isEmpty() ) {
-                    // remove this sequence from future consideration
-                    it.remove();
-                } else {
-                    // keep track of the non-uniques for this kmerSize, and keep it in the list of sequences that have non-uniques
-                    nonUniqueKmers.addAll(nonUniquesFromSeq);
-                }
-            }
-
-            if ( nonUniqueKmers.isEmpty() )
-                // this kmerSize produces no non-unique sequences, so go ahead and use it for our assembly
-            {
-                break;
-            }
+    private PackedKmers.KmerSet determineNonUniques() {
+        final PackedKmers.KmerSet nonUniqueKmers = new PackedKmers.KmerSet(kmerSize);
+        final PackedKmers.KmerSet kmersInSequence = new PackedKmers.KmerSet(kmerSize);
+        for ( final SequenceForKmers sequenceForKmers : getAllPendingSequences() ) {
+            addNonUniqueKmers(sequenceForKmers, kmerSize, kmersInSequence, nonUniqueKmers);
         }
-
-        // necessary because the loop breaks with kmerSize = max + 1
-        return new NonUniqueResult(nonUniqueKmers);
+        return nonUniqueKmers;
     }
 
     /**
@@ -1016,17 +978,28 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      * @return a non-null collection of non-unique kmers in sequence
      */
     static Collection<Kmer> determineNonUniqueKmers(final SequenceForKmers seqForKmers, final int kmerSize) {
+        final PackedKmers.KmerSet nonUniqueKmers = new PackedKmers.KmerSet(kmerSize);
+        addNonUniqueKmers(seqForKmers, kmerSize, new PackedKmers.KmerSet(kmerSize), nonUniqueKmers);
+        return nonUniqueKmers.toKmers();
+    }
+
+    /**
+     * Add the non-unique kmers from sequence for kmer size kmerSize to a set
+     * @param seqForKmers a sequence to get kmers from
+     * @param kmerSize the size of the kmers
+     * @param kmersInSequence scratch set, cleared before use
+     * @param nonUniqueKmers set to add the non-unique kmers to
+     */
+    private static void addNonUniqueKmers(final SequenceForKmers seqForKmers, final int kmerSize,
+                                          final PackedKmers.KmerSet kmersInSequence, final PackedKmers.KmerSet nonUniqueKmers) {
         // count up occurrences of kmers within each read
-        final Set<Kmer> allKmers = new LinkedHashSet<>();
-        final List<Kmer> nonUniqueKmers = new ArrayList<>();
-        final int stopPosition = seqForKmers.stop - kmerSize;
-        for (int i = 0; i <= stopPosition; i++) {
-            final Kmer kmer = new Kmer(seqForKmers.sequence, i, kmerSize);
-            if (!allKmers.add(kmer)) {
-                nonUniqueKmers.add(kmer);
+        kmersInSequence.clear();
+        final long[] packedKmers = PackedKmers.packAll(seqForKmers.sequence, 0, seqForKmers.stop, kmerSize);
+        for (int i = 0; i < packedKmers.length; i++) {
+            if (!kmersInSequence.add(seqForKmers.sequence, i, packedKmers[i])) {
+                nonUniqueKmers.add(seqForKmers.sequence, i, packedKmers[i]);
             }
         }
-        return nonUniqueKmers;
     }
 
     @Override
@@ -1061,23 +1034,39 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      * @return a non-null vertex
      */
     private MultiDeBruijnVertex getOrCreateKmerVertex(final byte[] sequence, final int start) {
-        final Kmer kmer = new Kmer(sequence, start, kmerSize);
-        final MultiDeBruijnVertex vertex = getUniqueKmerVertex(kmer, true);
-        return ( vertex != null ) ? vertex : createVertex(kmer);
+        final long packed = PackedKmers.pack(sequence, start, kmerSize);
+        final MultiDeBruijnVertex vertex = getUniqueKmerVertex(sequence, start, packed, true);
+        return ( vertex != null ) ? vertex : createVertex(sequence, start, packed);
     }
 
     /**
      * Get the unique vertex for kmer, or null if not possible.
      *
+     * @param sequence the sequence containing the kmer
+     * @param start the start of the kmer in sequence
+     * @param packed the kmer as returned by {@link PackedKmers#pack}
      * @param allowRefSource if true, we will allow kmer to match the reference source vertex
      * @return a vertex for kmer, or null if it's not unique
      */
-    private MultiDeBruijnVertex getUniqueKmerVertex(final Kmer kmer, final boolean allowRefSource) {
-        if ( ! allowRefSource && kmer.equals(refSource) ) {
+    private MultiDeBruijnVertex getUniqueKmerVertex(final byte[] sequence, final int start, final long packed, final boolean allowRefSource) {
+        if ( ! allowRefSource && isRefSource(sequence, start) ) {
             return null;
         }
 
-        return uniqueKmers.get(kmer);
+        return uniqueKmers.get(sequence, start, packed);
+    }
+
+    private boolean isRefSource(final byte[] sequence, final int start) {
+        if ( refSource == null || refSource.length() != kmerSize ) {
+            return false;
+        }
+        final byte[] refSourceBases = refSource.bases();
+        for ( int i = 0; i < kmerSize; i++ ) {
+            if ( refSourceBases[i] != sequence[start + i] ) {
+                return false;
+            }
+        }
+        return true;
     }
 
 
@@ -1086,11 +1075,13 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      *
      * kmer must not have a entry in unique kmers, or an error will be thrown
      *
-     * @param kmer the kmer we want to create a vertex for
+     * @param sequence the sequence containing the kmer we want to create a vertex for
+     * @param start the start of the kmer in sequence
+     * @param packed the kmer as returned by {@link PackedKmers#pack}
      * @return the non-null created vertex
      */
-    private MultiDeBruijnVertex createVertex(final Kmer kmer) {
-        final MultiDeBruijnVertex newVertex = new MultiDeBruijnVertex(kmer.bases());
+    private MultiDeBruijnVertex createVertex(final byte[] sequence, final int start, final long packed) {
+        final MultiDeBruijnVertex newVertex = new MultiDeBruijnVertex(Arrays.copyOfRange(sequence, start, start + kmerSize));
         final int prevSize = vertexSet().size();
         addVertex(newVertex);
 
@@ -1100,9 +1091,9 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
         }
 
         // add the vertex to the unique kmer map, if it is in fact unique
-        if ( ! nonUniqueKmers.contains(kmer) && ! uniqueKmers.containsKey(kmer) ) // TODO -- not sure this last test is necessary
+        if ( ! nonUniqueKmers.contains(sequence, start, packed) && ! uniqueKmers.containsKey(sequence, start, packed) ) // TODO -- not sure this last test is necessary
         {
-            uniqueKmers.put(kmer, newVertex);
+            uniqueKmers.put(sequence, start, packed, newVertex);
         }
 
         return newVertex;
@@ -1133,15 +1124,15 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
         }
 
         // none of our outgoing edges had our unique suffix base, so we check for an opportunity to merge back in
-        final Kmer kmer = new Kmer(sequence, kmerStart, kmerSize);
-        final MultiDeBruijnVertex uniqueMergeVertex = getUniqueKmerVertex(kmer, false);
+        final long packed = PackedKmers.pack(sequence, kmerStart, kmerSize);
+        final MultiDeBruijnVertex uniqueMergeVertex = getUniqueKmerVertex(sequence, kmerStart, packed, false);
 
         if ( isRef && uniqueMergeVertex != null ) {
             throw new IllegalStateException("Found a unique vertex to merge into the reference graph " + prevVertex + " -> " + uniqueMergeVertex);
         }
 
         // either use our unique merge vertex, or create a new one in the chain
-        final MultiDeBruijnVertex nextVertex = uniqueMergeVertex == null ? createVertex(kmer) : uniqueMergeVertex;
+        final MultiDeBruijnVertex nextVertex = uniqueMergeVertex == null ? createVertex(sequence, kmerStart, packed) : uniqueMergeVertex;
         addEdge(prevVertex, nextVertex, ((MyEdgeFactory)getEdgeFactory()).createEdge(isRef, count));
         return nextVertex;
     }
@@ -1196,7 +1187,7 @@ public class ReadThreadingGraph extends BaseGraph<MultiDeBruijnVertex, MultiSamp
      */
     @VisibleForTesting
     Set<Kmer> getNonUniqueKmers() {
-        return nonUniqueKmers;
+        return nonUniqueKmers.toKmers();
     }
 
     @Override
@@ -230,6 +230,9 @@ public final class Mutect2 extends AssemblyRegionWalker {
     @Override
     public AssemblyRegionEvaluator assemblyRegionEvaluator() { return m2Engine; }
 
+    @Override
+    protected boolean assemblyRegionEvaluatorIsThreadSafe() { return true; }
+
     @Override
     public void onTraversalStart() {
         m2Engine = new Mutect2Engine(MTAC, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceFileName());
@@ -150,6 +150,14 @@ public class ASEReadCounter extends LocusWalker {
         return defaultFilters;
     }
 
+    /**
+     * Pileups are only used within {@link #apply}
+     */
+    @Override
+    public boolean recyclePileups() {
+        return true;
+    }
+
     @Override
     public void onTraversalStart() {
         try {
@@ -43,16 +43,26 @@ public final class QualityUtils {
     public static final int MAX_QUAL = 254;
 
     /**
-     * Cached values for qual as byte calculations so they are very fast
+     * Number of distinct quals that can be encoded in a byte, from 0 to 255.
      */
-    private static final double[] qualToErrorProbCache = new double[MAX_QUAL + 1];
-    private static final double[] qualToProbLog10Cache = new double[MAX_QUAL + 1];
+    public static final int BYTE_QUAL_COUNT = 256;
 
+    /**
+     * Cached values for qual as byte calculations so they are very fast.
+     *
+     * <p>They cover all 0-255 quals and hold exactly the values the corresponding double-qual methods return.</p>
+     */
+    private static final double[] qualToErrorProbCache = new double[BYTE_QUAL_COUNT];
+    private static final double[] qualToProbCache = new double[BYTE_QUAL_COUNT];
+    private static final double[] qualToProbLog10Cache = new double[BYTE_QUAL_COUNT];
+    private static final double[] qualToErrorProbLog10Cache = new double[BYTE_QUAL_COUNT];
 
     static {
-        for (int i = 0; i <= MAX_QUAL; i++) {
+        for (int i = 0; i < BYTE_QUAL_COUNT; i++) {
             qualToErrorProbCache[i] = qualToErrorProb((double) i);
-            qualToProbLog10Cache[i] = Math.log10(1.0 - qualToErrorProbCache[i]);
+            qualToProbCache[i] = 1.0 - qualToErrorProbCache[i];
+            qualToProbLog10Cache[i] = Math.log10(qualToProbCache[i]);
+            qualToErrorProbLog10Cache[i] = qualToErrorProbLog10((double) i);
         }
     }
 
@@ -81,7 +91,7 @@ public final class QualityUtils {
      * @return a probability (0.0-1.0)
      */
     public static double qualToProb(final byte qual) {
-        return 1.0 - qualToErrorProb(qual);
+        return qualToProbCache[(int)qual & 0xff]; // Map: 127 -> 127; -128 -> 128; -1 -> 255; etc.
     }
 
     /**
@@ -174,7 +184,7 @@ public final class QualityUtils {
      * @return a probability (0.0-1.0)
      */
     public static double qualToErrorProbLog10(final byte qual){
-        return qualToErrorProbLog10((double)(qual & 0xFF));
+        return qualToErrorProbLog10Cache[(int)qual & 0xff]; // Map: 127 -> 127; -128 -> 128; -1 -> 255; etc.
     }
 
     /**
@@ -11,6 +11,7 @@ import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.ReferenceDataSource;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -64,12 +65,6 @@ public final class BAQ implements Serializable {
 
     public static final String BAQ_TAG = "BQ";
 
-    private static final double[] qual2prob = new double[256];
-    static {
-        for (int i = 0; i < 256; ++i)
-            qual2prob[i] = Math.pow(10, -i / 10.);
-    }
-
     // Phred scaled now (changed 1/10/2011)
     public static final double DEFAULT_GOP = 40;
 
@@ -154,7 +149,7 @@ public final class BAQ implements Serializable {
         for ( char b1 : "ACGTacgt".toCharArray() ) {
             for ( char b2 : "ACGTacgt".toCharArray() ) {
                 for ( int q = 0; q <= SAMUtils.MAX_PHRED_SCORE; q++ ) {
-                    double qual = qual2prob[q < minBaseQual ? minBaseQual : q];
+                    double qual = QualityUtils.qualToErrorProb((byte) (q < minBaseQual ? minBaseQual : q));
                     double e = Character.toLowerCase(b1) == Character.toLowerCase(b2) ? 1 - qual : qual * EM;
                     EPSILONS[(byte)b1][(byte)b2][q] = e;
                 }
@@ -41,12 +41,25 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     private final GATKRead[][] readsBySampleIndex;
 
     /**
-     * Indexed per sample, allele and finally read (within sample).
+     * Indexed per sample; each sample's likelihoods are held in a single flat row-major block with one row per allele
+     * and one column per read (within sample).
      * <p>
-     *     valuesBySampleIndex[s][a][r] == lnLk(R_r | A_a) where R_r comes from Sample s.
+     *     valuesBySampleIndex[s][a * readCapacityBySampleIndex[s] + r] == lnLk(R_r | A_a) where R_r comes from Sample s.
+     * </p>
+     * <p>
+     *     The length of each block is always the number of alleles times the sample read capacity.
+     * </p>
+     */
+    private final double[][] valuesBySampleIndex;
+
+    /**
+     * Length of each allele row (the stride between consecutive alleles) in the sample likelihood blocks.
+     * <p>
+     *     This is always equal or greater than the number of reads in the sample; removing reads compacts
+     *     each row in place, leaving unused capacity at the end of the row.
      * </p>
      */
-    private final double[][][] valuesBySampleIndex;
+    private final int[] readCapacityBySampleIndex;
 
     /**
      * Sample list
@@ -91,6 +104,12 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      */
     private final LikelihoodMatrix<A>[] sampleMatrices;
 
+    /**
+     * Caches the best allele per read list returned by {@link #bestAlleles(int)}; cleared by any change to the
+     * reads, alleles or likelihoods.
+     */
+    private final List<BestAllele>[] bestAllelesBySampleIndex;
+
     /**
      * Constructs a new read-likelihood collection.
      *
@@ -123,7 +142,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         readsBySampleIndex = new GATKRead[sampleCount][];
         readListBySampleIndex = (List<GATKRead>[])new List[sampleCount];
-        valuesBySampleIndex = new double[sampleCount][][];
+        valuesBySampleIndex = new double[sampleCount][];
+        readCapacityBySampleIndex = new int[sampleCount];
         referenceAlleleIndex = findReferenceAllele(alleles);
 
         readIndexBySampleIndex = new Object2IntMap[sampleCount];
@@ -131,6 +151,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         setupIndexes(reads, sampleCount, alleleCount);
 
         sampleMatrices = (LikelihoodMatrix<A>[]) new LikelihoodMatrix[sampleCount];
+        bestAllelesBySampleIndex = (List<BestAllele>[]) new List[sampleCount];
     }
 
 
@@ -140,17 +161,20 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                             final SampleList samples,
                             final GATKRead[][] readsBySampleIndex,
                             final Object2IntMap<GATKRead>[] readIndex,
-                            final double[][][] values) {
+                            final double[][] values,
+                            final int[] readCapacities) {
         this.samples = samples;
         this.alleles = alleles;
         this.readsBySampleIndex = readsBySampleIndex;
         this.valuesBySampleIndex = values;
+        this.readCapacityBySampleIndex = readCapacities;
         this.readIndexBySampleIndex = readIndex;
         final int sampleCount = samples.numberOfSamples();
         this.readListBySampleIndex = (List<GATKRead>[])new List[sampleCount];
 
         referenceAlleleIndex = findReferenceAllele(alleles);
         sampleMatrices = (LikelihoodMatrix<A>[]) new LikelihoodMatrix[sampleCount];
+        bestAllelesBySampleIndex = (List<BestAllele>[]) new List[sampleCount];
     }
 
     // Add all the indices to alleles, sample and reads in the look-up maps.
@@ -172,8 +196,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 : reads.toArray(new GATKRead[reads.size()]);
         final int sampleReadCount = readsBySampleIndex[sampleIndex].length;
 
-        final double[][] sampleValues = new double[alleleCount][sampleReadCount];
-        valuesBySampleIndex[sampleIndex] = sampleValues;
+        valuesBySampleIndex[sampleIndex] = new double[alleleCount * sampleReadCount];
+        readCapacityBySampleIndex[sampleIndex] = sampleReadCount;
     }
 
     /**
@@ -182,9 +206,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     public ReadLikelihoods<A> copy() {
 
         final int sampleCount = samples.numberOfSamples();
-        final int alleleCount = alleles.numberOfAlleles();
 
-        final double[][][] newLikelihoodValues = new double[sampleCount][alleleCount][];
+        final double[][] newLikelihoodValues = new double[sampleCount][];
 
         @SuppressWarnings({"unchecked", "rawtypes"})
         final Object2IntMap<GATKRead>[] newReadIndexBySampleIndex = new Object2IntMap[sampleCount];
@@ -192,9 +215,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         for (int s = 0; s < sampleCount; s++) {
             newReadsBySampleIndex[s] = readsBySampleIndex[s].clone();
-            for (int a = 0; a < alleleCount; a++) {
-                newLikelihoodValues[s][a] = valuesBySampleIndex[s][a].clone();
-            }
+            newLikelihoodValues[s] = valuesBySampleIndex[s].clone();
         }
 
         // Finally we create the new read-likelihood
@@ -203,7 +224,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 samples,
                 newReadsBySampleIndex,
                 newReadIndexBySampleIndex,
-                newLikelihoodValues);
+                newLikelihoodValues,
+                readCapacityBySampleIndex.clone());
     }
 
 
@@ -332,6 +354,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      * @throws IllegalArgumentException if {@code maximumDifferenceWithBestAlternative} is not 0 or less.
      */
     public void normalizeLikelihoods(final boolean bestToZero, final double maximumLikelihoodDifferenceCap) {
+        invalidateBestAlleles();
         Utils.validateArg(maximumLikelihoodDifferenceCap < 0.0 && !Double.isNaN(maximumLikelihoodDifferenceCap),
                 "the minimum reference likelihood fall must be negative");
 
@@ -347,47 +370,48 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         }
 
         for (int s = 0; s < valuesBySampleIndex.length; s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
+            final double[] sampleValues = valuesBySampleIndex[s];
+            final int stride = readCapacityBySampleIndex[s];
             final int readCount = readsBySampleIndex[s].length;
             for (int r = 0; r < readCount; r++) {
-                normalizeLikelihoodsPerRead(bestToZero, maximumLikelihoodDifferenceCap, sampleValues, s, r);
+                normalizeLikelihoodsPerRead(bestToZero, maximumLikelihoodDifferenceCap, sampleValues, stride, s, r);
             }
         }
     }
 
     // Does the normalizeLikelihoods job for each read.
     private void normalizeLikelihoodsPerRead(final boolean bestToZero, final double maximumBestAltLikelihoodDifference,
-                                             final double[][] sampleValues, final int sampleIndex, final int readIndex) {
+                                             final double[] sampleValues, final int stride, final int sampleIndex, final int readIndex) {
 
         final BestAllele bestAlternativeAllele = searchBestAllele(sampleIndex,readIndex,false);
 
         final double worstLikelihoodCap = bestAlternativeAllele.likelihood + maximumBestAltLikelihoodDifference;
 
         final double referenceLikelihood = referenceAlleleIndex == MISSING_REF ? Double.NEGATIVE_INFINITY :
-                sampleValues[referenceAlleleIndex][readIndex];
+                sampleValues[referenceAlleleIndex * stride + readIndex];
 
         final double bestAbsoluteLikelihood = Math.max(bestAlternativeAllele.likelihood, referenceLikelihood);
 
-        final int alleleCount = alleles.numberOfAlleles();
+        final int end = alleles.numberOfAlleles() * stride;
         if (bestToZero) {
             if (bestAbsoluteLikelihood == Double.NEGATIVE_INFINITY) {
-                for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] = 0;
+                for (int i = readIndex; i < end; i += stride) {
+                    sampleValues[i] = 0;
                 }
             } else if (worstLikelihoodCap != Double.NEGATIVE_INFINITY) {
-                for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] = (sampleValues[a][readIndex] < worstLikelihoodCap ? worstLikelihoodCap : sampleValues[a][readIndex]) - bestAbsoluteLikelihood;
+                for (int i = readIndex; i < end; i += stride) {
+                    sampleValues[i] = (sampleValues[i] < worstLikelihoodCap ? worstLikelihoodCap : sampleValues[i]) - bestAbsoluteLikelihood;
                 }
             } else {
-                for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] -= bestAbsoluteLikelihood;
+                for (int i = readIndex; i < end; i += stride) {
+                    sampleValues[i] -= bestAbsoluteLikelihood;
                 }
             }
         } else {
             // Guarantee to be the case by enclosing code.
-            for (int a = 0; a < alleleCount; a++) {
-                if (sampleValues[a][readIndex] < worstLikelihoodCap) {
-                    sampleValues[a][readIndex] = worstLikelihoodCap;
+            for (int i = readIndex; i < end; i += stride) {
+                if (sampleValues[i] < worstLikelihoodCap) {
+                    sampleValues[i] = worstLikelihoodCap;
                 }
             }
         }
@@ -442,16 +466,17 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             return new BestAllele(sampleIndex, readIndex, -1, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
         }
 
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
+        final double[] sampleValues = valuesBySampleIndex[sampleIndex];
+        final int stride = readCapacityBySampleIndex[sampleIndex];
         int bestAlleleIndex = canBeReference || referenceAlleleIndex != 0 ? 0 : 1;
 
-        double bestLikelihood = sampleValues[bestAlleleIndex][readIndex];
+        double bestLikelihood = sampleValues[bestAlleleIndex * stride + readIndex];
         double secondBestLikelihood = Double.NEGATIVE_INFINITY;
         for (int a = bestAlleleIndex + 1; a < alleleCount; a++) {
             if (!canBeReference && referenceAlleleIndex == a) {
                 continue;
             }
-            final double candidateLikelihood = sampleValues[a][readIndex];
+            final double candidateLikelihood = sampleValues[a * stride + readIndex];
             if (candidateLikelihood > bestLikelihood) {
                 bestAlleleIndex = a;
                 secondBestLikelihood = bestLikelihood;
@@ -464,6 +489,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     }
 
     public void changeReads(final Map<GATKRead, GATKRead> readRealignments) {
+        invalidateBestAlleles();
         final int sampleCount = samples.numberOfSamples();
         for (int s = 0; s < sampleCount; s++) {
             final GATKRead[] sampleReads = readsBySampleIndex[s];
@@ -499,6 +525,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      * a reference allele.
      */
     public boolean addMissingAlleles(final Collection<A> candidateAlleles, final double defaultLikelihood) {
+        invalidateBestAlleles();
         Utils.nonNull(candidateAlleles, "the candidateAlleles list cannot be null");
         if (candidateAlleles.isEmpty()) {
             return false;
@@ -531,15 +558,12 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         //copy old allele likelihoods and set new allele likelihoods to the default value
         for (int s = 0; s < samples.numberOfSamples(); s++) {
-            final int sampleReadCount = readsBySampleIndex[s].length;
-            final double[][] newValuesBySampleIndex = Arrays.copyOf(valuesBySampleIndex[s], newAlleleCount);
-            for (int a = oldAlleleCount; a < newAlleleCount; a++) {
-                newValuesBySampleIndex[a] = new double[sampleReadCount];
-                if (defaultLikelihood != 0.0) {
-                    Arrays.fill(newValuesBySampleIndex[a], defaultLikelihood);
-                }
+            final int stride = readCapacityBySampleIndex[s];
+            final double[] newSampleValues = Arrays.copyOf(valuesBySampleIndex[s], newAlleleCount * stride);
+            if (defaultLikelihood != 0.0) {
+                Arrays.fill(newSampleValues, oldAlleleCount * stride, newAlleleCount * stride, defaultLikelihood);
             }
-            valuesBySampleIndex[s] = newValuesBySampleIndex;
+            valuesBySampleIndex[s] = newSampleValues;
         }
         return true;
     }
@@ -570,15 +594,17 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final int[] oldToNewAlleleIndexMap = oldToNewAlleleIndexMap(newToOldAlleleMap, oldAlleleCount, newAlleles);
 
         // We calculate the marginal likelihoods.
-        final double[][][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, null);
+        final double[][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, null);
 
         final int sampleCount = samples.numberOfSamples();
 
         final Object2IntMap<GATKRead>[] newReadIndexBySampleIndex = new Object2IntMap[sampleCount];
         final GATKRead[][] newReadsBySampleIndex = new GATKRead[sampleCount][];
+        final int[] newReadCapacities = new int[sampleCount];
 
         for (int s = 0; s < sampleCount; s++) {
             newReadsBySampleIndex[s] = readsBySampleIndex[s].clone();
+            newReadCapacities[s] = newReadsBySampleIndex[s].length;
         }
 
         // Finally we create the new read-likelihood
@@ -586,7 +612,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 new IndexedAlleleList(newAlleles),
                 samples,
                 newReadsBySampleIndex,
-                newReadIndexBySampleIndex, newLikelihoodValues);
+                newReadIndexBySampleIndex, newLikelihoodValues, newReadCapacities);
     }
 
 
@@ -624,13 +650,14 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final int[][] readsToKeep = overlappingReadIndicesBySampleIndex(overlap);
         // We calculate the marginal likelihoods.
 
-        final double[][][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, readsToKeep);
+        final double[][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, readsToKeep);
 
         final int sampleCount = samples.numberOfSamples();
 
         @SuppressWarnings({"rawtypes","unchecked"})
         final Object2IntMap<GATKRead>[] newReadIndexBySampleIndex = (Object2IntMap<GATKRead>[])new Object2IntMap[sampleCount];
         final GATKRead[][] newReadsBySampleIndex = new GATKRead[sampleCount][];
+        final int[] newReadCapacities = new int[sampleCount];
 
         for (int s = 0; s < sampleCount; s++) {
             final int[] sampleReadsToKeep = readsToKeep[s];
@@ -645,12 +672,13 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                     newReadsBySampleIndex[s][i] = oldSampleReads[sampleReadsToKeep[i]];
                 }
             }
+            newReadCapacities[s] = newSampleReadCount;
         }
 
         // Finally we create the new read-likelihood
         return new ReadLikelihoods<>(new IndexedAlleleList<>(newAlleles), samples,
                 newReadsBySampleIndex,
-                newReadIndexBySampleIndex, newLikelihoodValues);
+                newReadIndexBySampleIndex, newLikelihoodValues, newReadCapacities);
     }
 
     private int[][] overlappingReadIndicesBySampleIndex(final Locatable overlap) {
@@ -699,32 +727,35 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     }
 
     // Calculate the marginal likelihoods considering the old -> new allele index mapping.
-    private double[][][] marginalLikelihoods(final int oldAlleleCount, final int newAlleleCount, final int[] oldToNewAlleleIndexMap, final int[][] readsToKeep) {
+    // The result blocks are tightly packed, with a read capacity equal to the number of reads kept per sample.
+    private double[][] marginalLikelihoods(final int oldAlleleCount, final int newAlleleCount, final int[] oldToNewAlleleIndexMap, final int[][] readsToKeep) {
 
         final int sampleCount = samples.numberOfSamples();
-        final double[][][] result = new double[sampleCount][][];
+        final double[][] result = new double[sampleCount][];
 
         for (int s = 0; s < sampleCount; s++) {
             final int sampleReadCount = readsBySampleIndex[s].length;
-            final double[][] oldSampleValues = valuesBySampleIndex[s];
+            final double[] oldSampleValues = valuesBySampleIndex[s];
+            final int oldStride = readCapacityBySampleIndex[s];
             final int[] sampleReadToKeep = readsToKeep == null || readsToKeep[s].length == sampleReadCount ? null : readsToKeep[s];
             final int newSampleReadCount = sampleReadToKeep == null ? sampleReadCount : sampleReadToKeep.length;
-            final double[][] newSampleValues = result[s] = new double[newAlleleCount][newSampleReadCount];
+            final double[] newSampleValues = result[s] = new double[newAlleleCount * newSampleReadCount];
             // We initiate all likelihoods to -Inf.
-            for (int a = 0; a < newAlleleCount; a++) {
-                Arrays.fill(newSampleValues[a], Double.NEGATIVE_INFINITY);
-            }
-            // For each old allele and read we update the new table keeping the maximum likelihood.
-            for (int r = 0; r < newSampleReadCount; r++) {
-                for (int a = 0; a < oldAlleleCount; a++) {
-                    final int oldReadIndex = newSampleReadCount == sampleReadCount ? r : sampleReadToKeep[r];
-                    final int newAlleleIndex = oldToNewAlleleIndexMap[a];
-                    if (newAlleleIndex == -1) {
-                        continue;
-                    }
-                    final double likelihood = oldSampleValues[a][oldReadIndex];
-                    if (likelihood > newSampleValues[newAlleleIndex][r]) {
-                        newSampleValues[newAlleleIndex][r] = likelihood;
+            Arrays.fill(newSampleValues, Double.NEGATIVE_INFINITY);
+            // For each old allele row we update the new allele row keeping the maximum likelihood, so that both
+            // blocks are traversed sequentially.
+            for (int a = 0; a < oldAlleleCount; a++) {
+                final int newAlleleIndex = oldToNewAlleleIndexMap[a];
+                if (newAlleleIndex == -1) {
+                    continue;
+                }
+                final int oldRowOffset = a * oldStride;
+                final int newRowOffset = newAlleleIndex * newSampleReadCount;
+                for (int r = 0; r < newSampleReadCount; r++) {
+                    final int oldReadIndex = sampleReadToKeep == null ? r : sampleReadToKeep[r];
+                    final double likelihood = oldSampleValues[oldRowOffset + oldReadIndex];
+                    if (likelihood > newSampleValues[newRowOffset + r]) {
+                        newSampleValues[newRowOffset + r] = likelihood;
                     }
                 }
             }
@@ -772,6 +803,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      * @throws IllegalArgumentException if {@code maximumErrorPerBase} is negative.
      */
     public void filterPoorlyModeledReads(final double maximumErrorPerBase) {
+        invalidateBestAlleles();
         Utils.validateArg(alleles.numberOfAlleles() > 0, "unsupported for read-likelihood collections with no alleles");
         Utils.validateArg(!Double.isNaN(maximumErrorPerBase) && maximumErrorPerBase > 0.0, "the maximum error per base must be a positive number");
 
@@ -789,10 +821,11 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final double log10QualPerBase = -4.0;
         final double log10MaxLikelihoodForTrueAllele = maxErrorsForRead * log10QualPerBase;
 
-        final int alleleCount = alleles.numberOfAlleles();
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
-        for (int a = 0; a < alleleCount; a++) {
-            if (sampleValues[a][readIndex] >= log10MaxLikelihoodForTrueAllele) {
+        final double[] sampleValues = valuesBySampleIndex[sampleIndex];
+        final int stride = readCapacityBySampleIndex[sampleIndex];
+        final int end = alleles.numberOfAlleles() * stride;
+        for (int i = readIndex; i < end; i += stride) {
+            if (sampleValues[i] >= log10MaxLikelihoodForTrueAllele) {
                 return false;
             }
         }
@@ -810,6 +843,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      *  collection.
      */
     public void addReads(final Map<String,List<GATKRead>> readsBySample, final double initialLikelihood) {
+        invalidateBestAlleles();
         for (final Map.Entry<String,List<GATKRead>> entry : readsBySample.entrySet()) {
             final String sample = entry.getKey();
             final List<GATKRead> newSampleReads = entry.getValue();
@@ -833,16 +867,27 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     }
 
     // Extends the likelihood arrays-matrices.
+    // If the new reads fit in the current read capacity the block is updated in place, otherwise it is re-laid out
+    // with a larger stride.
     private void extendsLikelihoodArrays(final double initialLikelihood, final int sampleIndex, final int sampleReadCount, final int newSampleReadCount) {
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
         final int alleleCount = alleles.numberOfAlleles();
-        for (int a = 0; a < alleleCount; a++) {
-            sampleValues[a] = Arrays.copyOf(sampleValues[a], newSampleReadCount);
+        final int oldStride = readCapacityBySampleIndex[sampleIndex];
+        if (newSampleReadCount > oldStride) {
+            final double[] oldSampleValues = valuesBySampleIndex[sampleIndex];
+            final double[] newSampleValues = new double[alleleCount * newSampleReadCount];
+            for (int a = 0; a < alleleCount; a++) {
+                System.arraycopy(oldSampleValues, a * oldStride, newSampleValues, a * newSampleReadCount, sampleReadCount);
+            }
+            valuesBySampleIndex[sampleIndex] = newSampleValues;
+            readCapacityBySampleIndex[sampleIndex] = newSampleReadCount;
         }
-        if (initialLikelihood != 0.0) // the default array new value.
-        {
+        // unused capacity might hold stale values of removed reads so we always need to fill in the new entries
+        // when the block was reused.
+        if (initialLikelihood != 0.0 || newSampleReadCount <= oldStride) {
+            final double[] sampleValues = valuesBySampleIndex[sampleIndex];
+            final int stride = readCapacityBySampleIndex[sampleIndex];
             for (int a = 0; a < alleleCount; a++) {
-                Arrays.fill(sampleValues[a], sampleReadCount, newSampleReadCount, initialLikelihood);
+                Arrays.fill(sampleValues, a * stride + sampleReadCount, a * stride + newSampleReadCount, initialLikelihood);
             }
         }
     }
@@ -884,6 +929,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      * symbolic allele {@link org.broadinstitute.hellbender.utils.variant.GATKVCFConstants#NON_REF_SYMBOLIC_ALLELE}.
      */
     public void addNonReferenceAllele(final A nonRefAllele) {
+        invalidateBestAlleles();
         Utils.nonNull(nonRefAllele, "non-ref allele cannot be null");
         if (!nonRefAllele.equals(GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE)) {
             throw new IllegalArgumentException("the non-ref allele is not valid");
@@ -912,6 +958,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      */
     @SuppressWarnings("unchecked")  // for the cast (A) GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE below
     public void updateNonRefAlleleLikelihoods(final AlleleList<A> allelesToConsider) {
+        invalidateBestAlleles();
         final int nonRefAlleleIndex = indexOfAllele((A) GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE);
         if ( nonRefAlleleIndex < 0) {
             return;
@@ -922,13 +969,14 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final double[] qualifiedAlleleLikelihoods = new double[nonSymbolicAlleleCount];
         final Median medianCalculator = new Median();
         for (int s = 0; s < samples.numberOfSamples(); s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
-            final int readCount = sampleValues[0].length;
+            final double[] sampleValues = valuesBySampleIndex[s];
+            final int stride = readCapacityBySampleIndex[s];
+            final int readCount = readsBySampleIndex[s].length;
             for (int r = 0; r < readCount; r++) {
                 final BestAllele bestAllele = searchBestAllele(s, r, true);
                 int numberOfQualifiedAlleleLikelihoods = 0;
                 for (int i = 0; i < alleleCount; i++) {
-                    final double alleleLikelihood = sampleValues[i][r];
+                    final double alleleLikelihood = sampleValues[i * stride + r];
                     if (i != nonRefAlleleIndex && alleleLikelihood < bestAllele.likelihood
                             && !Double.isNaN(alleleLikelihood) && allelesToConsider.indexOfAllele(alleles.getAllele(i)) != -1) {
                         qualifiedAlleleLikelihoods[numberOfQualifiedAlleleLikelihoods++] = alleleLikelihood;
@@ -939,7 +987,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 // so the read is not informative at all given the existing alleles. Unless there is only one (or zero) concrete
                 // alleles with give the same (the best) likelihood to the NON-REF. When there is only one (or zero) concrete
                 // alleles we set the NON-REF likelihood to NaN.
-                sampleValues[nonRefAlleleIndex][r] = !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
+                sampleValues[nonRefAlleleIndex * stride + r] = !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
                         : nonSymbolicAlleleCount <= 1 ? Double.NaN : bestAllele.likelihood;
             }
         }
@@ -956,6 +1004,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      * @throws IllegalArgumentException if {@code perSampleDownsamplingFraction} is {@code null}.
      */
     public void contaminationDownsampling(final Map<String, Double> perSampleDownsamplingFraction) {
+        invalidateBestAlleles();
         Utils.nonNull(perSampleDownsamplingFraction);
 
         final int alleleCount = alleles.numberOfAlleles();
@@ -1012,6 +1061,11 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     private Collection<BestAllele> bestAlleles(final int sampleIndex) {
         Utils.validIndex(sampleIndex, numberOfSamples());
 
+        final List<BestAllele> extantResult = bestAllelesBySampleIndex[sampleIndex];
+        if (extantResult != null) {
+            return extantResult;
+        }
+
         final GATKRead[] sampleReads = readsBySampleIndex[sampleIndex];
         final int readCount = sampleReads.length;
         final List<BestAllele> result = new ArrayList<>(readCount);
@@ -1019,7 +1073,31 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             result.add(searchBestAllele(sampleIndex, r, true));
         }
 
-        return result;
+        return bestAllelesBySampleIndex[sampleIndex] = Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Computes the best allele of every read and all other lazily initialized look-up structures up front.
+     *
+     * <p>
+     *     Until the collection is next modified it can then be read from several threads at once,
+     *     and every subsequent call to {@link #bestAlleles} reuses the same search results rather than redoing them.
+     * </p>
+     */
+    public void precomputeBestAlleles() {
+        samples();
+        alleles();
+        for (int s = 0; s < numberOfSamples(); s++) {
+            sampleReads(s);
+            sampleMatrix(s);
+            readIndexBySampleIndex(s);
+            bestAlleles(s);
+        }
+    }
+
+    // Must be called by every method that changes the reads, alleles or likelihoods.
+    private void invalidateBestAlleles() {
+        Arrays.fill(bestAllelesBySampleIndex, null);
     }
 
 
@@ -1126,6 +1204,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      * @throws IllegalArgumentException the location cannot be {@code null} nor unmapped.
      */
     public void filterToOnlyOverlappingUnclippedReads(final SimpleInterval location) {
+        invalidateBestAlleles();
         Utils.nonNull(location, "the location cannot be null");
 
         final int sampleCount = samples.numberOfSamples();
@@ -1215,13 +1294,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         Utils.skimArray(oldSampleReads,firstDeleted, newSampleReads, firstDeleted, removeIndex, firstDeleted);
 
         // Then we skim out the likelihoods of the removed reads.
-        final double[][] oldSampleValues = valuesBySampleIndex[sampleIndex];
-        final double[][] newSampleValues = new double[alleleCount][newSampleReadCount];
-        for (int a = 0; a < alleleCount; a++) {
-            System.arraycopy(oldSampleValues[a], 0, newSampleValues[a], 0, firstDeleted);
-            Utils.skimArray(oldSampleValues[a], firstDeleted, newSampleValues[a], firstDeleted, removeIndex, firstDeleted);
-        }
-        valuesBySampleIndex[sampleIndex] = newSampleValues;
+        compactSampleLikelihoods(sampleIndex, alleleCount, sampleReadCount, removeIndex, firstDeleted);
         readsBySampleIndex[sampleIndex] = newSampleReads;
         readListBySampleIndex[sampleIndex] = null; // reset the unmodifiable list.
     }
@@ -1229,6 +1302,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
     // Requires that the collection passed iterator can remove elements, and it can be modified.
     public void removeSampleReads(final int sampleIndex, final Collection<GATKRead> readsToRemove, final int alleleCount) {
+        invalidateBestAlleles();
         final GATKRead[] sampleReads = readsBySampleIndex[sampleIndex];
         final int sampleReadCount = sampleReads.length;
 
@@ -1273,17 +1347,36 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         }
 
         // Then we skim out the likelihoods of the removed reads.
-        final double[][] oldSampleValues = valuesBySampleIndex[sampleIndex];
-        final double[][] newSampleValues = new double[alleleCount][newSampleReadCount];
-        for (int a = 0; a < alleleCount; a++) {
-            System.arraycopy(oldSampleValues[a],0,newSampleValues[a],0,firstDeleted);
-            Utils.skimArray(oldSampleValues[a], firstDeleted, newSampleValues[a], firstDeleted, removeIndex, firstDeleted);
-        }
-        valuesBySampleIndex[sampleIndex] = newSampleValues;
+        compactSampleLikelihoods(sampleIndex, alleleCount, sampleReadCount, removeIndex, firstDeleted);
         readsBySampleIndex[sampleIndex] = newSampleReads;
         readListBySampleIndex[sampleIndex] = null; // reset the unmodifiable list.
     }
 
+    /**
+     * Skims out the likelihoods of removed reads by shifting the retained ones towards the start of each allele row,
+     * in place. The read capacity (row stride) of the sample is not changed.
+     *
+     * @param sampleIndex the target sample.
+     * @param alleleCount number of alleles (rows) to compact.
+     * @param sampleReadCount number of reads in the sample before the removal.
+     * @param removeIndex for each read, whether it is removed.
+     * @param firstDeleted index of the first removed read; entries before it are left untouched.
+     */
+    private void compactSampleLikelihoods(final int sampleIndex, final int alleleCount, final int sampleReadCount,
+                                          final boolean[] removeIndex, final int firstDeleted) {
+        final double[] sampleValues = valuesBySampleIndex[sampleIndex];
+        final int stride = readCapacityBySampleIndex[sampleIndex];
+        for (int a = 0; a < alleleCount; a++) {
+            final int rowOffset = a * stride;
+            int nextIndex = rowOffset + firstDeleted;
+            for (int r = firstDeleted + 1; r < sampleReadCount; r++) {
+                if (!removeIndex[r]) {
+                    sampleValues[nextIndex++] = sampleValues[rowOffset + r];
+                }
+            }
+        }
+    }
+
 
     private Object2IntMap<GATKRead> readIndexBySampleIndex(final int sampleIndex) {
         if (readIndexBySampleIndex[sampleIndex] == null) {
@@ -1320,16 +1413,17 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         @Override
         public void set(final int alleleIndex, final int readIndex, final double value) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            Utils.validIndex(readIndex, valuesBySampleIndex[sampleIndex][alleleIndex].length);
-            valuesBySampleIndex[sampleIndex][alleleIndex][readIndex] = value;
+            Utils.validIndex(alleleIndex, alleles.numberOfAlleles());
+            Utils.validIndex(readIndex, readsBySampleIndex[sampleIndex].length);
+            bestAllelesBySampleIndex[sampleIndex] = null;
+            valuesBySampleIndex[sampleIndex][alleleIndex * readCapacityBySampleIndex[sampleIndex] + readIndex] = value;
         }
 
         @Override
         public double get(final int alleleIndex, final int readIndex) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            Utils.validIndex(readIndex, valuesBySampleIndex[sampleIndex][alleleIndex].length);
-            return valuesBySampleIndex[sampleIndex][alleleIndex][readIndex];
+            Utils.validIndex(alleleIndex, alleles.numberOfAlleles());
+            Utils.validIndex(readIndex, readsBySampleIndex[sampleIndex].length);
+            return valuesBySampleIndex[sampleIndex][alleleIndex * readCapacityBySampleIndex[sampleIndex] + readIndex];
         }
 
         @Override
@@ -1369,8 +1463,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         @Override
         public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
             Utils.nonNull(dest);
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            System.arraycopy(valuesBySampleIndex[sampleIndex][alleleIndex], 0, dest, offset, numberOfReads());
+            Utils.validIndex(alleleIndex, alleles.numberOfAlleles());
+            System.arraycopy(valuesBySampleIndex[sampleIndex], alleleIndex * readCapacityBySampleIndex[sampleIndex], dest, offset, numberOfReads());
         }
     }
 }
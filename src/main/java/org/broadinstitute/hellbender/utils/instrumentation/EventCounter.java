@@ -0,0 +1,44 @@
+package org.broadinstitute.hellbender.utils.instrumentation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts occurrences of an event. Obtain instances from {@link Instrumentation#counter}.
+ */
+public final class EventCounter {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    EventCounter(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Counts one occurrence, if instrumentation is enabled
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Counts the given number of occurrences, if instrumentation is enabled
+     */
+    public void add(final long occurrences) {
+        if ( Instrumentation.isEnabled() ) {
+            count.add(occurrences);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    void reset() {
+        count.reset();
+    }
+}
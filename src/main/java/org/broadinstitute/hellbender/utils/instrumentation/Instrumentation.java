@@ -0,0 +1,129 @@
+package org.broadinstitute.hellbender.utils.instrumentation;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Registry of named {@link PhaseTimer}s, {@link EventCounter}s and {@link ValueHistogram}s used to break down
+ * where a run spends its time.
+ *
+ * Instrumentation is disabled by default, in which case recording is reduced to a single check of a volatile flag.
+ * Code to be instrumented typically keeps the metric in a static field:
+ *
+ * <pre>
+ *     private static final PhaseTimer ASSEMBLY_TIMER = Instrumentation.timer("ReadThreadingAssembler.runLocalAssembly");
+ *     ...
+ *     final long start = ASSEMBLY_TIMER.start();
+ *     try {
+ *         ...
+ *     } finally {
+ *         ASSEMBLY_TIMER.stop(start);
+ *     }
+ * </pre>
+ *
+ * Metrics with the same name are the same object. All metrics are thread-safe.
+ *
+ * See {@link InstrumentationReporter} for writing the collected values out.
+ */
+public final class Instrumentation {
+
+    private static volatile boolean enabled = false;
+    private static volatile long enabledSinceNanos = System.nanoTime();
+
+    private static final ConcurrentMap<String, PhaseTimer> timers = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, EventCounter> counters = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, ValueHistogram> histograms = new ConcurrentHashMap<>();
+
+    private Instrumentation() {}
+
+    /**
+     * @return true if metrics are currently being recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Resets all metrics and starts recording.
+     */
+    public static void enable() {
+        reset();
+        enabledSinceNanos = System.nanoTime();
+        enabled = true;
+    }
+
+    /**
+     * Stops recording. The values recorded so far are kept.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Resets the values of all registered metrics to zero. The metrics themselves stay registered.
+     */
+    public static void reset() {
+        timers.values().forEach(PhaseTimer::reset);
+        counters.values().forEach(EventCounter::reset);
+        histograms.values().forEach(ValueHistogram::reset);
+    }
+
+    /**
+     * @return the wall-clock time in nanoseconds since instrumentation was last enabled
+     */
+    public static long getElapsedNanos() {
+        return System.nanoTime() - enabledSinceNanos;
+    }
+
+    /**
+     * @return the timer with the given name, which is registered if necessary
+     */
+    public static PhaseTimer timer(final String name) {
+        return register(timers, name, PhaseTimer::new);
+    }
+
+    /**
+     * @return the counter with the given name, which is registered if necessary
+     */
+    public static EventCounter counter(final String name) {
+        return register(counters, name, EventCounter::new);
+    }
+
+    /**
+     * @return the histogram with the given name, which is registered if necessary
+     */
+    public static ValueHistogram histogram(final String name) {
+        return register(histograms, name, ValueHistogram::new);
+    }
+
+    private static <T> T register(final ConcurrentMap<String, T> metrics, final String name, final Function<String, T> constructor) {
+        Utils.nonEmpty(name, "metric name cannot be null or empty");
+        return metrics.computeIfAbsent(name, constructor);
+    }
+
+    /**
+     * @return all registered timers, sorted by name
+     */
+    public static Map<String, PhaseTimer> getTimers() {
+        return new TreeMap<>(timers);
+    }
+
+    /**
+     * @return all registered counters, sorted by name
+     */
+    public static Map<String, EventCounter> getCounters() {
+        return new TreeMap<>(counters);
+    }
+
+    /**
+     * @return all registered histograms, sorted by name
+     */
+    public static Map<String, ValueHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+}
@@ -0,0 +1,171 @@
+package org.broadinstitute.hellbender.utils.instrumentation;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Enables {@link Instrumentation} for the lifetime of this object and writes the collected metrics to a JSON file
+ * when closed, optionally together with periodic snapshots taken during the run.
+ *
+ * The output has the form:
+ *
+ * <pre>
+ * {
+ *   "wallClockSeconds": ...,
+ *   "timers": { "name": { "count": ..., "totalSeconds": ..., "meanMilliseconds": ..., "maxMilliseconds": ..., "fractionOfWallClock": ... }, ... },
+ *   "counters": { "name": ..., ... },
+ *   "histograms": { "name": { "count": ..., "sum": ..., "min": ..., "max": ..., "mean": ..., "buckets": { "upper bound": count, ... } }, ... },
+ *   "snapshots": [ { "wallClockSeconds": ..., "timers": ..., "counters": ..., "histograms": ... }, ... ]
+ * }
+ * </pre>
+ *
+ * When snapshots are enabled the file is rewritten after each snapshot, so that long runs can be monitored while
+ * they are in progress.
+ */
+public final class InstrumentationReporter implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(InstrumentationReporter.class);
+
+    private final String output;
+    private final List<String> snapshots = new ArrayList<>();
+    private final ScheduledExecutorService snapshotExecutor;
+    private boolean closed = false;
+
+    /**
+     * Resets and enables instrumentation.
+     *
+     * @param output path of the JSON file to write
+     * @param snapshotIntervalSeconds seconds between snapshots, or 0 for no snapshots
+     */
+    public InstrumentationReporter(final String output, final int snapshotIntervalSeconds) {
+        Utils.nonNull(output);
+        Utils.validateArg(snapshotIntervalSeconds >= 0, "snapshotIntervalSeconds must be non-negative");
+        this.output = output;
+
+        Instrumentation.enable();
+
+        if ( snapshotIntervalSeconds > 0 ) {
+            snapshotExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("instrumentation-snapshot-%d").setDaemon(true).build());
+            snapshotExecutor.scheduleAtFixedRate(this::takeSnapshot, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            snapshotExecutor = null;
+        }
+    }
+
+    private synchronized void takeSnapshot() {
+        if ( closed ) {
+            return;
+        }
+        snapshots.add(metricsToJson());
+        try {
+            write(false);
+        } catch ( final UserException e ) {
+            // a failed snapshot must not bring down the run; the final report will fail loudly if the problem persists
+            logger.warn("Could not write instrumentation snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops instrumentation and writes the final report.
+     */
+    @Override
+    public synchronized void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        if ( snapshotExecutor != null ) {
+            snapshotExecutor.shutdownNow();
+        }
+        Instrumentation.disable();
+        write(true);
+        logger.info("Wrote per-phase instrumentation report to " + output);
+    }
+
+    private void write(final boolean includeFinalMetrics) {
+        final Path path = IOUtils.getPath(output);
+        try ( final Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8) ) {
+            final String metrics = includeFinalMetrics ? metricsToJson() : null;
+            writer.write("{\n");
+            if ( metrics != null ) {
+                // the final metrics are the top-level fields; strip the braces of the object
+                writer.write(metrics.substring(2, metrics.length() - 2));
+                writer.write(",\n");
+            }
+            writer.write("  \"snapshots\": [");
+            writer.write(String.join(", ", snapshots));
+            writer.write("]\n}\n");
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(output, "could not write instrumentation report", e);
+        }
+    }
+
+    /**
+     * @return the current values of all metrics as a JSON object
+     */
+    static String metricsToJson() {
+        final double wallClockSeconds = Instrumentation.getElapsedNanos() / 1e9;
+        final StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"wallClockSeconds\": ").append(wallClockSeconds).append(",\n");
+
+        json.append("  \"timers\": {");
+        appendEntries(json, Instrumentation.getTimers(), timer -> String.format(
+                "{\"count\": %d, \"totalSeconds\": %s, \"meanMilliseconds\": %s, \"maxMilliseconds\": %s, \"fractionOfWallClock\": %s}",
+                timer.getCount(),
+                timer.getTotalNanos() / 1e9,
+                timer.getCount() == 0 ? 0.0 : timer.getTotalNanos() / 1e6 / timer.getCount(),
+                timer.getMaxNanos() / 1e6,
+                wallClockSeconds == 0 ? 0.0 : timer.getTotalNanos() / 1e9 / wallClockSeconds));
+        json.append("},\n");
+
+        json.append("  \"counters\": {");
+        appendEntries(json, Instrumentation.getCounters(), counter -> Long.toString(counter.getCount()));
+        json.append("},\n");
+
+        json.append("  \"histograms\": {");
+        appendEntries(json, Instrumentation.getHistograms(), histogram -> {
+            final StringBuilder buckets = new StringBuilder();
+            for ( final Map.Entry<Long, Long> bucket : histogram.getBucketCounts().entrySet() ) {
+                buckets.append(buckets.length() == 0 ? "" : ", ").append('"').append(bucket.getKey()).append("\": ").append(bucket.getValue());
+            }
+            return String.format("{\"count\": %d, \"sum\": %d, \"min\": %d, \"max\": %d, \"mean\": %s, \"buckets\": {%s}}",
+                    histogram.getCount(), histogram.getSum(), histogram.getMin(), histogram.getMax(),
+                    histogram.getCount() == 0 ? 0.0 : (double) histogram.getSum() / histogram.getCount(), buckets);
+        });
+        json.append("}\n}");
+        return json.toString();
+    }
+
+    private static <T> void appendEntries(final StringBuilder json, final Map<String, T> metrics, final Function<T, String> toJson) {
+        boolean first = true;
+        for ( final Map.Entry<String, T> entry : metrics.entrySet() ) {
+            json.append(first ? "\n" : ",\n");
+            json.append("    ").append(quote(entry.getKey())).append(": ").append(toJson.apply(entry.getValue()));
+            first = false;
+        }
+        if ( ! first ) {
+            json.append("\n  ");
+        }
+    }
+
+    private static String quote(final String s) {
+        return '"' + s.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
@@ -0,0 +1,116 @@
+package org.broadinstitute.hellbender.utils.instrumentation;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the number of executions and the total and maximum wall-clock time of a phase of processing.
+ * Obtain instances from {@link Instrumentation#timer}.
+ *
+ * Executions on different threads are all added up, so the total time of a phase run on multiple threads can
+ * exceed the wall-clock time of the run.
+ */
+public final class PhaseTimer {
+
+    /**
+     * Value returned by {@link #start} when instrumentation is disabled
+     */
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    PhaseTimer(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Starts timing one execution of this phase.
+     *
+     * @return the value to pass to {@link #stop} at the end of the execution
+     */
+    public long start() {
+        return Instrumentation.isEnabled() ? System.nanoTime() : NOT_STARTED;
+    }
+
+    /**
+     * Ends the timing of one execution of this phase.
+     *
+     * @param startValue value returned by the matching call to {@link #start}
+     */
+    public void stop(final long startValue) {
+        if ( startValue != NOT_STARTED ) {
+            record(System.nanoTime() - startValue);
+        }
+    }
+
+    /**
+     * Records one execution of this phase that took the given time.
+     */
+    public void record(final long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Times all calls to {@link Iterator#hasNext} and {@link Iterator#next} of the given iterator, each as one
+     * execution of this phase.
+     *
+     * @return a timing view of the iterator if instrumentation is enabled, otherwise the iterator itself
+     */
+    public <T> Iterator<T> time(final Iterator<T> iterator) {
+        Utils.nonNull(iterator);
+        if ( ! Instrumentation.isEnabled() ) {
+            return iterator;
+        }
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                final long start = start();
+                try {
+                    return iterator.hasNext();
+                } finally {
+                    stop(start);
+                }
+            }
+
+            @Override
+            public T next() {
+                final long start = start();
+                try {
+                    return iterator.next();
+                } finally {
+                    stop(start);
+                }
+            }
+        };
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    void reset() {
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+}
@@ -0,0 +1,95 @@
+package org.broadinstitute.hellbender.utils.instrumentation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of a non-negative quantity (eg., the number of haplotypes per assembly region), in power-of-two buckets.
+ * Obtain instances from {@link Instrumentation#histogram}.
+ *
+ * Bucket 0 holds the value 0 and bucket i > 0 holds the values in [2^(i-1), 2^i - 1]. Negative values are
+ * counted as 0.
+ */
+public final class ValueHistogram {
+
+    private static final int NUM_BUCKETS = Long.SIZE;
+
+    private final String name;
+    private final LongAdder[] buckets = new LongAdder[NUM_BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    ValueHistogram(final String name) {
+        this.name = name;
+        for ( int i = 0; i < NUM_BUCKETS; i++ ) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one value, if instrumentation is enabled
+     */
+    public void record(final long value) {
+        if ( ! Instrumentation.isEnabled() ) {
+            return;
+        }
+        final long v = Math.max(value, 0L);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(v)].increment();
+        count.increment();
+        sum.add(v);
+        min.accumulate(v);
+        max.accumulate(v);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @return the smallest recorded value, or 0 if there are none
+     */
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the number of recorded values in each non-empty bucket, keyed by the largest value of the bucket and
+     *         in increasing order
+     */
+    public Map<Long, Long> getBucketCounts() {
+        final Map<Long, Long> bucketCounts = new LinkedHashMap<>();
+        for ( int i = 0; i < NUM_BUCKETS; i++ ) {
+            final long bucketCount = buckets[i].sum();
+            if ( bucketCount > 0 ) {
+                bucketCounts.put((1L << i) - 1, bucketCount);
+            }
+        }
+        return bucketCounts;
+    }
+
+    void reset() {
+        for ( final LongAdder bucket : buckets ) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        min.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,238 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import htsjdk.samtools.util.CloseableIterator;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Iterator that pulls elements from a wrapped iterator on a background thread, ahead of the consumer, into a bounded
+ * queue of batches. An optional preparation step (eg., forcing the lazy decoding of a record) runs on the background
+ * thread for every element before it is handed over.
+ *
+ * The wrapped iterator is accessed only from the background thread until it is exhausted or this iterator is closed,
+ * so it must not be used by anyone else in the meantime. {@link #close} stops the background thread and waits for it
+ * to finish, but does not close the wrapped iterator.
+ *
+ * Stall statistics are kept on both sides of the queue: the consumer stalls when it finds the queue empty (reading
+ * or decoding is the bottleneck), the producer stalls when it finds the queue full (the consumer is the bottleneck).
+ */
+public final class ReadAheadIterator<T> implements CloseableIterator<T> {
+
+    private static final long PRODUCER_POLL_MILLISECONDS = 100;
+
+    private final Iterator<T> source;
+    private final Consumer<? super T> preparer;
+    private final int batchSize;
+    private final BlockingQueue<Batch<T>> queue;
+    private final CountDownLatch producerFinished = new CountDownLatch(1);
+
+    private volatile boolean closed = false;
+
+    private Iterator<T> currentBatch = Collections.emptyIterator();
+    private boolean exhausted = false;
+
+    // written by the consumer thread only
+    private long consumerStalls = 0;
+    private long consumerStallNanos = 0;
+
+    // written by the producer thread only
+    private volatile long producerStalls = 0;
+    private volatile long producerStallNanos = 0;
+
+    /**
+     * @param source iterator to read ahead from, must not be used by the caller afterwards
+     * @param preparer action to apply to each element on the background thread before handing it over, may be null
+     * @param batchSize number of elements handed over to the consumer at a time, must be positive
+     * @param numBatches maximum number of batches buffered ahead of the consumer, must be positive
+     * @param executor executor providing the background thread; needs a thread free for the lifetime of this iterator
+     */
+    public ReadAheadIterator(final Iterator<T> source, final Consumer<? super T> preparer, final int batchSize,
+                             final int numBatches, final ExecutorService executor) {
+        Utils.nonNull(source);
+        Utils.nonNull(executor);
+        Utils.validateArg(batchSize > 0, "batchSize must be positive");
+        Utils.validateArg(numBatches > 0, "numBatches must be positive");
+        this.source = source;
+        this.preparer = preparer;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(numBatches);
+        executor.execute(this::produce);
+    }
+
+    private void produce() {
+        try {
+            while ( ! closed && source.hasNext() ) {
+                final List<T> elements = new ArrayList<>(batchSize);
+                while ( elements.size() < batchSize && source.hasNext() ) {
+                    final T element = source.next();
+                    if ( preparer != null ) {
+                        preparer.accept(element);
+                    }
+                    elements.add(element);
+                }
+                if ( ! hand(new Batch<>(elements, null)) ) {
+                    return;
+                }
+            }
+            hand(new Batch<>(null, null));
+        }
+        catch ( final Throwable t ) {
+            hand(new Batch<>(null, t));
+        }
+        finally {
+            producerFinished.countDown();
+        }
+    }
+
+    /**
+     * Adds a batch to the queue, waiting for space if needed.
+     *
+     * @return false if this iterator was closed while waiting
+     */
+    private boolean hand(final Batch<T> batch) {
+        if ( queue.offer(batch) ) {
+            return true;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            while ( ! queue.offer(batch, PRODUCER_POLL_MILLISECONDS, TimeUnit.MILLISECONDS) ) {
+                if ( closed ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        finally {
+            producerStalls++;
+            producerStallNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while ( ! currentBatch.hasNext() ) {
+            if ( exhausted || closed ) {
+                return false;
+            }
+            final Batch<T> batch = takeBatch();
+            if ( batch.error != null ) {
+                exhausted = true;
+                throw new GATKException("Error while reading ahead", batch.error);
+            }
+            if ( batch.elements == null ) {
+                exhausted = true;
+                return false;
+            }
+            currentBatch = batch.elements.iterator();
+        }
+        return true;
+    }
+
+    private Batch<T> takeBatch() {
+        final Batch<T> batch = queue.poll();
+        if ( batch != null ) {
+            return batch;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            return queue.take();
+        }
+        catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for read-ahead data", e);
+        }
+        finally {
+            consumerStalls++;
+            consumerStallNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public T next() {
+        if ( ! hasNext() ) {
+            throw new NoSuchElementException("next() called when there are no more items");
+        }
+        return currentBatch.next();
+    }
+
+    /**
+     * Stops the background thread and waits until it no longer touches the wrapped iterator. Any elements read
+     * ahead but not yet consumed are discarded.
+     */
+    @Override
+    public void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        currentBatch = Collections.emptyIterator();
+        queue.clear();
+        try {
+            producerFinished.await();
+        }
+        catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while stopping read-ahead", e);
+        }
+        queue.clear();
+    }
+
+    /**
+     * @return the number of times the consumer had to wait for the background thread
+     */
+    public long getConsumerStalls() {
+        return consumerStalls;
+    }
+
+    /**
+     * @return the total time in nanoseconds the consumer spent waiting for the background thread
+     */
+    public long getConsumerStallNanos() {
+        return consumerStallNanos;
+    }
+
+    /**
+     * @return the number of times the background thread had to wait for the consumer to make room in the queue
+     */
+    public long getProducerStalls() {
+        return producerStalls;
+    }
+
+    /**
+     * @return the total time in nanoseconds the background thread spent waiting for the consumer
+     */
+    public long getProducerStallNanos() {
+        return producerStallNanos;
+    }
+
+    /**
+     * A batch of elements, or the end of the stream (no elements), or a failure of the background thread
+     */
+    private static final class Batch<T> {
+        private final List<T> elements;
+        private final Throwable error;
+
+        private Batch(final List<T> elements, final Throwable error) {
+            this.elements = elements;
+            this.error = error;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.iterators.IntervalLocusIterator;
 import org.broadinstitute.hellbender.utils.iterators.IntervalOverlappingIterator;
+import org.broadinstitute.hellbender.utils.pileup.PileupElementPool;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.Iterator;
@@ -31,6 +32,7 @@ public class AlignmentContextIteratorBuilder {
     private boolean isIncludeDeletions;
     private boolean isIncludeNs;
     private LIBSDownsamplingInfo downsamplingInfo;
+    private PileupElementPool pileupElementPool;
 
     public boolean isEmitEmptyLoci() {
         return isEmitEmptyLoci;
@@ -72,6 +74,18 @@ public class AlignmentContextIteratorBuilder {
         this.downsamplingInfo = downsamplingInfo;
     }
 
+    public PileupElementPool getPileupElementPool() {
+        return pileupElementPool;
+    }
+
+    /**
+     * @param pileupElementPool if not null, the pileups are made from this pool, and the caller must release each
+     *                          pileup to it once done with it (see {@link PileupElementPool})
+     */
+    public void setPileupElementPool(PileupElementPool pileupElementPool) {
+        this.pileupElementPool = pileupElementPool;
+    }
+
     public AlignmentContextIteratorBuilder() {
         isEmitEmptyLoci = false;
         isKeepUniqueReadListInLibs = false;
@@ -95,7 +109,7 @@ public class AlignmentContextIteratorBuilder {
         Utils.nonNull(readIterator, "Read iterator cannot be null");
         final boolean isDefinitelyReference = (dictionary != null) && isReference ;
         return createAlignmentContextIterator(intervalsForTraversal, header, readIterator, dictionary, downsamplingInfo,
-                isDefinitelyReference, isEmitEmptyLoci, isKeepUniqueReadListInLibs, isIncludeDeletions, isIncludeNs);
+                isDefinitelyReference, isEmitEmptyLoci, isKeepUniqueReadListInLibs, isIncludeDeletions, isIncludeNs, pileupElementPool);
     }
 
     /**
@@ -114,6 +128,7 @@ public class AlignmentContextIteratorBuilder {
      *                                       available via the transferReadsFromAllPreviousPileups interface (this parameter is specific to {@link LocusIteratorByState})
      * @param isIncludeDeletions include reads with deletion on the loci in question
      * @param isIncludeNs include reads with N on the loci in question
+     * @param pileupElementPool pool to make the pileups from, or {@code null} (this parameter is specific to {@link LocusIteratorByState})
      * @return iterator that produces AlignmentContexts ready for consumption (e.g. by a {@link org.broadinstitute.hellbender.engine.LocusWalker})
      */
     private static Iterator<AlignmentContext> createAlignmentContextIterator(final List<SimpleInterval> intervalsForTraversal,
@@ -125,7 +140,8 @@ public class AlignmentContextIteratorBuilder {
                                                                                boolean emitEmptyLoci,
                                                                                boolean isKeepUniqueReadListInLibs,
                                                                                boolean isIncludeDeletions,
-                                                                               boolean isIncludeNs) {
+                                                                               boolean isIncludeNs,
+                                                                               final PileupElementPool pileupElementPool) {
 
         // get the samples from the read groups
         final Set<String> samples = header.getReadGroups().stream()
@@ -133,7 +149,7 @@ public class AlignmentContextIteratorBuilder {
                 .collect(Collectors.toSet());
 
         // get the LIBS
-        final LocusIteratorByState libs = new LocusIteratorByState(readIterator, downsamplingInfo, isKeepUniqueReadListInLibs, samples, header, isIncludeDeletions, isIncludeNs);
+        final LocusIteratorByState libs = new LocusIteratorByState(readIterator, downsamplingInfo, isKeepUniqueReadListInLibs, samples, header, isIncludeDeletions, isIncludeNs, pileupElementPool);
 
         List<SimpleInterval> finalIntervals = intervalsForTraversal;
         validateEmitEmptyLociParameters(emitEmptyLoci, dictionary, intervalsForTraversal, isReference);
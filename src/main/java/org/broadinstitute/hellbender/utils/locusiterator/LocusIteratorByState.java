@@ -11,6 +11,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.pileup.PileupElementPool;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
@@ -78,6 +79,16 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
      */
     private final boolean includeReadsWithNsAtLoci;
 
+    /**
+     * If not null, the pileups are made from elements and lists of this pool
+     */
+    private final PileupElementPool pileupElementPool;
+
+    /**
+     * Empty list from the pool, kept for the next pileup when a locus had no elements
+     */
+    private List<PileupElement> pooledPile;
+
     /**
      * The next alignment context.  A non-null value means that a
      * context is waiting from hasNext() for sending off to the next next() call.  A null
@@ -209,6 +220,44 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
                                 final SAMFileHeader header,
                                 final boolean includeReadsWithDeletionAtLoci,
                                 final boolean includeReadsWithNsAtLoci) {
+        this(samIterator,
+                downsamplingInfo,
+                keepUniqueReadListInLIBS,
+                samples,
+                header,
+                includeReadsWithDeletionAtLoci,
+                includeReadsWithNsAtLoci,
+                null
+        );
+    }
+
+    /**
+     * Create a new LocusIteratorByState
+     *
+     * @param samIterator                    the iterator of reads to process into pileups.  Reads must be ordered
+     *                                       according to standard coordinate-sorted BAM conventions
+     * @param downsamplingInfo               meta-information about how to downsample the reads
+     * @param keepUniqueReadListInLIBS       if true, we will keep the unique reads from the samIterator and make them
+     *                                       available via the transferReadsFromAllPreviousPileups interface
+     * @param samples                        a complete list of samples present in the read groups for the reads coming from samIterator.
+     *                                       This is generally just the set of read group sample fields in the SAMFileHeader.  This
+     *                                       list of samples may contain a null element, and all reads without read groups will
+     *                                       be mapped to this null sample
+     * @param header                         header from the reads
+     * @param includeReadsWithDeletionAtLoci Include reads with deletion at loci
+     * @param includeReadsWithNsAtLoci       Include reads with Ns at loci (usually it is not needed)
+     * @param pileupElementPool              if not null, pileups are made from the elements of this pool, and the
+     *                                       caller releases each pileup to the pool once done with it (see
+     *                                       {@link PileupElementPool})
+     */
+    public LocusIteratorByState(final Iterator<GATKRead> samIterator,
+                                final LIBSDownsamplingInfo downsamplingInfo,
+                                final boolean keepUniqueReadListInLIBS,
+                                final Collection<String> samples,
+                                final SAMFileHeader header,
+                                final boolean includeReadsWithDeletionAtLoci,
+                                final boolean includeReadsWithNsAtLoci,
+                                final PileupElementPool pileupElementPool) {
         Utils.nonNull(samIterator, "samIterator cannot be null");
         Utils.nonNull(downsamplingInfo, "downsamplingInfo cannot be null");
         Utils.nonNull(samples, "Samples cannot be null");
@@ -222,6 +271,7 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
 
         this.includeReadsWithDeletionAtLoci = includeReadsWithDeletionAtLoci;
         this.includeReadsWithNsAtLoci = includeReadsWithNsAtLoci;
+        this.pileupElementPool = pileupElementPool;
         this.samples = new ArrayList<>(samples);
         this.readStates = new ReadStateManager(samIterator, this.samples, downsamplingInfo, keepUniqueReadListInLIBS, header);
     }
@@ -311,6 +361,11 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
      * next entry.
      */
     private void lazyLoadNextAlignmentContext() {
+        if (pileupElementPool != null) {
+            lazyLoadNextPooledAlignmentContext();
+            return;
+        }
+
         while (nextAlignmentContext == null && readStates.hasNext()) {
             readStates.collectPendingReads();
 
@@ -325,18 +380,7 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
                 while (iterator.hasNext()) {
                     // state object with the read/offset information
                     final AlignmentStateMachine state = iterator.next();
-                    final GATKRead read = state.getRead();
-                    final CigarOperator op = state.getCigarOperator();
-
-                    if (!includeReadsWithNsAtLoci && op == CigarOperator.N) {
-                        continue;
-                    }
-
-                    if (!dontIncludeReadInPileup(read, location.getStart())) {
-                        if (!includeReadsWithDeletionAtLoci && op == CigarOperator.D) {
-                            continue;
-                        }
-
+                    if (includeInPileup(state, location.getStart())) {
                         pile.add(state.makePileupElement());
                     }
                 }
@@ -353,6 +397,45 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
         }
     }
 
+    /**
+     * Same as {@link #lazyLoadNextAlignmentContext()}, but making the pileup from the pool and directly in a single
+     * list, rather than building a pileup per sample and merging them, which gives the same elements in the same order
+     */
+    private void lazyLoadNextPooledAlignmentContext() {
+        while (nextAlignmentContext == null && readStates.hasNext()) {
+            readStates.collectPendingReads();
+
+            final Locatable location = getLocation();
+            if (pooledPile == null) {
+                pooledPile = pileupElementPool.newElementList();
+            }
+            for (final Map.Entry<String, PerSampleReadStateManager> sampleStatePair : readStates) {
+                for (final AlignmentStateMachine state : sampleStatePair.getValue()) {
+                    if (includeInPileup(state, location.getStart())) {
+                        pooledPile.add(pileupElementPool.newElement(state));
+                    }
+                }
+            }
+
+            readStates.updateReadStates(); // critical - must be called after we get the current state offsets and location
+            if (!pooledPile.isEmpty()) { // if we got reads with non-D/N over the current position, we are done
+                nextAlignmentContext = new AlignmentContext(location, new ReadPileup(location, pooledPile));
+                pooledPile = null;
+            }
+        }
+    }
+
+    /**
+     * Should the current base of a read go into the pileup at pos?
+     */
+    private boolean includeInPileup(final AlignmentStateMachine state, final long pos) {
+        final CigarOperator op = state.getCigarOperator();
+        if (!includeReadsWithNsAtLoci && op == CigarOperator.N) {
+            return false;
+        }
+        return !dontIncludeReadInPileup(state.getRead(), pos) && (includeReadsWithDeletionAtLoci || op != CigarOperator.D);
+    }
+
     /**
      * Should this read be excluded from the pileup?
      *
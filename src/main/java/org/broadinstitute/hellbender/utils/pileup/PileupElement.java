@@ -27,12 +27,13 @@ public final class PileupElement {
     public static final byte T_FOLLOWED_BY_INSERTION_BASE = (byte) 89;
     public static final byte G_FOLLOWED_BY_INSERTION_BASE = (byte) 90;
 
-    private final GATKRead read;         // the read this base belongs to
-    private final int offset;            // the offset in the bases array for this base
+    // not final only so that a PileupElementPool can reuse elements
+    private GATKRead read;         // the read this base belongs to
+    private int offset;            // the offset in the bases array for this base
 
-    private final CigarElement currentCigarElement;
-    private final int currentCigarOffset;
-    private final int offsetInCurrentCigar;
+    private CigarElement currentCigarElement;
+    private int currentCigarOffset;
+    private int offsetInCurrentCigar;
 
     /**
      * Create a new pileup element
@@ -49,6 +50,18 @@ public final class PileupElement {
                          final CigarElement currentElement,
                          final int currentCigarOffset,
                          final int offsetInCurrentCigar) {
+        set(read, baseOffset, currentElement, currentCigarOffset, offsetInCurrentCigar);
+    }
+
+    /**
+     * Points this element to another base. Only for {@link PileupElementPool}, which reuses elements that are no
+     * longer referenced by any pileup; the arguments are as in the constructor.
+     */
+    void set(final GATKRead read,
+             final int baseOffset,
+             final CigarElement currentElement,
+             final int currentCigarOffset,
+             final int offsetInCurrentCigar) {
         Utils.nonNull(read, "read is null");
         Utils.nonNull(currentElement, "currentElement is null");
         Utils.validIndex(baseOffset, read.getLength());
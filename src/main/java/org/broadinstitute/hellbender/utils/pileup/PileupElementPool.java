@@ -0,0 +1,77 @@
+package org.broadinstitute.hellbender.utils.pileup;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.locusiterator.AlignmentStateMachine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Pool of {@link PileupElement}s and of the lists that hold them, so that a
+ * {@link org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState} traversing high-depth data can
+ * build the pileup of each locus without allocating a new element per read per locus.
+ *
+ * The elements and list of a pileup made from the pool are reused once the pileup is passed to {@link #release},
+ * so neither the pileup nor any of its elements (including those in pileups derived from it, eg. by
+ * {@link ReadPileup#makeFilteredPileup}) may be used after that. Pileups that are never released are simply
+ * garbage collected.
+ *
+ * Not thread-safe.
+ */
+public final class PileupElementPool {
+
+    private final Deque<PileupElement> freeElements = new ArrayDeque<>();
+    private final Deque<PooledList> freeLists = new ArrayDeque<>();
+
+    /**
+     * Marks the lists we hand out, so that we never take back elements from a pileup we didn't make
+     */
+    private static final class PooledList extends ArrayList<PileupElement> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * @return an empty list for the elements of a new pileup
+     */
+    public List<PileupElement> newElementList() {
+        final PooledList list = freeLists.pollFirst();
+        return list != null ? list : new PooledList();
+    }
+
+    /**
+     * Equivalent to {@link AlignmentStateMachine#makePileupElement()}, but reusing a released element if possible
+     *
+     * @param state the current alignment state of a read, which can't be an edge
+     * @return a pileup element for the current state of the read
+     */
+    public PileupElement newElement(final AlignmentStateMachine state) {
+        Utils.validate(!(state.isLeftEdge() || state.isRightEdge()), "Cannot make a pileup element from an edge alignment state");
+        final PileupElement element = freeElements.pollFirst();
+        if ( element == null ) {
+            return state.makePileupElement();
+        }
+        element.set(state.getRead(), state.getReadOffset(), state.getCurrentCigarElement(),
+                state.getCurrentCigarElementOffset(), state.getOffsetIntoCurrentCigarElement());
+        return element;
+    }
+
+    /**
+     * Returns the elements and list of a pileup to the pool. Pileups that were not made with a list from
+     * {@link #newElementList()} are ignored, as are pileups already released.
+     *
+     * @param pileup a pileup that will no longer be used
+     */
+    public void release(final ReadPileup pileup) {
+        Utils.nonNull(pileup);
+        final List<PileupElement> elements = pileup.getElements();
+        if ( ! (elements instanceof PooledList) || elements.isEmpty() ) {
+            return;
+        }
+        freeElements.addAll(elements);
+        // clearing the list makes a second release of the same pileup a no-op
+        elements.clear();
+        freeLists.addFirst((PooledList) elements);
+    }
+}
@@ -426,6 +426,13 @@ public class ReadPileup implements Iterable<PileupElement> {
         return getElementStream().map(pe -> pe.getRead()).collect(Collectors.toList());
     }
 
+    /**
+     * @return the list of elements of this pileup itself (not a copy), for {@link PileupElementPool}
+     */
+    List<PileupElement> getElements() {
+        return pileupElements;
+    }
+
     private Stream<PileupElement> getElementStream() {
         return pileupElements.stream();
     }
@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.utils.read;
 
 import htsjdk.samtools.SAMFileWriter;
+import org.broadinstitute.hellbender.utils.instrumentation.Instrumentation;
+import org.broadinstitute.hellbender.utils.instrumentation.PhaseTimer;
 
 /**
  * A GATKRead writer that writes to a SAM/BAM file.
@@ -10,6 +12,8 @@ import htsjdk.samtools.SAMFileWriter;
  */
 public final class SAMFileGATKReadWriter implements GATKReadWriter {
 
+    private static final PhaseTimer ENCODE_TIMER = Instrumentation.timer("SAMFileGATKReadWriter.addRead");
+
     private final SAMFileWriter samWriter;
 
     public SAMFileGATKReadWriter( final SAMFileWriter samWriter ) {
@@ -18,7 +22,12 @@ public final class SAMFileGATKReadWriter implements GATKReadWriter {
 
     @Override
     public void addRead( GATKRead read ) {
-        samWriter.addAlignment(read.convertToSAMRecord(samWriter.getFileHeader()));
+        final long start = ENCODE_TIMER.start();
+        try {
+            samWriter.addAlignment(read.convertToSAMRecord(samWriter.getFileHeader()));
+        } finally {
+            ENCODE_TIMER.stop(start);
+        }
     }
 
     @Override
@@ -1,14 +1,10 @@
 package org.broadinstitute.hellbender.utils.read.markduplicates;
 
-import htsjdk.samtools.SAMFileHeader;
-import org.broadinstitute.hellbender.utils.read.GATKRead;
-import org.broadinstitute.hellbender.utils.read.ReadUtils;
-
 /**
  * Struct-like class to store information about the paired reads for mark duplicates.
  */
 public class PairedEnds implements OpticalDuplicateFinder.PhysicalLocation {
-  private GATKRead first, second;
+  private ReadSummary first, second;
 
   // Information used to detect optical dupes
   public short readGroup = -1;
@@ -16,17 +12,17 @@ public class PairedEnds implements OpticalDuplicateFinder.PhysicalLocation {
   public short x = -1, y = -1;
   public short libraryId = -1;
 
-  PairedEnds(final GATKRead first) {
+  PairedEnds(final ReadSummary first) {
     this.first = first;
   }
 
-  public static PairedEnds of(final GATKRead first) {
+  public static PairedEnds of(final ReadSummary first) {
     return new PairedEnds(first);
   }
 
-  public PairedEnds and(final GATKRead second) {
+  public PairedEnds and(final ReadSummary second) {
     if (second != null &&
-        ReadUtils.getStrandedUnclippedStart(first) > ReadUtils.getStrandedUnclippedStart(second)) {
+        first.getStrandedUnclippedStart() > second.getStrandedUnclippedStart()) {
       this.second = this.first;
       this.first = second;
     } else {
@@ -35,24 +31,27 @@ public class PairedEnds implements OpticalDuplicateFinder.PhysicalLocation {
     return this;
   }
 
-  public String key(final SAMFileHeader header) {
-    return ReadsKey.keyForPairedEnds(header, first, second);
+  public ReadsKey key() {
+    return ReadsKey.ofPairedEnds(first, second);
   }
 
-  public String keyForFragment(final SAMFileHeader header) {
-    return ReadsKey.keyForFragment(header, first);
+  public ReadsKey keyForFragment() {
+    return ReadsKey.ofFragment(first);
   }
 
-  public GATKRead first() {
+  public ReadSummary first() {
     return first;
   }
 
-  public GATKRead second() {
+  public ReadSummary second() {
     return second;
   }
 
-  public int score(final MarkDuplicatesScoringStrategy scoringStrategy) {
-    return scoringStrategy.score(first) + scoringStrategy.score(second);
+  /**
+   * The sum of the scores of both ends, which must be present.
+   */
+  public int score() {
+    return first.getScore() + second.getScore();
   }
 
   @Override
@@ -84,18 +83,6 @@ public class PairedEnds implements OpticalDuplicateFinder.PhysicalLocation {
 
   @Override
   public void setLibraryId(final short libraryId) { this.libraryId = libraryId; }
-  /**
-   * returns a deep(ish) copy of the GATK reads in the PairedEnds.
-   * TODO: This is only deep for the Google Model read, GATKRead copy() isn't deep for
-   * TODO: for the SAMRecord backed read.
-   * @return a new deep copy
-   */
-  public PairedEnds copy() {
-    if (second == null) {
-      return new PairedEnds(first.copy());
-    }
-    return new PairedEnds(first.copy()).and(second.copy());
-  }
 
   /**
    * Returns the pair orientation suitable for optical duplicates,
@@ -104,8 +91,8 @@ public class PairedEnds implements OpticalDuplicateFinder.PhysicalLocation {
    * Returns one of {@link ReadEnds#RR}, {@link ReadEnds#RF}, {@link ReadEnds#FR}, {@link ReadEnds#FF}
    */
   public byte getOrientationForOpticalDuplicates() {
-    final GATKRead read1;
-    final GATKRead read2;
+    final ReadSummary read1;
+    final ReadSummary read2;
     if (first.isFirstOfPair()){
       read1 = first;
       read2 = second;
@@ -0,0 +1,223 @@
+package org.broadinstitute.hellbender.utils.read.markduplicates;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadConstants;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.Comparator;
+
+/**
+ * The fields of a read that mark duplicates needs, without its bases, qualities or attributes.
+ *
+ * Summaries are what the Spark mark duplicates pipeline moves between machines: they carry the index of the read
+ * they describe, so that the duplicate marks they lead to can be applied back to the reads without shuffling them.
+ */
+public final class ReadSummary {
+
+    /**
+     * Value of {@link #getReadGroupIndex()} and {@link #getLibraryId()} for reads with no read group or library in the header.
+     */
+    public static final short UNKNOWN = -1;
+
+    /**
+     * Orders summaries like {@link org.broadinstitute.hellbender.utils.read.ReadCoordinateComparator} orders the reads
+     * they describe, provided the reads are mapped and not marked as duplicates.
+     */
+    public static final Comparator<ReadSummary> COORDINATE_ORDER = ReadSummary::compareCoordinates;
+
+    private final long index;
+    private final String name;
+    private final short readGroupIndex;
+    private final short libraryId;
+    private final int flags;
+    private final boolean reverseStrand;
+    private final int referenceIndex;
+    private final int start;
+    private final int strandedUnclippedStart;
+    private final int mappingQuality;
+    private final int mateReferenceIndex;
+    private final int mateStart;
+    private final int fragmentLength;
+    private final int score;
+
+    private ReadSummary(final GATKRead read, final long index, final SAMFileHeader header, final short readGroupIndex,
+                        final short libraryId, final MarkDuplicatesScoringStrategy scoringStrategy) {
+        this.index = index;
+        this.name = read.getName();
+        this.readGroupIndex = readGroupIndex;
+        this.libraryId = libraryId;
+        // the duplicate flag is about to be recomputed, so it must not take part in any comparison
+        this.flags = ReadUtils.getSAMFlagsForRead(read) & ~ReadUtils.SAM_DUPLICATE_READ_FLAG;
+        this.reverseStrand = read.isReverseStrand();
+        this.referenceIndex = ReadUtils.getReferenceIndex(read, header);
+        this.start = read.getStart();
+        this.strandedUnclippedStart = ReadUtils.getStrandedUnclippedStart(read);
+        this.mappingQuality = read.getMappingQuality();
+        this.mateReferenceIndex = read.isPaired() ? ReadUtils.getMateReferenceIndex(read, header) : SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX;
+        this.mateStart = read.isPaired() ? read.getMateStart() : ReadConstants.UNSET_POSITION;
+        this.fragmentLength = read.getFragmentLength();
+        this.score = scoringStrategy.score(read);
+    }
+
+    /**
+     * Summarizes a read.
+     *
+     * @param read the read to summarize.
+     * @param index the index of the read, which identifies it when its duplicate marks are applied.
+     * @param header the header of the reads.
+     * @param readGroupIndex the index of the read group of the read in the header, or {@link #UNKNOWN}.
+     * @param libraryId an id of the library of the read, shared by all reads of that library, or {@link #UNKNOWN}.
+     * @param scoringStrategy the strategy used to score the read.
+     */
+    public static ReadSummary of(final GATKRead read, final long index, final SAMFileHeader header, final short readGroupIndex,
+                                 final short libraryId, final MarkDuplicatesScoringStrategy scoringStrategy) {
+        Utils.nonNull(read);
+        Utils.nonNull(header);
+        Utils.nonNull(scoringStrategy);
+        return new ReadSummary(read, index, header, readGroupIndex, libraryId, scoringStrategy);
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public short getReadGroupIndex() {
+        return readGroupIndex;
+    }
+
+    public short getLibraryId() {
+        return libraryId;
+    }
+
+    /**
+     * The SAM flags of the read, without {@link ReadUtils#SAM_DUPLICATE_READ_FLAG}.
+     */
+    public int getFlags() {
+        return flags;
+    }
+
+    public int getReferenceIndex() {
+        return referenceIndex;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * See {@link ReadUtils#getStrandedUnclippedStart(GATKRead)}.
+     */
+    public int getStrandedUnclippedStart() {
+        return strandedUnclippedStart;
+    }
+
+    public int getMappingQuality() {
+        return mappingQuality;
+    }
+
+    public int getMateReferenceIndex() {
+        return mateReferenceIndex;
+    }
+
+    public int getMateStart() {
+        return mateStart;
+    }
+
+    public int getFragmentLength() {
+        return fragmentLength;
+    }
+
+    /**
+     * The score of the read according to the {@link MarkDuplicatesScoringStrategy} it was summarized with.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isReverseStrand() {
+        return reverseStrand;
+    }
+
+    public boolean isPaired() {
+        return hasFlag(ReadUtils.SAM_READ_PAIRED_FLAG);
+    }
+
+    public boolean isProperlyPaired() {
+        return hasFlag(ReadUtils.SAM_PROPER_PAIR_FLAG);
+    }
+
+    public boolean isFirstOfPair() {
+        return hasFlag(ReadUtils.SAM_FIRST_OF_PAIR_FLAG);
+    }
+
+    public boolean isSecondaryAlignment() {
+        return hasFlag(ReadUtils.SAM_NOT_PRIMARY_ALIGNMENT_FLAG);
+    }
+
+    public boolean isSupplementaryAlignment() {
+        return hasFlag(ReadUtils.SAM_SUPPLEMENTARY_ALIGNMENT_FLAG);
+    }
+
+    public boolean failsVendorQualityCheck() {
+        return hasFlag(ReadUtils.SAM_READ_FAILS_VENDOR_QUALITY_CHECK_FLAG);
+    }
+
+    /**
+     * See {@link ReadUtils#readHasMappedMate(GATKRead)}.
+     */
+    public boolean hasMappedMate() {
+        return isPaired() && !hasFlag(ReadUtils.SAM_MATE_UNMAPPED_FLAG);
+    }
+
+    private boolean hasFlag(final int flag) {
+        return (flags & flag) != 0;
+    }
+
+    private static int compareCoordinates(final ReadSummary first, final ReadSummary second) {
+        int result;
+        if (first.referenceIndex == SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX) {
+            result = second.referenceIndex == SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX ? 0 : 1;
+        } else if (second.referenceIndex == SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX) {
+            result = -1;
+        } else if (first.referenceIndex != second.referenceIndex) {
+            result = first.referenceIndex - second.referenceIndex;
+        } else {
+            result = Integer.compare(first.start, second.start);
+        }
+        if (result != 0) {
+            return result;
+        }
+
+        if (first.reverseStrand != second.reverseStrand) {
+            return first.reverseStrand ? 1 : -1;
+        }
+
+        if (first.name != null && second.name != null) {
+            result = first.name.compareTo(second.name);
+            if (result != 0) { return result; }
+        }
+        result = Integer.compare(first.flags, second.flags);
+        if (result != 0) { return result; }
+        result = Integer.compare(first.mappingQuality, second.mappingQuality);
+        if (result != 0) { return result; }
+        if (first.isPaired() && second.isPaired()) {
+            result = Integer.compare(first.mateReferenceIndex, second.mateReferenceIndex);
+            if (result != 0) { return result; }
+            result = Integer.compare(first.mateStart, second.mateStart);
+            if (result != 0) { return result; }
+        }
+        return Integer.compare(first.fragmentLength, second.fragmentLength);
+    }
+
+    @Override
+    public String toString() {
+        return "ReadSummary{" + name + " #" + index + " at " + referenceIndex + ":" + start + "}";
+    }
+}
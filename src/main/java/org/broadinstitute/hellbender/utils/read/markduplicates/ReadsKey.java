@@ -6,6 +6,10 @@ import org.broadinstitute.hellbender.utils.read.ReadUtils;
 
 /**
  * Encodes a unique key for read, read pairs and fragments. Used to identify duplicates for MarkDuplicatesGATK.
+ *
+ * Keys are built from {@link ReadSummary}s and hold the library, position and strand of the reads in a few
+ * fixed-width fields, so that they are cheap to shuffle. {@link #keyForFragment(SAMFileHeader, GATKRead)} makes
+ * the equivalent string key of a fragment directly from a read.
  */
 public final class ReadsKey {
 
@@ -13,58 +17,111 @@ public final class ReadsKey {
 
     private static final String PAIRED_ENDS_PREFIX = "p|";
 
+    private static final byte FRAGMENT = 0;
+    private static final byte PAIRED_ENDS = 1;
+    private static final byte UNPAIRED_END = 2;
+
+    private final byte type;
+    private final short libraryId;
+    private final int firstReferenceIndex;
+    private final int firstStart;
+    private final boolean firstReverseStrand;
+    private final int secondReferenceIndex;
+    private final int secondStart;
+    private final boolean secondReverseStrand;
+
+    private ReadsKey(final byte type, final ReadSummary first, final ReadSummary second) {
+        this.type = type;
+        this.libraryId = first.getLibraryId();
+        this.firstReferenceIndex = first.getReferenceIndex();
+        this.firstStart = first.getStrandedUnclippedStart();
+        this.firstReverseStrand = first.isReverseStrand();
+        this.secondReferenceIndex = second != null ? second.getReferenceIndex() : 0;
+        this.secondStart = second != null ? second.getStrandedUnclippedStart() : 0;
+        this.secondReverseStrand = second != null && second.isReverseStrand();
+    }
+
     /**
-     * Makes a unique key for the fragment.
+     * Makes a unique key for the fragment, equivalent to {@link #keyForFragment(SAMFileHeader, GATKRead)}.
      */
-    public static String keyForFragment(final SAMFileHeader header, final GATKRead read) {
-        return FRAGMENT_PREFIX + subkeyForFragment(header, read);
+    public static ReadsKey ofFragment(final ReadSummary read) {
+        return new ReadsKey(FRAGMENT, read, null);
     }
 
     /**
-     * Makes a unique key for the fragment (excluding the prefix).
+     * Makes a unique key for the paired reads. The second read may be {@code null} for an end whose mate is missing.
      */
-    private static String subkeyForFragment(final SAMFileHeader header, final GATKRead read) {
-        final String library = ReadUtils.getLibrary(read, header);
-
-        return String.format(
-                "%s|%d|%d|%s",
-                library != null ? library : "-",
-                ReadUtils.getReferenceIndex(read, header),
-                ReadUtils.getStrandedUnclippedStart(read),
-                read.isReverseStrand() ? "r" : "f");
+    public static ReadsKey ofPairedEnds(final ReadSummary first, final ReadSummary second) {
+        return new ReadsKey(second == null ? UNPAIRED_END : PAIRED_ENDS, first, second);
     }
 
     /**
-     * Makes a unique key for the paired reads.
+     * Returns true if this is a fragment key.
      */
-    public static String keyForPairedEnds(final SAMFileHeader header, final GATKRead first, final GATKRead second) {
-        final String key = subkeyForFragment(header, first);
-        if (second == null) {
-            return PAIRED_ENDS_PREFIX + key;
+    public boolean isFragment() {
+        return type == FRAGMENT;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
         }
+        final ReadsKey other = (ReadsKey) o;
+        return type == other.type && libraryId == other.libraryId
+                && firstReferenceIndex == other.firstReferenceIndex && firstStart == other.firstStart
+                && firstReverseStrand == other.firstReverseStrand
+                && secondReferenceIndex == other.secondReferenceIndex && secondStart == other.secondStart
+                && secondReverseStrand == other.secondReverseStrand;
+    }
 
-        return String.format(
-                PAIRED_ENDS_PREFIX + "%s|%d|%d|%s",
-                key,
-                ReadUtils.getReferenceIndex(second, header),
-                ReadUtils.getStrandedUnclippedStart(second),
-                second.isReverseStrand() ? "r" : "f");
+    @Override
+    public int hashCode() {
+        int result = type;
+        result = 31 * result + libraryId;
+        result = 31 * result + firstReferenceIndex;
+        result = 31 * result + firstStart;
+        result = 31 * result + (firstReverseStrand ? 1 : 0);
+        result = 31 * result + secondReferenceIndex;
+        result = 31 * result + secondStart;
+        result = 31 * result + (secondReverseStrand ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final String first = String.format("%d|%d|%d|%s", libraryId, firstReferenceIndex, firstStart, firstReverseStrand ? "r" : "f");
+        switch (type) {
+            case FRAGMENT:
+                return FRAGMENT_PREFIX + first;
+            case UNPAIRED_END:
+                return PAIRED_ENDS_PREFIX + first;
+            default:
+                return String.format(PAIRED_ENDS_PREFIX + "%s|%d|%d|%s", first, secondReferenceIndex, secondStart, secondReverseStrand ? "r" : "f");
+        }
     }
 
     /**
-     * Makes a unique key for the read.
+     * Makes a unique key for the fragment.
      */
-    public static String keyForRead(final SAMFileHeader header, final GATKRead read) {
-        return String.format(
-                "%s|%s",
-                read.getReadGroup(),
-                read.getName());
+    public static String keyForFragment(final SAMFileHeader header, final GATKRead read) {
+        return FRAGMENT_PREFIX + subkeyForFragment(header, read);
     }
 
     /**
-     * Returns true if the key is a fragment key.
+     * Makes a unique key for the fragment (excluding the prefix).
      */
-    public static boolean isFragment(String key) {
-        return key.startsWith(FRAGMENT_PREFIX);
+    private static String subkeyForFragment(final SAMFileHeader header, final GATKRead read) {
+        final String library = ReadUtils.getLibrary(read, header);
+
+        return String.format(
+                "%s|%d|%d|%s",
+                library != null ? library : "-",
+                ReadUtils.getReferenceIndex(read, header),
+                ReadUtils.getStrandedUnclippedStart(read),
+                read.isReverseStrand() ? "r" : "f");
     }
 }
@@ -62,6 +62,13 @@ public final class BaseRecalibrationEngine implements Serializable {
 
     private RecalibrationTables recalTables;
 
+    /**
+     * Primitive accumulators for the tables updated for every base, indexed like the tables in recalTables
+     * (null for the read group table, which is derived in finalizeRecalibrationTables). Their counts are moved into
+     * recalTables whenever those are requested.
+     */
+    private final FlatRecalibrationTable[] flatTables;
+
     private SAMFileHeader readsHeader;
 
     /**
@@ -96,6 +103,13 @@ public final class BaseRecalibrationEngine implements Serializable {
             throw new UserException("Number of read groups must be >= 1, but is " + numReadGroups);
         }
         recalTables = new RecalibrationTables(covariates, numReadGroups);
+        flatTables = new FlatRecalibrationTable[recalTables.numTables()];
+        for ( int i = 0; i < flatTables.length; i++ ) {
+            final NestedIntegerArray<RecalDatum> table = recalTables.getTable(i);
+            if ( !recalTables.isReadGroupTable(table) ) {
+                flatTables[i] = new FlatRecalibrationTable(table.getDimensions());
+            }
+        }
         keyCache = new CovariateKeyCache();
         cachedEventTypes = recalArgs.computeIndelBQSRTables ? EventType.values() : new EventType[]{EventType.BASE_SUBSTITUTION};
     }
@@ -157,6 +171,7 @@ public final class BaseRecalibrationEngine implements Serializable {
      */
     public void finalizeData() {
         Utils.validate(!finalized, "FinalizeData() has already been called");
+        flushFlatTables();
         finalizeRecalibrationTables(recalTables);
         finalized = true;
     }
@@ -206,10 +221,42 @@ public final class BaseRecalibrationEngine implements Serializable {
         }
     }
 
+    /**
+     * Adds the data collected so far by another engine, created with the same arguments and header, into this one.
+     *
+     * This is the reduce step for running several engines on disjoint sets of reads in parallel. Observation and
+     * mismatch counts are added without recomputing reported qualities, so as long as every error fraction is a whole
+     * number (i.e. BAQ is off), the combined tables are exactly those a single engine would produce on all of the reads,
+     * regardless of how they were partitioned.
+     *
+     * @param other engine whose data to add; must not have been finalized and its counts are not modified
+     */
+    public void combine( final BaseRecalibrationEngine other ) {
+        Utils.nonNull(other);
+        Utils.validate(!finalized && !other.finalized, "Cannot combine engines after finalizeData() has been called");
+        Utils.validateArg(recalTables.numTables() == other.recalTables.numTables(), "Attempting to combine engines with different numbers of tables");
+
+        flushFlatTables();
+        final RecalibrationTables otherTables = other.getRecalibrationTables();
+        for ( int i = 0; i < recalTables.numTables(); i++ ) {
+            final NestedIntegerArray<RecalDatum> myTable = recalTables.getTable(i);
+            for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : otherTables.getTable(i).getAllLeaves() ) {
+                final RecalDatum myDatum = myTable.get(leaf.keys);
+                if ( myDatum == null ) {
+                    myTable.put(new RecalDatum(leaf.value), leaf.keys);
+                } else {
+                    myDatum.combineCounts(leaf.value);
+                }
+            }
+        }
+        numReadsProcessed += other.numReadsProcessed;
+    }
+
     /**
      * Get a possibly not-final recalibration table, to deal with distributed execution.
      */
     public RecalibrationTables getRecalibrationTables() {
+        flushFlatTables();
         return recalTables;
     }
 
@@ -235,6 +282,18 @@ public final class BaseRecalibrationEngine implements Serializable {
         return numReadsProcessed;
     }
 
+    /**
+     * Move the counts accumulated in the flat tables into the corresponding RecalDatum tables
+     */
+    private void flushFlatTables() {
+        for ( int i = 0; i < flatTables.length; i++ ) {
+            if ( flatTables[i] != null && !flatTables[i].isEmpty() ) {
+                flatTables[i].addTo(recalTables.getTable(i));
+                flatTables[i].clear();
+            }
+        }
+    }
+
     /**
      * Update the recalibration statistics using the information in recalInfo
      * @param recalInfo data structure holding information about the recalibration values for a single read
@@ -244,7 +303,7 @@ public final class BaseRecalibrationEngine implements Serializable {
 
         final GATKRead read = recalInfo.getRead();
         final ReadCovariates readCovariates = recalInfo.getCovariatesValues();
-        final NestedIntegerArray<RecalDatum> qualityScoreTable = recalTables.getQualityScoreTable();
+        final FlatRecalibrationTable qualityScoreTable = flatTables[RecalibrationTables.QUALITY_SCORE_TABLE_INDEX];
 
         final int nCovariates = covariates.size();
         final int nSpecialCovariates = covariates.numberOfSpecialCovariates();
@@ -261,12 +320,12 @@ public final class BaseRecalibrationEngine implements Serializable {
                     final int key0 = keys[0];
                     final int key1 = keys[1];
 
-                    RecalUtils.incrementDatumOrPutIfNecessary3keys(qualityScoreTable, qual, isError, key0, key1, eventIndex);
+                    qualityScoreTable.increment3Keys(qual, isError, key0, key1, eventIndex);
 
                     for (int i = nSpecialCovariates; i < nCovariates; i++) {
                         final int keyi = keys[i];
                         if (keyi >= 0) {
-                            RecalUtils.incrementDatumOrPutIfNecessary4keys(recalTables.getTable(i), qual, isError, key0, key1, keyi, eventIndex);
+                            flatTables[i].increment4Keys(qual, isError, key0, key1, keyi, eventIndex);
                         }
                     }
                 }
@@ -0,0 +1,190 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Accumulator for the observation and mismatch counts of one recalibration table, kept in flat primitive arrays
+ * rather than as a tree of {@link RecalDatum} objects.
+ *
+ * The keys of a cell are combined into a single long offset (as if the table were one dense array with the given
+ * dimensions) and the cells actually seen are stored in an open-addressing hash table with parallel
+ * {@code long[]}/{@code double[]}/{@code byte[]} columns. This avoids both the pointer chasing of
+ * {@link NestedIntegerArray} lookups and the allocation of one object per cell in the per-base update loop, while
+ * keeping the memory footprint proportional to the number of distinct cells (the full key space of e.g. the context
+ * covariate is far too large to allocate densely).
+ *
+ * Mismatches are accumulated exactly as {@link RecalDatum} does (scaled by {@link RecalDatum#MULTIPLIER}, one
+ * addition per observation) so that {@link #addTo(NestedIntegerArray)} produces the very same datums that updating
+ * the {@link RecalDatum} table directly would have.
+ *
+ * This class is not thread-safe.
+ */
+final class FlatRecalibrationTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final long EMPTY_SLOT = -1L;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final int[] dimensions;
+
+    // open addressing hash table: slot -> combined key and its counts
+    private long[] slotKeys;
+    private long[] numObservations;
+    private double[] scaledNumMismatches;
+    private byte[] reportedQuals;
+    private int size;
+
+    /**
+     * @param dimensions dimensions of the {@link NestedIntegerArray} whose counts this table accumulates (3 or 4 keys)
+     */
+    FlatRecalibrationTable(final int... dimensions) {
+        Utils.validateArg(dimensions.length == 3 || dimensions.length == 4, () -> "only 3 or 4 dimensions are supported but got " + dimensions.length);
+        long denseSize = 1L;
+        for ( final int dimension : dimensions ) {
+            Utils.validateArg(dimension > 0, "dimensions must be positive");
+            denseSize *= dimension;
+        }
+        Utils.validateArg(denseSize > 0 && denseSize < Long.MAX_VALUE, "dimensions are too large");
+        this.dimensions = Arrays.copyOf(dimensions, dimensions.length);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Adds one observation with the given error fraction to the cell (key0, key1, key2) of a 3 dimensional table.
+     *
+     * @throws IllegalArgumentException if any key is negative or too large for its dimension
+     */
+    void increment3Keys( final byte qual, final double isError, final int key0, final int key1, final int key2 ) {
+        // the bitwise or of the keys is negative if any of them is
+        if ( (key0 | key1 | key2) < 0 || key0 >= dimensions[0] || key1 >= dimensions[1] || key2 >= dimensions[2] ) {
+            throw keysOutOfRange(key0, key1, key2);
+        }
+        increment(((long) key0 * dimensions[1] + key1) * dimensions[2] + key2, qual, isError);
+    }
+
+    /**
+     * Adds one observation with the given error fraction to the cell (key0, key1, key2, key3) of a 4 dimensional table.
+     *
+     * @throws IllegalArgumentException if any key is negative or too large for its dimension
+     */
+    void increment4Keys( final byte qual, final double isError, final int key0, final int key1, final int key2, final int key3 ) {
+        if ( (key0 | key1 | key2 | key3) < 0 || key0 >= dimensions[0] || key1 >= dimensions[1] || key2 >= dimensions[2] || key3 >= dimensions[3] ) {
+            throw keysOutOfRange(key0, key1, key2, key3);
+        }
+        increment((((long) key0 * dimensions[1] + key1) * dimensions[2] + key2) * dimensions[3] + key3, qual, isError);
+    }
+
+    private IllegalArgumentException keysOutOfRange( final int... keys ) {
+        return new IllegalArgumentException("Keys " + Arrays.toString(keys) + " are out of range for dimensions " + Arrays.toString(dimensions));
+    }
+
+    private void increment( final long key, final byte qual, final double isError ) {
+        int slot = findSlot(key);
+        if ( slotKeys[slot] == EMPTY_SLOT ) {
+            if ( (size + 1) * 2 > slotKeys.length ) {
+                grow();
+                slot = findSlot(key);
+            }
+            slotKeys[slot] = key;
+            reportedQuals[slot] = qual;
+            size++;
+        }
+        numObservations[slot]++;
+        scaledNumMismatches[slot] += (isError * RecalDatum.MULTIPLIER);
+    }
+
+    /**
+     * @return the number of distinct cells with at least one observation
+     */
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the accumulated counts into the given table, creating {@link RecalDatum}s where necessary.
+     *
+     * @param table table with the same dimensions as this one
+     */
+    void addTo( final NestedIntegerArray<RecalDatum> table ) {
+        Utils.nonNull(table);
+        Utils.validateArg(Arrays.equals(table.getDimensions(), dimensions), "table dimensions do not match");
+
+        final int[] keys = new int[dimensions.length];
+        for ( int slot = 0; slot < slotKeys.length; slot++ ) {
+            if ( slotKeys[slot] == EMPTY_SLOT ) {
+                continue;
+            }
+            long key = slotKeys[slot];
+            for ( int i = dimensions.length - 1; i >= 0; i-- ) {
+                keys[i] = (int) (key % dimensions[i]);
+                key /= dimensions[i];
+            }
+            RecalDatum datum = table.get(keys);
+            if ( datum == null ) {
+                datum = new RecalDatum(0L, 0.0, reportedQuals[slot]);
+                table.put(datum, keys);
+            }
+            datum.incrementScaled(numObservations[slot], scaledNumMismatches[slot]);
+        }
+    }
+
+    /**
+     * Removes all counts from this table.
+     */
+    void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private int findSlot( final long key ) {
+        final int mask = slotKeys.length - 1;
+        int slot = hash(key) & mask;
+        while ( slotKeys[slot] != EMPTY_SLOT && slotKeys[slot] != key ) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash( final long key ) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void allocate( final int capacity ) {
+        slotKeys = new long[capacity];
+        Arrays.fill(slotKeys, EMPTY_SLOT);
+        numObservations = new long[capacity];
+        scaledNumMismatches = new double[capacity];
+        reportedQuals = new byte[capacity];
+        size = 0;
+    }
+
+    /**
+     * Doubles the capacity of the hash table, rehashing all cells
+     */
+    private void grow() {
+        final long[] oldKeys = slotKeys;
+        final long[] oldObservations = numObservations;
+        final double[] oldMismatches = scaledNumMismatches;
+        final byte[] oldQuals = reportedQuals;
+
+        allocate(oldKeys.length * 2);
+        for ( int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++ ) {
+            if ( oldKeys[oldSlot] != EMPTY_SLOT ) {
+                final int slot = findSlot(oldKeys[oldSlot]);
+                slotKeys[slot] = oldKeys[oldSlot];
+                numObservations[slot] = oldObservations[oldSlot];
+                scaledNumMismatches[slot] = oldMismatches[oldSlot];
+                reportedQuals[slot] = oldQuals[oldSlot];
+                size++;
+            }
+        }
+    }
+}
@@ -16,7 +16,7 @@ public final class RecalDatum implements Serializable {
     public static final byte MAX_RECALIBRATED_Q_SCORE = SAMUtils.MAX_PHRED_SCORE;
     private static final double UNINITIALIZED = -1.0;
     private static final long serialVersionUID = 1L;
-    private static final double MULTIPLIER = 100000.0;  //See discussion in numMismatches about what the multiplier is.
+    static final double MULTIPLIER = 100000.0;  //See discussion in numMismatches about what the multiplier is.
 
     /**
      * estimated reported quality score based on combined data's individual q-reporteds and number of observations
@@ -98,6 +98,21 @@ public final class RecalDatum implements Serializable {
         empiricalQuality = UNINITIALIZED;
     }
 
+    /**
+     * Add in the observation and mismatch counts from other, which must hold data for the same reported quality.
+     *
+     * Unlike {@link #combine(RecalDatum)} the estimated reported quality is left untouched, so that counts accumulated
+     * in several pieces (e.g. by different threads) add up to exactly the same datum as if they had been accumulated
+     * in one.
+     *
+     * @param other  RecalDatum whose counts to add
+     */
+    public void combineCounts(final RecalDatum other) {
+        numObservations += other.numObservations;
+        numMismatches += other.numMismatches;
+        empiricalQuality = UNINITIALIZED;
+    }
+
     public void setEstimatedQReported(final double estimatedQReported) {
         if ( estimatedQReported < 0 ) throw new IllegalArgumentException("estimatedQReported < 0");
         if ( Double.isInfinite(estimatedQReported) ) throw new IllegalArgumentException("estimatedQReported is infinite");
@@ -216,6 +231,16 @@ public final class RecalDatum implements Serializable {
         empiricalQuality = UNINITIALIZED;
     }
 
+    /**
+     * Adds observations and mismatches, the latter already scaled by {@link #MULTIPLIER} (as accumulated by
+     * {@link FlatRecalibrationTable}), so that no precision is lost converting back and forth.
+     */
+    final void incrementScaled(final long incObservations, final double incScaledMismatches) {
+        numObservations += incObservations;
+        numMismatches += incScaledMismatches;
+        empiricalQuality = UNINITIALIZED;
+    }
+
     public final void increment(final boolean isError) {
         increment(1, isError ? 1.0 : 0.0);
     }
@@ -21,6 +21,11 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
     private final int eventDimension = EventType.values().length;
     private final int numReadGroups;
 
+    /**
+     * Position of the quality score table in the iteration order of the tables (and for {@link #getTable(int)})
+     */
+    public static final int QUALITY_SCORE_TABLE_INDEX = 1;
+
     final StandardCovariateList covariates;  // save the covariates this was created with
 
     //These two tables are special
@@ -0,0 +1,296 @@
+package org.broadinstitute.hellbender.utils.reference;
+
+import htsjdk.samtools.SAMException;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only, memory-mapped view of a reference in the UCSC .2bit format
+ * (see <a href="https://genome.ucsc.edu/FAQ/FAQformat.html#format7">the format description</a>).
+ *
+ * Opening a file maps it into memory and reads only the sequence index and the N-blocks of each sequence, so it is
+ * fast regardless of the size of the reference. Queries unpack the requested bases straight from the mapped pages
+ * into the returned array; the operating system shares those pages between all readers of the same file.
+ *
+ * Bases are returned upper-cased, with every position covered by an N-block returned as N (soft-masking is ignored),
+ * which is what {@link org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile} returns by default
+ * for the FASTA the file was created from.
+ *
+ * Both version 0 (32-bit offsets) and version 1 (64-bit offsets) files in either byte order are supported.
+ *
+ * Queries don't modify any state, so a single instance can be shared by any number of threads.
+ */
+public final class TwoBitReference implements AutoCloseable {
+
+    public static final String TWO_BIT_EXTENSION = ".2bit";
+
+    static final int SIGNATURE = 0x1A412743;
+    static final int HEADER_SIZE = 16;
+
+    // 2-bit codes of the format, in code order
+    static final byte[] CODE_TO_BASE = {'T', 'C', 'A', 'G'};
+
+    // a file is mapped in segments of 1GB, as a single MappedByteBuffer cannot exceed 2GB
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    // the 4 bases packed in each possible byte value, at index 4 * (byte & 0xFF)
+    private static final byte[] UNPACKED_BYTES = new byte[256 * 4];
+    static {
+        for ( int b = 0; b < 256; b++ ) {
+            for ( int i = 0; i < 4; i++ ) {
+                UNPACKED_BYTES[4 * b + i] = CODE_TO_BASE[(b >>> (6 - 2 * i)) & 3];
+            }
+        }
+    }
+
+    private final Path path;
+    private final boolean littleEndian;
+    private final SAMSequenceDictionary sequenceDictionary;
+    private final Sequence[] sequences;
+    private final long size;
+    private volatile MappedByteBuffer[] segments;
+
+    /**
+     * Opens and maps the given .2bit file
+     *
+     * @param path the .2bit file
+     * @throws UserException.CouldNotReadInputFile if the file cannot be read
+     * @throws UserException.MalformedFile if the file is not a valid .2bit file
+     */
+    public TwoBitReference(final Path path) {
+        this.path = Utils.nonNull(path);
+        this.segments = map(path);
+        this.size = segments.length == 0 ? 0 : ((long) (segments.length - 1) << SEGMENT_SHIFT) + segments[segments.length - 1].capacity();
+
+        final int signature = readInt(0, true);
+        if ( signature == SIGNATURE ) {
+            littleEndian = true;
+        } else if ( Integer.reverseBytes(signature) == SIGNATURE ) {
+            littleEndian = false;
+        } else {
+            throw malformed("not a .2bit file");
+        }
+
+        final int version = readInt(4);
+        if ( version != 0 && version != 1 ) {
+            throw malformed("unsupported .2bit version " + version);
+        }
+        final int sequenceCount = readInt(8);
+        if ( sequenceCount < 0 ) {
+            throw malformed("invalid number of sequences");
+        }
+
+        sequences = new Sequence[sequenceCount];
+        final List<SAMSequenceRecord> records = new ArrayList<>(sequenceCount);
+        long indexOffset = HEADER_SIZE;
+        for ( int i = 0; i < sequenceCount; i++ ) {
+            final int nameSize = readByte(indexOffset) & 0xFF;
+            final byte[] name = new byte[nameSize];
+            for ( int j = 0; j < nameSize; j++ ) {
+                name[j] = readByte(indexOffset + 1 + j);
+            }
+            indexOffset += 1 + nameSize;
+            final long recordOffset = version == 0 ? readUnsignedInt(indexOffset) : readLong(indexOffset);
+            indexOffset += version == 0 ? 4 : 8;
+
+            sequences[i] = readSequence(new String(name, StandardCharsets.US_ASCII), recordOffset);
+            records.add(new SAMSequenceRecord(sequences[i].name, sequences[i].length));
+        }
+        sequenceDictionary = new SAMSequenceDictionary(records);
+    }
+
+    private static MappedByteBuffer[] map(final Path path) {
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+            final long size = channel.size();
+            final MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for ( int i = 0; i < segments.length; i++ ) {
+                final long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, 1L << SEGMENT_SHIFT));
+            }
+            // the mappings stay valid after the channel is closed
+            return segments;
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(path, "could not map .2bit reference", e);
+        }
+    }
+
+    private Sequence readSequence(final String name, final long recordOffset) {
+        long offset = recordOffset;
+        final long dnaSize = readUnsignedInt(offset);
+        if ( dnaSize > Integer.MAX_VALUE ) {
+            throw malformed("sequence " + name + " is too long");
+        }
+        final int nBlockCount = readInt(offset + 4);
+        if ( nBlockCount < 0 ) {
+            throw malformed("invalid number of N-blocks for sequence " + name);
+        }
+        offset += 8;
+
+        final int[] nBlockStarts = new int[nBlockCount];
+        final int[] nBlockEnds = new int[nBlockCount];
+        for ( int i = 0; i < nBlockCount; i++ ) {
+            nBlockStarts[i] = readInt(offset + 4L * i);
+            nBlockEnds[i] = nBlockStarts[i] + readInt(offset + 4L * (nBlockCount + i));
+            if ( nBlockStarts[i] < 0 || nBlockEnds[i] < nBlockStarts[i] || nBlockEnds[i] > dnaSize || (i > 0 && nBlockStarts[i] < nBlockEnds[i - 1]) ) {
+                throw malformed("invalid N-blocks for sequence " + name);
+            }
+        }
+        offset += 8L * nBlockCount;
+
+        // mask blocks are skipped along with the reserved word
+        final long maskBlockCount = readUnsignedInt(offset);
+        offset += 4 + 8 * maskBlockCount + 4;
+
+        if ( (dnaSize + 3) / 4 > size - offset ) {
+            throw malformed("sequence " + name + " is truncated");
+        }
+        return new Sequence(name, (int) dnaSize, offset, nBlockStarts, nBlockEnds);
+    }
+
+    /**
+     * @return the names and lengths of the sequences, in file order
+     */
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return sequenceDictionary;
+    }
+
+    /**
+     * Gets a subsequence of a sequence
+     *
+     * @param contig name of the sequence
+     * @param start 1-based, inclusive start
+     * @param stop 1-based, inclusive stop; may be start - 1 for an empty subsequence
+     * @return the upper-cased bases from start to stop, with all positions in N-blocks set to N
+     * @throws UserException.MissingContigInSequenceDictionary if there is no such sequence
+     * @throws SAMException if the subsequence extends beyond the end of the sequence
+     */
+    public ReferenceSequence getSubsequenceAt(final String contig, final long start, final long stop) {
+        final MappedByteBuffer[] segments = this.segments;
+        Utils.validate(segments != null, "reference is closed");
+        final int index = sequenceDictionary.getSequenceIndex(contig);
+        if ( index < 0 ) {
+            throw new UserException.MissingContigInSequenceDictionary(contig, sequenceDictionary);
+        }
+        final Sequence sequence = sequences[index];
+        Utils.validateArg(start >= 1, () -> "start must be at least 1 but was " + start);
+        Utils.validateArg(stop >= start - 1, () -> String.format("Asking for stop<start (%d < %d)", stop, start));
+        if ( stop > sequence.length ) {
+            throw new SAMException("Query asks for data past end of contig. Query contig " + contig + " start:" + start + " stop:" + stop + " contigLength:" + sequence.length);
+        }
+
+        final byte[] bases = new byte[(int) (stop - start + 1)];
+        long position = start - 1;
+        int i = 0;
+        while ( i < bases.length ) {
+            final long fileOffset = sequence.dnaOffset + (position >>> 2);
+            final int unpacked = (segments[(int) (fileOffset >>> SEGMENT_SHIFT)].get((int) (fileOffset & SEGMENT_MASK)) & 0xFF) << 2;
+            for ( int within = (int) (position & 3); within < 4 && i < bases.length; within++ ) {
+                bases[i++] = UNPACKED_BYTES[unpacked + within];
+                position++;
+            }
+        }
+        sequence.applyNBlocks(bases, (int) (start - 1));
+        return new ReferenceSequence(sequence.name, index, bases);
+    }
+
+    /**
+     * Releases the mapping. Queries are no longer allowed afterwards.
+     */
+    @Override
+    public void close() {
+        // a MappedByteBuffer cannot be unmapped explicitly; the memory is released once the buffers are collected
+        segments = null;
+    }
+
+    private UserException.MalformedFile malformed(final String message) {
+        return new UserException.MalformedFile(path.toUri().toString() + ": " + message);
+    }
+
+    private byte readByte(final long offset) {
+        if ( offset < 0 || offset >= size ) {
+            throw malformed("unexpected end of file");
+        }
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].get((int) (offset & SEGMENT_MASK));
+    }
+
+    private int readInt(final long offset) {
+        return readInt(offset, littleEndian);
+    }
+
+    private int readInt(final long offset, final boolean littleEndian) {
+        int value = 0;
+        for ( int i = 0; i < 4; i++ ) {
+            value |= (readByte(offset + i) & 0xFF) << (8 * (littleEndian ? i : 3 - i));
+        }
+        return value;
+    }
+
+    private long readUnsignedInt(final long offset) {
+        return readInt(offset) & 0xFFFFFFFFL;
+    }
+
+    private long readLong(final long offset) {
+        final long first = readUnsignedInt(offset);
+        final long second = readUnsignedInt(offset + 4);
+        final long value = littleEndian ? (second << 32) | first : (first << 32) | second;
+        if ( value < 0 ) {
+            throw malformed("invalid offset");
+        }
+        return value;
+    }
+
+    private static final class Sequence {
+        private final String name;
+        private final int length;
+        private final long dnaOffset;
+        // 0-based, half-open N-blocks, sorted and non-overlapping
+        private final int[] nBlockStarts;
+        private final int[] nBlockEnds;
+
+        private Sequence(final String name, final int length, final long dnaOffset, final int[] nBlockStarts, final int[] nBlockEnds) {
+            this.name = name;
+            this.length = length;
+            this.dnaOffset = dnaOffset;
+            this.nBlockStarts = nBlockStarts;
+            this.nBlockEnds = nBlockEnds;
+        }
+
+        /**
+         * Sets to N the bases covered by N-blocks
+         *
+         * @param bases bases of this sequence starting at the 0-based position offset
+         */
+        private void applyNBlocks(final byte[] bases, final int offset) {
+            final int end = offset + bases.length;
+            // first block ending after the offset
+            int low = 0;
+            int high = nBlockEnds.length;
+            while ( low < high ) {
+                final int middle = (low + high) >>> 1;
+                if ( nBlockEnds[middle] <= offset ) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            for ( int block = low; block < nBlockStarts.length && nBlockStarts[block] < end; block++ ) {
+                for ( int position = Math.max(nBlockStarts[block], offset); position < Math.min(nBlockEnds[block], end); position++ ) {
+                    bases[position - offset] = 'N';
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.broadinstitute.hellbender.utils.reference;
+
+import com.google.common.io.LittleEndianDataOutputStream;
+import htsjdk.samtools.reference.ReferenceSequence;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.util.StringUtil;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a reference in the UCSC .2bit format read by {@link TwoBitReference}.
+ *
+ * The bases are stored as {@link org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile} returns
+ * them by default: upper-cased and with IUPAC ambiguity codes converted to N. Runs of N are recorded as N-blocks and
+ * no mask blocks are written. The output is little-endian, and version 1 (64-bit offsets) is used only if the file
+ * would otherwise be too large for 32-bit offsets.
+ */
+public final class TwoBitReferenceWriter {
+
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final long MAX_VERSION_0_OFFSET = 0xFFFFFFFFL;
+
+    private static final byte[] BASE_TO_CODE = new byte[256];
+    static {
+        // N, and any other base, is stored as code 0 (T) and restored from the N-blocks
+        for ( int code = 0; code < TwoBitReference.CODE_TO_BASE.length; code++ ) {
+            BASE_TO_CODE[TwoBitReference.CODE_TO_BASE[code]] = (byte) code;
+        }
+    }
+
+    private TwoBitReferenceWriter() {}
+
+    /**
+     * Writes all sequences of a FASTA file to a .2bit file. The FASTA is read twice, once to lay out the output and
+     * once to write it, and only one sequence is held in memory at a time.
+     *
+     * @param fasta FASTA to convert, positioned at its first sequence
+     * @param output the .2bit file to write
+     * @throws UserException.BadInput if a sequence name is too long or a base is not a valid IUPAC code
+     */
+    public static void write(final ReferenceSequenceFile fasta, final Path output) {
+        Utils.nonNull(fasta);
+        Utils.nonNull(output);
+
+        final List<SequenceLayout> layouts = new ArrayList<>();
+        for ( ReferenceSequence sequence = fasta.nextSequence(); sequence != null; sequence = fasta.nextSequence() ) {
+            layouts.add(new SequenceLayout(sequence.getName(), normalizedBases(sequence)));
+        }
+
+        long indexSize = 0;
+        for ( final SequenceLayout layout : layouts ) {
+            indexSize += 1 + layout.name.length + 4;
+        }
+        final boolean useVersion1 = TwoBitReference.HEADER_SIZE + indexSize + layouts.stream().mapToLong(SequenceLayout::recordSize).sum() > MAX_VERSION_0_OFFSET;
+        long offset = TwoBitReference.HEADER_SIZE + indexSize + (useVersion1 ? 4L * layouts.size() : 0);
+
+        try ( final LittleEndianDataOutputStream out = new LittleEndianDataOutputStream(new BufferedOutputStream(Files.newOutputStream(output))) ) {
+            out.writeInt(TwoBitReference.SIGNATURE);
+            out.writeInt(useVersion1 ? 1 : 0);
+            out.writeInt(layouts.size());
+            out.writeInt(0);
+            for ( final SequenceLayout layout : layouts ) {
+                out.writeByte(layout.name.length);
+                out.write(layout.name);
+                if ( useVersion1 ) {
+                    out.writeLong(offset);
+                } else {
+                    out.writeInt((int) offset);
+                }
+                offset += layout.recordSize();
+            }
+
+            fasta.reset();
+            for ( final SequenceLayout layout : layouts ) {
+                final ReferenceSequence sequence = fasta.nextSequence();
+                Utils.validate(sequence != null && sequence.getName().equals(layout.sequenceName), "FASTA changed while it was being converted");
+                writeRecord(out, layout, normalizedBases(sequence));
+            }
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(output.toUri().toString(), "could not write .2bit reference", e);
+        }
+    }
+
+    private static byte[] normalizedBases(final ReferenceSequence sequence) {
+        final byte[] bases = sequence.getBases();
+        StringUtil.toUpperCase(bases);
+        return BaseUtils.convertIUPACtoN(bases, true, false);
+    }
+
+    private static void writeRecord(final LittleEndianDataOutputStream out, final SequenceLayout layout, final byte[] bases) throws IOException {
+        Utils.validate(bases.length == layout.length, "FASTA changed while it was being converted");
+        out.writeInt(bases.length);
+        out.writeInt(layout.nBlockStarts.size());
+        for ( final int start : layout.nBlockStarts ) {
+            out.writeInt(start);
+        }
+        for ( final int size : layout.nBlockSizes ) {
+            out.writeInt(size);
+        }
+        // no mask blocks, and the reserved word
+        out.writeInt(0);
+        out.writeInt(0);
+
+        final byte[] packed = new byte[(bases.length + 3) / 4];
+        for ( int i = 0; i < bases.length; i++ ) {
+            packed[i >> 2] |= BASE_TO_CODE[bases[i] & 0xFF] << (6 - 2 * (i & 3));
+        }
+        out.write(packed);
+    }
+
+    private static final class SequenceLayout {
+        private final String sequenceName;
+        private final byte[] name;
+        private final int length;
+        private final List<Integer> nBlockStarts = new ArrayList<>();
+        private final List<Integer> nBlockSizes = new ArrayList<>();
+
+        private SequenceLayout(final String sequenceName, final byte[] bases) {
+            this.sequenceName = sequenceName;
+            this.name = sequenceName.getBytes(StandardCharsets.US_ASCII);
+            if ( name.length > MAX_NAME_LENGTH ) {
+                throw new UserException.BadInput("Sequence name " + sequenceName + " is too long for the .2bit format");
+            }
+            this.length = bases.length;
+
+            int i = 0;
+            while ( i < bases.length ) {
+                if ( bases[i] != 'N' ) {
+                    i++;
+                    continue;
+                }
+                final int start = i;
+                while ( i < bases.length && bases[i] == 'N' ) {
+                    i++;
+                }
+                nBlockStarts.add(start);
+                nBlockSizes.add(i - start);
+            }
+        }
+
+        private long recordSize() {
+            return 4 + 4 + 8L * nBlockStarts.size() + 4 + 4 + (length + 3L) / 4;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Runs lists of independent tasks on a fixed pool of daemon threads, or on the calling thread if it has only one
+ * thread, and returns their results in task order, so callers get the same results regardless of the number of threads.
+ *
+ * The threads are not serialized: a deserialized runner runs its tasks on the calling thread.
+ */
+public final class ParallelTaskRunner implements AutoCloseable {
+
+    private final int numThreads;
+    private final String description;
+
+    // null if the tasks are run on the calling thread
+    private transient ExecutorService executor;
+
+    /**
+     * @param numThreads number of threads; 1 to run the tasks on the calling thread, one after another
+     * @param threadNamePrefix prefix of the names of the threads
+     * @param description what the tasks do, for error messages (eg., "assembly")
+     */
+    public ParallelTaskRunner(final int numThreads, final String threadNamePrefix, final String description) {
+        Utils.validateArg(numThreads >= 1, "numThreads must be >= 1 but got " + numThreads);
+        this.numThreads = numThreads;
+        this.description = Utils.nonNull(description);
+        executor = numThreads == 1 ? null : Executors.newFixedThreadPool(numThreads,
+                new ThreadFactoryBuilder().setNameFormat(Utils.nonNull(threadNamePrefix) + "-%d").setDaemon(true).build());
+    }
+
+    /**
+     * @return the number of threads the tasks are run on; 1 once the runner is closed
+     */
+    public int getNumThreads() {
+        return executor == null ? 1 : numThreads;
+    }
+
+    /**
+     * @return true if tasks are run on other threads than the calling thread
+     */
+    public boolean isParallel() {
+        return executor != null;
+    }
+
+    /**
+     * Runs tasks, in parallel if we have threads, and returns their results in task order
+     */
+    public <T> List<T> runAll(final List<Callable<T>> tasks) {
+        final List<T> results = new ArrayList<>(tasks.size());
+        if ( executor == null || tasks.size() < 2 ) {
+            for ( final Callable<T> task : tasks ) {
+                results.add(call(task));
+            }
+            return results;
+        }
+
+        final List<Future<T>> futures = tasks.stream().map(executor::submit).collect(Collectors.toList());
+        for ( final Future<T> future : futures ) {
+            results.add(getResult(future));
+        }
+        return results;
+    }
+
+    /**
+     * Runs tasks in order until one of them returns a non-null result, and returns that result (or null if none did).
+     *
+     * If we have threads, as many tasks as threads are run speculatively at a time, and the results of
+     * the tasks following the first that succeeds are discarded, so the result is the same as when run in order.
+     */
+    public <T> T runUntilFirstResult(final List<Callable<T>> tasks) {
+        if ( executor == null ) {
+            for ( final Callable<T> task : tasks ) {
+                final T result = call(task);
+                if ( result != null ) {
+                    return result;
+                }
+            }
+            return null;
+        }
+
+        for ( int batchStart = 0; batchStart < tasks.size(); batchStart += numThreads ) {
+            final List<Future<T>> batch = tasks.subList(batchStart, Math.min(batchStart + numThreads, tasks.size()))
+                    .stream().map(executor::submit).collect(Collectors.toList());
+            for ( int i = 0; i < batch.size(); i++ ) {
+                final T result = getResult(batch.get(i));
+                if ( result != null ) {
+                    batch.subList(i + 1, batch.size()).forEach(future -> future.cancel(true));
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops the threads, if any. Tasks are then run on the calling thread.
+     */
+    @Override
+    public void close() {
+        if ( executor != null ) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private <T> T call(final Callable<T> task) {
+        try {
+            return task.call();
+        } catch ( final RuntimeException e ) {
+            throw e;
+        } catch ( final Exception e ) {
+            throw new GATKException("Error during " + description, e);
+        }
+    }
+
+    private <T> T getResult(final Future<T> future) {
+        try {
+            return future.get();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted during " + description, e);
+        } catch ( final ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Error during " + description, e.getCause());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.utils.smithwaterman;
 
+import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.Cigar;
 import htsjdk.samtools.CigarElement;
 import htsjdk.samtools.CigarOperator;
@@ -16,6 +17,10 @@ import java.util.List;
 /**
  * Pairwise discrete smith-waterman alignment implemented in pure java
  *
+ * Only a band of diagonals around the two corners of the matrix is filled at first. The band is widened (up to the
+ * full matrix) until the best score inside of it is higher than any alignment leaving it could score, so the results
+ * are always those of the full matrix.
+ *
  * ************************************************************************
  * ****                    IMPORTANT NOTE:                             ****
  * ****  This class assumes that all bytes come from UPPERCASED chars! ****
@@ -25,7 +30,24 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
     private static final SmithWatermanJavaAligner ALIGNER = new SmithWatermanJavaAligner();
 
     /**
-     * return the stateless singleton instance of SmithWatermanJavaAligner
+     * Half width of the first band of diagonals we try, in addition to the diagonals between the two corners of the matrix
+     */
+    private static final int INITIAL_BAND_HALF_WIDTH = 16;
+
+    /**
+     * Largest matrices (in cells) each thread holds on to between alignments
+     */
+    private static final int MAX_RETAINED_MATRIX_SIZE = 1 << 21;
+
+    /**
+     * Scores further than this from zero could reach MATRIX_MIN_CUTOFF, in which case we don't use a band
+     */
+    private static final long MAX_BANDED_SCORE_MAGNITUDE = 50_000_000L;
+
+    private static final ThreadLocal<Matrix> MATRIX = ThreadLocal.withInitial(Matrix::new);
+
+    /**
+     * return the singleton instance of SmithWatermanJavaAligner, which is safe to use from several threads
      */
     public static SmithWatermanJavaAligner getInstance() {
         return ALIGNER;
@@ -42,8 +64,8 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
     }
 
     /**
-     * Create a new SW pairwise aligner, this has no state so instead of creating new instances, we create a singleton which is
-     * accessible via {@link #getInstance}
+     * Create a new SW pairwise aligner, this has no state (other than per-thread scratch matrices) so instead of creating
+     * new instances, we create a singleton which is accessible via {@link #getInstance}
      */
     private SmithWatermanJavaAligner(){}
 
@@ -76,65 +98,127 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
             return  new SWPairwiseAlignmentResult(AlignmentUtils.consolidateCigar(new Cigar(lce)), matchIndex);
         }
         else {
-            // run full Smith-Waterman
-            final int n = reference.length+1;
-            final int m = alternate.length+1;
-            final int[][] sw = new int[n][m];
-            final int[][] btrack=new int[n][m];
-
-            calculateMatrix(reference, alternate, sw, btrack, overhangStrategy, parameters);
-            return calculateCigar(sw, btrack, overhangStrategy); // length of the segment (continuous matches, insertions or deletions)
+            final Matrix matrix = MATRIX.get();
+            final SWPairwiseAlignmentResult result = calculateAlignment(reference, alternate, parameters, overhangStrategy, matrix, true);
+            matrix.trim();
+            return result;
         }
     }
 
     /**
-     * Calculates the SW matrices for the given sequences
+     * Aligns the alternate sequence to the reference sequence without first looking for an exact match
+     *
+     * @param useBand    whether to start with a band of the matrix, rather than directly filling the full matrix
+     */
+    @VisibleForTesting
+    static SmithWatermanAlignment alignWithoutSubstringSearch(final byte[] reference, final byte[] alternate, final SWParameters parameters,
+                                                               final SWOverhangStrategy overhangStrategy, final boolean useBand) {
+        return calculateAlignment(reference, alternate, parameters, overhangStrategy, new Matrix(), useBand);
+    }
+
+    private static SWPairwiseAlignmentResult calculateAlignment(final byte[] reference, final byte[] alternate, final SWParameters parameters,
+                                                                final SWOverhangStrategy overhangStrategy, final Matrix matrix, final boolean useBand) {
+        final int n = reference.length;
+        final int m = alternate.length;
+        if ( useBand && canUseBand(parameters, n, m) ) {
+            // the alignments we expect run close to the diagonals joining the two corners of the matrix, so
+            // first try a band around those, widening it until its result is provably the full matrix result
+            final int lowestDiagonal = Math.min(0, n - m);
+            final int highestDiagonal = Math.max(0, n - m);
+            for ( int halfWidth = INITIAL_BAND_HALF_WIDTH; lowestDiagonal - halfWidth > -m || highestDiagonal + halfWidth < n; halfWidth *= 2 ) {
+                matrix.resize(n, m, Math.max(-m, lowestDiagonal - halfWidth), Math.min(n, highestDiagonal + halfWidth));
+                calculateMatrix(reference, alternate, matrix, overhangStrategy, parameters);
+                final AlignmentEnd end = findAlignmentEnd(matrix, overhangStrategy);
+                if ( end.score > maxScoreOutsideBand(matrix, parameters) ) {
+                    return calculateCigar(matrix, end, overhangStrategy);
+                }
+            }
+        }
+
+        // run full Smith-Waterman
+        matrix.resize(n, m, -m, n);
+        calculateMatrix(reference, alternate, matrix, overhangStrategy, parameters);
+        return calculateCigar(matrix, findAlignmentEnd(matrix, overhangStrategy), overhangStrategy);
+    }
+
+    /**
+     * The band is only used when we can bound the score of every path leaving it: that needs a positive match value
+     * that is at least the mismatch penalty, non-positive gap penalties, and matrices small enough that no element
+     * can get near MATRIX_MIN_CUTOFF (which would otherwise make the banded and full matrices clamp differently)
+     */
+    private static boolean canUseBand(final SWParameters parameters, final int refLength, final int altLength) {
+        final int match = parameters.getMatchValue();
+        final long maxPenalty = Math.max(Math.max(Math.abs((long) parameters.getMismatchPenalty()), Math.abs((long) parameters.getGapOpenPenalty())),
+                Math.abs((long) parameters.getGapExtendPenalty()));
+        return match > 0 && parameters.getMismatchPenalty() <= match
+                && parameters.getGapOpenPenalty() <= 0 && parameters.getGapExtendPenalty() <= 0
+                && (refLength + altLength + 2L) * maxPenalty < MAX_BANDED_SCORE_MAGNITUDE;
+    }
+
+    /**
+     * Upper bound on the score of any path through the matrix that touches a cell outside of the band.
+     *
+     * Only matches score positively, and a path through the cell (i, j) can have at most min(i, j) matches before it
+     * and min(n - i, m - j) after it, ie. at most n - (i - j) matches when i > j and m - (j - i) otherwise. If the best
+     * score inside the band is higher than this, the full matrix has the same best score, reached by the same paths,
+     * and the banded matrix agrees with it on every cell those paths go through, so the CIGARs are identical.
+     */
+    private static long maxScoreOutsideBand(final Matrix matrix, final SWParameters parameters) {
+        long maxMatches = Long.MIN_VALUE;
+        if ( matrix.highestDiagonal < matrix.refLength ) {
+            maxMatches = Math.min(matrix.refLength - matrix.highestDiagonal - 1, matrix.altLength);
+        }
+        if ( matrix.lowestDiagonal > -matrix.altLength ) {
+            maxMatches = Math.max(maxMatches, Math.min(matrix.altLength + matrix.lowestDiagonal - 1, matrix.refLength));
+        }
+        return maxMatches == Long.MIN_VALUE ? Long.MIN_VALUE : maxMatches * parameters.getMatchValue();
+    }
+
+    /**
+     * Calculates the SW matrices for the given sequences, over the band of diagonals set up in the matrix
      * @param reference  ref sequence
      * @param alternate  alt sequence
-     * @param sw         the Smith-Waterman matrix to populate
-     * @param btrack     the back track matrix to populate
+     * @param matrix     the Smith-Waterman and back track matrices to populate
      * @param overhangStrategy    the strategy to use for dealing with overhangs
      * @param parameters the set of weights to use to configure the alignment
      */
-    private static void calculateMatrix(final byte[] reference, final byte[] alternate, final int[][] sw, final int[][] btrack,
+    private static void calculateMatrix(final byte[] reference, final byte[] alternate, final Matrix matrix,
                                         final SWOverhangStrategy overhangStrategy, final SWParameters parameters) {
         if ( reference.length == 0 || alternate.length == 0 ) {
             throw new IllegalArgumentException("Non-null, non-empty sequences are required for the Smith-Waterman calculation");
         }
 
-        final int ncol = sw[0].length;//alternate.length+1; formerly m
-        final int nrow = sw.length;// reference.length+1; formerly n
+        final int nrow = matrix.refLength + 1;
+        final int ncol = matrix.altLength + 1;
+        final int[] sw = matrix.sw;
+        final int[] btrack = matrix.btrack;
 
         final int MATRIX_MIN_CUTOFF = (int) -1.0e8;   // never let matrix elements drop below this cutoff
 
         final int lowInitValue= Integer.MIN_VALUE/2;
-        final int[] best_gap_v = new int[ncol+1];
-        Arrays.fill(best_gap_v, lowInitValue);
-        final int[] gap_size_v = new int[ncol+1];
-        final int[] best_gap_h = new int[nrow+1];
-        Arrays.fill(best_gap_h, lowInitValue);
-        final int[] gap_size_h = new int[nrow+1];
+        final int[] best_gap_v = matrix.bestGapV;
+        final int[] gap_size_v = matrix.gapSizeV;
+        Arrays.fill(best_gap_v, 0, ncol, lowInitValue);
+        Arrays.fill(gap_size_v, 0, ncol, 0);
 
         // we need to initialize the SW matrix with gap penalties if we want to keep track of indels at the edges of alignments
-        if ( overhangStrategy == SWOverhangStrategy.INDEL || overhangStrategy == SWOverhangStrategy.LEADING_INDEL ) {
-            // initialize the first row
-            final int[] topRow=sw[0];
-            topRow[1]= parameters.getGapOpenPenalty();
-            int currentValue = parameters.getGapOpenPenalty();
-            for ( int i = 2; i < topRow.length; i++ ) {
-                currentValue += parameters.getGapExtendPenalty();
-                topRow[i]=currentValue;
+        // (the buffers are reused, so the edges have to be written even when they are all zero)
+        final boolean penalizeOverhangs = overhangStrategy == SWOverhangStrategy.INDEL || overhangStrategy == SWOverhangStrategy.LEADING_INDEL;
+        final int topRowEnd = matrix.rowEnd(0);
+        int currentValue = 0;
+        for ( int j = 0; j <= topRowEnd; j++ ) {
+            sw[matrix.index(0, j)] = currentValue;
+            if ( penalizeOverhangs ) {
+                currentValue += j == 0 ? parameters.getGapOpenPenalty() : parameters.getGapExtendPenalty();
             }
-            // initialize the first column
-            sw[1][0]= parameters.getGapOpenPenalty();
-            currentValue = parameters.getGapOpenPenalty();
-            for ( int i = 2; i < sw.length; i++ ) {
+        }
+        currentValue = penalizeOverhangs ? parameters.getGapOpenPenalty() : 0;
+        for ( int i = 1, firstColumnEnd = Math.min(nrow - 1, matrix.highestDiagonal); i <= firstColumnEnd; i++ ) {
+            sw[matrix.index(i, 0)] = currentValue;
+            if ( penalizeOverhangs ) {
                 currentValue += parameters.getGapExtendPenalty();
-                sw[i][0]=currentValue;
             }
         }
-        // build smith-waterman matrix and keep backtrack info:
-        int[] curRow=sw[0];
 
         //access is pricey if done enough times so we extract those out
         final int w_open = parameters.getGapOpenPenalty();
@@ -142,37 +226,49 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
         final int w_match = parameters.getMatchValue();
         final int w_mismatch = parameters.getMismatchPenalty();
 
-        //array length checks are expensive in tight loops so extract the length out
-        for ( int i = 1, sw_length = sw.length; i < sw_length ; i++ ) {
+        // row i only holds the columns rowStart(i)..rowEnd(i) of the band, stored from i * stride onwards
+        final int stride = matrix.stride;
+        int lastRowStart = matrix.rowStart(0);
+        int lastRowEnd = topRowEnd;
+        for ( int i = 1; i < nrow ; i++ ) {
             final byte a_base = reference[i-1]; // letter in a at the current pos
-            final int[] lastRow=curRow;
-            curRow=sw[i];
-            final int[] curBackTrackRow=btrack[i];
+            final int rowStart = matrix.rowStart(i);
+            final int rowEnd = matrix.rowEnd(i);
+            final int curRow = i * stride - rowStart;           // sw[curRow + j] is sw[i][j]
+            final int lastRow = curRow - stride - lastRowStart + rowStart;   // sw[lastRow + j] is sw[i-1][j]
 
-            //array length checks are expensive in tight loops so extract the length out
-            for ( int j = 1, curRow_length = curRow.length; j < curRow_length; j++) {
+            // the best gap to the left of the current cell; the first cell of the row only has one if the first column is in the band
+            int best_gap_h = lowInitValue;
+            int gap_size_h = 0;
+
+            for ( int j = Math.max(1, rowStart); j <= rowEnd; j++) {
                 final byte b_base = alternate[j-1]; // letter in b at the current pos
                 // in other words, step_diag = sw[i-1][j-1] + wd(a_base,b_base);
-                final int step_diag = lastRow[j-1] + (a_base == b_base ? w_match : w_mismatch);
+                final int step_diag = sw[lastRow + j-1] + (a_base == b_base ? w_match : w_mismatch);
 
                 // optimized "traversal" of all the matrix cells above the current one (i.e. traversing
                 // all 'step down' events that would end in the current cell. The optimized code
                 // does exactly the same thing as the commented out loop below. IMPORTANT:
                 // the optimization works ONLY for linear w(k)=wopen+(k-1)*wextend!!!!
-
-                // if a gap (length 1) was just opened above, this is the cost of arriving to the current cell:
-                int prev_gap = lastRow[j] + w_open;
-                best_gap_v[j] += w_extend; // for the gaps that were already opened earlier, extending them by 1 costs w_extend
-                if (  prev_gap > best_gap_v[j]  ) {
-                    // opening a gap just before the current cell results in better score than extending by one
-                    // the best previously opened gap. This will hold for ALL cells below: since any gap
-                    // once opened always costs w_extend to extend by another base, we will always get a better score
-                    // by arriving to any cell below from the gap we just opened (prev_gap) rather than from the previous best gap
-                    best_gap_v[j] = prev_gap;
-                    gap_size_v[j] = 1; // remember that the best step-down gap from above has length 1 (we just opened it)
+                if ( j > lastRowEnd ) {
+                    // the cell above is outside of the band, so this is the first cell of the column and nothing steps down into it
+                    best_gap_v[j] = lowInitValue;
+                    gap_size_v[j] = 0;
                 } else {
-                    // previous best gap is still the best, even after extension by another base, so we just record that extension:
-                    gap_size_v[j]++;
+                    // if a gap (length 1) was just opened above, this is the cost of arriving to the current cell:
+                    final int prev_gap = sw[lastRow + j] + w_open;
+                    best_gap_v[j] += w_extend; // for the gaps that were already opened earlier, extending them by 1 costs w_extend
+                    if (  prev_gap > best_gap_v[j]  ) {
+                        // opening a gap just before the current cell results in better score than extending by one
+                        // the best previously opened gap. This will hold for ALL cells below: since any gap
+                        // once opened always costs w_extend to extend by another base, we will always get a better score
+                        // by arriving to any cell below from the gap we just opened (prev_gap) rather than from the previous best gap
+                        best_gap_v[j] = prev_gap;
+                        gap_size_v[j] = 1; // remember that the best step-down gap from above has length 1 (we just opened it)
+                    } else {
+                        // previous best gap is still the best, even after extension by another base, so we just record that extension:
+                        gap_size_v[j]++;
+                    }
                 }
 
                 final int step_down = best_gap_v[j] ;
@@ -182,38 +278,41 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
                 // all 'step right' events that would end in the current cell. The optimized code
                 // does exactly the same thing as the commented out loop below. IMPORTANT:
                 // the optimization works ONLY for linear w(k)=wopen+(k-1)*wextend!!!!
-
-                prev_gap =curRow[j-1]  + w_open; // what would it cost us to open length 1 gap just to the left from current cell
-                best_gap_h[i] += w_extend; // previous best gap would cost us that much if extended by another base
-                if ( prev_gap > best_gap_h[i] ) {
-                    // newly opened gap is better (score-wise) than any previous gap with the same row index i; since
-                    // gap penalty is linear with k, this new gap location is going to remain better than any previous ones
-                    best_gap_h[i] = prev_gap;
-                    gap_size_h[i] = 1;
-                } else {
-                    gap_size_h[i]++;
+                if ( j > rowStart ) {
+                    final int prev_gap = sw[curRow + j-1]  + w_open; // what would it cost us to open length 1 gap just to the left from current cell
+                    best_gap_h += w_extend; // previous best gap would cost us that much if extended by another base
+                    if ( prev_gap > best_gap_h ) {
+                        // newly opened gap is better (score-wise) than any previous gap with the same row index i; since
+                        // gap penalty is linear with k, this new gap location is going to remain better than any previous ones
+                        best_gap_h = prev_gap;
+                        gap_size_h = 1;
+                    } else {
+                        gap_size_h++;
+                    }
                 }
 
-                final int step_right = best_gap_h[i];
-                final int ki = gap_size_h[i];
+                final int step_right = best_gap_h;
+                final int ki = gap_size_h;
 
                 //priority here will be step diagonal, step right, step down
                 final boolean diagHighestOrEqual = (step_diag >= step_down)
                                                 && (step_diag >= step_right);
 
                 if ( diagHighestOrEqual ) {
-                    curRow[j]= Math.max(MATRIX_MIN_CUTOFF, step_diag);
-                    curBackTrackRow[j]=0;
+                    sw[curRow + j]= Math.max(MATRIX_MIN_CUTOFF, step_diag);
+                    btrack[curRow + j]=0;
                 }
                 else if(step_right>=step_down) { //moving right is the highest
-                    curRow[j]= Math.max(MATRIX_MIN_CUTOFF, step_right);
-                    curBackTrackRow[j]=-ki; // negative = horizontal
+                    sw[curRow + j]= Math.max(MATRIX_MIN_CUTOFF, step_right);
+                    btrack[curRow + j]=-ki; // negative = horizontal
                 }
                 else  {
-                    curRow[j]= Math.max(MATRIX_MIN_CUTOFF, step_down);
-                    curBackTrackRow[j]= kd; // positive=vertical
+                    sw[curRow + j]= Math.max(MATRIX_MIN_CUTOFF, step_down);
+                    btrack[curRow + j]= kd; // positive=vertical
                 }
             }
+            lastRowStart = rowStart;
+            lastRowEnd = rowEnd;
         }
     }
 
@@ -241,19 +340,36 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
     }
 
     /**
-     * Calculates the CIGAR for the alignment from the back track matrix
+     * Where the traceback starts from, and the score of the alignment there
+     */
+    private static final class AlignmentEnd {
+        private final int p1;
+        private final int p2;
+        private final int score;
+        private final int segmentLength; // length of the overhang at the end of the alternate sequence
+
+        AlignmentEnd(final int p1, final int p2, final int score, final int segmentLength) {
+            this.p1 = p1;
+            this.p2 = p2;
+            this.score = score;
+            this.segmentLength = segmentLength;
+        }
+    }
+
+    /**
+     * Finds the cell of the Smith-Waterman matrix the traceback starts from. Cells outside of the band never are.
      *
-     * @param sw                   the Smith-Waterman matrix to use
-     * @param btrack               the back track matrix to use
+     * @param matrix              the Smith-Waterman matrix to use
      * @param overhangStrategy    the strategy to use for dealing with overhangs
-     * @return non-null SWPairwiseAlignmentResult object
+     * @return non-null AlignmentEnd
      */
-    private static SWPairwiseAlignmentResult calculateCigar(final int[][] sw, final int[][] btrack, final SWOverhangStrategy overhangStrategy) {
+    private static AlignmentEnd findAlignmentEnd(final Matrix matrix, final SWOverhangStrategy overhangStrategy) {
         // p holds the position we start backtracking from; we will be assembling a cigar in the backwards order
         int p1 = 0, p2 = 0;
 
-        final int refLength = sw.length-1;
-        final int altLength = sw[0].length-1;
+        final int[] sw = matrix.sw;
+        final int refLength = matrix.refLength;
+        final int altLength = matrix.altLength;
 
         int maxscore = Integer.MIN_VALUE; // sw scores are allowed to be negative
         int segment_length = 0; // length of the segment (continuous matches, insertions or deletions)
@@ -262,6 +378,7 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
         if ( overhangStrategy == SWOverhangStrategy.INDEL ) {
             p1 = refLength;
             p2 = altLength;
+            maxscore = sw[matrix.index(p1, p2)];
         } else {
             // look for the largest score on the rightmost column. we use >= combined with the traversal direction
             // to ensure that if two scores are equal, the one closer to diagonal gets picked
@@ -269,8 +386,8 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
             //excluding high scoring local alignments
             p2=altLength;
 
-            for(int i=1;i<sw.length;i++)  {
-               final int curScore = sw[i][altLength];
+            for(int i=Math.max(1, altLength + matrix.lowestDiagonal), end = Math.min(refLength, altLength + matrix.highestDiagonal); i<=end; i++)  {
+               final int curScore = sw[matrix.index(i, altLength)];
                if (curScore >= maxscore ) {
                     p1 = i;
                     maxscore = curScore;
@@ -278,9 +395,8 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
             }
             // now look for a larger score on the bottom-most row
             if ( overhangStrategy != SWOverhangStrategy.LEADING_INDEL ) {
-                final int[] bottomRow=sw[refLength];
-                for ( int j = 1 ; j < bottomRow.length; j++) {
-                    final int curScore=bottomRow[j];
+                for ( int j = Math.max(1, matrix.rowStart(refLength)), end = matrix.rowEnd(refLength); j <= end; j++) {
+                    final int curScore=sw[matrix.index(refLength, j)];
                     // data_offset is the offset of [n][j]
                     if ( curScore > maxscore ||
                             (curScore == maxscore && Math.abs(refLength - j) < Math.abs(p1 - p2) ) ) {
@@ -292,6 +408,23 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
                 }
             }
         }
+        return new AlignmentEnd(p1, p2, maxscore, segment_length);
+    }
+
+    /**
+     * Calculates the CIGAR for the alignment from the back track matrix
+     *
+     * @param matrix               the Smith-Waterman and back track matrices to use
+     * @param end                  where to start the traceback from
+     * @param overhangStrategy    the strategy to use for dealing with overhangs
+     * @return non-null SWPairwiseAlignmentResult object
+     */
+    private static SWPairwiseAlignmentResult calculateCigar(final Matrix matrix, final AlignmentEnd end, final SWOverhangStrategy overhangStrategy) {
+        int p1 = end.p1;
+        int p2 = end.p2;
+        int segment_length = end.segmentLength;
+        final int[] btrack = matrix.btrack;
+
         final List<CigarElement> lce = new ArrayList<>(5);
         if ( segment_length > 0 && overhangStrategy == SWOverhangStrategy.SOFTCLIP ) {
             lce.add(makeElement(State.CLIP, segment_length));
@@ -303,7 +436,7 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
 
         State state = State.MATCH;
         do {
-            final int btr = btrack[p1][p2];
+            final int btr = btrack[matrix.index(p1, p2)];
             final State new_state;
             int step_length = 1;
             if ( btr > 0 ) {
@@ -367,6 +500,72 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
         return new SWPairwiseAlignmentResult(AlignmentUtils.consolidateCigar(new Cigar(lce)), alignment_offset);
     }
 
+    /**
+     * Smith-Waterman and back track matrices restricted to a band of diagonals, i - j in [lowestDiagonal, highestDiagonal],
+     * stored row by row in flat arrays. Each thread keeps one, and its arrays only grow, so that aligning many similar
+     * sequences doesn't allocate new matrices for each alignment.
+     */
+    private static final class Matrix {
+        private int refLength;
+        private int altLength;
+        private int lowestDiagonal;
+        private int highestDiagonal;
+        private int stride;
+        private int[] sw = new int[0];
+        private int[] btrack = new int[0];
+        private int[] bestGapV = new int[0];
+        private int[] gapSizeV = new int[0];
+
+        void resize(final int refLength, final int altLength, final int lowestDiagonal, final int highestDiagonal) {
+            this.refLength = refLength;
+            this.altLength = altLength;
+            this.lowestDiagonal = lowestDiagonal;
+            this.highestDiagonal = highestDiagonal;
+            stride = Math.min(altLength + 1, highestDiagonal - lowestDiagonal + 1);
+
+            final int size = Math.multiplyExact(refLength + 1, stride);
+            if ( sw.length < size ) {
+                sw = new int[size];
+                btrack = new int[size];
+            }
+            if ( bestGapV.length < altLength + 1 ) {
+                bestGapV = new int[altLength + 1];
+                gapSizeV = new int[altLength + 1];
+            }
+        }
+
+        /**
+         * Drops the matrices of unusually long alignments once we're done with them, rather than holding on to them
+         */
+        void trim() {
+            if ( sw.length > MAX_RETAINED_MATRIX_SIZE ) {
+                sw = new int[0];
+                btrack = new int[0];
+            }
+        }
+
+        /**
+         * @return the first column of row i inside of the band
+         */
+        int rowStart(final int i) {
+            return Math.max(0, i - highestDiagonal);
+        }
+
+        /**
+         * @return the last column of row i inside of the band
+         */
+        int rowEnd(final int i) {
+            return Math.min(altLength, i - lowestDiagonal);
+        }
+
+        /**
+         * @return the offset of [i][j], which must be inside of the band, in the flat arrays
+         */
+        int index(final int i, final int j) {
+            return i * stride + j - rowStart(i);
+        }
+    }
+
     private static CigarElement makeElement(final State state, final int length) {
         CigarOperator op = null;
         switch (state) {
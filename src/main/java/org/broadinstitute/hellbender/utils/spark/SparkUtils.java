@@ -16,6 +16,7 @@ import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
+import org.broadinstitute.hellbender.engine.spark.GATKReadBatch;
 import org.broadinstitute.hellbender.engine.spark.datasources.ReadsSparkSink;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.read.*;
@@ -119,6 +120,20 @@ public final class SparkUtils {
         }
     }
 
+    /**
+     * Groups reads by key, like {@link JavaPairRDD#groupByKey()}, but the reads of each key in each partition are
+     * gathered before the shuffle and shuffled together as one {@link GATKReadBatch}, which is serialized column by
+     * column and so takes much less space than the reads serialized one at a time.
+     * @param reads the reads to group, keyed
+     * @param <K> the type of the keys
+     * @return an RDD with the reads of each key
+     */
+    public static <K> JavaPairRDD<K, Iterable<GATKRead>> groupReadsByKey(final JavaPairRDD<K, GATKRead> reads) {
+        Utils.nonNull(reads);
+        return reads.combineByKey(GATKReadBatch::of, GATKReadBatch::add, GATKReadBatch::addAll)
+                .mapValues(batch -> (Iterable<GATKRead>) batch);
+    }
+
     /**
      * Sorts the given reads in coordinate sort order.
      * @param reads the reads to sort
@@ -29,4 +29,18 @@ public final class SparkTestUtils {
         final ClassTag<T> tag = ClassTag$.MODULE$.apply(inputClazz);
         return sparkSerializer.deserialize(sparkSerializer.serialize(input, tag), tag);
     }
+
+    /**
+     * Returns the number of bytes an object takes when serialized in Kryo.
+     *
+     * @param input object to serialize.  Never {@code null}
+     * @param conf Spark configuration to test
+     * @return the size of the serialized object, in bytes
+     */
+    public static int serializedSize(final Object input, final SparkConf conf) {
+        Utils.nonNull(input);
+        final SerializerInstance sparkSerializer = new KryoSerializer(conf).newInstance();
+        final ClassTag<Object> tag = ClassTag$.MODULE$.apply(input.getClass());
+        return sparkSerializer.serialize(input, tag).remaining();
+    }
 }
@@ -4,6 +4,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeMap;
 import com.google.common.collect.TreeRangeMap;
+import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
@@ -153,14 +154,8 @@ public final class GVCFWriter implements VariantContextWriter {
      */
     protected VariantContext addHomRefSite(final VariantContext vc, final Genotype g) {
 
-        if (nextAvailableStart != -1) {
-            // don't create blocks while the hom-ref site falls before nextAvailableStart (for deletions)
-            if (vc.getStart() <= nextAvailableStart && vc.getContig().equals(contigOfNextAvailableStart)) {
-                return null;
-            }
-            // otherwise, reset to non-relevant
-            nextAvailableStart = -1;
-            contigOfNextAvailableStart = null;
+        if (isCoveredByPreviousVariant(vc.getContig(), vc.getStart())) {
+            return null;
         }
 
         final VariantContext result;
@@ -174,6 +169,82 @@ public final class GVCFWriter implements VariantContextWriter {
         return result;
     }
 
+    /**
+     * Add a hom-ref site with a {@code <NON_REF>} alternate allele to this writer without going through a VariantContext
+     *
+     * This is equivalent to calling {@link #add} with a biallelic VariantContext of the reference base and
+     * {@code <NON_REF>} at pos, with a single hom-ref genotype with these GQ, DP and PLs, but is meant for callers
+     * producing one such site per reference base, which don't need to build any objects for them.
+     *
+     * @param sample the name of the sample of the site
+     * @param contig the contig of the site
+     * @param pos the position of the site
+     * @param refBase the reference base at pos
+     * @param ploidy the ploidy of the hom-ref genotype
+     * @param GQ the genotype quality of the hom-ref genotype
+     * @param DP the depth of the site
+     * @param PLs the PLs of the hom-ref genotype, which are not kept by the writer
+     */
+    public void addReferenceConfidenceSite(final String sample, final String contig, final int pos, final byte refBase,
+                                           final int ploidy, final int GQ, final int DP, final int[] PLs) {
+        Utils.nonNull(contig);
+        Utils.nonNull(PLs);
+
+        if (sampleName == null) {
+            sampleName = Utils.nonNull(sample);
+        }
+
+        if (currentBlock != null && !currentBlock.isContiguous(contig, pos)) {
+            // we've made a non-contiguous step (across interval, onto another chr), so finalize
+            emitCurrentBlock();
+        }
+
+        if (isCoveredByPreviousVariant(contig, pos)) {
+            return;
+        }
+
+        if (siteCanBeMergedInCurrentBlock(GQ, ploidy, PLs)) {
+            currentBlock.add(pos, GQ, DP, PLs);
+        } else {
+            emitCurrentBlock();
+            final Range<Integer> partition = getPartition(GQ);
+            currentBlock = new HomRefBlock(contig, pos, Allele.create(refBase, true), partition.lowerEndpoint(), partition.upperEndpoint(), ploidy);
+            currentBlock.add(pos, GQ, DP, PLs);
+        }
+    }
+
+    /**
+     * Don't create blocks while the hom-ref site falls before nextAvailableStart (for deletions)
+     *
+     * @return true if the hom-ref site at start is covered by the last variant and should be skipped
+     */
+    private boolean isCoveredByPreviousVariant(final String contig, final int start) {
+        if (nextAvailableStart != -1) {
+            if (start <= nextAvailableStart && contig.equals(contigOfNextAvailableStart)) {
+                return true;
+            }
+            // otherwise, reset to non-relevant
+            nextAvailableStart = -1;
+            contigOfNextAvailableStart = null;
+        }
+        return false;
+    }
+
+    private boolean siteCanBeMergedInCurrentBlock(final int GQ, final int ploidy, final int[] PLs) {
+        return currentBlock != null
+                && currentBlock.withinBounds(Math.min(GQ, MAX_GENOTYPE_QUAL))
+                && currentBlock.getPloidy() == ploidy
+                && (currentBlock.getMinPLs() == null || currentBlock.getMinPLs().length == PLs.length);
+    }
+
+    private Range<Integer> getPartition(final int GQ) {
+        final Range<Integer> partition = gqPartitions.get(Math.min(GQ, MAX_GENOTYPE_QUAL));
+        if( partition == null) {
+            throw new GATKException("GQ " + GQ + " didn't fit into any partition");
+        }
+        return partition;
+    }
+
     private boolean genotypeCanBeMergedInCurrentBlock(final Genotype g) {
         return currentBlock != null
                 && currentBlock.withinBounds(Math.min(g.getGQ(), MAX_GENOTYPE_QUAL))
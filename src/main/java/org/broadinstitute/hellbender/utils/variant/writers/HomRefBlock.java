@@ -8,15 +8,13 @@ import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.vcf.VCFConstants;
 import org.broadinstitute.hellbender.exceptions.GATKException;
-import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
-import java.util.List;
 
 /**
  * Helper class for calculating a GQ band in the GVCF writer
@@ -25,20 +23,36 @@ import java.util.List;
  * and provides summary information about the entire block of genotypes.
  *
  * Genotypes within the HomRefBlock are restricted to hom-ref genotypes within a band of GQ scores
+ *
+ * Sites can be added either as Genotypes or as primitive (pos, GQ, DP, PLs) values, so that callers producing one
+ * hom-ref site per base don't have to build a Genotype for each of them. The DPs are kept as counts per DP value
+ * over the range of DPs seen, which doesn't grow with the length of the block.
  */
 final class HomRefBlock implements Locatable {
 
     private static final int HOM_REF_PL_POSITION = 0;  //the first value in the minPL[] is always the HomRef
 
+    /**
+     * Source of the VariantContexts of blocks that weren't started from a VariantContext, the same as that of the
+     * reference confidence sites of the HaplotypeCaller
+     */
+    private static final String REFERENCE_CONFIDENCE_SOURCE = "HC";
+
     private final VariantContext startingVC;
+    private final String contig;
+    private final int start;
     private final int minGQ, maxGQ;
-    private final List<Integer> DPs = new ArrayList<>();
     private final Allele ref;
     private final int ploidy;
 
     private int end;
     private int[] minPLs = null;
 
+    // dpCounts[i] is the number of sites with DP == minDP + i
+    private int[] dpCounts = new int[1];
+    private int minDP = -1;
+    private int nDPs = 0;
+
     /**
      * Create a new HomRefBlock
      *
@@ -47,16 +61,37 @@ final class HomRefBlock implements Locatable {
      * @param upperGQBound the upperGQBound (exclusive) to use in this band
      */
     public HomRefBlock(final VariantContext startingVC, final int lowerGQBound, final int upperGQBound, final int defaultPloidy) {
-        Utils.nonNull(startingVC, "startingVC cannot be null");
+        this(Utils.nonNull(startingVC, "startingVC cannot be null"), startingVC.getContig(), startingVC.getStart(), startingVC.getReference(),
+                lowerGQBound, upperGQBound, startingVC.getMaxPloidy(defaultPloidy));
+    }
+
+    /**
+     * Create a new HomRefBlock starting at a hom-ref site that has no VariantContext
+     *
+     * @param contig the contig of the block
+     * @param start the position of the first site of the block
+     * @param ref the reference allele at start
+     * @param lowerGQBound the lowerGQBound (inclusive) to use in this band
+     * @param upperGQBound the upperGQBound (exclusive) to use in this band
+     * @param ploidy the ploidy of the genotypes in this block
+     */
+    public HomRefBlock(final String contig, final int start, final Allele ref, final int lowerGQBound, final int upperGQBound, final int ploidy) {
+        this(null, Utils.nonNull(contig, "contig cannot be null"), start, Utils.nonNull(ref, "ref cannot be null"), lowerGQBound, upperGQBound, ploidy);
+    }
+
+    private HomRefBlock(final VariantContext startingVC, final String contig, final int start, final Allele ref,
+                        final int lowerGQBound, final int upperGQBound, final int ploidy) {
         Utils.validateArg(upperGQBound <= VCFConstants.MAX_GENOTYPE_QUAL + 1, "upperGQBound must be <= " + (VCFConstants.MAX_GENOTYPE_QUAL + 1));
         if ( lowerGQBound > upperGQBound ) { throw new IllegalArgumentException("bad lowerGQBound " + lowerGQBound + " as it's >= upperGQBound " + upperGQBound); }
 
         this.startingVC = startingVC;
-        this.end = getStart() - 1;
-        this.ref = startingVC.getReference();
+        this.contig = contig;
+        this.start = start;
+        this.end = start - 1;
+        this.ref = ref;
         this.minGQ = lowerGQBound;
         this.maxGQ = upperGQBound;
-        this.ploidy = startingVC.getMaxPloidy(defaultPloidy);
+        this.ploidy = ploidy;
     }
 
     /**
@@ -68,7 +103,8 @@ final class HomRefBlock implements Locatable {
      * is no variant-context to be output into the VCF.
      */
     public VariantContext toVariantContext(String sampleName) {
-        final VariantContextBuilder vcb = new VariantContextBuilder(getStartingVC());
+        final VariantContextBuilder vcb = startingVC != null ? new VariantContextBuilder(startingVC)
+                : new VariantContextBuilder(REFERENCE_CONFIDENCE_SOURCE, contig, start, end, Arrays.asList(ref, GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE));
         vcb.attributes(new LinkedHashMap<>(2)); // clear the attributes
         vcb.stop(getEnd());
         vcb.attribute(VCFConstants.END_KEY, getEnd());
@@ -102,27 +138,72 @@ final class HomRefBlock implements Locatable {
     public void add(final int pos, final Genotype genotype) {
         Utils.nonNull(genotype, "genotype cannot be null");
         if ( ! genotype.hasPL() ) { throw new IllegalArgumentException("genotype must have PL field");}
-        if ( pos != end + 1 ) { throw new IllegalArgumentException("adding genotype at pos " + pos + " isn't contiguous with previous end " + end); }
         if ( genotype.getPloidy() != ploidy) { throw new IllegalArgumentException("cannot add a genotype with a different ploidy: " + genotype.getPloidy() + " != " + ploidy); }
+        add(pos, genotype.getGQ(), genotype.getDP(), genotype.getPL());
+    }
+
+    /**
+     * Add a hom-ref site, of the ploidy of this band, to this band.
+     *
+     * Treats GQ values > 99 as 99.
+     *
+     * @param pos Current genomic position. Must be 1 base after the previous position
+     * @param GQ the GQ of the site
+     * @param DP the DP of the site, negative values (ie. missing) are counted as 0
+     * @param PLs the PLs of the site, which are not kept by this band
+     */
+    public void add(final int pos, final int GQ, final int DP, final int[] PLs) {
+        Utils.nonNull(PLs, "PLs cannot be null");
+        if ( pos != end + 1 ) { throw new IllegalArgumentException("adding genotype at pos " + pos + " isn't contiguous with previous end " + end); }
         // Make sure the GQ is within the bounds of this band. Treat GQs > 99 as 99.
-        if ( !withinBounds(Math.min(genotype.getGQ(), VCFConstants.MAX_GENOTYPE_QUAL))) {
-            throw new IllegalArgumentException("cannot add a genotype with GQ=" + genotype.getGQ() + " because it's not within bounds ["
+        if ( !withinBounds(Math.min(GQ, VCFConstants.MAX_GENOTYPE_QUAL))) {
+            throw new IllegalArgumentException("cannot add a genotype with GQ=" + GQ + " because it's not within bounds ["
                     + this.getGQLowerBound() + ',' + this.getGQUpperBound() + ')');
         }
 
         if( minPLs == null ) {
-            minPLs = genotype.getPL();
+            minPLs = PLs.clone();
         } else { // otherwise take the min with the provided genotype's PLs
-            final int[] pls = genotype.getPL();
-            if (pls.length != minPLs.length) {
-                throw new GATKException("trying to merge different PL array sizes: " + pls.length + " != " + minPLs.length);
+            if (PLs.length != minPLs.length) {
+                throw new GATKException("trying to merge different PL array sizes: " + PLs.length + " != " + minPLs.length);
             }
-            for (int i = 0; i < pls.length; i++) {
-                minPLs[i] = Math.min(minPLs[i], pls[i]);
+            for (int i = 0; i < PLs.length; i++) {
+                minPLs[i] = Math.min(minPLs[i], PLs[i]);
             }
         }
         end = pos;
-        DPs.add(Math.max(genotype.getDP(), 0)); // DP must be >= 0
+        addDP(Math.max(DP, 0)); // DP must be >= 0
+    }
+
+    private void addDP(final int DP) {
+        if ( nDPs == 0 ) {
+            minDP = DP;
+        } else if ( DP < minDP ) {
+            // shift the counts up to make room for the new minimum
+            final int shift = minDP - DP;
+            final int[] shifted = new int[Math.max(dpCounts.length + shift, 2 * dpCounts.length)];
+            System.arraycopy(dpCounts, 0, shifted, shift, dpCounts.length);
+            dpCounts = shifted;
+            minDP = DP;
+        } else if ( DP - minDP >= dpCounts.length ) {
+            dpCounts = Arrays.copyOf(dpCounts, Math.max(DP - minDP + 1, 2 * dpCounts.length));
+        }
+        dpCounts[DP - minDP]++;
+        nDPs++;
+    }
+
+    /**
+     * @return the k-th smallest (starting at 0) DP observed within this band
+     */
+    private int getKthDP(final int k) {
+        int seen = 0;
+        for ( int i = 0; i < dpCounts.length; i++ ) {
+            seen += dpCounts[i];
+            if ( seen > k ) {
+                return minDP + i;
+            }
+        }
+        throw new GATKException("only " + nDPs + " DPs observed within this band, can't get the DP of rank " + k);
     }
 
     /**
@@ -136,13 +217,15 @@ final class HomRefBlock implements Locatable {
 
     /** Get the min DP observed within this band */
     public int getMinDP() {
-        return Collections.min(DPs);
+        Utils.validate(nDPs > 0, "no DPs observed within this band");
+        return minDP;
     }
 
     /** Get the median DP observed within this band
      * If there are an even number of DPs recorded in this band the median is the mean of the two middle values */
     public int getMedianDP() {
-        return (int) Math.round(MathUtils.median(DPs));
+        Utils.validate(nDPs > 0, "cannot take the median of a band with no DPs");
+        return (int) Math.round((getKthDP((nDPs - 1) / 2) + getKthDP(nDPs / 2)) / 2.0);
     }
 
     /** Get the min PLs observed within this band, can be null if no PLs have yet been observed */
@@ -158,21 +241,31 @@ final class HomRefBlock implements Locatable {
     }
 
     public boolean isContiguous(final VariantContext vc) {
-        return (vc.getEnd() == getEnd() + 1) && startingVC.getContig().equals(vc.getContig());
+        return isContiguous(vc.getContig(), vc.getEnd());
     }
 
+    /**
+     * @return true if a site ending at end on contig directly follows this block
+     */
+    public boolean isContiguous(final String contig, final int end) {
+        return (end == getEnd() + 1) && this.contig.equals(contig);
+    }
+
+    /**
+     * @return the VariantContext that started this block, or null if it was started from a site without one
+     */
     public VariantContext getStartingVC() {
         return startingVC;
     }
 
     @Override
     public String getContig() {
-        return startingVC.getContig();
+        return contig;
     }
 
     @Override
     public int getStart() {
-        return startingVC.getStart();
+        return start;
     }
 
     @Override
@@ -0,0 +1,58 @@
+package org.broadinstitute.hellbender.utils.variant.writers;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.instrumentation.Instrumentation;
+import org.broadinstitute.hellbender.utils.instrumentation.PhaseTimer;
+
+/**
+ * Writes variants to an underlying writer, timing each {@link #add} (ie., the encoding and writing of one record)
+ * as one execution of a {@link PhaseTimer}.
+ */
+public final class TimedVariantContextWriter implements VariantContextWriter {
+
+    /**
+     * Timer shared by the VCF writers of all tools
+     */
+    public static final PhaseTimer VCF_ENCODE_TIMER = Instrumentation.timer("VariantContextWriter.add");
+
+    private final VariantContextWriter underlyingWriter;
+    private final PhaseTimer timer;
+
+    public TimedVariantContextWriter(final VariantContextWriter underlyingWriter, final PhaseTimer timer) {
+        this.underlyingWriter = Utils.nonNull(underlyingWriter);
+        this.timer = Utils.nonNull(timer);
+    }
+
+    @Override
+    public void writeHeader(final VCFHeader header) {
+        underlyingWriter.writeHeader(header);
+    }
+
+    @Override
+    public void close() {
+        underlyingWriter.close();
+    }
+
+    @Override
+    public boolean checkError() {
+        return underlyingWriter.checkError();
+    }
+
+    @Override
+    public void add(final VariantContext vc) {
+        final long start = timer.start();
+        try {
+            underlyingWriter.add(vc);
+        } finally {
+            timer.stop(start);
+        }
+    }
+
+    @Override
+    public void setHeader(final VCFHeader header) {
+        underlyingWriter.setHeader(header);
+    }
+}
@@ -384,6 +384,83 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @DataProvider(name = "PrefetchTestData")
+    public Object[][] getPrefetchTestData() {
+        final List<SimpleInterval> intervals = Arrays.asList(
+                new SimpleInterval("1", 100, 199),
+                new SimpleInterval("1", 280, 285),
+                new SimpleInterval("1", 1000, 1100),
+                new SimpleInterval("2", 500, 600),
+                new SimpleInterval("3", 1, 300),
+                new SimpleInterval("4", 700, 800)
+        );
+
+        // Query lookahead + number of intervals to prefetch
+        return new Object[][] {
+                { intervals, 0, 1 },
+                { intervals, 0, 2 },
+                { intervals, 0, intervals.size() },
+                { intervals, 50, 2 },
+                { intervals, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, 3 }
+        };
+    }
+
+    /**
+     * Prefetching must not change query results, whichever windows are fetched in the background before the
+     * queries over them
+     */
+    @Test(dataProvider = "PrefetchTestData")
+    public void testQueriesWithPrefetching( final List<SimpleInterval> intervals, final int queryLookahead, final int numIntervalsToPrefetch ) {
+        try ( final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(QUERY_TEST_VCF, "prefetched", queryLookahead) ) {
+            checkQueriesWithPrefetching(featureSource, intervals, numIntervalsToPrefetch);
+        }
+    }
+
+    /**
+     * Windows prefetched in the background evict each other, and the window of the current query, when the input
+     * is denser than our cache budget, but queries must still return all of their Features
+     */
+    @Test(dataProvider = "PrefetchTestData")
+    public void testQueriesWithPrefetchingOverCacheBudget( final List<SimpleInterval> intervals, final int queryLookahead, final int numIntervalsToPrefetch ) {
+        try ( final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(
+                new FeatureInput<>(QUERY_TEST_VCF.getAbsolutePath(), "prefetched"), queryLookahead, null, 0, 0, null, 1) ) {
+            // repeat the traversal so that queries race against many prefetched windows
+            for ( int i = 0; i < 10; i++ ) {
+                checkQueriesWithPrefetching(featureSource, intervals, numIntervalsToPrefetch);
+            }
+        }
+    }
+
+    private void checkQueriesWithPrefetching( final FeatureDataSource<VariantContext> featureSource, final List<SimpleInterval> intervals, final int numIntervalsToPrefetch ) {
+        featureSource.setIntervalsToPrefetch(intervals, numIntervalsToPrefetch);
+
+        for ( final SimpleInterval interval : intervals ) {
+            // a padded query, the interval itself, then a query over its end
+            final List<SimpleInterval> queries = Arrays.asList(
+                    new SimpleInterval(interval.getContig(), Math.max(1, interval.getStart() - 10), interval.getEnd() + 10),
+                    interval,
+                    new SimpleInterval(interval.getContig(), interval.getEnd(), interval.getEnd())
+            );
+            for ( final SimpleInterval query : queries ) {
+                final List<VariantContext> queryResults = featureSource.queryAndPrefetch(query);
+                checkVariantQueryResults(queryResults, getIDsWithoutCaching(query), query);
+            }
+        }
+    }
+
+    private List<String> getIDsWithoutCaching( final SimpleInterval interval ) {
+        try ( final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(QUERY_TEST_VCF) ) {
+            return featureSource.queryAndPrefetch(interval).stream().map(VariantContext::getID).collect(Collectors.toList());
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testPrefetchIntervalsNotGroupedByContig() {
+        try ( final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(QUERY_TEST_VCF) ) {
+            featureSource.setIntervalsToPrefetch(Arrays.asList(new SimpleInterval("1", 1, 100), new SimpleInterval("2", 1, 100), new SimpleInterval("1", 200, 300)), 1);
+        }
+    }
+
     /**************************************************
      * Direct testing on the FeatureCache inner class
      **************************************************/
@@ -648,4 +725,119 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
      * End of direct testing on the FeatureCache inner class
      *********************************************************/
 
+    /*********************************************************
+     * Direct testing on the FeatureWindowCache inner class
+     *********************************************************/
+
+    private static List<ArtificialTestFeature> featuresEvery100Bases( final String contig, final int start, final int end ) {
+        final List<ArtificialTestFeature> features = new ArrayList<>();
+        for ( int position = start; position <= end; position += 100 ) {
+            features.add(new ArtificialTestFeature(contig, position, position + 10));
+        }
+        return features;
+    }
+
+    @Test
+    public void testWindowCacheHitsAcrossWindows() {
+        final FeatureWindowCache<ArtificialTestFeature> cache = new FeatureWindowCache<>(1000);
+        cache.fill(featuresEvery100Bases("1", 100, 1000).iterator(), new SimpleInterval("1", 100, 1000));
+        cache.fill(featuresEvery100Bases("1", 5000, 6000).iterator(), new SimpleInterval("1", 5000, 6000));
+        cache.fill(featuresEvery100Bases("2", 100, 1000).iterator(), new SimpleInterval("2", 100, 1000));
+        Assert.assertEquals(cache.getNumWindows(), 3);
+
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 5000, 5150)), featuresEvery100Bases("1", 5000, 5100));
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 150, 300)), featuresEvery100Bases("1", 200, 300));
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("2", 405, 600)), featuresEvery100Bases("2", 400, 600));
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 5500, 6000)), featuresEvery100Bases("1", 5500, 6000));
+        Assert.assertEquals(cache.getNumCacheHits(), 4);
+
+        // spans two windows, outside of all windows, and behind the start of a trimmed window
+        Assert.assertNull(cache.getCachedFeatures(new SimpleInterval("1", 900, 5100)));
+        Assert.assertNull(cache.getCachedFeatures(new SimpleInterval("3", 100, 200)));
+        Assert.assertNull(cache.getCachedFeatures(new SimpleInterval("1", 100, 200)));
+        Assert.assertEquals(cache.getNumCacheMisses(), 3);
+    }
+
+    @Test
+    public void testWindowCacheContainsDoesNotCount() {
+        final FeatureWindowCache<ArtificialTestFeature> cache = new FeatureWindowCache<>(1000);
+        cache.fill(featuresEvery100Bases("1", 100, 1000).iterator(), new SimpleInterval("1", 100, 1000));
+
+        Assert.assertTrue(cache.contains(new SimpleInterval("1", 100, 1000)));
+        Assert.assertTrue(cache.contains(new SimpleInterval("1", 500, 600)));
+        Assert.assertFalse(cache.contains(new SimpleInterval("1", 500, 1001)));
+        Assert.assertFalse(cache.contains(new SimpleInterval("2", 500, 600)));
+        Assert.assertEquals(cache.getNumCacheHits(), 0);
+        Assert.assertEquals(cache.getNumCacheMisses(), 0);
+    }
+
+    @Test
+    public void testWindowCacheEvictsLeastRecentlyUsed() {
+        // each window holds 10 Features
+        final FeatureWindowCache<ArtificialTestFeature> cache = new FeatureWindowCache<>(25);
+        cache.fill(featuresEvery100Bases("1", 100, 1000).iterator(), new SimpleInterval("1", 100, 1000));
+        cache.fill(featuresEvery100Bases("1", 2100, 3000).iterator(), new SimpleInterval("1", 2100, 3000));
+        Assert.assertEquals(cache.getNumCachedFeatures(), 20);
+
+        // use the first window, so that the second one is evicted by the third
+        Assert.assertNotNull(cache.getCachedFeatures(new SimpleInterval("1", 100, 200)));
+        cache.fill(featuresEvery100Bases("1", 4100, 5000).iterator(), new SimpleInterval("1", 4100, 5000));
+
+        Assert.assertEquals(cache.getNumWindows(), 2);
+        Assert.assertEquals(cache.getNumCachedFeatures(), 20);
+        Assert.assertTrue(cache.contains(new SimpleInterval("1", 100, 1000)));
+        Assert.assertFalse(cache.contains(new SimpleInterval("1", 2100, 3000)));
+        Assert.assertTrue(cache.contains(new SimpleInterval("1", 4100, 5000)));
+    }
+
+    @Test
+    public void testWindowCacheKeepsNewestWindowOverBudget() {
+        final FeatureWindowCache<ArtificialTestFeature> cache = new FeatureWindowCache<>(5);
+        cache.fill(featuresEvery100Bases("1", 100, 400).iterator(), new SimpleInterval("1", 100, 400));
+        cache.fill(featuresEvery100Bases("1", 2100, 3000).iterator(), new SimpleInterval("1", 2100, 3000));
+
+        Assert.assertEquals(cache.getNumWindows(), 1);
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 2100, 3000)), featuresEvery100Bases("1", 2100, 3000));
+    }
+
+    @Test
+    public void testWindowCacheFillAndGetCachedFeatures() {
+        final FeatureWindowCache<ArtificialTestFeature> cache = new FeatureWindowCache<>(5);
+        Assert.assertEquals(cache.fillAndGetCachedFeatures(featuresEvery100Bases("1", 100, 1000).iterator(), new SimpleInterval("1", 100, 1000), new SimpleInterval("1", 250, 500)),
+                featuresEvery100Bases("1", 300, 500));
+
+        // the query's Features are returned even though the new window exceeds the budget, and is evicted by the next one
+        Assert.assertEquals(cache.fillAndGetCachedFeatures(featuresEvery100Bases("1", 2100, 3000).iterator(), new SimpleInterval("1", 2100, 3000), new SimpleInterval("1", 2100, 3000)),
+                featuresEvery100Bases("1", 2100, 3000));
+        cache.fill(featuresEvery100Bases("1", 5100, 6000).iterator(), new SimpleInterval("1", 5100, 6000));
+        Assert.assertEquals(cache.getNumWindows(), 1);
+        Assert.assertFalse(cache.contains(new SimpleInterval("1", 2100, 3000)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testWindowCacheFillAndGetCachedFeaturesOutsideWindow() {
+        final FeatureWindowCache<ArtificialTestFeature> cache = new FeatureWindowCache<>(1000);
+        cache.fillAndGetCachedFeatures(featuresEvery100Bases("1", 100, 1000).iterator(), new SimpleInterval("1", 100, 1000), new SimpleInterval("1", 900, 1100));
+    }
+
+    @Test
+    public void testWindowCacheRefillReplacesWindow() {
+        final FeatureWindowCache<ArtificialTestFeature> cache = new FeatureWindowCache<>(1000);
+        cache.fill(featuresEvery100Bases("1", 100, 1000).iterator(), new SimpleInterval("1", 100, 1000));
+        Assert.assertNotNull(cache.getCachedFeatures(new SimpleInterval("1", 500, 600)));
+
+        cache.fill(featuresEvery100Bases("1", 100, 1000).iterator(), new SimpleInterval("1", 100, 1000));
+        Assert.assertEquals(cache.getNumWindows(), 1);
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 100, 200)), featuresEvery100Bases("1", 100, 200));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testWindowCacheRequiresPositiveBudget() {
+        new FeatureWindowCache<ArtificialTestFeature>(0);
+    }
+
+    /****************************************************************
+     * End of direct testing on the FeatureWindowCache inner class
+     ****************************************************************/
+
 }
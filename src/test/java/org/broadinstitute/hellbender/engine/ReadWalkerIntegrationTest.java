@@ -4,10 +4,12 @@ import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.examples.ExampleReadWalkerWithReference;
 import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 
 public class ReadWalkerIntegrationTest extends CommandLineProgramTest {
 
@@ -47,4 +49,22 @@ public class ReadWalkerIntegrationTest extends CommandLineProgramTest {
         };
         runCommandLine(args);
     }
+
+    @Test
+    public void testInstrumentationOutput() throws IOException {
+        final String BAM_PATH = publicTestDir + "org/broadinstitute/hellbender/engine/readIndexTest/";
+        final File outFile = createTempFile("testInstrumentationOutput", ".txt");
+        final File instrumentationFile = createTempFile("testInstrumentationOutput", ".json");
+
+        final String[] args = new String[] {
+                "-I", BAM_PATH + "reads_data_source_test1.bam",
+                "-O", outFile.getAbsolutePath(),
+                "--instrumentationOutput", instrumentationFile.getAbsolutePath()
+        };
+        runCommandLine(args);
+
+        final String json = new String(Files.readAllBytes(instrumentationFile.toPath()));
+        Assert.assertTrue(json.contains("\"ReadsDataSource.decode\": {\"count\": "), json);
+        Assert.assertFalse(json.contains("\"ReadsDataSource.decode\": {\"count\": 0,"), json);
+    }
 }
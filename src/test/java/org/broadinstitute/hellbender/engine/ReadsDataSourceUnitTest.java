@@ -303,6 +303,39 @@ public final class ReadsDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "MultipleFilesTraversalWithIntervalsData")
+    public void testMultipleFilesTraversalWithIntervalsAndReadAhead( final List<Path> samFiles, final List<SimpleInterval> intervals, final List<String> expectedReadNames ) {
+        final SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT).setUseAsyncIo(true);
+        try (ReadsDataSource readsSource = new ReadsDataSource(samFiles, factory)) {
+            // a tiny buffer, so that both sides of the read-ahead queue have to wait for each other
+            readsSource.setReadAheadBufferSize(2);
+            readsSource.setTraversalBounds(intervals);
+
+            for ( int traversal = 1; traversal <= 2; ++traversal ) {
+                final List<String> readNames = new ArrayList<>();
+                for (GATKRead read : readsSource) {
+                    readNames.add(read.getName());
+                }
+                Assert.assertEquals(readNames, expectedReadNames, "Wrong reads returned in traversal #" + traversal + " with read-ahead of " + samFiles);
+            }
+        }
+    }
+
+    @Test
+    public void testQueryWithReadAheadAfterAbandonedIteration() {
+        try (ReadsDataSource readsSource = new ReadsDataSource(Arrays.asList(FIRST_TEST_BAM, SECOND_TEST_BAM, THIRD_TEST_BAM))) {
+            readsSource.setReadAheadBufferSize(1);
+
+            // stop consuming after one read, leaving the read-ahead thread blocked on a full queue
+            final Iterator<GATKRead> abandoned = readsSource.iterator();
+            Assert.assertEquals(abandoned.next().getName(), "a");
+
+            final List<String> readNames = new ArrayList<>();
+            readsSource.query(new SimpleInterval("3", 1, 16000)).forEachRemaining(read -> readNames.add(read.getName()));
+            Assert.assertEquals(readNames, Arrays.asList("w", "t", "x", "i", "j", "u", "v"));
+        }
+    }
+
     @DataProvider(name = "MultipleFilesQueryByIntervalData")
     public Object[][] getMultipleFilesQueryByIntervalData() {
         // Files, with a single query interval, and expected read names in the expected order
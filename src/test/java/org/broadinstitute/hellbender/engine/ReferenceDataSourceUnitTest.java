@@ -2,23 +2,46 @@ package org.broadinstitute.hellbender.engine;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.reference.ReferenceSequence;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+import org.broadinstitute.hellbender.utils.reference.TwoBitReference;
+import org.broadinstitute.hellbender.utils.reference.TwoBitReferenceWriter;
 import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public final class ReferenceDataSourceUnitTest extends GATKBaseTest {
 
     private static final File TEST_REFERENCE = new File(hg19MiniReference);
 
+    private File testTwoBitReference;
+
+    @BeforeClass
+    public void createTwoBitReference() throws IOException {
+        testTwoBitReference = new File(createTempDir("ReferenceDataSourceUnitTest"), "hg19mini" + TwoBitReference.TWO_BIT_EXTENSION);
+        try ( final ReferenceSequenceFile fasta = ReferenceSequenceFileFactory.getReferenceSequenceFile(TEST_REFERENCE) ) {
+            TwoBitReferenceWriter.write(fasta, testTwoBitReference.toPath());
+        }
+        Files.copy(new File(ReferenceUtils.getFastaDictionaryFileName(hg19MiniReference)).toPath(),
+                new File(ReferenceUtils.getFastaDictionaryFileName(testTwoBitReference.getAbsolutePath())).toPath());
+    }
+
     @Test(expectedExceptions = UserException.class)
     public void testNonExistentReference() {
         new ReferenceFileSource(GATKBaseTest.getSafeNonExistentFile("nonexistent.fasta"));
@@ -93,4 +116,81 @@ public final class ReferenceDataSourceUnitTest extends GATKBaseTest {
             }
         }
     }
+
+    @Test(dataProvider = "ReferenceIntervalDataProvider")
+    public void testTwoBitQueryAndPrefetch( final SimpleInterval interval, final String expectedBases ) {
+        try (ReferenceDataSource reference = ReferenceDataSource.of(testTwoBitReference)) {
+            Assert.assertTrue(reference instanceof ReferenceTwoBitFileSource);
+            ReferenceSequence queryResult = reference.queryAndPrefetch(interval);
+
+            Assert.assertEquals(new String(queryResult.getBases()), expectedBases,
+                    "Wrong bases returned from queryAndPrefetch() for interval " + interval);
+        }
+    }
+
+    @Test(dataProvider = "ReferenceIntervalDataProvider")
+    public void testTwoBitAsReferenceSequenceFile( final SimpleInterval interval, final String expectedBases ) throws IOException {
+        try (ReferenceSequenceFile reference = new ReferenceTwoBitFileSource(testTwoBitReference);
+             ReferenceSequenceFile fasta = ReferenceSequenceFileFactory.getReferenceSequenceFile(TEST_REFERENCE)) {
+            Assert.assertEquals(new String(reference.getSubsequenceAt(interval.getContig(), interval.getStart(), interval.getEnd()).getBases()), expectedBases);
+            Assert.assertEquals(reference.getSequence(interval.getContig()).getBases(), fasta.getSequence(interval.getContig()).getBases());
+        }
+    }
+
+    @Test
+    public void testTwoBitSequenceDictionary() {
+        try (ReferenceDataSource reference = ReferenceDataSource.of(testTwoBitReference);
+             ReferenceDataSource fastaReference = ReferenceDataSource.of(TEST_REFERENCE)) {
+            // read from the .dict file, including the MD5s
+            Assert.assertEquals(reference.getSequenceDictionary(), fastaReference.getSequenceDictionary());
+            Assert.assertEquals(reference.getSequenceDictionary().getSequence("1").getMd5(), fastaReference.getSequenceDictionary().getSequence("1").getMd5());
+        }
+    }
+
+    @Test
+    public void testTwoBitWithoutDictionary() throws IOException {
+        final File twoBitWithoutDict = new File(createTempDir("testTwoBitWithoutDictionary"), testTwoBitReference.getName());
+        Files.copy(testTwoBitReference.toPath(), twoBitWithoutDict.toPath());
+        try (ReferenceDataSource reference = ReferenceDataSource.of(twoBitWithoutDict)) {
+            final SAMSequenceDictionary sequenceDictionary = reference.getSequenceDictionary();
+            Assert.assertEquals(sequenceDictionary.size(), 4);
+            Assert.assertEquals(sequenceDictionary.getSequence("4").getSequenceLength(), 16000);
+            Assert.assertNull(sequenceDictionary.getSequence("4").getMd5());
+        }
+    }
+
+    @Test(expectedExceptions = UserException.IncompatibleSequenceDictionaries.class)
+    public void testTwoBitWithMismatchedDictionary() throws IOException {
+        final File directory = createTempDir("testTwoBitWithMismatchedDictionary");
+        final File twoBit = new File(directory, "chr17" + TwoBitReference.TWO_BIT_EXTENSION);
+        Files.copy(new File(publicTestDir + "human_g1k_v37.chr17_1Mb.2bit").toPath(), twoBit.toPath());
+        Files.copy(new File(ReferenceUtils.getFastaDictionaryFileName(hg19MiniReference)).toPath(), new File(directory, "chr17.dict").toPath());
+        ReferenceDataSource.of(twoBit);
+    }
+
+    @Test(expectedExceptions = UserException.MissingReference.class)
+    public void testNonExistentTwoBitReference() {
+        ReferenceDataSource.of(GATKBaseTest.getSafeNonExistentFile("nonexistent.2bit"));
+    }
+
+    @Test
+    public void testTwoBitConcurrentQueries() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (ReferenceDataSource reference = ReferenceDataSource.of(testTwoBitReference);
+             ReferenceDataSource fastaReference = ReferenceDataSource.of(TEST_REFERENCE)) {
+            final List<Future<byte[]>> results = new ArrayList<>();
+            final List<SimpleInterval> intervals = new ArrayList<>();
+            for ( int i = 0; i < 400; i++ ) {
+                final int start = 1 + (i * 397) % 15000;
+                final SimpleInterval interval = new SimpleInterval(String.valueOf(1 + i % 4), start, start + i % 1000);
+                intervals.add(interval);
+                results.add(executor.submit(() -> reference.queryAndPrefetch(interval).getBases()));
+            }
+            for ( int i = 0; i < intervals.size(); i++ ) {
+                Assert.assertEquals(results.get(i).get(), fastaReference.queryAndPrefetch(intervals.get(i)).getBases());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
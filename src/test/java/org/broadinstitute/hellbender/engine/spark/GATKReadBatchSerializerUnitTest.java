@@ -0,0 +1,90 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.TextCigarCodec;
+import org.apache.spark.SparkConf;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
+import org.broadinstitute.hellbender.utils.test.SparkTestUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class GATKReadBatchSerializerUnitTest extends GATKBaseTest {
+
+    private static final SparkConf CONF = new SparkConf().set("spark.kryo.registrator", GATKRegistrator.class.getName());
+
+    private static GATKReadBatch roundTrip(final List<GATKRead> reads) {
+        final GATKReadBatch batch = new GATKReadBatch();
+        reads.forEach(batch::add);
+        return SparkTestUtils.roundTripInKryo(batch, GATKReadBatch.class, CONF);
+    }
+
+    @Test
+    public void testRoundTripSamBackedReads() {
+        final GATKRead first = ArtificialReadUtils.createHeaderlessSamBackedRead("HWI-ST1:8:C1:1:1101:1000:2000", "1", 100, 10);
+        first.setBases("ACGTNacgt=".getBytes());
+        first.setBaseQualities(new byte[]{30, 30, 30, 30, 2, 20, 30, 30, 30, 30});
+        first.setCigar(TextCigarCodec.decode("2S6M2I"));
+        first.setAttribute("RG", "group1");
+        first.setAttribute("NM", 2);
+        first.setAttribute("BQ", new byte[]{1, 2, 3});
+        first.setIsPaired(true);
+        first.setMatePosition("2", 50);
+        first.setFragmentLength(-300);
+
+        final GATKRead second = ArtificialReadUtils.createHeaderlessSamBackedRead("HWI-ST1:8:C1:1:1101:1000:2017", "1", 90, 8);
+        second.setAttribute("RG", "group1");
+        second.setAttribute("BQ", new byte[]{1, 2, 3});
+        ((SAMRecordToGATKReadAdapter) second).getEncapsulatedSamRecord().setUnsignedArrayAttribute("XU", new short[]{1, 60000});
+
+        final GATKRead unmapped = ArtificialReadUtils.createHeaderlessSamBackedRead("other", "1", 1, 4);
+        unmapped.setIsUnmapped();
+        unmapped.setBaseQualities(SAMRecord.NULL_QUALS);
+        unmapped.setMappingQuality(255);
+
+        final GATKRead unnamed = ArtificialReadUtils.createHeaderlessSamBackedRead("unnamed", "2", 1000000, 5);
+        unnamed.setName(null);
+
+        final List<GATKRead> reads = Arrays.asList(first, second, unmapped, unnamed);
+        final GATKReadBatch roundTripped = roundTrip(reads);
+        Assert.assertEquals(roundTripped.getReads(), reads);
+
+        // array tags shared by reads in the batch must not be shared by the reads read back
+        ((byte[]) ((SAMRecordToGATKReadAdapter) roundTripped.getReads().get(0)).getEncapsulatedSamRecord().getAttribute("BQ"))[0] = 10;
+        Assert.assertEquals(roundTripped.getReads().get(1).getAttributeAsByteArray("BQ")[0], 1);
+    }
+
+    @Test
+    public void testRoundTripEmptyBatch() {
+        Assert.assertEquals(roundTrip(Collections.emptyList()).size(), 0);
+    }
+
+    @Test
+    public void testRoundTripMixedReads() {
+        final List<GATKRead> reads = Arrays.asList(ArtificialReadUtils.createHeaderlessSamBackedRead("read1", "1", 100, 50),
+                ArtificialReadUtils.createGoogleBackedRead("read2", "1", 200, 50));
+        Assert.assertEquals(roundTrip(reads).getReads(), reads);
+    }
+
+    @Test
+    public void testBatchIsSmallerThanReads() {
+        final GATKReadBatch batch = new GATKReadBatch();
+        for (int i = 0; i < 100; i++) {
+            final GATKRead read = ArtificialReadUtils.createHeaderlessSamBackedRead("HWI-ST1:8:C1:1:1101:1000:" + (2000 + i), "1", 100 + i, 100);
+            read.setAttribute("RG", "group1");
+            batch.add(read);
+        }
+        final int batchSize = SparkTestUtils.serializedSize(batch, CONF);
+        int readsSize = 0;
+        for (final GATKRead read : batch) {
+            readsSize += SparkTestUtils.serializedSize(read, CONF);
+        }
+        Assert.assertTrue(batchSize * 2 < readsSize, batchSize + " vs " + readsSize);
+    }
+}
@@ -244,6 +244,43 @@ public class SparkSharderUnitTest extends GATKBaseTest implements Serializable {
 
     }
 
+    @Test
+    public void testDivideIntervalsByDensity() {
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+
+        // Eight reads start in the first 10 bases of contig 1, and two more further along; contig 2 has no reads.
+        // With bins of 10 bases, a target of 4 reads, and shards of at most 40 bases, the dense first bin is a
+        // shard on its own and the rest is merged into shards of the maximum size.
+        List<TestRead> reads = ImmutableList.of(
+                new TestRead(1, 3), new TestRead(2, 4), new TestRead(3, 5), new TestRead(4, 6),
+                new TestRead(5, 7), new TestRead(6, 8), new TestRead(7, 9), new TestRead(8, 10),
+                new TestRead(25, 27), new TestRead(61, 63)
+        );
+        List<SimpleInterval> intervals = ImmutableList.of(new SimpleInterval("1", 1, 100), new SimpleInterval("2", 1, 50));
+
+        List<ShardBoundary> shards = SparkSharder.divideIntervalsByDensity(ctx.parallelize(reads, 2), sequenceDictionary, intervals, 10, 40, 4, 0);
+        List<SimpleInterval> expectedShards = ImmutableList.of(
+                new SimpleInterval("1", 1, 10), new SimpleInterval("1", 11, 50), new SimpleInterval("1", 51, 90),
+                new SimpleInterval("1", 91, 100), new SimpleInterval("2", 1, 40), new SimpleInterval("2", 41, 50)
+        );
+        assertEquals(shards.stream().map(ShardBoundary::getInterval).collect(Collectors.toList()), expectedShards);
+        assertEquals(shards.stream().map(ShardBoundary::getPaddedInterval).collect(Collectors.toList()), expectedShards);
+
+        // padding
+        List<ShardBoundary> paddedShards = SparkSharder.divideIntervalsByDensity(ctx.parallelize(reads, 2), sequenceDictionary,
+                ImmutableList.of(new SimpleInterval("1", 1, 100)), 10, 40, 4, 5);
+        assertEquals(paddedShards.get(1).getPaddedInterval(), new SimpleInterval("1", 6, 55));
+
+        // part of a bin counts for part of the reads that start in the bin
+        List<ShardBoundary> partialShards = new ArrayList<>();
+        List<Double> partialCounts = new ArrayList<>();
+        SparkSharder.divideIntervalByDensity(new SimpleInterval("1", 5, 12), ImmutableMap.of(SparkSharder.binKey(0, 0), 8L),
+                sequenceDictionary, 10, 40, 4, 0, partialShards, partialCounts);
+        assertEquals(partialShards.stream().map(ShardBoundary::getInterval).collect(Collectors.toList()),
+                ImmutableList.of(new SimpleInterval("1", 5, 10), new SimpleInterval("1", 11, 12)));
+        assertEquals(partialCounts, ImmutableList.of(4.8, 0.0));
+    }
+
     @Test
     public void testPartitionReadExtents() throws IOException {
         JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
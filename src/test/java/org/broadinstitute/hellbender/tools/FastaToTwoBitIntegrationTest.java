@@ -0,0 +1,50 @@
+package org.broadinstitute.hellbender.tools;
+
+import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.Main;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.examples.ExampleReadWalkerWithReference;
+import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
+import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public final class FastaToTwoBitIntegrationTest extends CommandLineProgramTest {
+
+    @Test
+    public void testConvertAndUseAsReference() throws IOException {
+        final File outputDir = createTempDir("testConvertAndUseAsReference");
+        final File twoBit = new File(outputDir, "hg19mini.2bit");
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addInput(new File(hg19MiniReference));
+        args.addOutput(twoBit);
+        runCommandLine(args);
+
+        Assert.assertTrue(twoBit.exists());
+        Assert.assertEquals(Files.readAllLines(new File(outputDir, "hg19mini.dict").toPath()),
+                Files.readAllLines(new File(publicTestDir, "hg19mini.dict").toPath()));
+
+        // the .2bit file gives the same results as the fasta
+        final File output = createTempFile("testConvertAndUseAsReference", ".txt");
+        final ArgumentsBuilder walkerArgs = new ArgumentsBuilder();
+        walkerArgs.addReference(twoBit);
+        walkerArgs.addInput(new File(publicTestDir + "org/broadinstitute/hellbender/engine/reads_data_source_test1.bam"));
+        walkerArgs.addOutput(output);
+        new Main().instanceMain(makeCommandLineArgs(walkerArgs.getArgsList(), ExampleReadWalkerWithReference.class.getSimpleName()));
+        IntegrationTestSpec.assertEqualTextFiles(output,
+                new File(publicTestDir + "org/broadinstitute/hellbender/tools/examples/expected_ExampleReadWalkerWithReferenceIntegrationTest_output.txt"));
+    }
+
+    @Test(expectedExceptions = UserException.CouldNotCreateOutputFile.class)
+    public void testOutputMustBeTwoBit() {
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addInput(new File(hg19MiniReference));
+        args.addOutput(createTempFile("testOutputMustBeTwoBit", ".fasta"));
+        runCommandLine(args);
+    }
+}
@@ -171,6 +171,25 @@ public class HaplotypeCallerSparkIntegrationTest extends CommandLineProgramTest
 
     }
 
+    @Test
+    public void testReferenceAdapterWindowGivesSameBases() {
+        final AuthHolder auth = new AuthHolder("name", "somestring");
+        final ReferenceMultiSource referenceMultiSource = new ReferenceMultiSource(auth, b37_2bit_reference_20_21, ReferenceWindowFunctions.IDENTITY_FUNCTION);
+        final HaplotypeCallerSpark.ReferenceMultiSourceAdapter adapter = new HaplotypeCallerSpark.ReferenceMultiSourceAdapter(referenceMultiSource, auth);
+        final HaplotypeCallerSpark.ReferenceMultiSourceAdapter windowedAdapter = new HaplotypeCallerSpark.ReferenceMultiSourceAdapter(referenceMultiSource, auth, 500);
+        final int contigLength = adapter.getSequenceDictionary().getSequence("20").getSequenceLength();
+
+        // a window, queries within it, a query that moves the window, queries at the ends of the contig,
+        // and a query past the end of the contig followed by one within the window it must not replace
+        final int[][] queries = {{10000000, 10005000}, {10000100, 10000200}, {9999500, 9999600}, {10005400, 10005500},
+                {10020000, 10020100}, {1, 100}, {contigLength - 100, contigLength},
+                {contigLength - 50, contigLength + 50}, {contigLength - 200, contigLength - 100}};
+        for (final int[] query : queries) {
+            Assert.assertEquals(windowedAdapter.getSubsequenceAt("20", query[0], query[1]).getBases(),
+                    adapter.getSubsequenceAt("20", query[0], query[1]).getBases());
+        }
+    }
+
     @Test
     public void testGenotypeCalculationArgumentCollectionIsSerializable() {
         final GenotypeCalculationArgumentCollection args = new GenotypeCalculationArgumentCollection();
@@ -3,13 +3,15 @@ package org.broadinstitute.hellbender.tools.spark.transforms.markduplicates;
 import com.google.api.client.util.Lists;
 import com.google.common.collect.ImmutableList;
 import htsjdk.samtools.SAMFileHeader;
+import org.apache.spark.SparkException;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
-import org.broadinstitute.hellbender.utils.read.markduplicates.ReadsKey;
+import org.broadinstitute.hellbender.utils.read.markduplicates.MarkDuplicatesScoringStrategy;
+import org.broadinstitute.hellbender.utils.read.markduplicates.ReadSummary;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -19,6 +21,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class MarkDuplicatesSparkUtilsUnitTest extends GATKBaseTest {
     @Test(groups = "spark")
@@ -39,7 +43,7 @@ public class MarkDuplicatesSparkUtilsUnitTest extends GATKBaseTest {
     }
 
     @Test(groups = "spark")
-    public void testSpanReadsByKeyWithAlternatingGroups() {
+    public void testGroupByReadGroupAndNameWithAlternatingGroups() {
         SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeaderWithGroups(1, 1, 1000, 2);
         GATKRead read1 = ArtificialReadUtils.createArtificialRead(header, "N", 0, 1, 20);
         read1.setReadGroup(getReadGroupId(header, 0));
@@ -50,21 +54,106 @@ public class MarkDuplicatesSparkUtilsUnitTest extends GATKBaseTest {
         GATKRead read4 = ArtificialReadUtils.createArtificialRead(header, "N", 0, 4, 20);
         read4.setReadGroup(getReadGroupId(header, 1));
 
-        String key1 = ReadsKey.keyForRead(header, read1);
-        String key2 = ReadsKey.keyForRead(header, read2);
-        String key3 = ReadsKey.keyForRead(header, read3);
-        String key4 = ReadsKey.keyForRead(header, read4);
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        JavaRDD<GATKRead> reads = ctx.parallelize(ImmutableList.of(read1, read2, read3, read4), 1);
+        List<ReadSummary> summaries = MarkDuplicatesSparkUtils.summarizeReads(header, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, reads.zipWithUniqueId()).collect();
+        Assert.assertEquals(summaries.stream().map(ReadSummary::getReadGroupIndex).collect(Collectors.toList()),
+                ImmutableList.of((short) 0, (short) 1, (short) 0, (short) 1));
 
-        Assert.assertEquals("ReadGroup0|N", key1);
-        Assert.assertEquals("ReadGroup1|N", key2);
-        Assert.assertEquals("ReadGroup0|N", key3);
-        Assert.assertEquals("ReadGroup1|N", key4);
+        // with a single partition the reads are indexed in order
+        List<List<Long>> groupedIndices = MarkDuplicatesSparkUtils.groupByReadGroupAndName(summaries).stream()
+                .map(group -> group.stream().map(ReadSummary::getIndex).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+        Assert.assertEquals(groupedIndices, ImmutableList.of(ImmutableList.of(0L, 2L), ImmutableList.of(1L, 3L)));
+    }
+
+    @Test(groups = "spark")
+    public void testApplyMarksAcrossPartitions() {
+        SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, i + 1, 20);
+            read.setIsDuplicate(true);
+            reads.add(read);
+        }
 
         JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
-        JavaRDD<GATKRead> reads = ctx.parallelize(ImmutableList.of(read1, read2, read3, read4), 1);
-        JavaPairRDD<String, Iterable<GATKRead>> groupedReads = MarkDuplicatesSparkUtils.spanReadsByKey(header, reads);
-        Assert.assertEquals(groupedReads.collect(),
-                ImmutableList.of(pairIterable(key1, read1, read3), pairIterable(key2, read2, read4)));
+        JavaPairRDD<GATKRead, Long> indexedReads = ctx.parallelize(reads, 3).zipWithUniqueId();
+        Map<String, Long> indexByName = indexedReads.mapToPair(indexed -> new Tuple2<>(indexed._1().getName(), indexed._2())).collectAsMap();
+
+        // read1 and read8 are duplicates, read5 is the best of a group with 2 optical duplicates
+        JavaPairRDD<Long, Integer> marks = ctx.parallelizePairs(ImmutableList.of(
+                new Tuple2<>(indexByName.get("read8"), -1),
+                new Tuple2<>(indexByName.get("read5"), 2),
+                new Tuple2<>(indexByName.get("read1"), -1)), 2);
+
+        List<GATKRead> marked = MarkDuplicatesSparkUtils.applyMarks(indexedReads, marks).collect();
+        Assert.assertEquals(marked.size(), reads.size());
+        for (GATKRead read : marked) {
+            final boolean duplicate = read.getName().equals("read1") || read.getName().equals("read8");
+            Assert.assertEquals(read.isDuplicate(), duplicate, read.getName());
+            if (read.getName().equals("read5")) {
+                Assert.assertEquals(read.getAttributeAsInteger(MarkDuplicatesSparkUtils.OPTICAL_DUPLICATE_TOTAL_ATTRIBUTE_NAME).intValue(), 2);
+            } else {
+                Assert.assertFalse(read.hasAttribute(MarkDuplicatesSparkUtils.OPTICAL_DUPLICATE_TOTAL_ATTRIBUTE_NAME), read.getName());
+            }
+        }
+    }
+
+    @Test(groups = "spark")
+    public void testApplyMarksWithRepeatedIndices() {
+        SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, i + 1, 20));
+        }
+
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        JavaPairRDD<GATKRead, Long> indexedReads = ctx.parallelize(reads, 3).zipWithUniqueId();
+        Map<String, Long> indexByName = indexedReads.mapToPair(indexed -> new Tuple2<>(indexed._1().getName(), indexed._2())).collectAsMap();
+
+        JavaPairRDD<Long, Integer> marks = ctx.parallelizePairs(ImmutableList.of(
+                new Tuple2<>(indexByName.get("read1"), -1),
+                new Tuple2<>(indexByName.get("read1"), -1),
+                new Tuple2<>(indexByName.get("read6"), -1)), 2);
+
+        List<GATKRead> marked = MarkDuplicatesSparkUtils.applyMarks(indexedReads, marks).collect();
+        for (GATKRead read : marked) {
+            Assert.assertEquals(read.isDuplicate(), read.getName().equals("read1") || read.getName().equals("read6"), read.getName());
+        }
+    }
+
+    @Test(groups = "spark", expectedExceptions = SparkException.class)
+    public void testApplyMarksWithUnknownIndex() {
+        SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, i + 1, 20));
+        }
+
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        JavaPairRDD<GATKRead, Long> indexedReads = ctx.parallelize(reads, 3).zipWithUniqueId();
+        Map<String, Long> indexByName = indexedReads.mapToPair(indexed -> new Tuple2<>(indexed._1().getName(), indexed._2())).collectAsMap();
+
+        // a mark for an index no read has, before the last read of its partition
+        JavaPairRDD<Long, Integer> marks = ctx.parallelizePairs(ImmutableList.of(
+                new Tuple2<>(-3L, -1),
+                new Tuple2<>(indexByName.get("read6"), -1)), 2);
+        MarkDuplicatesSparkUtils.applyMarks(indexedReads, marks).collect();
+    }
+
+    @Test(groups = "spark", expectedExceptions = SparkException.class)
+    public void testApplyMarksWithMarkPastLastRead() {
+        SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, i + 1, 20));
+        }
+
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        JavaPairRDD<GATKRead, Long> indexedReads = ctx.parallelize(reads, 3).zipWithUniqueId();
+        JavaPairRDD<Long, Integer> marks = ctx.parallelizePairs(ImmutableList.of(new Tuple2<>(300L, -1)), 1);
+        MarkDuplicatesSparkUtils.applyMarks(indexedReads, marks).collect();
     }
 
     private String getReadGroupId(final SAMFileHeader header, final int index) {
@@ -85,8 +174,4 @@ public class MarkDuplicatesSparkUtilsUnitTest extends GATKBaseTest {
         return new Tuple2<>(i, ImmutableList.copyOf(s));
     }
 
-    private static Tuple2<String, Iterable<GATKRead>> pairIterable(String key, GATKRead... reads) {
-        return new Tuple2<>(key, ImmutableList.copyOf(reads));
-    }
-
 }
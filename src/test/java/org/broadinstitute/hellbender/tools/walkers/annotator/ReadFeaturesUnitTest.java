@@ -0,0 +1,72 @@
+package org.broadinstitute.hellbender.tools.walkers.annotator;
+
+import htsjdk.samtools.TextCigarCodec;
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.test.ArtificialAnnotationUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class ReadFeaturesUnitTest extends GATKBaseTest {
+    private static final String SAMPLE = "NA1";
+    private static final String CONTIG = "1";
+
+    private static final Allele REF = Allele.create("T", true);
+    private static final Allele ALT = Allele.create("A", false);
+
+    private static GATKRead makeRead(final int start, final String cigar, final int mq, final boolean reverseStrand) {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(TextCigarCodec.decode(cigar));
+        read.setMappingQuality(mq);
+        read.setPosition(CONTIG, start);
+        read.setIsReverseStrand(reverseStrand);
+        return read;
+    }
+
+    @Test
+    public void testFeaturesMatchPerReadComputations() {
+        final List<GATKRead> refReads = Arrays.asList(makeRead(1, "10M", 30, false), makeRead(2, "2S8M", 60, true), makeRead(3, "3M2D5M", 20, false));
+        final List<GATKRead> altReads = Arrays.asList(makeRead(4, "10M", 0, true), makeRead(1, "4M", 40, false), makeRead(2, "5M3H", 50, true));
+        final List<GATKRead> uninformativeReads = Collections.singletonList(makeRead(1, "10M", 30, false));
+        final ReadLikelihoods<Allele> likelihoods = ArtificialAnnotationUtils.makeLikelihoods(SAMPLE, refReads, altReads, uninformativeReads,
+                -100.0, -100.0, -1.1, REF, ALT);
+
+        final int refLoc = 6;
+        final ReadFeatures readFeatures = new ReadFeatures(likelihoods, refLoc);
+        Assert.assertEquals(readFeatures.refLoc(), refLoc);
+        Assert.assertEquals(readFeatures.sampleCount(), 1);
+        Assert.assertEquals(readFeatures.readCount(), 7);
+        Assert.assertEquals(readFeatures.sampleStart(0), 0);
+        Assert.assertEquals(readFeatures.sampleEnd(0), 7);
+
+        int r = 0;
+        for (final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAlleles()) {
+            final GATKRead read = bestAllele.read;
+            Assert.assertSame(readFeatures.reads()[r], read);
+            Assert.assertEquals(readFeatures.bestAlleles()[r], bestAllele.allele);
+            Assert.assertEquals(readFeatures.bestAlleleLikelihoods()[r], bestAllele.likelihood);
+            Assert.assertEquals(readFeatures.informativeReads()[r], bestAllele.isInformative());
+            Assert.assertEquals(readFeatures.reverseStrand()[r], read.isReverseStrand());
+            Assert.assertEquals(readFeatures.mappingQualities()[r], read.getMappingQuality());
+
+            final boolean usable = bestAllele.isInformative() && read.getMappingQuality() != 0;
+            Assert.assertEquals(readFeatures.usableReads()[r], usable);
+            if (usable) {
+                Assert.assertEquals(ReadPosRankSumTest.getReadPosition(readFeatures, r), ReadPosRankSumTest.getReadPosition(read, refLoc));
+                Assert.assertEquals(BaseQualityRankSumTest.getReadBaseQuality(readFeatures, r), BaseQualityRankSumTest.getReadBaseQuality(read, refLoc));
+                Assert.assertEquals(readFeatures.hardClippedBases()[r], AlignmentUtils.getNumHardClippedBases(read));
+            } else {
+                Assert.assertEquals(readFeatures.readOffsets()[r], ReadFeatures.MISSING);
+                Assert.assertEquals(readFeatures.hardClippedBases()[r], ReadFeatures.MISSING);
+            }
+            r++;
+        }
+    }
+}
@@ -168,6 +168,15 @@ public final class VariantAnnotatorEngineUnitTest extends GATKBaseTest {
         Assert.assertTrue(vcfAnnotationDescriptions.contains(VCFStandardHeaderLines.getInfoLine(VCFConstants.ALLELE_COUNT_KEY)));  //yes AC
     }
 
+    @Test
+    public void testUsesReadFeatures(){
+        Assert.assertTrue(VariantAnnotatorEngine.usesReadFeatures(new FisherStrand()));
+        Assert.assertTrue(VariantAnnotatorEngine.usesReadFeatures(new MappingQualityRankSumTest()));
+        Assert.assertTrue(VariantAnnotatorEngine.usesReadFeatures(new StrandBiasBySample()));
+        Assert.assertFalse(VariantAnnotatorEngine.usesReadFeatures(new Coverage()));
+        Assert.assertFalse(VariantAnnotatorEngine.usesReadFeatures(new DepthPerAlleleBySample()));
+    }
+
     @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
     public void testBadAnnot(){
         final List<String> annotationsToExclude= Collections.emptyList();
@@ -301,6 +310,30 @@ public final class VariantAnnotatorEngineUnitTest extends GATKBaseTest {
         Assert.assertEquals(resultVC.getCommonInfo().getAttribute(GATKVCFConstants.STRAND_ODDS_RATIO_KEY), StrandOddsRatio.formattedValue(StrandOddsRatio.calculateSOR(new int[][]{{ref,0},{alt,0}})));
     }
 
+    @Test
+    public void testParallelAnnotationsMatchSequential() throws Exception {
+        // QualByDepth draws from the shared random generator, so two runs would not be comparable
+        final List<String> annotationsToExclude= Arrays.asList("StrandArtifact", "ReferenceBases", "QualByDepth");
+        final List<FeatureInput<VariantContext>> features = Collections.emptyList();
+        final VariantAnnotatorEngine sequential = VariantAnnotatorEngine.ofAllMinusExcluded(annotationsToExclude, null, features);
+        final VariantAnnotatorEngine parallel = VariantAnnotatorEngine.ofAllMinusExcluded(annotationsToExclude, null, features);
+        parallel.setNumAnnotationThreads(4);
+        Assert.assertEquals(parallel.getNumAnnotationThreads(), 4);
+
+        final Allele refAllele = Allele.create("A", true);
+        final Allele altAllele = Allele.create("T");
+        final VariantContext vc = makeVC(refAllele, altAllele);
+
+        final VariantContext expected = sequential.annotateContext(vc, new FeatureContext(), null, makeReadLikelihoods(3, 5, refAllele, altAllele), a->true);
+        final VariantContext actual = parallel.annotateContext(vc, new FeatureContext(), null, makeReadLikelihoods(3, 5, refAllele, altAllele), a->true);
+        parallel.close();
+        Assert.assertEquals(parallel.getNumAnnotationThreads(), 1);
+
+        Assert.assertEquals(new ArrayList<>(actual.getAttributes().keySet()), new ArrayList<>(expected.getAttributes().keySet()));
+        Assert.assertEquals(actual.getAttributes().toString(), expected.getAttributes().toString());
+        Assert.assertEquals(actual.getGenotypes().toString(), expected.getGenotypes().toString());
+    }
+
     @Test
     public void testMultipleAnnotations() throws Exception {
         final List<String> annotationsToExclude = Collections.emptyList();
@@ -133,6 +133,22 @@ public final class BaseRecalibratorIntegrationTest extends CommandLineProgramTes
         IntegrationTestSpec.assertEqualTextFiles(actualTablePost, expectedTablePost);
     }
 
+    @Test
+    public void testBQSRWithMultipleThreadsMatchesSingleThread() throws IOException {
+        final String hg18Reference = publicTestDir + "human_g1k_v37.chr17_1Mb.fasta";
+        final String dbSNPb37_chr17 =  getResourceDir() + "dbsnp_132.b37.excluding_sites_after_129.chr17_69k_70k.vcf";
+        final String HiSeqBam_chr17 = getResourceDir() + "NA12878.chr17_69k_70k.dictFix.bam";
+        final String commonArgs = "-R " + hg18Reference + " -indelBQSR --knownSites " + dbSNPb37_chr17 + " -I " + HiSeqBam_chr17;
+
+        final File singleThreadTable = createTempFile("gatk4.singleThread", ".table");
+        new BaseRecalibrator().instanceMain(Utils.escapeExpressions(commonArgs + " -O " + singleThreadTable.getAbsolutePath()));
+
+        final File multiThreadTable = createTempFile("gatk4.multiThread", ".table");
+        new BaseRecalibrator().instanceMain(Utils.escapeExpressions(commonArgs + " -recalibrationThreads 4 -O " + multiThreadTable.getAbsolutePath()));
+
+        IntegrationTestSpec.assertEqualTextFiles(multiThreadTable, singleThreadTable);
+    }
+
     @Test
     public void testBQSRFailWithoutDBSNP() throws IOException {
         final String resourceDir =  getTestDataDir() + "/" + "BQSR" + "/";
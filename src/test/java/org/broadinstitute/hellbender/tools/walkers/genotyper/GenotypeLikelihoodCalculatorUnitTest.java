@@ -12,6 +12,9 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Tests {@link GenotypeLikelihoodCalculators} and {@link GenotypeLikelihoodCalculator}.
@@ -78,6 +81,34 @@ public final class GenotypeLikelihoodCalculatorUnitTest {
         }
     }
 
+    @Test(dataProvider = "ploidyAndMaximumAlleleAndReadCountsData", dependsOnMethods = "testLikelihoodCalculation")
+    public void testConcurrentLikelihoodCalculation(final int ploidy, final int alleleCount, final int[] readCount) throws Exception {
+        final ReadLikelihoods<Allele> readLikelihoods = ReadLikelihoodsUnitTester.readLikelihoods(alleleCount, readCount);
+        final GenotypeLikelihoodCalculator calculator = new GenotypeLikelihoodCalculators().getInstance(ploidy, alleleCount);
+        final int sampleCount = readCount.length;
+        final List<double[]> expected = new ArrayList<>(sampleCount);
+        for (int s = 0; s < sampleCount; s++) {
+            expected.add(calculator.genotypeLikelihoods(readLikelihoods.sampleMatrix(s)).getAsVector());
+        }
+
+        // every thread uses the same calculator on samples with different read counts.
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<double[]>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                for (int s = 0; s < sampleCount; s++) {
+                    final LikelihoodMatrix<Allele> sampleLikelihoods = readLikelihoods.sampleMatrix(s);
+                    results.add(executor.submit(() -> calculator.genotypeLikelihoods(sampleLikelihoods).getAsVector()));
+                }
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals(results.get(i).get(), expected.get(i % sampleCount));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test(dataProvider = "ploidyAndMaximumAlleleAndNewMaximumAlleleData")
     public void testGenotypeIndexMap(final int ploidy, final int oldAlleleCount, final int newAlleleCount) {
         final Random rnd = Utils.getRandomGenerator();
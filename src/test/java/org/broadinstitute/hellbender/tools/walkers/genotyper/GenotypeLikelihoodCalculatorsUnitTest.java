@@ -75,6 +75,27 @@ public final class GenotypeLikelihoodCalculatorsUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "genotypeCount")
+    public void testInstancePrecomputedTables(int ploidy, int alleleCount, int expected) throws Exception {
+        final GenotypeLikelihoodCalculators precomputed = new GenotypeLikelihoodCalculators(4, 6);
+        Assert.assertEquals(precomputed.genotypeCount(ploidy, alleleCount), expected);
+        if (ploidy > 0) {
+            Assert.assertEquals(precomputed.getInstance(ploidy, alleleCount).genotypeCount(), expected);
+        }
+    }
+
+    @Test
+    public void testInstancesArePooled() throws Exception {
+        final GenotypeLikelihoodCalculators calculators = new GenotypeLikelihoodCalculators();
+        final GenotypeLikelihoodCalculator diploid = calculators.getInstance(2, 3);
+        Assert.assertSame(calculators.getInstance(2, 3), diploid);
+        // expanding the tables keeps the calculators created so far.
+        final GenotypeLikelihoodCalculator polyploid = calculators.getInstance(6, 10);
+        Assert.assertSame(calculators.getInstance(2, 3), diploid);
+        Assert.assertSame(calculators.getInstance(6, 10), polyploid);
+        Assert.assertNotSame(calculators.getInstance(2, 4), diploid);
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testGenotypeCountOverflow() throws Exception {
         final int genotypeCount = new GenotypeLikelihoodCalculators().genotypeCount(10_000, 10_000);
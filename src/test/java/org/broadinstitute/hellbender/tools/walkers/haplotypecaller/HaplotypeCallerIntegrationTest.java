@@ -185,6 +185,33 @@ public class HaplotypeCallerIntegrationTest extends CommandLineProgramTest {
         IntegrationTestSpec.assertEqualTextFiles(output, expected);
     }
 
+    /*
+     * Test that determining assembly regions on multiple threads produces exactly the same GVCF as the serial traversal
+     */
+    @Test(dataProvider="HaplotypeCallerTestInputs")
+    public void testGVCFModeWithParallelAssemblyRegionsIsConsistentWithPastResults(final String inputFileName, final String referenceFileName) throws Exception {
+        Utils.resetRandomGenerator();
+
+        final File output = createTempFile("testGVCFModeWithParallelAssemblyRegionsIsConsistentWithPastResults", ".g.vcf");
+        final File expected = new File(TEST_FILES_DIR, "expected.testGVCFMode.gatk4.g.vcf");
+
+        final String[] args = {
+                "-I", inputFileName,
+                "-R", referenceFileName,
+                "-L", "20:10000000-10100000",
+                "-O", output.getAbsolutePath(),
+                "-ERC", "GVCF",
+                "-pairHMM", "AVX_LOGLESS_CACHING",
+                "-assemblyRegionThreads", "4",
+                "-addOutputVCFCommandLine", "false"
+        };
+
+        runCommandLine(args);
+
+        // Test for an exact match against past results
+        IntegrationTestSpec.assertEqualTextFiles(output, expected);
+    }
+
     /*
      * Test that in GVCF mode we're consistent with past GATK4 results using AS_ annotations
      *
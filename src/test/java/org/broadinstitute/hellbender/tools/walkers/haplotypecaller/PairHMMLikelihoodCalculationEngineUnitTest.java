@@ -7,6 +7,7 @@ import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
@@ -204,4 +205,50 @@ public final class PairHMMLikelihoodCalculationEngineUnitTest extends GATKBaseTe
         lce.close();
         new File(PairHMMLikelihoodCalculationEngine.LIKELIHOODS_FILENAME).delete();
     }
+
+    @Test
+    public void testComputeLikelihoodsWithResultCache(){
+        PairHMMLikelihoodCalculationEngine.writeLikelihoodsToFile = false;
+
+        final PairHMMLikelihoodCalculationEngine uncached = new PairHMMLikelihoodCalculationEngine((byte) 10, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                PairHMM.BASE_QUALITY_SCORE_THRESHOLD, 0);
+        final PairHMMLikelihoodCalculationEngine cached = new PairHMMLikelihoodCalculationEngine((byte) 10, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                PairHMM.BASE_QUALITY_SCORE_THRESHOLD, 100);
+
+        final String sample = "sample1";
+        final SampleList samples = new IndexedSampleList(sample);
+        final AssemblyResultSet assemblyResultSet = new AssemblyResultSet();
+        final Haplotype refHaplotype = new Haplotype("ACGTACGTTTGCAACGTA".getBytes(), true);
+        final Haplotype altHaplotype = new Haplotype("ACGTACGTTAGCAACGTA".getBytes(), false);
+        final List<GATKRead> reads = new ArrayList<>();
+        for (final String bases : Arrays.asList("ACGTACGTTT", "CGTTAGCAAC", "GTTTGCAACG")) {
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(bases.getBytes(), Utils.dupBytes((byte) 30, bases.length()), bases.length() + "M");
+            read.setMappingQuality(60);
+            reads.add(read);
+        }
+        refHaplotype.setGenomeLocation(reads.get(0));
+        altHaplotype.setGenomeLocation(reads.get(0));
+        assemblyResultSet.add(refHaplotype);
+        assemblyResultSet.add(altHaplotype);
+
+        // the second batch overlaps the first, as reads in the padding of neighboring regions would
+        for (final List<GATKRead> batch : Arrays.asList(reads.subList(0, 2), reads.subList(1, 3), reads)) {
+            final Map<String, List<GATKRead>> perSampleReadList = Collections.singletonMap(sample, batch);
+            final LikelihoodMatrix<Haplotype> expected = uncached.computeReadLikelihoods(assemblyResultSet, samples, perSampleReadList).sampleMatrix(0);
+            final LikelihoodMatrix<Haplotype> actual = cached.computeReadLikelihoods(assemblyResultSet, samples, perSampleReadList).sampleMatrix(0);
+            Assert.assertEquals(actual.numberOfReads(), expected.numberOfReads());
+            for (int r = 0; r < expected.numberOfReads(); r++) {
+                for (int h = 0; h < expected.numberOfAlleles(); h++) {
+                    Assert.assertEquals(actual.get(h, r), expected.get(h, r));
+                }
+            }
+        }
+        // counted per read x haplotype pair: the first batch and the third read miss, the rest hit
+        Assert.assertEquals(cached.getResultCache().getMisses(), 6);
+        Assert.assertEquals(cached.getResultCache().getHits(), 8);
+        uncached.close();
+        cached.close();
+    }
 }
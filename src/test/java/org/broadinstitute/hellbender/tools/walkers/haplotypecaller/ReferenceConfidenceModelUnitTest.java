@@ -116,12 +116,37 @@ public final class ReferenceConfidenceModelUnitTest extends GATKBaseTest {
         final byte qual = (byte)30;
         final byte[] quals = Utils.dupBytes(qual, readBases.length());
 
+        // the same read at every position, as over an active region
+        final GATKRead sharedRead = ArtificialReadUtils.createArtificialRead(readBases.getBytes(), quals, readBases.length() + "M");
+        final ReferenceConfidenceModel.MismatchingQualitySums sums = new ReferenceConfidenceModel.MismatchingQualitySums(ref.getBytes());
         for ( int i = 0; i < readBases.getBytes().length; i++ ) {
             final GATKRead read = ArtificialReadUtils.createArtificialRead(readBases.getBytes(), quals, readBases.length() + "M");
             final SimpleInterval loc = new SimpleInterval("20", i + 1, i + 1);
             final ReadPileup pileup = new ReadPileup(loc, Collections.singletonList(read), i);
             final int actual = model.calcNIndelInformativeReads(pileup, i, ref.getBytes(), maxIndelSize);
             Assert.assertEquals(actual, (int)expected.get(i), "failed at position " + i);
+
+            final ReadPileup sharedReadPileup = new ReadPileup(loc, Collections.singletonList(sharedRead), i);
+            Assert.assertEquals(model.calcNIndelInformativeReads(sharedReadPileup, i, ref.getBytes(), maxIndelSize, sums), (int)expected.get(i),
+                    "failed with precomputed sums at position " + i);
+        }
+    }
+
+    @Test
+    public void testMismatchingQualitySums() {
+        final byte[] ref = "ACGTTGCAACGGTACA".getBytes();
+        final byte[] readBases = "CGATGCTACG".getBytes();
+        final byte[] quals = new byte[readBases.length];
+        for ( int i = 0; i < quals.length; i++ ) {
+            quals[i] = (byte) (10 + 3 * i);
+        }
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(readBases, quals, readBases.length + "M");
+        final ReferenceConfidenceModel.MismatchingQualitySums sums = new ReferenceConfidenceModel.MismatchingQualitySums(ref);
+        for ( int refStart = 0; refStart <= ref.length; refStart++ ) {
+            for ( int readStart = 0; readStart <= readBases.length; readStart++ ) {
+                Assert.assertEquals(sums.sumFrom(read, readStart, refStart), model.sumMismatchingQualities(read, readStart, ref, refStart, Integer.MAX_VALUE),
+                        "readStart " + readStart + " refStart " + refStart);
+            }
         }
     }
 
@@ -0,0 +1,104 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public final class PackedKmersUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "sequences")
+    public Object[][] getSequences() {
+        final String longSequence = "ACGTTGCAACGGTACCATGCATTTAGGCACGTAGCTAGCTAGGATCCGATCGATTTACG";
+        return new Object[][] {
+                { "ACGT", 1 },
+                { "ACGTACGTACGT", 4 },
+                { longSequence, 11 },
+                { longSequence, PackedKmers.MAX_PACKED_KMER_SIZE },
+                { longSequence, PackedKmers.MAX_PACKED_KMER_SIZE + 1 },
+                { "ACGTNACGTACGTTTTACGTNNACGT", 4 },
+                { "ACGTRACGTacgtTTTACGTACGT", 3 },
+        };
+    }
+
+    @Test(dataProvider = "sequences")
+    public void testPackAllMatchesPack(final String sequence, final int kmerSize) {
+        final byte[] bases = sequence.getBytes();
+        for ( int start = 0; start < 3; start++ ) {
+            final long[] packedKmers = PackedKmers.packAll(bases, start, bases.length, kmerSize);
+            Assert.assertEquals(packedKmers.length, Math.max(0, bases.length - kmerSize - start + 1));
+            for ( int i = 0; i < packedKmers.length; i++ ) {
+                Assert.assertEquals(packedKmers[i], PackedKmers.pack(bases, start + i, kmerSize), "kmer at " + (start + i));
+            }
+        }
+    }
+
+    @Test
+    public void testPack() {
+        Assert.assertEquals(PackedKmers.pack("ACGT".getBytes(), 0, 4), 0b00011011L);
+        Assert.assertEquals(PackedKmers.pack("TTACGT".getBytes(), 2, 4), 0b00011011L);
+        Assert.assertNotEquals(PackedKmers.pack("ACGT".getBytes(), 0, 4), PackedKmers.pack("ACGTA".getBytes(), 0, 5));
+        Assert.assertEquals(PackedKmers.pack("ACNT".getBytes(), 0, 4), PackedKmers.NOT_PACKABLE);
+        Assert.assertEquals(PackedKmers.pack("ACgT".getBytes(), 0, 4), PackedKmers.NOT_PACKABLE);
+        Assert.assertEquals(PackedKmers.pack(repeatedBase('T', PackedKmers.MAX_PACKED_KMER_SIZE), 0, PackedKmers.MAX_PACKED_KMER_SIZE), (1L << 62) - 1);
+        Assert.assertEquals(PackedKmers.pack(repeatedBase('A', 40), 0, PackedKmers.MAX_PACKED_KMER_SIZE + 1), PackedKmers.NOT_PACKABLE);
+    }
+
+    private static byte[] repeatedBase(final char base, final int n) {
+        final byte[] bases = new byte[n];
+        Arrays.fill(bases, (byte) base);
+        return bases;
+    }
+
+    /**
+     * The collections must behave as collections of {@link Kmer}s, whether or not the kmers can be packed
+     */
+    @Test(dataProvider = "sequences")
+    public void testCollectionsMatchKmerCollections(final String sequence, final int kmerSize) {
+        final byte[] bases = sequence.getBytes();
+        final PackedKmers.KmerSet set = new PackedKmers.KmerSet(kmerSize);
+        final PackedKmers.KmerMap<Integer> map = new PackedKmers.KmerMap<>(kmerSize);
+        final Set<Kmer> expectedSet = new LinkedHashSet<>();
+        final Map<Kmer, Integer> expectedMap = new HashMap<>();
+
+        for ( int i = 0; i <= bases.length - kmerSize; i++ ) {
+            final Kmer kmer = new Kmer(bases, i, kmerSize);
+            final long packed = PackedKmers.pack(bases, i, kmerSize);
+            Assert.assertEquals(set.contains(bases, i, packed), expectedSet.contains(kmer));
+            Assert.assertEquals(set.add(bases, i, packed), expectedSet.add(kmer));
+            Assert.assertEquals(map.containsKey(bases, i, packed), expectedMap.containsKey(kmer));
+            if ( ! expectedMap.containsKey(kmer) ) {
+                map.put(bases, i, packed, i);
+                expectedMap.put(kmer, i);
+            }
+            Assert.assertEquals(map.get(bases, i, packed), expectedMap.get(kmer));
+            Assert.assertEquals(map.get(kmer), expectedMap.get(kmer));
+        }
+
+        Assert.assertEquals(set.size(), expectedSet.size());
+        Assert.assertEquals(set.toKmers(), expectedSet);
+        Assert.assertEquals(map.size(), expectedMap.size());
+        Assert.assertEquals(new HashSet<>(map.values()), new HashSet<>(expectedMap.values()));
+
+        for ( final Kmer kmer : expectedSet ) {
+            map.remove(kmer.bases());
+            Assert.assertNull(map.get(kmer));
+        }
+        Assert.assertEquals(map.size(), 0);
+    }
+
+    @Test
+    public void testMapIgnoresOtherKmerSizes() {
+        final PackedKmers.KmerMap<String> map = new PackedKmers.KmerMap<>(3);
+        final byte[] bases = "ACG".getBytes();
+        map.put(bases, 0, PackedKmers.pack(bases, 0, 3), "ACG");
+
+        Assert.assertNull(map.get(new Kmer("ACGT")));
+        Assert.assertNull(map.get(new Kmer("AC")));
+        map.remove("ACGT".getBytes());
+        Assert.assertEquals(map.get(new Kmer("ACG")), "ACG");
+    }
+}
@@ -225,6 +225,53 @@ public final class ReadThreadingAssemblerUnitTest extends GATKBaseTest {
         Assert.assertEquals(haplotypes.get(1), altHaplotype);
     }
 
+    @DataProvider(name = "ParallelAssemblyTestData")
+    public Object[][] makeParallelAssemblyTestData() {
+        final String contig = "1";
+        final int start = 100000;
+        final String ref = new String(seq.getSubsequenceAt(contig, start, start + 200).getBases());
+        final String alt = ref.substring(0, 80) + (ref.charAt(80) == 'A' ? 'C' : 'A') + ref.substring(81, 120) + "TTG" + ref.substring(120);
+
+        // a 72bp tandem repeat makes all kmer sizes up to 60 non-unique in the reference, so the assembler has to retry larger ones
+        final String repeatUnit = "ACGTTGCATGCA";
+        final String repeat = ref.substring(0, 100) + String.join("", Collections.nCopies(6, repeatUnit)) + ref.substring(100, 200);
+        final String repeatAlt = repeat.substring(0, 70) + (repeat.charAt(70) == 'A' ? 'C' : 'A') + repeat.substring(71);
+
+        return new Object[][] {
+                { new SimpleInterval(contig, start, start + 200), ref, alt, Arrays.asList(10, 15, 20, 25, 30) },
+                { new SimpleInterval(contig, start, start + repeat.length() - 1), repeat, repeatAlt, Arrays.asList(10, 25) },
+        };
+    }
+
+    @Test(dataProvider = "ParallelAssemblyTestData")
+    public void testParallelAssemblyMatchesSequentialAssembly(final SimpleInterval loc, final String ref, final String alt, final List<Integer> kmerSizes) {
+        final List<GATKRead> reads = new LinkedList<>();
+        for ( int i = 0; i < 20; i++ ) {
+            final byte[] bases = (i % 2 == 0 ? ref : alt).getBytes();
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, loc.getContig(), loc.getStart(), bases, Utils.dupBytes((byte) 30, bases.length), bases.length + "M"));
+        }
+
+        final List<Haplotype> expected = assemble(new ReadThreadingAssembler(128, kmerSizes, false, false, 1), ref.getBytes(), loc, reads);
+        Assert.assertTrue(expected.size() > 1, "Failed to find alt haplotypes");
+
+        for ( final int numThreads : Arrays.asList(2, 3, 8) ) {
+            try ( final ReadThreadingAssembler assembler = new ReadThreadingAssembler(128, kmerSizes, false, false, 1) ) {
+                assembler.setNumAssemblyThreads(numThreads);
+                final List<Haplotype> actual = assemble(assembler, ref.getBytes(), loc, reads);
+                Assert.assertEquals(actual, expected, "Different haplotypes with " + numThreads + " threads");
+                for ( int i = 0; i < expected.size(); i++ ) {
+                    Assert.assertEquals(actual.get(i).getCigar(), expected.get(i).getCigar());
+                    Assert.assertEquals(actual.get(i).getScore(), expected.get(i).getScore());
+                }
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroAssemblyThreads() {
+        new ReadThreadingAssembler().setNumAssemblyThreads(0);
+    }
+
     private static class TestAssembler {
         final ReadThreadingAssembler assembler;
         private final SAMFileHeader header;
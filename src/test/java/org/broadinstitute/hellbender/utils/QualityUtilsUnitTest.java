@@ -119,6 +119,17 @@ public final class QualityUtilsUnitTest extends GATKBaseTest {
         Assert.assertEquals(QualityUtils.qualToProbLog10((byte) 40), Math.log10(0.9999), 1e-6);
     }
 
+    @Test
+    public void testQualCachesCoverAllByteQuals() {
+        for (int qual = 0; qual < QualityUtils.BYTE_QUAL_COUNT; qual++) {
+            final byte byteQual = (byte) qual;
+            Assert.assertEquals(QualityUtils.qualToErrorProb(byteQual), QualityUtils.qualToErrorProb((double) qual));
+            Assert.assertEquals(QualityUtils.qualToProb(byteQual), QualityUtils.qualToProb((double) qual));
+            Assert.assertEquals(QualityUtils.qualToErrorProbLog10(byteQual), QualityUtils.qualToErrorProbLog10((double) qual));
+            Assert.assertEquals(QualityUtils.qualToProbLog10(byteQual), Math.log10(QualityUtils.qualToProb((double) qual)));
+        }
+    }
+
     @Test()
     public void testBoundingDefault() {
         for ( int qual = 0; qual < 1000; qual++ ) {
@@ -99,6 +99,28 @@ public final class ReadLikelihoodsUnitTest {
         }
     }
 
+    @Test(dataProvider = "dataSets")
+    public void testBestAllelesAfterChangingLikelihoods(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
+        final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        fillWithRandomLikelihoods(samples,alleles,original);
+        original.precomputeBestAlleles();
+        if (alleles.length < 2) {
+            return;
+        }
+        for (int s = 0; s < samples.length; s++) {
+            if (original.sampleReadCount(s) == 0) {
+                continue;
+            }
+            final ReadLikelihoods<Allele>.BestAllele before = original.bestAlleles(samples[s]).iterator().next();
+            final int newBestAlleleIndex = before.allele.equals(alleles[0]) ? 1 : 0;
+            original.sampleMatrix(s).set(newBestAlleleIndex, 0, before.likelihood + 10);
+            final ReadLikelihoods<Allele>.BestAllele after = original.bestAlleles(samples[s]).iterator().next();
+            Assert.assertEquals(after.read, before.read);
+            Assert.assertEquals(after.allele, alleles[newBestAlleleIndex]);
+            Assert.assertEquals(after.likelihood, before.likelihood + 10);
+        }
+    }
+
     @Test(dataProvider = "dataSets")
     public void testBestAlleleMap(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
         final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
@@ -173,6 +195,46 @@ public final class ReadLikelihoodsUnitTest {
         }
     }
 
+    @Test(dataProvider = "dataSets")
+    public void testAddReadsAfterFilteringReusesCapacity(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
+        final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        fillWithRandomLikelihoods(samples, alleles, original);
+        final ReadLikelihoods<Allele> result = original.copy();
+
+        // removing the odd reads leaves unused (stale) capacity at the end of each allele row that the re-added reads
+        // must not inherit.
+        final Map<String,List<GATKRead>> removedReadsBySample = new LinkedHashMap<>();
+        for (int s = 0; s < samples.length; s++) {
+            final List<GATKRead> oddReads = new ArrayList<>();
+            for (int r = 1; r < original.sampleReadCount(s); r += 2) {
+                oddReads.add(original.sampleReads(s).get(r));
+            }
+            removedReadsBySample.put(samples[s], oddReads);
+            result.removeSampleReads(s, new ArrayList<>(oddReads), alleles.length);
+        }
+        result.addReads(removedReadsBySample, 0.0);
+
+        for (int s = 0; s < samples.length; s++) {
+            final int oldSampleReadCount = original.sampleReadCount(s);
+            final int evenReadCount = (oldSampleReadCount + 1) / 2;
+            Assert.assertEquals(result.sampleReadCount(s), oldSampleReadCount);
+            final LikelihoodMatrix<Allele> newSampleMatrix = result.sampleMatrix(s);
+            final LikelihoodMatrix<Allele> oldSampleMatrix = original.sampleMatrix(s);
+            for (int r = 0; r < oldSampleReadCount; r++) {
+                for (int a = 0; a < alleles.length; a++) {
+                    Assert.assertEquals(newSampleMatrix.get(a, r), r < evenReadCount ? oldSampleMatrix.get(a, r * 2) : 0.0);
+                }
+            }
+            for (int a = 0; a < alleles.length; a++) {
+                final double[] alleleLikelihoods = new double[oldSampleReadCount];
+                newSampleMatrix.copyAlleleLikelihoods(a, alleleLikelihoods, 0);
+                for (int r = 0; r < oldSampleReadCount; r++) {
+                    Assert.assertEquals(alleleLikelihoods[r], newSampleMatrix.get(a, r));
+                }
+            }
+        }
+    }
+
     @Test(dataProvider = "dataSets")
     public void testFilterReadsToOverlap(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
         final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
@@ -0,0 +1,131 @@
+package org.broadinstitute.hellbender.utils.instrumentation;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public final class InstrumentationUnitTest extends GATKBaseTest {
+
+    @AfterMethod
+    public void disableInstrumentation() {
+        Instrumentation.disable();
+        Instrumentation.reset();
+    }
+
+    @Test
+    public void testNothingIsRecordedWhenDisabled() {
+        Instrumentation.disable();
+        final PhaseTimer timer = Instrumentation.timer("InstrumentationUnitTest.disabledTimer");
+        final EventCounter counter = Instrumentation.counter("InstrumentationUnitTest.disabledCounter");
+        final ValueHistogram histogram = Instrumentation.histogram("InstrumentationUnitTest.disabledHistogram");
+
+        timer.stop(timer.start());
+        counter.add(10);
+        histogram.record(5);
+
+        Assert.assertEquals(timer.getCount(), 0);
+        Assert.assertEquals(counter.getCount(), 0);
+        Assert.assertEquals(histogram.getCount(), 0);
+
+        final Iterator<Integer> iterator = Arrays.asList(1, 2).iterator();
+        Assert.assertSame(timer.time(iterator), iterator);
+    }
+
+    @Test
+    public void testMetricsAreSharedByName() {
+        Assert.assertSame(Instrumentation.timer("InstrumentationUnitTest.shared"), Instrumentation.timer("InstrumentationUnitTest.shared"));
+        Assert.assertSame(Instrumentation.counter("InstrumentationUnitTest.shared"), Instrumentation.counter("InstrumentationUnitTest.shared"));
+        Assert.assertSame(Instrumentation.histogram("InstrumentationUnitTest.shared"), Instrumentation.histogram("InstrumentationUnitTest.shared"));
+    }
+
+    @Test
+    public void testTimer() {
+        final PhaseTimer timer = Instrumentation.timer("InstrumentationUnitTest.timer");
+        Instrumentation.enable();
+        timer.record(10);
+        timer.record(30);
+        final long start = timer.start();
+        timer.stop(start);
+
+        Assert.assertEquals(timer.getCount(), 3);
+        Assert.assertTrue(timer.getTotalNanos() >= 40);
+        Assert.assertTrue(timer.getMaxNanos() >= 30);
+
+        final List<Integer> elements = Arrays.asList(1, 2, 3);
+        final Iterator<Integer> timed = timer.time(elements.iterator());
+        int sum = 0;
+        while ( timed.hasNext() ) {
+            sum += timed.next();
+        }
+        Assert.assertEquals(sum, 6);
+        // 4 calls to hasNext and 3 to next
+        Assert.assertEquals(timer.getCount(), 3 + 7);
+
+        Instrumentation.enable();
+        Assert.assertEquals(timer.getCount(), 0, "enabling must reset the metrics");
+    }
+
+    @Test
+    public void testCounter() {
+        final EventCounter counter = Instrumentation.counter("InstrumentationUnitTest.counter");
+        Instrumentation.enable();
+        counter.increment();
+        counter.add(41);
+        Assert.assertEquals(counter.getCount(), 42);
+    }
+
+    @Test
+    public void testHistogram() {
+        final ValueHistogram histogram = Instrumentation.histogram("InstrumentationUnitTest.histogram");
+        Instrumentation.enable();
+        Assert.assertEquals(histogram.getMin(), 0);
+        for ( final long value : new long[]{0, 1, 2, 3, 4, 7, 8, 1000, -5} ) {
+            histogram.record(value);
+        }
+
+        Assert.assertEquals(histogram.getCount(), 9);
+        Assert.assertEquals(histogram.getSum(), 1025);
+        Assert.assertEquals(histogram.getMin(), 0);
+        Assert.assertEquals(histogram.getMax(), 1000);
+
+        final Map<Long, Long> buckets = histogram.getBucketCounts();
+        Assert.assertEquals(buckets.keySet().toArray(), new Long[]{0L, 1L, 3L, 7L, 15L, 1023L});
+        Assert.assertEquals(buckets.values().toArray(), new Long[]{2L, 1L, 2L, 2L, 1L, 1L});
+    }
+
+    @Test
+    public void testReporter() throws IOException {
+        final File output = createTempFile("instrumentation", ".json");
+        final PhaseTimer timer = Instrumentation.timer("InstrumentationUnitTest.reported\"Timer");
+        final EventCounter counter = Instrumentation.counter("InstrumentationUnitTest.reportedCounter");
+
+        try ( final InstrumentationReporter reporter = new InstrumentationReporter(output.getAbsolutePath(), 0) ) {
+            Assert.assertTrue(Instrumentation.isEnabled());
+            timer.record(2000000);
+            counter.add(7);
+        }
+        Assert.assertFalse(Instrumentation.isEnabled());
+
+        final String json = new String(Files.readAllBytes(output.toPath()));
+        Assert.assertTrue(json.startsWith("{"), json);
+        Assert.assertTrue(json.trim().endsWith("}"), json);
+        Assert.assertTrue(json.contains("\"wallClockSeconds\": "), json);
+        Assert.assertTrue(json.contains("\"InstrumentationUnitTest.reported\\\"Timer\": {\"count\": 1, \"totalSeconds\": 0.002, \"meanMilliseconds\": 2.0, \"maxMilliseconds\": 2.0"), json);
+        Assert.assertTrue(json.contains("\"InstrumentationUnitTest.reportedCounter\": 7"), json);
+        Assert.assertTrue(json.contains("\"snapshots\": []"), json);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testEmptyName() {
+        Instrumentation.timer("");
+    }
+}
@@ -0,0 +1,100 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class ReadAheadIteratorUnitTest extends GATKBaseTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterClass
+    public void shutDownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @DataProvider(name = "readAheadData")
+    public Object[][] readAheadData() {
+        return new Object[][] {
+                // number of elements, batch size, number of batches
+                { 0, 1, 1 },
+                { 1, 1, 1 },
+                { 1000, 1, 1 },
+                { 1000, 7, 3 },
+                { 1000, 1000, 1 },
+                { 1000, 100, 100 },
+        };
+    }
+
+    @Test(dataProvider = "readAheadData")
+    public void testReadAhead(final int numElements, final int batchSize, final int numBatches) {
+        final List<Integer> expected = IntStream.range(0, numElements).boxed().collect(Collectors.toList());
+        final List<Integer> prepared = Collections.synchronizedList(new ArrayList<>());
+
+        final List<Integer> actual = new ArrayList<>();
+        try (final ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(expected.iterator(), prepared::add, batchSize, numBatches, executor)) {
+            iterator.forEachRemaining(actual::add);
+            Assert.assertFalse(iterator.hasNext());
+        }
+
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(prepared, expected);
+    }
+
+    @Test
+    public void testCloseBeforeExhausted() {
+        final Iterator<Integer> endless = new Iterator<Integer>() {
+            private int next = 0;
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+            @Override
+            public Integer next() {
+                return next++;
+            }
+        };
+
+        final ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(endless, null, 10, 2, executor);
+        for ( int i = 0; i < 25; i++ ) {
+            Assert.assertEquals(iterator.next().intValue(), i);
+        }
+        iterator.close();
+        Assert.assertFalse(iterator.hasNext());
+
+        // the background thread must be done with the source once close() returns
+        final int nextFromSource = endless.next();
+        Assert.assertEquals(endless.next().intValue(), nextFromSource + 1);
+    }
+
+    @Test(expectedExceptions = GATKException.class)
+    public void testSourceFailureIsRethrown() {
+        final Iterator<Integer> failing = IntStream.range(0, 100).boxed().map(i -> {
+            if ( i == 50 ) {
+                throw new IllegalStateException("bad element");
+            }
+            return i;
+        }).iterator();
+
+        try (final ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(failing, null, 8, 2, executor)) {
+            iterator.forEachRemaining(i -> {});
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        new ReadAheadIterator<>(Collections.<Integer>emptyIterator(), null, 0, 1, executor);
+    }
+}
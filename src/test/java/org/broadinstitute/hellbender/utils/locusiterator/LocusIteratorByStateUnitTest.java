@@ -1,15 +1,18 @@
 package org.broadinstitute.hellbender.utils.locusiterator;
 
+import com.google.common.collect.Lists;
 import htsjdk.samtools.CigarOperator;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMReadGroupRecord;
 import org.broadinstitute.hellbender.engine.AlignmentContext;
 import org.broadinstitute.hellbender.utils.NGSPlatform;
 import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.DownsampleType;
 import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.pileup.PileupElementPool;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.read.ArtificialBAMBuilder;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
@@ -600,6 +603,79 @@ public final class LocusIteratorByStateUnitTest extends LocusIteratorByStateBase
         }
     }
 
+    @DataProvider(name = "PooledPileupTests")
+    public Object[][] makePooledPileupTests() {
+        final List<Object[]> tests = new LinkedList<>();
+        for ( final int nReadsPerLocus : Arrays.asList(1, 10, 60) ) {
+            for ( final int nLoci : Arrays.asList(1, 10, 25) ) {
+                for ( final int nSamples : Arrays.asList(1, 3) ) {
+                    tests.add(new Object[]{nReadsPerLocus, nLoci, nSamples});
+                }
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "PooledPileupTests")
+    public void testPooledPileupsMatchPileups(final int nReadsPerLocus, final int nLoci, final int nSamples) {
+        final ArtificialBAMBuilder bamBuilder = new ArtificialBAMBuilder(header.getSequenceDictionary(), nReadsPerLocus, nLoci);
+        bamBuilder.createAndSetHeader(nSamples).setReadLength(10).setAlignmentStart(1);
+        final List<GATKRead> reads = bamBuilder.makeReads();
+
+        final LocusIteratorByState li = new LocusIteratorByState(new FakeCloseableIterator<>(reads.iterator()), LocusIteratorByState.NO_DOWNSAMPLING,
+                false, bamBuilder.getSamples(), bamBuilder.getHeader(), true, false);
+        final PileupElementPool pool = new PileupElementPool();
+        final LocusIteratorByState pooledLi = new LocusIteratorByState(new FakeCloseableIterator<>(reads.iterator()), LocusIteratorByState.NO_DOWNSAMPLING,
+                false, bamBuilder.getSamples(), bamBuilder.getHeader(), true, false, pool);
+
+        final Set<PileupElement> pooledElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        int maxPileupSize = 0;
+        while ( li.hasNext() ) {
+            Assert.assertTrue(pooledLi.hasNext());
+            final AlignmentContext expected = li.next();
+            final AlignmentContext actual = pooledLi.next();
+            Assert.assertEquals(actual.getLocation(), expected.getLocation());
+
+            final List<PileupElement> expectedElements = Lists.newArrayList(expected.getBasePileup());
+            final List<PileupElement> actualElements = Lists.newArrayList(actual.getBasePileup());
+            Assert.assertEquals(actualElements.size(), expectedElements.size());
+            for ( int i = 0; i < expectedElements.size(); i++ ) {
+                Assert.assertSame(actualElements.get(i).getRead(), expectedElements.get(i).getRead());
+                Assert.assertEquals(actualElements.get(i).getOffset(), expectedElements.get(i).getOffset());
+                Assert.assertEquals(actualElements.get(i).getCurrentCigarElement(), expectedElements.get(i).getCurrentCigarElement());
+                Assert.assertEquals(actualElements.get(i).getCurrentCigarOffset(), expectedElements.get(i).getCurrentCigarOffset());
+                Assert.assertEquals(actualElements.get(i).getOffsetInCurrentCigar(), expectedElements.get(i).getOffsetInCurrentCigar());
+            }
+
+            maxPileupSize = Math.max(maxPileupSize, actualElements.size());
+            pooledElements.addAll(actualElements);
+            pool.release(actual.getBasePileup());
+            // releasing twice must not hand out the same elements twice
+            pool.release(actual.getBasePileup());
+        }
+        Assert.assertFalse(pooledLi.hasNext());
+
+        // as each pileup was released before the next one was made, no more elements were needed than for the deepest locus
+        Assert.assertEquals(pooledElements.size(), maxPileupSize);
+    }
+
+    @Test
+    public void testReleasingPileupsNotFromPool() {
+        final PileupElementPool pool = new PileupElementPool();
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read1", 0, 1, 10);
+        final SimpleInterval loc = new SimpleInterval(read.getContig(), 1, 1);
+        final ReadPileup pileup = new ReadPileup(loc, Collections.singletonList(read), 0);
+        final PileupElement element = pileup.iterator().next();
+
+        pool.release(pileup);
+        pool.release(new ReadPileup(loc));
+
+        final AlignmentStateMachine state = new AlignmentStateMachine(read);
+        state.stepForwardOnGenome();
+        Assert.assertNotSame(pool.newElement(state), element);
+        Assert.assertEquals(element.getOffset(), 0);
+    }
+
     private void AssertWellOrderedPileup(final ReadPileup pileup) {
         if ( ! pileup.isEmpty() ) {
             final int leftMostPos = -1;
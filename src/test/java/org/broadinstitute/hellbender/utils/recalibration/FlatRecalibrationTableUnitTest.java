@@ -0,0 +1,106 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Random;
+
+public final class FlatRecalibrationTableUnitTest extends GATKBaseTest {
+
+    private static final double[] ERROR_FRACTIONS = {0.0, 1.0, 1.0 / 3.0, 0.25, 0.1};
+
+    @Test
+    public void testMatchesRecalDatumTable3Keys() {
+        final int[] dimensions = {3, 50, EventType.values().length};
+        final NestedIntegerArray<RecalDatum> expected = new NestedIntegerArray<>(dimensions);
+        final FlatRecalibrationTable flat = new FlatRecalibrationTable(dimensions);
+        final Random random = new Random(13);
+
+        for ( int i = 0; i < 100000; i++ ) {
+            final int rg = random.nextInt(dimensions[0]);
+            final byte qual = (byte) random.nextInt(dimensions[1]);
+            final int event = random.nextInt(dimensions[2]);
+            final double isError = ERROR_FRACTIONS[random.nextInt(ERROR_FRACTIONS.length)];
+            RecalUtils.incrementDatumOrPutIfNecessary3keys(expected, qual, isError, rg, qual, event);
+            flat.increment3Keys(qual, isError, rg, qual, event);
+        }
+
+        assertTablesEqual(flat, expected, dimensions);
+    }
+
+    @Test
+    public void testMatchesRecalDatumTable4KeysWithGrowth() {
+        // enough distinct cells to force the hash table to grow several times
+        final int[] dimensions = {2, 40, 1000, EventType.values().length};
+        final NestedIntegerArray<RecalDatum> expected = new NestedIntegerArray<>(dimensions);
+        final FlatRecalibrationTable flat = new FlatRecalibrationTable(dimensions);
+        final Random random = new Random(17);
+
+        for ( int i = 0; i < 200000; i++ ) {
+            final int rg = random.nextInt(dimensions[0]);
+            final byte qual = (byte) random.nextInt(dimensions[1]);
+            final int covariate = random.nextInt(dimensions[2]);
+            final int event = random.nextInt(dimensions[3]);
+            final double isError = ERROR_FRACTIONS[random.nextInt(ERROR_FRACTIONS.length)];
+            RecalUtils.incrementDatumOrPutIfNecessary4keys(expected, qual, isError, rg, qual, covariate, event);
+            flat.increment4Keys(qual, isError, rg, qual, covariate, event);
+        }
+
+        Assert.assertTrue(flat.size() > 1024);
+        assertTablesEqual(flat, expected, dimensions);
+    }
+
+    @Test
+    public void testClear() {
+        final int[] dimensions = {1, 10, 3};
+        final FlatRecalibrationTable flat = new FlatRecalibrationTable(dimensions);
+        flat.increment3Keys((byte) 5, 1.0, 0, 5, 0);
+        Assert.assertFalse(flat.isEmpty());
+        flat.clear();
+        Assert.assertTrue(flat.isEmpty());
+
+        final NestedIntegerArray<RecalDatum> table = new NestedIntegerArray<>(dimensions);
+        flat.addTo(table);
+        Assert.assertTrue(table.getAllValues().isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testKeyOutOfRange() {
+        new FlatRecalibrationTable(1, 10, 3).increment3Keys((byte) 5, 0.0, 0, 10, 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeKey() {
+        new FlatRecalibrationTable(1, 10, 3).increment3Keys((byte) 5, 0.0, 0, 2, -1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeKeyWith4Dimensions() {
+        new FlatRecalibrationTable(1, 10, 3, 4).increment4Keys((byte) 5, 0.0, 0, -1, 2, 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMismatchedDimensions() {
+        new FlatRecalibrationTable(1, 10, 3).addTo(new NestedIntegerArray<>(1, 11, 3));
+    }
+
+    private static void assertTablesEqual(final FlatRecalibrationTable flat, final NestedIntegerArray<RecalDatum> expected, final int[] dimensions) {
+        final NestedIntegerArray<RecalDatum> actual = new NestedIntegerArray<>(dimensions);
+        flat.addTo(actual);
+
+        final List<NestedIntegerArray.Leaf<RecalDatum>> expectedLeaves = expected.getAllLeaves();
+        Assert.assertEquals(actual.getAllLeaves().size(), expectedLeaves.size());
+        Assert.assertEquals(flat.size(), expectedLeaves.size());
+        for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : expectedLeaves ) {
+            final RecalDatum actualDatum = actual.get(leaf.keys);
+            Assert.assertNotNull(actualDatum);
+            Assert.assertEquals(actualDatum.getNumObservations(), leaf.value.getNumObservations());
+            // must be exactly equal, not just close
+            Assert.assertEquals(Double.doubleToLongBits(actualDatum.getNumMismatches()), Double.doubleToLongBits(leaf.value.getNumMismatches()));
+            Assert.assertEquals(actualDatum.getEstimatedQReported(), leaf.value.getEstimatedQReported());
+        }
+    }
+}
@@ -94,6 +94,17 @@ public final class RecalDatumUnitTest extends GATKBaseTest {
         assertBasicFeaturesOfRecalDatum(copy, combinedCfg);
     }
 
+    @Test(dataProvider = "RecalDatumTestProvider")
+    public void testRecalDatumCombineCounts(RecalDatumTestProvider cfg) {
+        final RecalDatum datum = cfg.makeRecalDatum();
+        final RecalDatum copy = new RecalDatum(datum);
+
+        RecalDatumTestProvider combinedCfg = new RecalDatumTestProvider(cfg.exError * 2, cfg.exTotal * 2, cfg.reportedQual);
+        copy.combineCounts(datum);
+        assertBasicFeaturesOfRecalDatum(copy, combinedCfg);
+        Assert.assertEquals(copy.getEstimatedQReported(), datum.getEstimatedQReported());
+    }
+
     @Test(dataProvider = "RecalDatumTestProvider")
     public void testRecalDatumModification(RecalDatumTestProvider cfg) {
         RecalDatum datum = cfg.makeRecalDatum();
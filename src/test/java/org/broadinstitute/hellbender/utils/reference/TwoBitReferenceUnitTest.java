@@ -0,0 +1,138 @@
+package org.broadinstitute.hellbender.utils.reference;
+
+import htsjdk.samtools.SAMException;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+public final class TwoBitReferenceUnitTest extends GATKBaseTest {
+
+    private static final String CHR17_1MB = publicTestDir + "human_g1k_v37.chr17_1Mb";
+
+    @DataProvider(name = "fastaFiles")
+    public Object[][] getFastaFiles() {
+        return new Object[][] {
+                { hg19MiniReference },
+                { CHR17_1MB + ".fasta" }
+        };
+    }
+
+    @Test
+    public void testReadUcscTwoBitFile() throws IOException {
+        try ( final TwoBitReference twoBit = new TwoBitReference(new File(CHR17_1MB + ".2bit").toPath());
+              final CachingIndexedFastaSequenceFile fasta = new CachingIndexedFastaSequenceFile(new File(CHR17_1MB + ".fasta")) ) {
+            assertSameDictionary(twoBit.getSequenceDictionary(), fasta.getSequenceDictionary());
+            assertSameBases(twoBit, fasta, new Random(11));
+        }
+    }
+
+    @Test(dataProvider = "fastaFiles")
+    public void testWriteAndRead(final String fastaPath) throws IOException {
+        final File output = createTempFile("testWriteAndRead", TwoBitReference.TWO_BIT_EXTENSION);
+        try ( final ReferenceSequenceFile fastaToConvert = ReferenceSequenceFileFactory.getReferenceSequenceFile(new File(fastaPath)) ) {
+            TwoBitReferenceWriter.write(fastaToConvert, output.toPath());
+        }
+
+        try ( final TwoBitReference twoBit = new TwoBitReference(output.toPath());
+              final CachingIndexedFastaSequenceFile fasta = new CachingIndexedFastaSequenceFile(new File(fastaPath)) ) {
+            assertSameDictionary(twoBit.getSequenceDictionary(), fasta.getSequenceDictionary());
+            assertSameBases(twoBit, fasta, new Random(13));
+        }
+    }
+
+    @Test
+    public void testWriteMatchesUcscTwoBitFile() throws IOException {
+        // the reference 2bit file was created by faToTwoBit, and has no soft-masked bases
+        final File output = createTempFile("testWriteMatchesUcscTwoBitFile", TwoBitReference.TWO_BIT_EXTENSION);
+        try ( final ReferenceSequenceFile fasta = ReferenceSequenceFileFactory.getReferenceSequenceFile(new File(CHR17_1MB + ".fasta")) ) {
+            TwoBitReferenceWriter.write(fasta, output.toPath());
+        }
+        Assert.assertEquals(Files.readAllBytes(output.toPath()), Files.readAllBytes(new File(CHR17_1MB + ".2bit").toPath()));
+    }
+
+    @Test
+    public void testCaseAndIupacCodes() throws IOException {
+        final File fastaFile = createTempFile("testCaseAndIupacCodes", ".fasta");
+        Files.write(fastaFile.toPath(), Arrays.asList(
+                ">seq1", "acgtACGTnNRYKMSWBDHV", "rykmswbdhvACGTa",
+                ">seq2 description", "N",
+                ">seq3", "GATTACA"));
+
+        final File output = createTempFile("testCaseAndIupacCodes", TwoBitReference.TWO_BIT_EXTENSION);
+        try ( final ReferenceSequenceFile fasta = ReferenceSequenceFileFactory.getReferenceSequenceFile(fastaFile) ) {
+            TwoBitReferenceWriter.write(fasta, output.toPath());
+        }
+
+        try ( final TwoBitReference twoBit = new TwoBitReference(output.toPath()) ) {
+            Assert.assertEquals(twoBit.getSequenceDictionary().size(), 3);
+            Assert.assertEquals(new String(twoBit.getSubsequenceAt("seq1", 1, 35).getBases()), "ACGTACGTNNNNNNNNNNNNNNNNNNNNNNACGTA");
+            Assert.assertEquals(new String(twoBit.getSubsequenceAt("seq1", 7, 12).getBases()), "GTNNNN");
+            Assert.assertEquals(new String(twoBit.getSubsequenceAt("seq1", 30, 35).getBases()), "NACGTA");
+            Assert.assertEquals(new String(twoBit.getSubsequenceAt("seq2", 1, 1).getBases()), "N");
+            Assert.assertEquals(new String(twoBit.getSubsequenceAt("seq3", 2, 6).getBases()), "ATTAC");
+            Assert.assertEquals(twoBit.getSubsequenceAt("seq3", 2, 6).getContigIndex(), 2);
+            Assert.assertEquals(twoBit.getSubsequenceAt("seq3", 4, 3).getBases().length, 0);
+        }
+    }
+
+    @Test(expectedExceptions = SAMException.class)
+    public void testQueryPastContigEnd() {
+        try ( final TwoBitReference twoBit = new TwoBitReference(new File(CHR17_1MB + ".2bit").toPath()) ) {
+            twoBit.getSubsequenceAt("17", 999990, 1000001);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.MissingContigInSequenceDictionary.class)
+    public void testQueryUnknownContig() {
+        try ( final TwoBitReference twoBit = new TwoBitReference(new File(CHR17_1MB + ".2bit").toPath()) ) {
+            twoBit.getSubsequenceAt("1", 1, 10);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotATwoBitFile() {
+        new TwoBitReference(new File(hg19MiniReference).toPath());
+    }
+
+    @Test(expectedExceptions = UserException.CouldNotReadInputFile.class)
+    public void testMissingFile() {
+        new TwoBitReference(getSafeNonExistentFile("missing.2bit").toPath());
+    }
+
+    private static void assertSameDictionary(final SAMSequenceDictionary actual, final SAMSequenceDictionary expected) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for ( int i = 0; i < expected.size(); i++ ) {
+            final SAMSequenceRecord record = expected.getSequence(i);
+            Assert.assertEquals(actual.getSequence(i).getSequenceName(), record.getSequenceName());
+            Assert.assertEquals(actual.getSequence(i).getSequenceLength(), record.getSequenceLength());
+        }
+    }
+
+    private static void assertSameBases(final TwoBitReference twoBit, final CachingIndexedFastaSequenceFile fasta, final Random random) {
+        for ( final SAMSequenceRecord record : fasta.getSequenceDictionary().getSequences() ) {
+            final int length = record.getSequenceLength();
+            Assert.assertEquals(twoBit.getSubsequenceAt(record.getSequenceName(), 1, length).getBases(),
+                    fasta.getSubsequenceAt(record.getSequenceName(), 1, length).getBases());
+            for ( int i = 0; i < 200; i++ ) {
+                final int start = 1 + random.nextInt(length);
+                final int stop = Math.min(length, start + random.nextInt(300));
+                Assert.assertEquals(twoBit.getSubsequenceAt(record.getSequenceName(), start, stop).getBases(),
+                        fasta.getSubsequenceAt(record.getSequenceName(), start, stop).getBases(),
+                        record.getSequenceName() + ":" + start + "-" + stop);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class ParallelTaskRunnerUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "numThreads")
+    public Object[][] numThreads() {
+        return new Object[][]{{1}, {2}, {4}};
+    }
+
+    private static List<Callable<Integer>> tasks(final Integer... results) {
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for ( final Integer result : results ) {
+            tasks.add(() -> result);
+        }
+        return tasks;
+    }
+
+    @Test(dataProvider = "numThreads")
+    public void testRunAllReturnsResultsInTaskOrder(final int numThreads) {
+        try ( final ParallelTaskRunner runner = new ParallelTaskRunner(numThreads, "test", "testing") ) {
+            Assert.assertEquals(runner.getNumThreads(), numThreads);
+            Assert.assertEquals(runner.isParallel(), numThreads > 1);
+            final List<Integer> expected = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+            Assert.assertEquals(runner.runAll(tasks(expected.toArray(new Integer[0]))), expected);
+        }
+    }
+
+    @Test(dataProvider = "numThreads")
+    public void testRunUntilFirstResult(final int numThreads) {
+        try ( final ParallelTaskRunner runner = new ParallelTaskRunner(numThreads, "test", "testing") ) {
+            Assert.assertEquals(runner.runUntilFirstResult(tasks(null, null, null, 3, null, 5, 6)), Integer.valueOf(3));
+            Assert.assertNull(runner.runUntilFirstResult(tasks(null, null, null)));
+        }
+    }
+
+    @Test(dataProvider = "numThreads", expectedExceptions = IllegalStateException.class)
+    public void testRuntimeExceptionIsRethrown(final int numThreads) {
+        try ( final ParallelTaskRunner runner = new ParallelTaskRunner(numThreads, "test", "testing") ) {
+            runner.runAll(Arrays.asList(() -> 1, () -> { throw new IllegalStateException(); }));
+        }
+    }
+
+    @Test(dataProvider = "numThreads", expectedExceptions = GATKException.class)
+    public void testCheckedExceptionIsWrapped(final int numThreads) {
+        try ( final ParallelTaskRunner runner = new ParallelTaskRunner(numThreads, "test", "testing") ) {
+            runner.runAll(Arrays.asList(() -> 1, () -> { throw new IOException(); }));
+        }
+    }
+
+    @Test
+    public void testCloseRunsOnCallingThread() {
+        final ParallelTaskRunner runner = new ParallelTaskRunner(4, "test", "testing");
+        runner.close();
+        Assert.assertEquals(runner.getNumThreads(), 1);
+        Assert.assertFalse(runner.isParallel());
+        final Thread caller = Thread.currentThread();
+        Assert.assertEquals(runner.runAll(Arrays.<Callable<Boolean>>asList(() -> Thread.currentThread() == caller, () -> Thread.currentThread() == caller)),
+                Arrays.asList(true, true));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidNumThreads() {
+        new ParallelTaskRunner(0, "test", "testing");
+    }
+}
@@ -1,10 +1,90 @@
 package org.broadinstitute.hellbender.utils.smithwaterman;
 
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.broadinstitute.hellbender.utils.read.CigarUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 public final class SmithWatermanJavaAlignerUnitTest extends SmithWatermanAlignerAbstractUnitTest {
 
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
     @Override
     protected SmithWatermanJavaAligner getAligner() {
         return SmithWatermanJavaAligner.getInstance();
     }
 
+    @DataProvider(name = "BandedAlignment")
+    public Object[][] makeBandedAlignmentData() {
+        final List<Object[]> tests = new ArrayList<>();
+        for ( final SWParameters parameters : new SWParameters[]{SmithWatermanAligner.ORIGINAL_DEFAULT, SmithWatermanAligner.STANDARD_NGS, CigarUtils.NEW_SW_PARAMETERS} ) {
+            for ( final SWOverhangStrategy strategy : SWOverhangStrategy.values() ) {
+                // the number of mutations and the size of the indels control how far the alignment strays from the
+                // diagonals between the corners, and so whether the first band is enough or has to be widened
+                for ( final int mutations : new int[]{1, 5, 20, 60} ) {
+                    for ( final int maxIndelLength : new int[]{1, 10, 50} ) {
+                        tests.add(new Object[]{parameters, strategy, mutations, maxIndelLength});
+                    }
+                }
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "BandedAlignment")
+    public void testBandedAlignmentMatchesFullMatrix(final SWParameters parameters, final SWOverhangStrategy strategy, final int mutations, final int maxIndelLength) {
+        final Random random = new Random(mutations * 31 + maxIndelLength);
+        for ( int trial = 0; trial < 20; trial++ ) {
+            final byte[] reference = randomBases(random, 50 + random.nextInt(300));
+            final byte[] alternate = mutate(random, reference, mutations, maxIndelLength);
+            final SmithWatermanAlignment expected = SmithWatermanJavaAligner.alignWithoutSubstringSearch(reference, alternate, parameters, strategy, false);
+            final SmithWatermanAlignment actual = SmithWatermanJavaAligner.alignWithoutSubstringSearch(reference, alternate, parameters, strategy, true);
+            Assert.assertEquals(actual.getCigar(), expected.getCigar());
+            Assert.assertEquals(actual.getAlignmentOffset(), expected.getAlignmentOffset());
+        }
+    }
+
+    private static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = BASES[random.nextInt(BASES.length)];
+        }
+        return bases;
+    }
+
+    /**
+     * @return a copy of bases with a number of random substitutions, insertions, deletions and clipped ends
+     */
+    private static byte[] mutate(final Random random, final byte[] bases, final int mutations, final int maxIndelLength) {
+        final StringBuilder mutated = new StringBuilder(new String(bases));
+        for ( int i = 0; i < mutations && mutated.length() > maxIndelLength + 1; i++ ) {
+            final int position = random.nextInt(mutated.length());
+            final int length = 1 + random.nextInt(maxIndelLength);
+            switch ( random.nextInt(4) ) {
+                case 0:
+                    mutated.setCharAt(position, (char) BASES[random.nextInt(BASES.length)]);
+                    break;
+                case 1:
+                    mutated.insert(position, new String(randomBases(random, length)));
+                    break;
+                case 2:
+                    mutated.delete(position, Math.min(mutated.length() - 1, position + length));
+                    break;
+                default:
+                    // drop one of the ends, to align a shorter sequence inside of a longer one
+                    if ( random.nextBoolean() ) {
+                        mutated.delete(0, Math.min(mutated.length() - 1, length));
+                    } else {
+                        mutated.setLength(Math.max(1, mutated.length() - length));
+                    }
+            }
+        }
+        return mutated.toString().getBytes();
+    }
 }
@@ -306,6 +306,47 @@ public class GVCFWriterUnitTest extends GATKBaseTest {
 
 
 
+    @Test
+    public void testReferenceConfidenceSitesMatchHomRefVariantContexts() {
+        final MockWriter vcMockWriter = new MockWriter();
+        final GVCFWriter vcWriter = new GVCFWriter(vcMockWriter, standardPartition, HomoSapiensConstants.DEFAULT_PLOIDY);
+        final MockWriter siteMockWriter = new MockWriter();
+        final GVCFWriter siteWriter = new GVCFWriter(siteMockWriter, standardPartition, HomoSapiensConstants.DEFAULT_PLOIDY);
+
+        // hom-ref sites in several bands, with a deletion, a gap and a change of contig in between
+        final int[] GQs = {0, 5, 7, 15, 30, 99, 120, 45, 45, 3, 9, 9};
+        final int[] DPs = {10, 3, 40, 8, 8, 0, 25, 12, 7, 1, 30, 2};
+        final List<VariantContext> sites = new ArrayList<>();
+        for ( int i = 0; i < GQs.length; i++ ) {
+            final String contig = i < 9 ? CHR1 : CHR2;
+            final int start = i < 4 ? i + 1 : i + 5;
+            final VariantContextBuilder vcb = new VariantContextBuilder("HC", contig, start, start, ALLELES);
+            final GenotypeBuilder gb = new GenotypeBuilder(SAMPLE_NAME, Arrays.asList(REF, REF));
+            sites.add(vcb.genotypes(gb.GQ(GQs[i]).DP(DPs[i]).PL(new int[]{0, GQs[i], 2 * GQs[i] + i}).make()).make());
+            if ( i == 5 ) {
+                sites.add(makeDeletion(start + 1, 2));
+            }
+        }
+
+        for ( final VariantContext vc : sites ) {
+            vcWriter.add(vc);
+            final Genotype g = vc.getGenotype(0);
+            if ( vc.hasAlternateAllele(GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE) ) {
+                siteWriter.addReferenceConfidenceSite(SAMPLE_NAME, vc.getContig(), vc.getStart(), vc.getReference().getBases()[0],
+                        g.getPloidy(), g.getGQ(), g.getDP(), g.getPL());
+            } else {
+                siteWriter.add(vc);
+            }
+        }
+        vcWriter.close();
+        siteWriter.close();
+
+        Assert.assertEquals(siteMockWriter.emitted.size(), vcMockWriter.emitted.size());
+        for ( int i = 0; i < vcMockWriter.emitted.size(); i++ ) {
+            Assert.assertEquals(siteMockWriter.emitted.get(i).toStringDecodeGenotypes(), vcMockWriter.emitted.get(i).toStringDecodeGenotypes());
+        }
+    }
+
     @Test
     public void testNonContiguousBlocks() {
         final MockWriter mockWriter = new MockWriter();
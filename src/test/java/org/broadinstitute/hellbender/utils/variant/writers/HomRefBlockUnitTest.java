@@ -7,6 +7,7 @@ import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.HomoSapiensConstants;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -76,6 +77,33 @@ public class HomRefBlockUnitTest extends GATKBaseTest {
         Assert.assertEquals(band.getMinPLs(), new int[]{0, 10, 100});
     }
 
+    @Test
+    public void testMinMedianOfPrimitiveSites() {
+        final HomRefBlock band = new HomRefBlock("20", 1, REF, 10, 20, HomoSapiensConstants.DEFAULT_PLOIDY);
+        Assert.assertNull(band.getStartingVC());
+        Assert.assertEquals(band.getContig(), "20");
+        Assert.assertEquals(band.getStart(), 1);
+
+        // DPs below and far above the first one, and missing DPs, which count as 0
+        final int[] DPs = {30, 32, 30, 12, 100, -1, 31, 29};
+        final int[] expectedMinDPs = {30, 30, 30, 12, 12, 0, 0, 0};
+        final int[] expectedMedianDPs = {30, 31, 30, 30, 30, 30, 30, 30};
+        final int[] PLs = {0, 15, 100};
+        for ( int i = 0; i < DPs.length; i++ ) {
+            band.add(i + 1, 15, DPs[i], PLs);
+            assertValues(band, expectedMinDPs[i], expectedMedianDPs[i]);
+        }
+        Assert.assertEquals(band.getEnd(), DPs.length);
+        Assert.assertEquals(band.getMinPLs(), PLs);
+        Assert.assertNotSame(band.getMinPLs(), PLs);
+
+        final VariantContext vc = band.toVariantContext(SAMPLE_NAME);
+        Assert.assertEquals(vc.getStart(), 1);
+        Assert.assertEquals(vc.getEnd(), DPs.length);
+        Assert.assertEquals(vc.getAlleles(), Arrays.asList(REF, GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE));
+        Assert.assertEquals(vc.getGenotype(0).getDP(), 30);
+    }
+
     @DataProvider
     public static Object[][] badAdditions() {
         final VariantContext vc = getVariantContext();